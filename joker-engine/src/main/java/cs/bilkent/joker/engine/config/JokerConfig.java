@@ -48,7 +48,7 @@ public class JokerConfig
         this.partitionServiceConfig = new PartitionServiceConfig( engineConfig );
         this.flowDefOptimizerConfig = new FlowDefOptimizerConfig( engineConfig );
         this.pipelineManagerConfig = new PipelineManagerConfig( engineConfig );
-        this.regionManagerConfig = new RegionManagerConfig( engineConfig );
+        this.regionManagerConfig = new RegionManagerConfig( engineConfig, pipelineReplicaRunnerConfig );
         this.metricManagerConfig = new MetricManagerConfig( engineConfig );
         this.adaptationConfig = new AdaptationConfig( engineConfig );
     }
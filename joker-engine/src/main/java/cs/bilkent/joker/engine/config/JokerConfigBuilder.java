@@ -6,6 +6,7 @@ import java.util.Map.Entry;
 
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigUtil;
 
 import static cs.bilkent.joker.engine.config.AdaptationConfig.ADAPTATION_ENABLED;
 import static cs.bilkent.joker.engine.config.AdaptationConfig.CPU_UTILIZATION_BOTTLENECK_THRESHOLD;
@@ -33,13 +34,40 @@ import static cs.bilkent.joker.engine.config.MetricManagerConfig.WARMUP_ITERATIO
 import static cs.bilkent.joker.engine.config.PartitionServiceConfig.MAX_REPLICA_COUNT;
 import static cs.bilkent.joker.engine.config.PartitionServiceConfig.PARTITION_COUNT;
 import static cs.bilkent.joker.engine.config.PipelineManagerConfig.RUNNER_COMMAND_TIMEOUT;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.ASYNC_DOWNSTREAM_SENDING_ENABLED;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.COLUMNAR_INVOCATION_ENABLED;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.COMPILED_TUPLE_SCHEMAS_ENABLED;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.IDLE_STRATEGIES_BY_OPERATOR_ID;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.IDLE_STRATEGY;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.MAX_PENDING_DOWNSTREAM_TUPLE_COUNT;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.OPERATOR_FUSION_ENABLED;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.PARTIAL_DOWNSTREAM_SENDING_ENABLED;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.POOLED_SCHEDULING_ENABLED;
 import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.RUNNER_WAIT_TIMEOUT;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.SCHEDULER_MAX_INVOCATIONS_PER_RUN;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.SCHEDULER_WORKER_COUNT;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.THREAD_FACTORY_CLASS;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.TUPLE_POOL_CAPACITY;
+import static cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig.TUPLE_RECYCLING_ENABLED;
 import static cs.bilkent.joker.engine.config.RegionManagerConfig.PIPELINE_TAIL_OPERATOR_OUTPUT_SUPPLIER_CLASS;
+import static cs.bilkent.joker.engine.config.TupleQueueDrainerConfig.ADAPTIVE_BATCHING_ENABLED;
+import static cs.bilkent.joker.engine.config.TupleQueueDrainerConfig.ADAPTIVE_BATCHING_MAX_BATCH_SIZE;
+import static cs.bilkent.joker.engine.config.TupleQueueDrainerConfig.ADAPTIVE_BATCHING_TARGET_LATENCY_IN_MICROS;
 import static cs.bilkent.joker.engine.config.TupleQueueDrainerConfig.MAX_BATCH_SIZE;
 import static cs.bilkent.joker.engine.config.TupleQueueDrainerConfig.PARTITIONED_STATEFUL_PIPELINE_DRAINER_MAX_BATCH_SIZE;
+import static cs.bilkent.joker.engine.config.TupleQueueDrainerConfig.SIGNALLING_ENABLED;
+import static cs.bilkent.joker.engine.config.TupleQueueDrainerConfig.SIGNALLING_PARK_TIMEOUT_IN_MICROS;
 import static cs.bilkent.joker.engine.config.TupleQueueManagerConfig.MAX_DRAINABLE_KEY_COUNT;
+import static cs.bilkent.joker.engine.config.TupleQueueManagerConfig.MAX_TUPLE_QUEUE_CAPACITY;
+import static cs.bilkent.joker.engine.config.TupleQueueManagerConfig.OFF_HEAP_TUPLE_QUEUE_ENABLED;
+import static cs.bilkent.joker.engine.config.TupleQueueManagerConfig.OFF_HEAP_TUPLE_QUEUE_RECORD_SIZE;
 import static cs.bilkent.joker.engine.config.TupleQueueManagerConfig.PARTITIONED_TUPLE_QUEUE_DRAINER_HINT;
+import static cs.bilkent.joker.engine.config.TupleQueueManagerConfig.SPILL_DIRECTORY;
+import static cs.bilkent.joker.engine.config.TupleQueueManagerConfig.SPILL_SEGMENT_SIZE_IN_BYTES;
+import static cs.bilkent.joker.engine.config.TupleQueueManagerConfig.SPILL_TO_DISK_ENABLED;
 import static cs.bilkent.joker.engine.config.TupleQueueManagerConfig.TUPLE_QUEUE_CAPACITY;
+import static cs.bilkent.joker.engine.config.TupleQueueManagerConfig.TUPLE_QUEUE_MEMORY_BUDGET_IN_BYTES;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset;
 
 public class JokerConfigBuilder
 {
@@ -467,6 +495,153 @@ public class JokerConfigBuilder
             return this;
         }
 
+        public PipelineReplicaRunnerConfigBuilder enableTupleRecycling ()
+        {
+            pipelineReplicaRunnerConfigVals.put( TUPLE_RECYCLING_ENABLED, true );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder disableTupleRecycling ()
+        {
+            pipelineReplicaRunnerConfigVals.put( TUPLE_RECYCLING_ENABLED, false );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder setTuplePoolCapacity ( final int val )
+        {
+            pipelineReplicaRunnerConfigVals.put( TUPLE_POOL_CAPACITY, val );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder enableColumnarInvocation ()
+        {
+            pipelineReplicaRunnerConfigVals.put( COLUMNAR_INVOCATION_ENABLED, true );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder disableColumnarInvocation ()
+        {
+            pipelineReplicaRunnerConfigVals.put( COLUMNAR_INVOCATION_ENABLED, false );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder enableOperatorFusion ()
+        {
+            pipelineReplicaRunnerConfigVals.put( OPERATOR_FUSION_ENABLED, true );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder disableOperatorFusion ()
+        {
+            pipelineReplicaRunnerConfigVals.put( OPERATOR_FUSION_ENABLED, false );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder enableCompiledTupleSchemas ()
+        {
+            pipelineReplicaRunnerConfigVals.put( COMPILED_TUPLE_SCHEMAS_ENABLED, true );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder disableCompiledTupleSchemas ()
+        {
+            pipelineReplicaRunnerConfigVals.put( COMPILED_TUPLE_SCHEMAS_ENABLED, false );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder setIdleStrategy ( final IdleStrategyPreset val )
+        {
+            pipelineReplicaRunnerConfigVals.put( IDLE_STRATEGY, val.name() );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder setIdleStrategy ( final String operatorId, final IdleStrategyPreset val )
+        {
+            pipelineReplicaRunnerConfigVals.put( ConfigUtil.joinPath( IDLE_STRATEGIES_BY_OPERATOR_ID, operatorId ), val.name() );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder enablePooledScheduling ()
+        {
+            pipelineReplicaRunnerConfigVals.put( POOLED_SCHEDULING_ENABLED, true );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder disablePooledScheduling ()
+        {
+            pipelineReplicaRunnerConfigVals.put( POOLED_SCHEDULING_ENABLED, false );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder setSchedulerWorkerCount ( final int val )
+        {
+            pipelineReplicaRunnerConfigVals.put( SCHEDULER_WORKER_COUNT, val );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder setSchedulerMaxInvocationsPerRun ( final int val )
+        {
+            pipelineReplicaRunnerConfigVals.put( SCHEDULER_MAX_INVOCATIONS_PER_RUN, val );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder setThreadFactoryClass ( final String val )
+        {
+            pipelineReplicaRunnerConfigVals.put( THREAD_FACTORY_CLASS, val );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder enableAsyncDownstreamSending ()
+        {
+            pipelineReplicaRunnerConfigVals.put( ASYNC_DOWNSTREAM_SENDING_ENABLED, true );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder disableAsyncDownstreamSending ()
+        {
+            pipelineReplicaRunnerConfigVals.put( ASYNC_DOWNSTREAM_SENDING_ENABLED, false );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder enablePartialDownstreamSending ()
+        {
+            pipelineReplicaRunnerConfigVals.put( PARTIAL_DOWNSTREAM_SENDING_ENABLED, true );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder disablePartialDownstreamSending ()
+        {
+            pipelineReplicaRunnerConfigVals.put( PARTIAL_DOWNSTREAM_SENDING_ENABLED, false );
+
+            return this;
+        }
+
+        public PipelineReplicaRunnerConfigBuilder setMaxPendingDownstreamTupleCount ( final int val )
+        {
+            pipelineReplicaRunnerConfigVals.put( MAX_PENDING_DOWNSTREAM_TUPLE_COUNT, val );
+
+            return this;
+        }
+
     }
 
 
@@ -508,6 +683,55 @@ public class JokerConfigBuilder
             return this;
         }
 
+        public TupleQueueDrainerConfigBuilder enableSignalling ()
+        {
+            tupleQueueDrainerConfigVals.put( SIGNALLING_ENABLED, true );
+
+            return this;
+        }
+
+        public TupleQueueDrainerConfigBuilder disableSignalling ()
+        {
+            tupleQueueDrainerConfigVals.put( SIGNALLING_ENABLED, false );
+
+            return this;
+        }
+
+        public TupleQueueDrainerConfigBuilder setSignallingParkTimeoutInMicros ( final long val )
+        {
+            tupleQueueDrainerConfigVals.put( SIGNALLING_PARK_TIMEOUT_IN_MICROS, val );
+
+            return this;
+        }
+
+        public TupleQueueDrainerConfigBuilder enableAdaptiveBatching ()
+        {
+            tupleQueueDrainerConfigVals.put( ADAPTIVE_BATCHING_ENABLED, true );
+
+            return this;
+        }
+
+        public TupleQueueDrainerConfigBuilder disableAdaptiveBatching ()
+        {
+            tupleQueueDrainerConfigVals.put( ADAPTIVE_BATCHING_ENABLED, false );
+
+            return this;
+        }
+
+        public TupleQueueDrainerConfigBuilder setAdaptiveBatchingMaxBatchSize ( final int val )
+        {
+            tupleQueueDrainerConfigVals.put( ADAPTIVE_BATCHING_MAX_BATCH_SIZE, val );
+
+            return this;
+        }
+
+        public TupleQueueDrainerConfigBuilder setAdaptiveBatchingTargetLatencyInMicros ( final long val )
+        {
+            tupleQueueDrainerConfigVals.put( ADAPTIVE_BATCHING_TARGET_LATENCY_IN_MICROS, val );
+
+            return this;
+        }
+
     }
 
 
@@ -525,6 +749,13 @@ public class JokerConfigBuilder
             return this;
         }
 
+        public TupleQueueManagerConfigBuilder setMaxTupleQueueCapacity ( final int val )
+        {
+            tupleQueueManagerConfigVals.put( MAX_TUPLE_QUEUE_CAPACITY, val );
+
+            return this;
+        }
+
         public TupleQueueManagerConfigBuilder setMaxDrainableKeyCount ( final int val )
         {
             tupleQueueManagerConfigVals.put( MAX_DRAINABLE_KEY_COUNT, val );
@@ -539,6 +770,62 @@ public class JokerConfigBuilder
             return this;
         }
 
+        public TupleQueueManagerConfigBuilder enableOffHeapTupleQueue ()
+        {
+            tupleQueueManagerConfigVals.put( OFF_HEAP_TUPLE_QUEUE_ENABLED, true );
+
+            return this;
+        }
+
+        public TupleQueueManagerConfigBuilder disableOffHeapTupleQueue ()
+        {
+            tupleQueueManagerConfigVals.put( OFF_HEAP_TUPLE_QUEUE_ENABLED, false );
+
+            return this;
+        }
+
+        public TupleQueueManagerConfigBuilder setOffHeapTupleQueueRecordSize ( final int val )
+        {
+            tupleQueueManagerConfigVals.put( OFF_HEAP_TUPLE_QUEUE_RECORD_SIZE, val );
+
+            return this;
+        }
+
+        public TupleQueueManagerConfigBuilder setTupleQueueMemoryBudgetInBytes ( final long val )
+        {
+            tupleQueueManagerConfigVals.put( TUPLE_QUEUE_MEMORY_BUDGET_IN_BYTES, val );
+
+            return this;
+        }
+
+        public TupleQueueManagerConfigBuilder enableSpillToDisk ()
+        {
+            tupleQueueManagerConfigVals.put( SPILL_TO_DISK_ENABLED, true );
+
+            return this;
+        }
+
+        public TupleQueueManagerConfigBuilder disableSpillToDisk ()
+        {
+            tupleQueueManagerConfigVals.put( SPILL_TO_DISK_ENABLED, false );
+
+            return this;
+        }
+
+        public TupleQueueManagerConfigBuilder setSpillDirectory ( final String val )
+        {
+            tupleQueueManagerConfigVals.put( SPILL_DIRECTORY, val );
+
+            return this;
+        }
+
+        public TupleQueueManagerConfigBuilder setSpillSegmentSizeInBytes ( final int val )
+        {
+            tupleQueueManagerConfigVals.put( SPILL_SEGMENT_SIZE_IN_BYTES, val );
+
+            return this;
+        }
+
     }
 
 }
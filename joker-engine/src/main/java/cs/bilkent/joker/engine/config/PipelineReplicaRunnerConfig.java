@@ -1,21 +1,151 @@
 package cs.bilkent.joker.engine.config;
 
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValue;
+import cs.bilkent.joker.engine.pipeline.PipelineReplicaThreadFactory;
+import cs.bilkent.joker.engine.pipeline.impl.threadfactory.VirtualThreadFactory;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset;
+import static cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset.PARK;
+import static cs.bilkent.joker.impl.com.google.common.base.Preconditions.checkArgument;
+import static java.util.Collections.unmodifiableMap;
 
 public class PipelineReplicaRunnerConfig
 {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger( PipelineReplicaRunnerConfig.class );
+
     static final String CONFIG_NAME = "pipelineReplicaRunner";
 
     static final String RUNNER_WAIT_TIMEOUT = "runnerWaitTimeoutInMillis";
 
+    static final String TUPLE_RECYCLING_ENABLED = "tupleRecyclingEnabled";
+
+    static final String TUPLE_POOL_CAPACITY = "tuplePoolCapacity";
+
+    static final String COLUMNAR_INVOCATION_ENABLED = "columnarInvocationEnabled";
+
+    static final String OPERATOR_FUSION_ENABLED = "operatorFusionEnabled";
+
+    static final String COMPILED_TUPLE_SCHEMAS_ENABLED = "compiledTupleSchemasEnabled";
+
+    static final String IDLE_STRATEGY = "idleStrategy";
+
+    static final String IDLE_STRATEGIES_BY_OPERATOR_ID = "idleStrategiesByOperatorId";
+
+    static final String POOLED_SCHEDULING_ENABLED = "pooledSchedulingEnabled";
+
+    static final String SCHEDULER_WORKER_COUNT = "schedulerWorkerCount";
+
+    static final String SCHEDULER_MAX_INVOCATIONS_PER_RUN = "schedulerMaxInvocationsPerRun";
+
+    static final String THREAD_FACTORY_CLASS = "threadFactoryClass";
+
+    static final String ASYNC_DOWNSTREAM_SENDING_ENABLED = "asyncDownstreamSendingEnabled";
+
+    static final String PARTIAL_DOWNSTREAM_SENDING_ENABLED = "partialDownstreamSendingEnabled";
+
+    static final String MAX_PENDING_DOWNSTREAM_TUPLE_COUNT = "maxPendingDownstreamTupleCount";
+
 
     private final long runnerWaitTimeoutInMillis;
 
+    private final boolean tupleRecyclingEnabled;
+
+    private final int tuplePoolCapacity;
+
+    private final boolean columnarInvocationEnabled;
+
+    private final boolean operatorFusionEnabled;
+
+    private final boolean compiledTupleSchemasEnabled;
+
+    private final IdleStrategyPreset idleStrategy;
+
+    private final Map<String, IdleStrategyPreset> idleStrategiesByOperatorId;
+
+    private final boolean pooledSchedulingEnabled;
+
+    private final int schedulerWorkerCount;
+
+    private final int schedulerMaxInvocationsPerRun;
+
+    private final Class<PipelineReplicaThreadFactory> threadFactoryClass;
+
+    private final boolean asyncDownstreamSendingEnabled;
+
+    private final boolean partialDownstreamSendingEnabled;
+
+    private final int maxPendingDownstreamTupleCount;
+
     PipelineReplicaRunnerConfig ( final Config parentConfig )
     {
         final Config config = parentConfig.getConfig( CONFIG_NAME );
         this.runnerWaitTimeoutInMillis = config.getLong( RUNNER_WAIT_TIMEOUT );
+        this.tupleRecyclingEnabled = config.getBoolean( TUPLE_RECYCLING_ENABLED );
+        this.tuplePoolCapacity = config.getInt( TUPLE_POOL_CAPACITY );
+        this.columnarInvocationEnabled = config.getBoolean( COLUMNAR_INVOCATION_ENABLED );
+        this.operatorFusionEnabled = config.getBoolean( OPERATOR_FUSION_ENABLED );
+        this.compiledTupleSchemasEnabled = config.getBoolean( COMPILED_TUPLE_SCHEMAS_ENABLED );
+        this.idleStrategy = IdleStrategyPreset.valueOf( config.getString( IDLE_STRATEGY ) );
+        final Map<String, IdleStrategyPreset> idleStrategiesByOperatorId = new HashMap<>();
+        for ( Entry<String, ConfigValue> e : config.getObject( IDLE_STRATEGIES_BY_OPERATOR_ID ).entrySet() )
+        {
+            idleStrategiesByOperatorId.put( e.getKey(), IdleStrategyPreset.valueOf( (String) e.getValue().unwrapped() ) );
+        }
+        this.idleStrategiesByOperatorId = unmodifiableMap( idleStrategiesByOperatorId );
+        this.pooledSchedulingEnabled = config.getBoolean( POOLED_SCHEDULING_ENABLED );
+        final int schedulerWorkerCount = config.getInt( SCHEDULER_WORKER_COUNT );
+        this.schedulerWorkerCount = schedulerWorkerCount > 0 ? schedulerWorkerCount : Runtime.getRuntime().availableProcessors();
+        this.schedulerMaxInvocationsPerRun = config.getInt( SCHEDULER_MAX_INVOCATIONS_PER_RUN );
+        final String threadFactoryClassName = config.getString( THREAD_FACTORY_CLASS );
+        try
+        {
+            this.threadFactoryClass = (Class<PipelineReplicaThreadFactory>) Class.forName( threadFactoryClassName );
+        }
+        catch ( ClassNotFoundException e )
+        {
+            throw new RuntimeException( threadFactoryClassName + " not found!", e );
+        }
+        // waiting virtual threads release their carriers only while parking
+        final boolean parkingOnly = idleStrategy == PARK && idleStrategiesByOperatorId.values().stream().allMatch( s -> s == PARK );
+        checkArgument( parkingOnly || !VirtualThreadFactory.class.isAssignableFrom( threadFactoryClass ),
+                       "%s requires the %s idle strategy for all pipelines! idle strategy: %s, idle strategies by operator id: %s",
+                       threadFactoryClassName,
+                       PARK,
+                       idleStrategy,
+                       idleStrategiesByOperatorId );
+        final boolean asyncDownstreamSendingEnabled = config.getBoolean( ASYNC_DOWNSTREAM_SENDING_ENABLED );
+        // a worker thread of the scheduler must not block while waiting for an asynchronous sending
+        this.asyncDownstreamSendingEnabled = asyncDownstreamSendingEnabled && !tupleRecyclingEnabled && !pooledSchedulingEnabled;
+        if ( asyncDownstreamSendingEnabled && !this.asyncDownstreamSendingEnabled )
+        {
+            LOGGER.warn( "{} is ignored since {}: {}, {}: {}",
+                         ASYNC_DOWNSTREAM_SENDING_ENABLED,
+                         TUPLE_RECYCLING_ENABLED,
+                         tupleRecyclingEnabled,
+                         POOLED_SCHEDULING_ENABLED,
+                         pooledSchedulingEnabled );
+        }
+        final boolean partialDownstreamSendingEnabled = config.getBoolean( PARTIAL_DOWNSTREAM_SENDING_ENABLED );
+        this.partialDownstreamSendingEnabled = partialDownstreamSendingEnabled && !tupleRecyclingEnabled
+                                               && !this.asyncDownstreamSendingEnabled;
+        if ( partialDownstreamSendingEnabled && !this.partialDownstreamSendingEnabled )
+        {
+            LOGGER.warn( "{} is ignored since {}: {}, {}: {}",
+                         PARTIAL_DOWNSTREAM_SENDING_ENABLED,
+                         TUPLE_RECYCLING_ENABLED,
+                         tupleRecyclingEnabled,
+                         ASYNC_DOWNSTREAM_SENDING_ENABLED,
+                         this.asyncDownstreamSendingEnabled );
+        }
+        this.maxPendingDownstreamTupleCount = config.getInt( MAX_PENDING_DOWNSTREAM_TUPLE_COUNT );
     }
 
     public long getRunnerWaitTimeoutInMillis ()
@@ -23,10 +153,137 @@ public class PipelineReplicaRunnerConfig
         return runnerWaitTimeoutInMillis;
     }
 
+    public boolean isTupleRecyclingEnabled ()
+    {
+        return tupleRecyclingEnabled;
+    }
+
+    public int getTuplePoolCapacity ()
+    {
+        return tuplePoolCapacity;
+    }
+
+    public boolean isColumnarInvocationEnabled ()
+    {
+        return columnarInvocationEnabled;
+    }
+
+    /**
+     * Returns true if the stateless operators invoked whenever a tuple is available are invoked directly with the output of the previous
+     * operator in the pipeline, without passing the tuples through their queues
+     */
+    public boolean isOperatorFusionEnabled ()
+    {
+        return operatorFusionEnabled;
+    }
+
+    public boolean isCompiledTupleSchemasEnabled ()
+    {
+        return compiledTupleSchemasEnabled;
+    }
+
+    /**
+     * Returns the idle strategy used by the pipelines which do not start with an operator with a specific idle strategy
+     */
+    public IdleStrategyPreset getIdleStrategy ()
+    {
+        return idleStrategy;
+    }
+
+    /**
+     * Returns the idle strategy of the pipelines starting with the given operator
+     */
+    public IdleStrategyPreset getIdleStrategy ( final String operatorId )
+    {
+        return idleStrategiesByOperatorId.getOrDefault( operatorId, idleStrategy );
+    }
+
+    public Map<String, IdleStrategyPreset> getIdleStrategiesByOperatorId ()
+    {
+        return idleStrategiesByOperatorId;
+    }
+
+    /**
+     * Returns true if the pipeline replicas are run by the worker threads of a shared scheduler instead of a thread per replica
+     */
+    public boolean isPooledSchedulingEnabled ()
+    {
+        return pooledSchedulingEnabled;
+    }
+
+    /**
+     * Returns the number of worker threads of the scheduler, which is the number of available processors if it is not configured
+     */
+    public int getSchedulerWorkerCount ()
+    {
+        return schedulerWorkerCount;
+    }
+
+    /**
+     * Returns the maximum number of consecutive invocations of a pipeline replica before its worker thread switches to another one
+     */
+    public int getSchedulerMaxInvocationsPerRun ()
+    {
+        return schedulerMaxInvocationsPerRun;
+    }
+
+    public Class<PipelineReplicaThreadFactory> getThreadFactoryClass ()
+    {
+        return threadFactoryClass;
+    }
+
+    public PipelineReplicaThreadFactory newThreadFactoryInstance ()
+    {
+        try
+        {
+            return threadFactoryClass.getConstructor().newInstance();
+        }
+        catch ( NoSuchMethodException | IllegalAccessException | InstantiationException | InvocationTargetException e )
+        {
+            throw new RuntimeException( "cannot create instance of " + threadFactoryClass.getName(), e );
+        }
+    }
+
+    /**
+     * Returns true if the pipeline replicas hand their outputs off to sender threads and continue with their next invocations while
+     * the downstream tuple queues are offered. It is false if tuple recycling or pooled scheduling is enabled, even if it is configured.
+     */
+    public boolean isAsyncDownstreamSendingEnabled ()
+    {
+        return asyncDownstreamSendingEnabled;
+    }
+
+    /**
+     * Returns true if the pipeline replicas keep the tuples which cannot be sent to the full downstream tuple queues and continue with
+     * their next invocations, instead of waiting for the downstream. It is false if tuple recycling or asynchronous downstream sending
+     * is enabled, even if it is configured. The pipeline replicas run by the scheduler always send partially.
+     */
+    public boolean isPartialDownstreamSendingEnabled ()
+    {
+        return partialDownstreamSendingEnabled;
+    }
+
+    /**
+     * Returns the maximum number of tuples kept by a pipeline replica when partial downstream sending is enabled. The pipeline replica
+     * waits for the downstream once it exceeds this limit.
+     */
+    public int getMaxPendingDownstreamTupleCount ()
+    {
+        return maxPendingDownstreamTupleCount;
+    }
+
     @Override
     public String toString ()
     {
-        return "PipelineReplicaRunnerConfig{" + "runnerWaitTimeoutInMillis=" + runnerWaitTimeoutInMillis + '}';
+        return "PipelineReplicaRunnerConfig{" + "runnerWaitTimeoutInMillis=" + runnerWaitTimeoutInMillis + ", tupleRecyclingEnabled="
+               + tupleRecyclingEnabled + ", tuplePoolCapacity=" + tuplePoolCapacity + ", columnarInvocationEnabled="
+               + columnarInvocationEnabled + ", operatorFusionEnabled=" + operatorFusionEnabled + ", compiledTupleSchemasEnabled="
+               + compiledTupleSchemasEnabled + ", idleStrategy=" + idleStrategy
+               + ", idleStrategiesByOperatorId=" + idleStrategiesByOperatorId + ", pooledSchedulingEnabled=" + pooledSchedulingEnabled
+               + ", schedulerWorkerCount=" + schedulerWorkerCount + ", schedulerMaxInvocationsPerRun=" + schedulerMaxInvocationsPerRun
+               + ", threadFactoryClass=" + threadFactoryClass + ", asyncDownstreamSendingEnabled=" + asyncDownstreamSendingEnabled
+               + ", partialDownstreamSendingEnabled=" + partialDownstreamSendingEnabled + ", maxPendingDownstreamTupleCount="
+               + maxPendingDownstreamTupleCount + '}';
     }
 
 }
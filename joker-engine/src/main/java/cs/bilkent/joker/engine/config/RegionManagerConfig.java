@@ -6,6 +6,7 @@ import java.util.function.Supplier;
 
 import com.typesafe.config.Config;
 
+import cs.bilkent.joker.engine.pipeline.impl.tuplesupplier.DoubleBufferedTuplesImplSupplier;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
 
 public class RegionManagerConfig
@@ -18,10 +19,13 @@ public class RegionManagerConfig
 
     private Class<Supplier<TuplesImpl>> pipelineTailOperatorOutputSupplierClass;
 
-    RegionManagerConfig ( final Config parentConfig )
+    RegionManagerConfig ( final Config parentConfig, final PipelineReplicaRunnerConfig pipelineReplicaRunnerConfig )
     {
         final Config config = parentConfig.getConfig( CONFIG_NAME );
-        final String className = config.getString( PIPELINE_TAIL_OPERATOR_OUTPUT_SUPPLIER_CLASS );
+        // outputs of the last operators are kept until they are sent to the downstream, hence they must be double-buffered
+        final String className = pipelineReplicaRunnerConfig.isAsyncDownstreamSendingEnabled()
+                                 ? DoubleBufferedTuplesImplSupplier.class.getName()
+                                 : config.getString( PIPELINE_TAIL_OPERATOR_OUTPUT_SUPPLIER_CLASS );
         try
         {
 
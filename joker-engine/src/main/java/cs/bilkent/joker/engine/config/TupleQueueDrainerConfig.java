@@ -11,16 +11,41 @@ public class TupleQueueDrainerConfig
 
     static final String PARTITIONED_STATEFUL_PIPELINE_DRAINER_MAX_BATCH_SIZE = "partitionedStatefulPipelineDrainerMaxBatchSize";
 
+    static final String SIGNALLING_ENABLED = "signallingEnabled";
+
+    static final String SIGNALLING_PARK_TIMEOUT_IN_MICROS = "signallingParkTimeoutInMicros";
+
+    static final String ADAPTIVE_BATCHING_ENABLED = "adaptiveBatchingEnabled";
+
+    static final String ADAPTIVE_BATCHING_MAX_BATCH_SIZE = "adaptiveBatchingMaxBatchSize";
+
+    static final String ADAPTIVE_BATCHING_TARGET_LATENCY_IN_MICROS = "adaptiveBatchingTargetLatencyInMicros";
+
 
     private final int maxBatchSize;
 
     private final int partitionedStatefulPipelineDrainerMaxBatchSize;
 
+    private final boolean signallingEnabled;
+
+    private final long signallingParkTimeoutInMicros;
+
+    private final boolean adaptiveBatchingEnabled;
+
+    private final int adaptiveBatchingMaxBatchSize;
+
+    private final long adaptiveBatchingTargetLatencyInMicros;
+
     TupleQueueDrainerConfig ( final Config parentConfig )
     {
         final Config config = parentConfig.getConfig( CONFIG_NAME );
         this.maxBatchSize = config.getInt( MAX_BATCH_SIZE );
         this.partitionedStatefulPipelineDrainerMaxBatchSize = config.getInt( PARTITIONED_STATEFUL_PIPELINE_DRAINER_MAX_BATCH_SIZE );
+        this.signallingEnabled = config.getBoolean( SIGNALLING_ENABLED );
+        this.signallingParkTimeoutInMicros = config.getLong( SIGNALLING_PARK_TIMEOUT_IN_MICROS );
+        this.adaptiveBatchingEnabled = config.getBoolean( ADAPTIVE_BATCHING_ENABLED );
+        this.adaptiveBatchingMaxBatchSize = config.getInt( ADAPTIVE_BATCHING_MAX_BATCH_SIZE );
+        this.adaptiveBatchingTargetLatencyInMicros = config.getLong( ADAPTIVE_BATCHING_TARGET_LATENCY_IN_MICROS );
     }
 
     public int getMaxBatchSize ()
@@ -33,11 +58,42 @@ public class TupleQueueDrainerConfig
         return partitionedStatefulPipelineDrainerMaxBatchSize;
     }
 
+    public boolean isSignallingEnabled ()
+    {
+        return signallingEnabled;
+    }
+
+    public long getSignallingParkTimeoutInMicros ()
+    {
+        return signallingParkTimeoutInMicros;
+    }
+
+    /**
+     * Returns true if batch sizes and invocation counts of the operators are tuned at runtime, starting from {@link #getMaxBatchSize()}
+     */
+    public boolean isAdaptiveBatchingEnabled ()
+    {
+        return adaptiveBatchingEnabled;
+    }
+
+    public int getAdaptiveBatchingMaxBatchSize ()
+    {
+        return adaptiveBatchingMaxBatchSize;
+    }
+
+    public long getAdaptiveBatchingTargetLatencyInMicros ()
+    {
+        return adaptiveBatchingTargetLatencyInMicros;
+    }
+
     @Override
     public String toString ()
     {
         return "TupleQueueDrainerConfig{" + "maxBatchSize=" + maxBatchSize + ", partitionedStatefulPipelineDrainerMaxBatchSize="
-               + partitionedStatefulPipelineDrainerMaxBatchSize + '}';
+               + partitionedStatefulPipelineDrainerMaxBatchSize + ", signallingEnabled=" + signallingEnabled
+               + ", signallingParkTimeoutInMicros=" + signallingParkTimeoutInMicros + ", adaptiveBatchingEnabled=" + adaptiveBatchingEnabled
+               + ", adaptiveBatchingMaxBatchSize=" + adaptiveBatchingMaxBatchSize + ", adaptiveBatchingTargetLatencyInMicros="
+               + adaptiveBatchingTargetLatencyInMicros + '}';
     }
 
 }
@@ -1,6 +1,7 @@
 package cs.bilkent.joker.engine.config;
 
 import com.typesafe.config.Config;
+import static java.lang.Math.max;
 
 public class TupleQueueManagerConfig
 {
@@ -9,23 +10,59 @@ public class TupleQueueManagerConfig
 
     static final String TUPLE_QUEUE_CAPACITY = "tupleQueueCapacity";
 
+    static final String MAX_TUPLE_QUEUE_CAPACITY = "maxTupleQueueCapacity";
+
     static final String MAX_DRAINABLE_KEY_COUNT = "maxDrainableKeyCount";
 
     static final String PARTITIONED_TUPLE_QUEUE_DRAINER_HINT = "partitionedTupleQueueDrainHint";
 
+    static final String OFF_HEAP_TUPLE_QUEUE_ENABLED = "offHeapTupleQueueEnabled";
+
+    static final String OFF_HEAP_TUPLE_QUEUE_RECORD_SIZE = "offHeapTupleQueueRecordSize";
+
+    static final String TUPLE_QUEUE_MEMORY_BUDGET_IN_BYTES = "tupleQueueMemoryBudgetInBytes";
+
+    static final String SPILL_TO_DISK_ENABLED = "spillToDiskEnabled";
+
+    static final String SPILL_DIRECTORY = "spillDirectory";
+
+    static final String SPILL_SEGMENT_SIZE_IN_BYTES = "spillSegmentSizeInBytes";
+
 
     private final int tupleQueueCapacity;
 
+    private final int maxTupleQueueCapacity;
+
     private final int maxDrainableKeyCount;
 
     private final int partitionedTupleQueueDrainHint;
 
+    private final boolean offHeapTupleQueueEnabled;
+
+    private final int offHeapTupleQueueRecordSize;
+
+    private final long tupleQueueMemoryBudgetInBytes;
+
+    private final boolean spillToDiskEnabled;
+
+    private final String spillDirectory;
+
+    private final int spillSegmentSizeInBytes;
+
     TupleQueueManagerConfig ( final Config parentConfig )
     {
         final Config config = parentConfig.getConfig( CONFIG_NAME );
         this.tupleQueueCapacity = config.getInt( TUPLE_QUEUE_CAPACITY );
+        this.maxTupleQueueCapacity = max( config.getInt( MAX_TUPLE_QUEUE_CAPACITY ), tupleQueueCapacity );
         this.maxDrainableKeyCount = config.getInt( MAX_DRAINABLE_KEY_COUNT );
         this.partitionedTupleQueueDrainHint = config.getInt( PARTITIONED_TUPLE_QUEUE_DRAINER_HINT );
+        this.offHeapTupleQueueEnabled = config.getBoolean( OFF_HEAP_TUPLE_QUEUE_ENABLED );
+        this.offHeapTupleQueueRecordSize = config.getInt( OFF_HEAP_TUPLE_QUEUE_RECORD_SIZE );
+        this.tupleQueueMemoryBudgetInBytes = config.getLong( TUPLE_QUEUE_MEMORY_BUDGET_IN_BYTES );
+        this.spillToDiskEnabled = config.getBoolean( SPILL_TO_DISK_ENABLED );
+        final String spillDirectory = config.getString( SPILL_DIRECTORY );
+        this.spillDirectory = spillDirectory.isEmpty() ? System.getProperty( "java.io.tmpdir" ) : spillDirectory;
+        this.spillSegmentSizeInBytes = config.getInt( SPILL_SEGMENT_SIZE_IN_BYTES );
     }
 
     public int getTupleQueueCapacity ()
@@ -33,6 +70,11 @@ public class TupleQueueManagerConfig
         return tupleQueueCapacity;
     }
 
+    public int getMaxTupleQueueCapacity ()
+    {
+        return maxTupleQueueCapacity;
+    }
+
     public int getMaxDrainableKeyCount ()
     {
         return maxDrainableKeyCount;
@@ -43,11 +85,44 @@ public class TupleQueueManagerConfig
         return partitionedTupleQueueDrainHint;
     }
 
+    public boolean isOffHeapTupleQueueEnabled ()
+    {
+        return offHeapTupleQueueEnabled;
+    }
+
+    public int getOffHeapTupleQueueRecordSize ()
+    {
+        return offHeapTupleQueueRecordSize;
+    }
+
+    public long getTupleQueueMemoryBudgetInBytes ()
+    {
+        return tupleQueueMemoryBudgetInBytes;
+    }
+
+    public boolean isSpillToDiskEnabled ()
+    {
+        return spillToDiskEnabled;
+    }
+
+    public String getSpillDirectory ()
+    {
+        return spillDirectory;
+    }
+
+    public int getSpillSegmentSizeInBytes ()
+    {
+        return spillSegmentSizeInBytes;
+    }
+
     @Override
     public String toString ()
     {
-        return "TupleQueueManagerConfig{" + "tupleQueueCapacity=" + tupleQueueCapacity + ", maxDrainableKeyCount=" + maxDrainableKeyCount
-               + ", partitionedTupleQueueDrainHint=" + partitionedTupleQueueDrainHint + '}';
+        return "TupleQueueManagerConfig{" + "tupleQueueCapacity=" + tupleQueueCapacity + ", maxTupleQueueCapacity=" + maxTupleQueueCapacity
+               + ", maxDrainableKeyCount=" + maxDrainableKeyCount + ", partitionedTupleQueueDrainHint=" + partitionedTupleQueueDrainHint + ", offHeapTupleQueueEnabled="
+               + offHeapTupleQueueEnabled + ", offHeapTupleQueueRecordSize=" + offHeapTupleQueueRecordSize + ", tupleQueueMemoryBudgetInBytes="
+               + tupleQueueMemoryBudgetInBytes + ", spillToDiskEnabled=" + spillToDiskEnabled + ", spillDirectory='" + spillDirectory + '\''
+               + ", spillSegmentSizeInBytes=" + spillSegmentSizeInBytes + '}';
     }
 
 }
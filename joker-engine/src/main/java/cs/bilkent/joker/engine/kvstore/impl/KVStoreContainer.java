@@ -5,8 +5,10 @@ import java.util.Map;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import cs.bilkent.joker.engine.partition.PartitionKey;
+import cs.bilkent.joker.engine.partition.PrimitivePartitionKey;
 import cs.bilkent.joker.operator.impl.InMemoryKVStore;
 import cs.bilkent.joker.operator.kvstore.KVStore;
+import gnu.trove.map.hash.TLongObjectHashMap;
 
 @NotThreadSafe
 public class KVStoreContainer
@@ -16,6 +18,9 @@ public class KVStoreContainer
 
     private final Map<PartitionKey, KVStore> kvStores = new HashMap<>();
 
+    // kv stores of the primitive partition keys, which are looked up by the unboxed partition field values
+    private final TLongObjectHashMap<KVStore> primitiveKVStores = new TLongObjectHashMap<>();
+
 
     KVStoreContainer ( final int partitionId )
     {
@@ -29,18 +34,37 @@ public class KVStoreContainer
 
     public int getKeyCount ()
     {
-        return kvStores.size();
+        return kvStores.size() + primitiveKVStores.size();
     }
 
     KVStore getOrCreateKVStore ( final PartitionKey key )
     {
+        if ( key instanceof PrimitivePartitionKey )
+        {
+            final long primitiveKey = ( (PrimitivePartitionKey) key ).getPrimitiveValue();
+            KVStore kvStore = primitiveKVStores.get( primitiveKey );
+            if ( kvStore == null )
+            {
+                kvStore = new InMemoryKVStore();
+                primitiveKVStores.put( primitiveKey, kvStore );
+            }
+
+            return kvStore;
+        }
+
         return kvStores.computeIfAbsent( key, k -> new InMemoryKVStore() );
     }
 
     public void clear ()
     {
         kvStores.values().forEach( KVStore::clear );
+        primitiveKVStores.forEachValue( kvStore ->
+                                        {
+                                            kvStore.clear();
+                                            return true;
+                                        } );
 
         kvStores.clear();
+        primitiveKVStores.clear();
     }
 }
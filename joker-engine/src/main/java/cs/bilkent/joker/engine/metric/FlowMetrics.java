@@ -16,10 +16,15 @@ public class FlowMetrics
 
     private final Map<PipelineId, PipelineMetricsHistory> histories;
 
-    public FlowMetrics ( final int period, final Map<PipelineId, PipelineMetricsHistory> histories )
+    private final double tupleQueueMemoryBudgetUtilization;
+
+    public FlowMetrics ( final int period,
+                         final Map<PipelineId, PipelineMetricsHistory> histories,
+                         final double tupleQueueMemoryBudgetUtilization )
     {
         this.period = period;
         this.histories = new TreeMap<>( histories );
+        this.tupleQueueMemoryBudgetUtilization = tupleQueueMemoryBudgetUtilization;
     }
 
     public int getPeriod ()
@@ -27,6 +32,17 @@ public class FlowMetrics
         return period;
     }
 
+    /**
+     * Returns ratio of the estimated byte size of the tuples waiting in multi-threaded tuple queues to the tuple queue memory budget,
+     * or 0 if the budget is disabled. The ratio can be greater than 1 since the budget is soft.
+     *
+     * @return ratio of the estimated byte size of the tuples waiting in multi-threaded tuple queues to the tuple queue memory budget
+     */
+    public double getTupleQueueMemoryBudgetUtilization ()
+    {
+        return tupleQueueMemoryBudgetUtilization;
+    }
+
     public PipelineMetricsHistory getPipelineMetricsHistory ( final PipelineId pipelineId )
     {
         return histories.get( pipelineId );
@@ -59,7 +75,8 @@ public class FlowMetrics
     @Override
     public String toString ()
     {
-        return "FlowMetrics{" + "period=" + period + ", histories=" + histories + '}';
+        return "FlowMetrics{" + "period=" + period + ", tupleQueueMemoryBudgetUtilization=" + tupleQueueMemoryBudgetUtilization
+               + ", histories=" + histories + '}';
     }
 
 }
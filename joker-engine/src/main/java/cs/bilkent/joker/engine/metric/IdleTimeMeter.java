@@ -0,0 +1,55 @@
+package cs.bilkent.joker.engine.metric;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Singleton;
+
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset;
+import cs.bilkent.joker.engine.util.concurrent.MeteredIdleStrategy;
+
+/**
+ * Engine-wide counters of the time spent by the pipelines while idling, for each {@link IdleStrategyPreset}
+ */
+@Singleton
+@ThreadSafe
+public class IdleTimeMeter
+{
+
+    private final Map<IdleStrategyPreset, LongAdder> idleTimesInNanos = new EnumMap<>( IdleStrategyPreset.class );
+
+    public IdleTimeMeter ()
+    {
+        for ( IdleStrategyPreset preset : IdleStrategyPreset.values() )
+        {
+            idleTimesInNanos.put( preset, new LongAdder() );
+        }
+    }
+
+    /**
+     * Returns a new idle strategy of the given preset, which reports its idle time to this meter
+     *
+     * @param preset
+     *         preset of the idle strategy
+     *
+     * @return a new idle strategy of the given preset, which reports its idle time to this meter
+     */
+    public IdleStrategy newIdleStrategy ( final IdleStrategyPreset preset )
+    {
+        return new MeteredIdleStrategy( preset.newInstance(), idleTimesInNanos.get( preset ) );
+    }
+
+    public long getIdleTimeInNanos ( final IdleStrategyPreset preset )
+    {
+        return idleTimesInNanos.get( preset ).sum();
+    }
+
+    @Override
+    public String toString ()
+    {
+        return "IdleTimeMeter{" + "idleTimesInNanos=" + idleTimesInNanos + '}';
+    }
+
+}
@@ -97,7 +97,8 @@ public class PipelineMeter
 
         final ThreadInfo threadInfo = threadMXBean.getThreadInfo( threadIds[ replicaIndex ] );
 
-        if ( threadInfo.getThreadState() != State.RUNNABLE )
+        // the JVM does not report the states of virtual threads
+        if ( threadInfo != null && threadInfo.getThreadState() != State.RUNNABLE )
         {
             return NO_OPERATOR_INDEX;
         }
@@ -120,6 +121,14 @@ public class PipelineMeter
         }
     }
 
+    public void getDownstreamBlockedTimesInNanos ( final long[] downstreamBlockedTimesInNanos )
+    {
+        for ( int replicaIndex = 0; replicaIndex < replicaCount; replicaIndex++ )
+        {
+            downstreamBlockedTimesInNanos[ replicaIndex ] = pipelineReplicaMeters[ replicaIndex ].getDownstreamBlockedTimeInNanos();
+        }
+    }
+
     public void readInboundThroughput ( final int replicaIndex, final long[] inboundThroughput )
     {
         // happens-before
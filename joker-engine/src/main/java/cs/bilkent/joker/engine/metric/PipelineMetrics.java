@@ -32,6 +32,8 @@ public class PipelineMetrics
 
     private final double[] pipelineCosts;
 
+    private final double[] downstreamBlockedTimeRatios;
+
     public PipelineMetrics ( final PipelineId pipelineId,
                              final int flowVersion,
                              final int replicaCount,
@@ -47,6 +49,7 @@ public class PipelineMetrics
         this.inboundThroughputs = new long[ replicaCount ][ inputPortCount ];
         this.operatorCosts = new double[ replicaCount ][ operatorCount ];
         this.pipelineCosts = new double[ replicaCount ];
+        this.downstreamBlockedTimeRatios = new double[ replicaCount ];
     }
 
     PipelineMetrics ( final PipelineId pipelineId,
@@ -57,7 +60,8 @@ public class PipelineMetrics
                       final double[] cpuUtilizationRatios,
                       final long[][] inboundThroughputs,
                       final double[][] operatorCosts,
-                      final double[] pipelineCosts )
+                      final double[] pipelineCosts,
+                      final double[] downstreamBlockedTimeRatios )
     {
         this.pipelineId = pipelineId;
         this.flowVersion = flowVersion;
@@ -68,6 +72,7 @@ public class PipelineMetrics
         this.inboundThroughputs = inboundThroughputs;
         this.operatorCosts = operatorCosts;
         this.pipelineCosts = pipelineCosts;
+        this.downstreamBlockedTimeRatios = downstreamBlockedTimeRatios;
     }
 
     public PipelineId getPipelineId ()
@@ -147,6 +152,19 @@ public class PipelineMetrics
         return stream( cpuUtilizationRatios ).average().orElse( NaN );
     }
 
+    /**
+     * Returns the ratio of the time spent by the given replica while waiting for the full downstream tuple queues
+     */
+    public double getDownstreamBlockedTimeRatio ( final int replicaIndex )
+    {
+        return downstreamBlockedTimeRatios[ replicaIndex ];
+    }
+
+    public double getAvgDownstreamBlockedTimeRatio ()
+    {
+        return stream( downstreamBlockedTimeRatios ).average().orElse( NaN );
+    }
+
     public long[] getInboundThroughputs ( final int replicaIndex )
     {
         return inboundThroughputs[ replicaIndex ];
@@ -198,7 +216,8 @@ public class PipelineMetrics
     {
         return "PipelineMetrics{" + "pipelineId=" + pipelineId + ", flowVersion=" + flowVersion + ", cpuUtilizationRatios="
                + Arrays.toString( cpuUtilizationRatios ) + ", inboundThroughputs=" + Arrays.deepToString( inboundThroughputs )
-               + ", operatorCosts=" + Arrays.deepToString( operatorCosts ) + ", pipelineCosts=" + Arrays.toString( pipelineCosts ) + '}';
+               + ", operatorCosts=" + Arrays.deepToString( operatorCosts ) + ", pipelineCosts=" + Arrays.toString( pipelineCosts )
+               + ", downstreamBlockedTimeRatios=" + Arrays.toString( downstreamBlockedTimeRatios ) + '}';
     }
 
     public interface PipelineMetricsVisitor
@@ -255,6 +274,14 @@ public class PipelineMetrics
             return this;
         }
 
+        public PipelineMetricsBuilder setDownstreamBlockedTimeRatio ( final int replicaIndex, final double downstreamBlockedTimeRatio )
+        {
+            checkArgument( building );
+            snapshot.downstreamBlockedTimeRatios[ replicaIndex ] = min( downstreamBlockedTimeRatio, 1d );
+
+            return this;
+        }
+
         public PipelineMetricsBuilder setInboundThroughput ( final int replicaIndex, final int portIndex, final long throughput )
         {
             checkArgument( building );
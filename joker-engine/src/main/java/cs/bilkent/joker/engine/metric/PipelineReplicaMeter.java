@@ -1,6 +1,7 @@
 package cs.bilkent.joker.engine.metric;
 
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -24,6 +25,8 @@ public class PipelineReplicaMeter
 
     private final long[] inboundThroughput;
 
+    private final LongAdder downstreamBlockedTimeInNanos = new LongAdder();
+
     public PipelineReplicaMeter ( final long tickMask, final PipelineReplicaId pipelineReplicaId, final OperatorDef headOperatorDef )
     {
         this.ticker = new Ticker( tickMask );
@@ -71,6 +74,20 @@ public class PipelineReplicaMeter
         }
     }
 
+    /**
+     * Returns the counter of the time spent by the downstream tuple senders of the pipeline replica while waiting for the full
+     * downstream tuple queues, in nanoseconds
+     */
+    public LongAdder getDownstreamBlockedTimeCounter ()
+    {
+        return downstreamBlockedTimeInNanos;
+    }
+
+    public long getDownstreamBlockedTimeInNanos ()
+    {
+        return downstreamBlockedTimeInNanos.sum();
+    }
+
     public boolean isTicked ()
     {
         return ticker.isTicked();
@@ -89,6 +106,21 @@ public class PipelineReplicaMeter
         addTuples( operatorId, tuples );
     }
 
+    public void onInvocationStart ( final String operatorId, final int tupleCount )
+    {
+        checkNotNull( operatorId );
+
+        if ( ticker.isTicked() )
+        {
+            casOrFail( pipelineReplicaId, operatorId );
+        }
+
+        if ( headOperatorId.equals( operatorId ) )
+        {
+            inboundThroughput[ 0 ] += tupleCount;
+        }
+    }
+
     public void onInvocationComplete ( final String operatorId )
     {
         checkNotNull( operatorId );
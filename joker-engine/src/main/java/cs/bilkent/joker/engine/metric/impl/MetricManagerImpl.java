@@ -29,6 +29,7 @@ import javax.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.codahale.metrics.CsvReporter;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricFilter;
 import com.codahale.metrics.MetricRegistry;
@@ -43,11 +44,15 @@ import cs.bilkent.joker.engine.config.MetricManagerConfig;
 import cs.bilkent.joker.engine.exception.JokerException;
 import cs.bilkent.joker.engine.flow.PipelineId;
 import cs.bilkent.joker.engine.metric.FlowMetrics;
+import cs.bilkent.joker.engine.metric.IdleTimeMeter;
 import cs.bilkent.joker.engine.metric.MetricManager;
 import cs.bilkent.joker.engine.metric.PipelineMeter;
 import cs.bilkent.joker.engine.metric.PipelineMetrics;
 import cs.bilkent.joker.engine.metric.PipelineMetrics.PipelineMetricsVisitor;
 import cs.bilkent.joker.engine.metric.PipelineMetricsHistory;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueSpillMetrics;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset;
 import cs.bilkent.joker.utils.Pair;
 import static java.lang.Math.abs;
 import static java.util.Collections.addAll;
@@ -74,6 +79,12 @@ public class MetricManagerImpl implements MetricManager
 
     private final MetricManagerConfig metricManagerConfig;
 
+    private final TupleQueueMemoryBudget tupleQueueMemoryBudget;
+
+    private final TupleQueueSpillMetrics tupleQueueSpillMetrics;
+
+    private final IdleTimeMeter idleTimeMeter;
+
     private final MetricRegistry metricRegistry;
 
     private final ThreadMXBean threadMXBean;
@@ -112,9 +123,15 @@ public class MetricManagerImpl implements MetricManager
                                final ThreadMXBean threadMXBean,
                                final RuntimeMXBean runtimeMXBean,
                                final OperatingSystemMXBean osMXBean,
+                               final TupleQueueMemoryBudget tupleQueueMemoryBudget,
+                               final TupleQueueSpillMetrics tupleQueueSpillMetrics,
+                               final IdleTimeMeter idleTimeMeter,
                                @Named( JOKER_THREAD_GROUP_NAME ) final ThreadGroup threadGroup )
     {
         this.metricManagerConfig = jokerConfig.getMetricManagerConfig();
+        this.tupleQueueMemoryBudget = tupleQueueMemoryBudget;
+        this.tupleQueueSpillMetrics = tupleQueueSpillMetrics;
+        this.idleTimeMeter = idleTimeMeter;
         this.metricRegistry = metricRegistry;
         this.threadMXBean = threadMXBean;
         this.runtimeMXBean = runtimeMXBean;
@@ -284,6 +301,14 @@ public class MetricManagerImpl implements MetricManager
             };
             metricRegistry.register( pipelineCostMetricName, new PipelineGauge<>( pipelineId, pipelineCostGauge ) );
 
+            final String blockedMetricName = getMetricName( pipelineId, context.getFlowVersion(), replicaIndex, "blocked" );
+            final Supplier<Double> blockedGauge = () ->
+            {
+                final PipelineMetrics latest = getLatestPipelineMetrics( pipelineId, period );
+                return latest != null ? latest.getDownstreamBlockedTimeRatio( r ) : 0d;
+            };
+            metricRegistry.register( blockedMetricName, new PipelineGauge<>( pipelineId, blockedGauge ) );
+
             for ( int operatorIndex = 0; operatorIndex < pipelineMeter.getOperatorCount(); operatorIndex++ )
             {
                 final String operatorCostMetricName = getMetricName( pipelineId, context.getFlowVersion(),
@@ -551,7 +576,7 @@ public class MetricManagerImpl implements MetricManager
 
             if ( publish )
             {
-                flowMetrics = new FlowMetrics( getNewPeriod(), pipelineMetricsHistories );
+                flowMetrics = new FlowMetrics( getNewPeriod(), pipelineMetricsHistories, tupleQueueMemoryBudget.getUtilization() );
             }
         }
 
@@ -648,6 +673,13 @@ public class MetricManagerImpl implements MetricManager
 
             scanMetricsHistogram = metricRegistry.histogram( "scanMetrics" );
             scanOperatorsHistogram = metricRegistry.histogram( "scanOperators" );
+            metricRegistry.register( "tupleQueueSpilledBytes", (Gauge<Long>) tupleQueueSpillMetrics::getSpilledBytes );
+            metricRegistry.register( "tupleQueueSpillReplayLagInBytes", (Gauge<Long>) tupleQueueSpillMetrics::getReplayLagInBytes );
+            metricRegistry.register( "tupleQueueSpillReplayLagInTuples", (Gauge<Long>) tupleQueueSpillMetrics::getReplayLagInTuples );
+            for ( IdleStrategyPreset preset : IdleStrategyPreset.values() )
+            {
+                metricRegistry.register( "idleTimeInNanos." + preset, (Gauge<Long>) () -> idleTimeMeter.getIdleTimeInNanos( preset ) );
+            }
 
             LOGGER.info( "JVM: {}", runtimeMXBean.getVmName() );
             LOGGER.info( "JVM Version: {}", runtimeMXBean.getVmVersion() );
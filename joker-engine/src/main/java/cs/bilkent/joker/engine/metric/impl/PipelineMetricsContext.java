@@ -43,6 +43,9 @@ class PipelineMetricsContext
     // updated and read by metrics thread
     private final long[][] inboundThroughputs;
 
+    // updated and read by metrics thread
+    private final long[] downstreamBlockedTimesInNanos;
+
     // sample counts buffers can be updated in the sampling thread and read in the metrics thread.
     // this field is used to provide happens-before relationship among these two threads.
     private volatile int sampling;
@@ -57,6 +60,7 @@ class PipelineMetricsContext
         this.pipelineSampleCountsBuffer = new long[ pipelineMeter.getReplicaCount() ];
         this.threadCpuTimes = new long[ pipelineMeter.getReplicaCount() ];
         this.inboundThroughputs = new long[ pipelineMeter.getReplicaCount() ][ pipelineMeter.getInputPortCount() ];
+        this.downstreamBlockedTimesInNanos = new long[ pipelineMeter.getReplicaCount() ];
     }
 
     private PipelineMetricsBuilder newPipelineMetricsBuilder ()
@@ -86,6 +90,7 @@ class PipelineMetricsContext
         fill( this.pipelineSampleCountsBuffer, 0 );
 
         pipelineMeter.getThreadCpuTimes( threadMXBean, this.threadCpuTimes );
+        pipelineMeter.getDownstreamBlockedTimesInNanos( this.downstreamBlockedTimesInNanos );
 
         for ( int replicaIndex = 0; replicaIndex < pipelineMeter.getReplicaCount(); replicaIndex++ )
         {
@@ -122,6 +127,7 @@ class PipelineMetricsContext
         updateThreadUtilizationRatios( newReplicaCpuTimes, systemTimeDiff, builder );
         updateCosts( builder );
         updateThroughputs( builder );
+        updateDownstreamBlockedTimeRatios( systemTimeDiff, builder );
 
         return builder.build();
     }
@@ -142,6 +148,21 @@ class PipelineMetricsContext
         arraycopy( newReplicaCpuTimes, 0, this.threadCpuTimes, 0, replicaCount );
     }
 
+    private void updateDownstreamBlockedTimeRatios ( final long systemTimeDiff, final PipelineMetricsBuilder builder )
+    {
+        final int replicaCount = pipelineMeter.getReplicaCount();
+        final long[] newDownstreamBlockedTimes = new long[ replicaCount ];
+        pipelineMeter.getDownstreamBlockedTimesInNanos( newDownstreamBlockedTimes );
+
+        for ( int replicaIndex = 0; replicaIndex < replicaCount; replicaIndex++ )
+        {
+            final long blockedTimeDiff = newDownstreamBlockedTimes[ replicaIndex ] - this.downstreamBlockedTimesInNanos[ replicaIndex ];
+            builder.setDownstreamBlockedTimeRatio( replicaIndex, ( (double) max( 0, blockedTimeDiff ) ) / systemTimeDiff );
+        }
+
+        arraycopy( newDownstreamBlockedTimes, 0, this.downstreamBlockedTimesInNanos, 0, replicaCount );
+    }
+
     private void updateCosts ( final PipelineMetricsBuilder builder )
     {
         beforeSampleCountsRead();
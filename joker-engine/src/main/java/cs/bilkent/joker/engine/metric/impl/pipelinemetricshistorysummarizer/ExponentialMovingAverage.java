@@ -28,6 +28,7 @@ public class ExponentialMovingAverage implements PipelineMetricsHistorySummarize
 
         double cpuUtilRatio = p.get( 0 ).getAvgCpuUtilizationRatio();
         double pipelineCost = p.get( 0 ).getAvgPipelineCost();
+        double downstreamBlockedTimeRatio = p.get( 0 ).getAvgDownstreamBlockedTimeRatio();
         final double[] operatorCosts = new double[ history.getOperatorCount() ];
         final long[] throughputs = new long[ history.getInputPortCount() ];
 
@@ -47,6 +48,7 @@ public class ExponentialMovingAverage implements PipelineMetricsHistorySummarize
 
             cpuUtilRatio = ema( pipelineMetrics.getAvgCpuUtilizationRatio(), cpuUtilRatio );
             pipelineCost = ema( pipelineMetrics.getAvgPipelineCost(), pipelineCost );
+            downstreamBlockedTimeRatio = ema( pipelineMetrics.getAvgDownstreamBlockedTimeRatio(), downstreamBlockedTimeRatio );
 
             for ( int j = 0; j < history.getOperatorCount(); j++ )
             {
@@ -65,7 +67,9 @@ public class ExponentialMovingAverage implements PipelineMetricsHistorySummarize
                                                                            history.getOperatorCount(),
                                                                            history.getInputPortCount() );
 
-        builder.setCpuUtilizationRatio( 0, cpuUtilRatio ).setPipelineCost( 0, pipelineCost );
+        builder.setCpuUtilizationRatio( 0, cpuUtilRatio )
+               .setPipelineCost( 0, pipelineCost )
+               .setDownstreamBlockedTimeRatio( 0, downstreamBlockedTimeRatio );
 
         for ( int i = 0; i < history.getOperatorCount(); i++ )
         {
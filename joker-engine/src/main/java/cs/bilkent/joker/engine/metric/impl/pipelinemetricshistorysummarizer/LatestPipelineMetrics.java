@@ -23,7 +23,8 @@ public class LatestPipelineMetrics implements PipelineMetricsHistorySummarizer
                                                                            latestSnapshot.getInputPortCount() );
 
         builder.setCpuUtilizationRatio( 0, latestSnapshot.getAvgCpuUtilizationRatio() )
-               .setPipelineCost( 0, latestSnapshot.getAvgPipelineCost() );
+               .setPipelineCost( 0, latestSnapshot.getAvgPipelineCost() )
+               .setDownstreamBlockedTimeRatio( 0, latestSnapshot.getAvgDownstreamBlockedTimeRatio() );
 
         for ( int operatorIndex = 0; operatorIndex < latestSnapshot.getOperatorCount(); operatorIndex++ )
         {
@@ -17,6 +17,7 @@ public class SimpleMovingAverage implements PipelineMetricsHistorySummarizer
     {
         double cpuUtilRatio = 0;
         double pipelineCost = 0;
+        double downstreamBlockedTimeRatio = 0;
         final double[] operatorCosts = new double[ history.getOperatorCount() ];
         final long[] throughputs = new long[ history.getInputPortCount() ];
 
@@ -24,6 +25,7 @@ public class SimpleMovingAverage implements PipelineMetricsHistorySummarizer
         {
             cpuUtilRatio += metrics.getAvgCpuUtilizationRatio();
             pipelineCost += metrics.getAvgPipelineCost();
+            downstreamBlockedTimeRatio += metrics.getAvgDownstreamBlockedTimeRatio();
 
             for ( int i = 0; i < history.getOperatorCount(); i++ )
             {
@@ -44,7 +46,9 @@ public class SimpleMovingAverage implements PipelineMetricsHistorySummarizer
                                                                            history.getOperatorCount(),
                                                                            history.getInputPortCount() );
 
-        builder.setCpuUtilizationRatio( 0, cpuUtilRatio / historySize ).setPipelineCost( 0, pipelineCost / historySize );
+        builder.setCpuUtilizationRatio( 0, cpuUtilRatio / historySize )
+               .setPipelineCost( 0, pipelineCost / historySize )
+               .setDownstreamBlockedTimeRatio( 0, downstreamBlockedTimeRatio / historySize );
 
         for ( int i = 0; i < history.getOperatorCount(); i++ )
         {
@@ -2,6 +2,8 @@ package cs.bilkent.joker.engine.partition;
 
 import java.util.List;
 
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
+
 public interface PartitionKeyExtractorFactory
 {
 
@@ -12,4 +14,24 @@ public interface PartitionKeyExtractorFactory
 
     PartitionKeyExtractor createPartitionKeyExtractor ( List<String> partitionFieldNames, int forwardKeyLimit );
 
+    /**
+     * Returns a {@link PartitionKeyExtractor} which can be specialized for types of the partition fields in the given schema. Partition
+     * hashes of the returned extractor are same with the one created without the schema.
+     *
+     * @param partitionFieldNames
+     *         names of the partition fields
+     * @param forwardKeyLimit
+     *         number of the partition fields used for computing partition hashes
+     * @param schema
+     *         schema containing the partition fields
+     *
+     * @return a {@link PartitionKeyExtractor} which can be specialized for types of the partition fields in the given schema
+     */
+    default PartitionKeyExtractor createPartitionKeyExtractor ( List<String> partitionFieldNames,
+                                                               int forwardKeyLimit,
+                                                               TupleSchema schema )
+    {
+        return createPartitionKeyExtractor( partitionFieldNames, forwardKeyLimit );
+    }
+
 }
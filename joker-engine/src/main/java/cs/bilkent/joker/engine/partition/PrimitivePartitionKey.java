@@ -0,0 +1,16 @@
+package cs.bilkent.joker.engine.partition;
+
+/**
+ * {@link PartitionKey} of a single {@code long} or {@code int} partition field, which is kept unboxed
+ */
+public interface PrimitivePartitionKey extends PartitionKey
+{
+
+    /**
+     * Returns value of the partition field, widened to {@code long}
+     *
+     * @return value of the partition field, widened to {@code long}
+     */
+    long getPrimitiveValue ();
+
+}
@@ -0,0 +1,54 @@
+package cs.bilkent.joker.engine.partition;
+
+import cs.bilkent.joker.operator.Tuple;
+
+/**
+ * {@link PartitionKeyExtractor} of a single {@code long} or {@code int} partition field. Partition field values can be read and hashed
+ * without allocating {@link PartitionKey} objects, which can be built later on demand. Partition hashes are same with the ones
+ * computed by the generic extractors for the boxed values of the field.
+ */
+public interface PrimitivePartitionKeyExtractor extends PartitionKeyExtractor
+{
+
+    /**
+     * Returns true if value of the partition field is kept unboxed in the given tuple with the type of the extractor
+     *
+     * @param tuple
+     *         tuple to check the partition field
+     *
+     * @return true if value of the partition field is kept unboxed in the given tuple with the type of the extractor
+     */
+    boolean hasPrimitiveKey ( Tuple tuple );
+
+    /**
+     * Returns value of the partition field in the given tuple, widened to {@code long}. It must be called only if
+     * {@link #hasPrimitiveKey(Tuple)} returns true for the tuple.
+     *
+     * @param tuple
+     *         tuple to read the partition field
+     *
+     * @return value of the partition field in the given tuple, widened to {@code long}
+     */
+    long getPrimitiveKey ( Tuple tuple );
+
+    /**
+     * Returns partition hash of the given partition field value
+     *
+     * @param primitiveKey
+     *         value of the partition field
+     *
+     * @return partition hash of the given partition field value
+     */
+    int getPartitionHash ( long primitiveKey );
+
+    /**
+     * Returns the partition key of the given partition field value
+     *
+     * @param primitiveKey
+     *         value of the partition field
+     *
+     * @return the partition key of the given partition field value
+     */
+    PrimitivePartitionKey getPartitionKey ( long primitiveKey );
+
+}
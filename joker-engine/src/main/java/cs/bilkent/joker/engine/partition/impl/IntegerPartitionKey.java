@@ -0,0 +1,86 @@
+package cs.bilkent.joker.engine.partition.impl;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import cs.bilkent.joker.engine.partition.PrimitivePartitionKey;
+
+/**
+ * {@link PrimitivePartitionKey} of a single {@link Integer} partition field. It is equal to the other {@link List} implementations of
+ * {@link cs.bilkent.joker.engine.partition.PartitionKey} containing the same boxed value, and has the same hash code with them.
+ */
+public class IntegerPartitionKey extends AbstractList<Object> implements PrimitivePartitionKey
+{
+
+    private final int value;
+
+    private final int hashCode;
+
+    public IntegerPartitionKey ( final int value )
+    {
+        this.value = value;
+        this.hashCode = computeHashCode( value );
+    }
+
+    @Override
+    public long getPrimitiveValue ()
+    {
+        return value;
+    }
+
+    @Override
+    public int partitionHashCode ()
+    {
+        return hashCode;
+    }
+
+    @Override
+    public Object get ( final int index )
+    {
+        if ( index == 0 )
+        {
+            return value;
+        }
+
+        throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + 1 );
+    }
+
+    @Override
+    public int size ()
+    {
+        return 1;
+    }
+
+    @Override
+    public boolean equals ( final Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null )
+        {
+            return false;
+        }
+        if ( getClass() != o.getClass() )
+        {
+            return o instanceof List && super.equals( o );
+        }
+
+        final IntegerPartitionKey that = (IntegerPartitionKey) o;
+        return value == that.value;
+    }
+
+    @Override
+    public int hashCode ()
+    {
+        return hashCode;
+    }
+
+    // same with PartitionKey1.computeHashCode() of the boxed value
+    static int computeHashCode ( final int value )
+    {
+        return 31 + value;
+    }
+
+}
@@ -0,0 +1,71 @@
+package cs.bilkent.joker.engine.partition.impl;
+
+import java.util.List;
+
+import cs.bilkent.joker.engine.partition.PartitionKey;
+import cs.bilkent.joker.engine.partition.PrimitivePartitionKey;
+import cs.bilkent.joker.engine.partition.PrimitivePartitionKeyExtractor;
+import static cs.bilkent.joker.engine.partition.impl.IntegerPartitionKey.computeHashCode;
+import cs.bilkent.joker.operator.FieldAccessor;
+import cs.bilkent.joker.operator.Tuple;
+
+/**
+ * {@link PrimitivePartitionKeyExtractor} of a single {@link Integer} partition field. Partition keys of the {@link Integer} values are
+ * {@link IntegerPartitionKey} objects. Since values of the schema fields are not type-checked on the key-based writes, values of other
+ * types are partitioned same with {@link PartitionKeyExtractor1}.
+ */
+public class IntegerPartitionKeyExtractor implements PrimitivePartitionKeyExtractor
+{
+
+    private final FieldAccessor fieldAccessor;
+
+    public IntegerPartitionKeyExtractor ( final List<String> partitionFieldNames )
+    {
+        this.fieldAccessor = new FieldAccessor( partitionFieldNames.get( 0 ) );
+    }
+
+    @Override
+    public PartitionKey getPartitionKey ( final Tuple tuple )
+    {
+        if ( hasPrimitiveKey( tuple ) )
+        {
+            return new IntegerPartitionKey( fieldAccessor.getIntegerValueOrDefault( tuple, 0 ) );
+        }
+
+        final Object value = fieldAccessor.get( tuple );
+        return value instanceof Integer ? new IntegerPartitionKey( (Integer) value ) : new PartitionKey1( value );
+    }
+
+    @Override
+    public int getPartitionHash ( final Tuple tuple )
+    {
+        return hasPrimitiveKey( tuple )
+               ? computeHashCode( fieldAccessor.getIntegerValueOrDefault( tuple, 0 ) )
+               : PartitionKey1.computeHashCode( fieldAccessor.get( tuple ) );
+    }
+
+    @Override
+    public boolean hasPrimitiveKey ( final Tuple tuple )
+    {
+        return fieldAccessor.getPrimitiveValueType( tuple ) == Integer.class;
+    }
+
+    @Override
+    public long getPrimitiveKey ( final Tuple tuple )
+    {
+        return fieldAccessor.getIntegerValueOrDefault( tuple, 0 );
+    }
+
+    @Override
+    public int getPartitionHash ( final long primitiveKey )
+    {
+        return computeHashCode( (int) primitiveKey );
+    }
+
+    @Override
+    public PrimitivePartitionKey getPartitionKey ( final long primitiveKey )
+    {
+        return new IntegerPartitionKey( (int) primitiveKey );
+    }
+
+}
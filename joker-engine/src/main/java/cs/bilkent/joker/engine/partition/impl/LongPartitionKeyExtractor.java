@@ -0,0 +1,71 @@
+package cs.bilkent.joker.engine.partition.impl;
+
+import java.util.List;
+
+import cs.bilkent.joker.engine.partition.PartitionKey;
+import cs.bilkent.joker.engine.partition.PrimitivePartitionKey;
+import cs.bilkent.joker.engine.partition.PrimitivePartitionKeyExtractor;
+import static cs.bilkent.joker.engine.partition.impl.LongPartitionKey.computeHashCode;
+import cs.bilkent.joker.operator.FieldAccessor;
+import cs.bilkent.joker.operator.Tuple;
+
+/**
+ * {@link PrimitivePartitionKeyExtractor} of a single {@link Long} partition field. Partition keys of the {@link Long} values are
+ * {@link LongPartitionKey} objects. Since values of the schema fields are not type-checked on the key-based writes, values of other
+ * types are partitioned same with {@link PartitionKeyExtractor1}.
+ */
+public class LongPartitionKeyExtractor implements PrimitivePartitionKeyExtractor
+{
+
+    private final FieldAccessor fieldAccessor;
+
+    public LongPartitionKeyExtractor ( final List<String> partitionFieldNames )
+    {
+        this.fieldAccessor = new FieldAccessor( partitionFieldNames.get( 0 ) );
+    }
+
+    @Override
+    public PartitionKey getPartitionKey ( final Tuple tuple )
+    {
+        if ( hasPrimitiveKey( tuple ) )
+        {
+            return new LongPartitionKey( fieldAccessor.getLongValueOrDefault( tuple, 0 ) );
+        }
+
+        final Object value = fieldAccessor.get( tuple );
+        return value instanceof Long ? new LongPartitionKey( (Long) value ) : new PartitionKey1( value );
+    }
+
+    @Override
+    public int getPartitionHash ( final Tuple tuple )
+    {
+        return hasPrimitiveKey( tuple )
+               ? computeHashCode( fieldAccessor.getLongValueOrDefault( tuple, 0 ) )
+               : PartitionKey1.computeHashCode( fieldAccessor.get( tuple ) );
+    }
+
+    @Override
+    public boolean hasPrimitiveKey ( final Tuple tuple )
+    {
+        return fieldAccessor.getPrimitiveValueType( tuple ) == Long.class;
+    }
+
+    @Override
+    public long getPrimitiveKey ( final Tuple tuple )
+    {
+        return fieldAccessor.getLongValueOrDefault( tuple, 0 );
+    }
+
+    @Override
+    public int getPartitionHash ( final long primitiveKey )
+    {
+        return computeHashCode( primitiveKey );
+    }
+
+    @Override
+    public PrimitivePartitionKey getPartitionKey ( final long primitiveKey )
+    {
+        return new LongPartitionKey( primitiveKey );
+    }
+
+}
@@ -5,31 +5,32 @@ import java.util.List;
 import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKey2.computeHashCode;
+import cs.bilkent.joker.operator.FieldAccessor;
 import cs.bilkent.joker.operator.Tuple;
 
 public class PartitionKeyExtractor2 implements PartitionKeyExtractor
 {
 
-    private final String fieldName0;
+    private final FieldAccessor fieldAccessor0;
 
-    private final String fieldName1;
+    private final FieldAccessor fieldAccessor1;
 
     PartitionKeyExtractor2 ( final List<String> partitionFieldNames )
     {
-        this.fieldName0 = partitionFieldNames.get( 0 );
-        this.fieldName1 = partitionFieldNames.get( 1 );
+        this.fieldAccessor0 = new FieldAccessor( partitionFieldNames.get( 0 ) );
+        this.fieldAccessor1 = new FieldAccessor( partitionFieldNames.get( 1 ) );
     }
 
     @Override
     public PartitionKey getPartitionKey ( final Tuple tuple )
     {
-        return new PartitionKey2( tuple.getObject( fieldName0 ), tuple.getObject( fieldName1 ) );
+        return new PartitionKey2( fieldAccessor0.get( tuple ), fieldAccessor1.get( tuple ) );
     }
 
     @Override
     public int getPartitionHash ( final Tuple tuple )
     {
-        return computeHashCode( tuple.getObject( fieldName0 ), tuple.getObject( fieldName1 ) );
+        return computeHashCode( fieldAccessor0.get( tuple ), fieldAccessor1.get( tuple ) );
     }
 
 }
@@ -5,34 +5,35 @@ import java.util.List;
 import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKey3Fwd2.computePartitionHashCode;
+import cs.bilkent.joker.operator.FieldAccessor;
 import cs.bilkent.joker.operator.Tuple;
 
 public class PartitionKeyExtractor3Fwd2 implements PartitionKeyExtractor
 {
 
-    private final String fieldName0;
+    private final FieldAccessor fieldAccessor0;
 
-    private final String fieldName1;
+    private final FieldAccessor fieldAccessor1;
 
-    private final String fieldName2;
+    private final FieldAccessor fieldAccessor2;
 
     PartitionKeyExtractor3Fwd2 ( final List<String> partitionFieldNames )
     {
-        this.fieldName0 = partitionFieldNames.get( 0 );
-        this.fieldName1 = partitionFieldNames.get( 1 );
-        this.fieldName2 = partitionFieldNames.get( 2 );
+        this.fieldAccessor0 = new FieldAccessor( partitionFieldNames.get( 0 ) );
+        this.fieldAccessor1 = new FieldAccessor( partitionFieldNames.get( 1 ) );
+        this.fieldAccessor2 = new FieldAccessor( partitionFieldNames.get( 2 ) );
     }
 
     @Override
     public PartitionKey getPartitionKey ( final Tuple tuple )
     {
-        return new PartitionKey3Fwd2( tuple.getObject( fieldName0 ), tuple.getObject( fieldName1 ), tuple.getObject( fieldName2 ) );
+        return new PartitionKey3Fwd2( fieldAccessor0.get( tuple ), fieldAccessor1.get( tuple ), fieldAccessor2.get( tuple ) );
     }
 
     @Override
     public int getPartitionHash ( final Tuple tuple )
     {
-        return computePartitionHashCode( tuple.getObject( fieldName0 ), tuple.getObject( fieldName1 ) );
+        return computePartitionHashCode( fieldAccessor0.get( tuple ), fieldAccessor1.get( tuple ) );
     }
 
 }
@@ -6,6 +6,8 @@ import java.util.function.Function;
 import static com.google.common.base.Preconditions.checkArgument;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractorFactory;
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
+import static cs.bilkent.joker.operator.schema.runtime.TupleSchema.FIELD_NOT_FOUND;
 import static java.lang.Math.min;
 
 public class PartitionKeyExtractorFactoryImpl implements PartitionKeyExtractorFactory
@@ -64,4 +66,26 @@ public class PartitionKeyExtractorFactoryImpl implements PartitionKeyExtractorFa
         return new PartitionKeyExtractorNFwdM( partitionFieldNames, forwardKeyLimit );
     }
 
+    @Override
+    public PartitionKeyExtractor createPartitionKeyExtractor ( final List<String> partitionFieldNames,
+                                                               final int forwardKeyLimit,
+                                                               final TupleSchema schema )
+    {
+        if ( schema != null && partitionFieldNames.size() == 1 )
+        {
+            final int fieldIndex = schema.getFieldIndex( partitionFieldNames.get( 0 ) );
+            final Class<?> type = fieldIndex != FIELD_NOT_FOUND ? schema.getPrimitiveFieldType( fieldIndex ) : null;
+            if ( type == Long.class )
+            {
+                return new LongPartitionKeyExtractor( partitionFieldNames );
+            }
+            else if ( type == Integer.class )
+            {
+                return new IntegerPartitionKeyExtractor( partitionFieldNames );
+            }
+        }
+
+        return createPartitionKeyExtractor( partitionFieldNames, forwardKeyLimit );
+    }
+
 }
@@ -5,28 +5,30 @@ import java.util.List;
 import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyN.computeHashCode;
+import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.toFieldAccessors;
+import cs.bilkent.joker.operator.FieldAccessor;
 import cs.bilkent.joker.operator.Tuple;
 
 public class PartitionKeyExtractorN implements PartitionKeyExtractor
 {
 
-    private final List<String> partitionFieldNames;
+    private final FieldAccessor[] fieldAccessors;
 
     PartitionKeyExtractorN ( final List<String> partitionFieldNames )
     {
-        this.partitionFieldNames = partitionFieldNames;
+        this.fieldAccessors = toFieldAccessors( partitionFieldNames );
     }
 
     @Override
     public PartitionKey getPartitionKey ( final Tuple tuple )
     {
-        return new PartitionKeyN( tuple, partitionFieldNames );
+        return new PartitionKeyN( tuple, fieldAccessors );
     }
 
     @Override
     public int getPartitionHash ( final Tuple tuple )
     {
-        return computeHashCode( tuple, partitionFieldNames );
+        return computeHashCode( tuple, fieldAccessors );
     }
 
 }
@@ -5,31 +5,33 @@ import java.util.List;
 import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyNFwd1.computePartitionHash;
+import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.toFieldAccessors;
+import cs.bilkent.joker.operator.FieldAccessor;
 import cs.bilkent.joker.operator.Tuple;
 
 public class PartitionKeyExtractorNFwd1 implements PartitionKeyExtractor
 {
 
-    private final List<String> partitionFieldNames;
+    private final FieldAccessor[] fieldAccessors;
 
-    private final String field0;
+    private final FieldAccessor fieldAccessor0;
 
     PartitionKeyExtractorNFwd1 ( final List<String> partitionFieldNames )
     {
-        this.partitionFieldNames = partitionFieldNames;
-        this.field0 = partitionFieldNames.get( 0 );
+        this.fieldAccessors = toFieldAccessors( partitionFieldNames );
+        this.fieldAccessor0 = fieldAccessors[ 0 ];
     }
 
     @Override
     public PartitionKey getPartitionKey ( final Tuple tuple )
     {
-        return new PartitionKeyNFwd1( tuple, partitionFieldNames );
+        return new PartitionKeyNFwd1( tuple, fieldAccessors );
     }
 
     @Override
     public int getPartitionHash ( final Tuple tuple )
     {
-        return computePartitionHash( tuple.get( field0 ) );
+        return computePartitionHash( fieldAccessor0.get( tuple ) );
     }
 
 }
@@ -5,34 +5,36 @@ import java.util.List;
 import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyNFwd2.computePartitionHash;
+import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.toFieldAccessors;
+import cs.bilkent.joker.operator.FieldAccessor;
 import cs.bilkent.joker.operator.Tuple;
 
 public class PartitionKeyExtractorNFwd2 implements PartitionKeyExtractor
 {
 
-    private final List<String> partitionFieldNames;
+    private final FieldAccessor[] fieldAccessors;
 
-    private final String field0;
+    private final FieldAccessor fieldAccessor0;
 
-    private final String field1;
+    private final FieldAccessor fieldAccessor1;
 
     PartitionKeyExtractorNFwd2 ( final List<String> partitionFieldNames )
     {
-        this.partitionFieldNames = partitionFieldNames;
-        this.field0 = partitionFieldNames.get( 0 );
-        this.field1 = partitionFieldNames.get( 1 );
+        this.fieldAccessors = toFieldAccessors( partitionFieldNames );
+        this.fieldAccessor0 = fieldAccessors[ 0 ];
+        this.fieldAccessor1 = fieldAccessors[ 1 ];
     }
 
     @Override
     public PartitionKey getPartitionKey ( final Tuple tuple )
     {
-        return new PartitionKeyNFwd2( tuple, partitionFieldNames );
+        return new PartitionKeyNFwd2( tuple, fieldAccessors );
     }
 
     @Override
     public int getPartitionHash ( final Tuple tuple )
     {
-        return computePartitionHash( tuple.get( field0 ), tuple.get( field1 ) );
+        return computePartitionHash( fieldAccessor0.get( tuple ), fieldAccessor1.get( tuple ) );
     }
 
 }
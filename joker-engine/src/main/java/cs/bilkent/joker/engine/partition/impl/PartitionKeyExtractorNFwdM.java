@@ -5,31 +5,33 @@ import java.util.List;
 import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyNFwdM.computePartitionHash;
+import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.toFieldAccessors;
+import cs.bilkent.joker.operator.FieldAccessor;
 import cs.bilkent.joker.operator.Tuple;
 
 public class PartitionKeyExtractorNFwdM implements PartitionKeyExtractor
 {
 
-    private final List<String> partitionFieldNames;
+    private final FieldAccessor[] fieldAccessors;
 
     private final int forwardKeyLimit;
 
     PartitionKeyExtractorNFwdM ( final List<String> partitionFieldNames, final int forwardKeyLimit )
     {
-        this.partitionFieldNames = partitionFieldNames;
+        this.fieldAccessors = toFieldAccessors( partitionFieldNames );
         this.forwardKeyLimit = forwardKeyLimit;
     }
 
     @Override
     public PartitionKey getPartitionKey ( final Tuple tuple )
     {
-        return new PartitionKeyNFwdM( tuple, partitionFieldNames, forwardKeyLimit );
+        return new PartitionKeyNFwdM( tuple, fieldAccessors, forwardKeyLimit );
     }
 
     @Override
     public int getPartitionHash ( final Tuple tuple )
     {
-        return computePartitionHash( tuple, partitionFieldNames, forwardKeyLimit );
+        return computePartitionHash( tuple, fieldAccessors, forwardKeyLimit );
     }
 
 }
@@ -8,6 +8,7 @@ import cs.bilkent.joker.engine.partition.PartitionKey;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.hashHead;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.hashTail;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.rangeCheck;
+import cs.bilkent.joker.operator.FieldAccessor;
 import cs.bilkent.joker.operator.Tuple;
 
 public class PartitionKeyN extends AbstractList<Object> implements PartitionKey
@@ -17,17 +18,17 @@ public class PartitionKeyN extends AbstractList<Object> implements PartitionKey
 
     private final int hashCode;
 
-    PartitionKeyN ( final Tuple tuple, final List<String> partitionFieldNames )
+    PartitionKeyN ( final Tuple tuple, final FieldAccessor[] fieldAccessors )
     {
-        final int j = partitionFieldNames.size();
+        final int j = fieldAccessors.length;
         this.values = new Object[ j ];
 
-        final Object headVal = tuple.getObject( partitionFieldNames.get( 0 ) );
+        final Object headVal = fieldAccessors[ 0 ].get( tuple );
         int hashCode = hashHead( headVal );
         this.values[ 0 ] = headVal;
         for ( int i = 1; i < j; i++ )
         {
-            final Object val = tuple.getObject( partitionFieldNames.get( i ) );
+            final Object val = fieldAccessors[ i ].get( tuple );
             this.values[ i ] = val;
             hashCode = hashTail( hashCode, val );
         }
@@ -80,12 +81,12 @@ public class PartitionKeyN extends AbstractList<Object> implements PartitionKey
         return hashCode;
     }
 
-    static int computeHashCode ( final Tuple tuple, final List<String> partitionFieldNames )
+    static int computeHashCode ( final Tuple tuple, final FieldAccessor[] fieldAccessors )
     {
-        int hashCode = hashHead( tuple.getObject( partitionFieldNames.get( 0 ) ) );
-        for ( int i = 1, j = partitionFieldNames.size(); i < j; i++ )
+        int hashCode = hashHead( fieldAccessors[ 0 ].get( tuple ) );
+        for ( int i = 1, j = fieldAccessors.length; i < j; i++ )
         {
-            hashCode = hashTail( hashCode, tuple.getObject( partitionFieldNames.get( i ) ) );
+            hashCode = hashTail( hashCode, fieldAccessors[ i ].get( tuple ) );
         }
 
         return hashCode;
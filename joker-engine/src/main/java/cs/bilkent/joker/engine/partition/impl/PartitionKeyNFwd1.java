@@ -8,6 +8,7 @@ import cs.bilkent.joker.engine.partition.PartitionKey;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.hashHead;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.hashTail;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.rangeCheck;
+import cs.bilkent.joker.operator.FieldAccessor;
 import cs.bilkent.joker.operator.Tuple;
 
 public class PartitionKeyNFwd1 extends AbstractList<Object> implements PartitionKey
@@ -19,19 +20,19 @@ public class PartitionKeyNFwd1 extends AbstractList<Object> implements Partition
 
     private final int partitionHashCode;
 
-    PartitionKeyNFwd1 ( final Tuple tuple, final List<String> partitionFieldNames )
+    PartitionKeyNFwd1 ( final Tuple tuple, final FieldAccessor[] fieldAccessors )
     {
-        final int j = partitionFieldNames.size();
+        final int j = fieldAccessors.length;
         this.values = new Object[ j ];
 
-        final Object headVal = tuple.getObject( partitionFieldNames.get( 0 ) );
+        final Object headVal = fieldAccessors[ 0 ].get( tuple );
         int hashCode = computePartitionHash( headVal );
         this.partitionHashCode = hashCode;
         this.values[ 0 ] = headVal;
 
         for ( int i = 1; i < j; i++ )
         {
-            final Object val = tuple.getObject( partitionFieldNames.get( i ) );
+            final Object val = fieldAccessors[ i ].get( tuple );
             this.values[ i ] = val;
             hashCode = hashTail( hashCode, val );
         }
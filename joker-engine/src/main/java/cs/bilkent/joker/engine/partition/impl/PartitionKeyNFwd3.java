@@ -8,6 +8,7 @@ import cs.bilkent.joker.engine.partition.PartitionKey;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.hashHead;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.hashTail;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.rangeCheck;
+import cs.bilkent.joker.operator.FieldAccessor;
 import cs.bilkent.joker.operator.Tuple;
 
 public class PartitionKeyNFwd3 extends AbstractList<Object> implements PartitionKey
@@ -19,14 +20,14 @@ public class PartitionKeyNFwd3 extends AbstractList<Object> implements Partition
 
     private final int partitionHashCode;
 
-    PartitionKeyNFwd3 ( final Tuple tuple, final List<String> partitionFieldNames )
+    PartitionKeyNFwd3 ( final Tuple tuple, final FieldAccessor[] fieldAccessors )
     {
-        final int j = partitionFieldNames.size();
+        final int j = fieldAccessors.length;
         this.values = new Object[ j ];
 
-        final Object headVal0 = tuple.getObject( partitionFieldNames.get( 0 ) );
-        final Object headVal1 = tuple.getObject( partitionFieldNames.get( 1 ) );
-        final Object headVal2 = tuple.getObject( partitionFieldNames.get( 2 ) );
+        final Object headVal0 = fieldAccessors[ 0 ].get( tuple );
+        final Object headVal1 = fieldAccessors[ 1 ].get( tuple );
+        final Object headVal2 = fieldAccessors[ 2 ].get( tuple );
         int hashCode = computePartitionHash( headVal0, headVal1, headVal2 );
         this.partitionHashCode = hashCode;
         this.values[ 0 ] = headVal0;
@@ -35,7 +36,7 @@ public class PartitionKeyNFwd3 extends AbstractList<Object> implements Partition
 
         for ( int i = 3; i < j; i++ )
         {
-            final Object val = tuple.getObject( partitionFieldNames.get( i ) );
+            final Object val = fieldAccessors[ i ].get( tuple );
             this.values[ i ] = val;
             hashCode = hashTail( hashCode, val );
         }
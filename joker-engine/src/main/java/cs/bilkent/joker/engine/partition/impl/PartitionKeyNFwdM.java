@@ -8,6 +8,7 @@ import cs.bilkent.joker.engine.partition.PartitionKey;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.hashHead;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.hashTail;
 import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.rangeCheck;
+import cs.bilkent.joker.operator.FieldAccessor;
 import cs.bilkent.joker.operator.Tuple;
 
 public class PartitionKeyNFwdM extends AbstractList<Object> implements PartitionKey
@@ -19,18 +20,18 @@ public class PartitionKeyNFwdM extends AbstractList<Object> implements Partition
 
     private final int partitionHashCode;
 
-    PartitionKeyNFwdM ( final Tuple tuple, final List<String> partitionFieldNames, final int forwardKeyLimit )
+    PartitionKeyNFwdM ( final Tuple tuple, final FieldAccessor[] fieldAccessors, final int forwardKeyLimit )
     {
-        final int j = partitionFieldNames.size();
+        final int j = fieldAccessors.length;
         this.values = new Object[ j ];
 
-        final Object headVal = tuple.getObject( partitionFieldNames.get( 0 ) );
+        final Object headVal = fieldAccessors[ 0 ].get( tuple );
         int hashCode = hashHead( headVal );
         this.values[ 0 ] = headVal;
 
         for ( int i = 1; i < forwardKeyLimit; i++ )
         {
-            final Object val = tuple.getObject( partitionFieldNames.get( i ) );
+            final Object val = fieldAccessors[ i ].get( tuple );
             this.values[ i ] = val;
             hashCode = hashTail( hashCode, val );
         }
@@ -39,7 +40,7 @@ public class PartitionKeyNFwdM extends AbstractList<Object> implements Partition
 
         for ( int i = forwardKeyLimit; i < j; i++ )
         {
-            final Object val = tuple.getObject( partitionFieldNames.get( i ) );
+            final Object val = fieldAccessors[ i ].get( tuple );
             this.values[ i ] = val;
             hashCode = hashTail( hashCode, val );
         }
@@ -92,13 +93,13 @@ public class PartitionKeyNFwdM extends AbstractList<Object> implements Partition
         return hashCode;
     }
 
-    static int computePartitionHash ( final Tuple tuple, final List<String> partitionFieldNames, final int forwardKeyLimit )
+    static int computePartitionHash ( final Tuple tuple, final FieldAccessor[] fieldAccessors, final int forwardKeyLimit )
     {
-        int hashCode = hashHead( tuple.getObject( partitionFieldNames.get( 0 ) ) );
+        int hashCode = hashHead( fieldAccessors[ 0 ].get( tuple ) );
 
         for ( int i = 1; i < forwardKeyLimit; i++ )
         {
-            hashCode = hashTail( hashCode, tuple.getObject( partitionFieldNames.get( i ) ) );
+            hashCode = hashTail( hashCode, fieldAccessors[ i ].get( tuple ) );
         }
 
         return hashCode;
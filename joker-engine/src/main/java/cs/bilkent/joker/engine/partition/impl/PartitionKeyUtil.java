@@ -1,5 +1,9 @@
 package cs.bilkent.joker.engine.partition.impl;
 
+import java.util.List;
+
+import cs.bilkent.joker.operator.FieldAccessor;
+
 /*
  * hashcode calculation:
  *
@@ -24,6 +28,17 @@ final class PartitionKeyUtil
         }
     }
 
+    static FieldAccessor[] toFieldAccessors ( final List<String> fieldNames )
+    {
+        final FieldAccessor[] fieldAccessors = new FieldAccessor[ fieldNames.size() ];
+        for ( int i = 0; i < fieldAccessors.length; i++ )
+        {
+            fieldAccessors[ i ] = new FieldAccessor( fieldNames.get( i ) );
+        }
+
+        return fieldAccessors;
+    }
+
     static int hashHead ( final Object val )
     {
         return 31 + val.hashCode();
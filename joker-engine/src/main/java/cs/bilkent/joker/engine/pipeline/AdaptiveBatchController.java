@@ -0,0 +1,115 @@
+package cs.bilkent.joker.engine.pipeline;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.operator.impl.TuplesImpl;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Tunes the batch size and the invocation count of an operator at runtime, using the number of tuples waiting in its queue and its
+ * invocation cost. The batch size is doubled while a full batch is waiting in the queue, so that the per-invocation overhead is
+ * amortized under load, and halved whenever the queue is found empty, so that the tuples do not wait for a large batch when the
+ * operator is idle. The batch size and the number of invocations in a single run are bounded by the number of tuples the operator
+ * can process within the target latency, which is computed with the moving average of the observed invocation cost per tuple.
+ */
+@NotThreadSafe
+final class AdaptiveBatchController
+{
+
+    static final int MIN_BATCH_SIZE = 1;
+
+    // weight of a new invocation cost sample in the moving average is 1 / 2^COST_SMOOTHING_SHIFT
+    private static final int COST_SMOOTHING_SHIFT = 3;
+
+
+    private final int maxBatchSize;
+
+    private final long targetLatencyNanos;
+
+    private int batchSize;
+
+    private long costPerTupleNanos;
+
+    AdaptiveBatchController ( final int initialBatchSize, final int maxBatchSize, final long targetLatencyNanos )
+    {
+        checkArgument( initialBatchSize >= MIN_BATCH_SIZE, "invalid initial batch size: %s", initialBatchSize );
+        checkArgument( maxBatchSize >= MIN_BATCH_SIZE, "invalid max batch size: %s", maxBatchSize );
+        checkArgument( targetLatencyNanos > 0, "invalid target latency: %s", targetLatencyNanos );
+        this.maxBatchSize = maxBatchSize;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.batchSize = min( initialBatchSize, maxBatchSize );
+    }
+
+    /**
+     * Updates the batch size with the number of tuples waiting in the queue of the operator, and returns the number of invocations
+     * for the current run, which is not less than the given drain count hint of the queue
+     *
+     * @param queuedTupleCount
+     *         number of tuples waiting in the queue of the operator
+     * @param drainCountHint
+     *         drain count hint of the queue of the operator
+     *
+     * @return the number of invocations for the current run
+     */
+    int update ( final int queuedTupleCount, final int drainCountHint )
+    {
+        if ( queuedTupleCount == 0 )
+        {
+            batchSize = max( MIN_BATCH_SIZE, batchSize >> 1 );
+        }
+        else if ( queuedTupleCount >= batchSize )
+        {
+            batchSize = (int) min( maxBatchSize, (long) batchSize << 1 );
+        }
+
+        final long latencyBoundTupleCount = getLatencyBoundTupleCount();
+        batchSize = (int) max( MIN_BATCH_SIZE, min( batchSize, latencyBoundTupleCount ) );
+
+        final int invocationCount = (int) max( 1, min( queuedTupleCount, latencyBoundTupleCount ) / batchSize );
+
+        return max( drainCountHint, invocationCount );
+    }
+
+    /**
+     * Records the cost of an invocation of the operator with the given input
+     *
+     * @param input
+     *         input of the invocation
+     * @param durationNanos
+     *         duration of the invocation
+     */
+    void onInvocation ( final TuplesImpl input, final long durationNanos )
+    {
+        int tupleCount = 0;
+        for ( int portIndex = 0; portIndex < input.getPortCount(); portIndex++ )
+        {
+            tupleCount += input.getTupleCount( portIndex );
+        }
+
+        if ( tupleCount == 0 )
+        {
+            return;
+        }
+
+        final long sample = max( 1, durationNanos / tupleCount );
+        costPerTupleNanos = costPerTupleNanos == 0 ? sample : costPerTupleNanos + ( ( sample - costPerTupleNanos ) >> COST_SMOOTHING_SHIFT );
+    }
+
+    int getBatchSize ()
+    {
+        return batchSize;
+    }
+
+    long getCostPerTupleNanos ()
+    {
+        return costPerTupleNanos;
+    }
+
+    private long getLatencyBoundTupleCount ()
+    {
+        return costPerTupleNanos > 0 ? targetLatencyNanos / costPerTupleNanos : Long.MAX_VALUE;
+    }
+
+}
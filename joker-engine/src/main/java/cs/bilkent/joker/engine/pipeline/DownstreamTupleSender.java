@@ -12,4 +12,34 @@ public interface DownstreamTupleSender
 
     Future<Void> send ( TuplesImpl tuples );
 
+    /**
+     * Offers the given tuples to the downstream tuple queues without waiting for the full ones. If some of the tuples cannot be
+     * offered, the sender keeps its progress on the given tuples, and the same {@link TuplesImpl} object must be given to the next
+     * {@link #trySend(TuplesImpl)} or {@link #send(TuplesImpl)} call, which continues from the tuples not sent yet. Senders that
+     * cannot keep their progress send all tuples in this method.
+     *
+     * @param tuples
+     *         tuples to send
+     *
+     * @return true if all of the given tuples are sent, false otherwise
+     */
+    default boolean trySend ( TuplesImpl tuples )
+    {
+        send( tuples );
+        return true;
+    }
+
+    /**
+     * Returns number of the downstream tuple queues to which a tuple of the given output port is sent
+     *
+     * @param sourcePortIndex
+     *         output port index of the pipeline
+     *
+     * @return number of the downstream tuple queues to which a tuple of the given output port is sent
+     */
+    default int getDestinationCount ( int sourcePortIndex )
+    {
+        return 1;
+    }
+
 }
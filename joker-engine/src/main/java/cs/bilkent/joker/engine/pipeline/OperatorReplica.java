@@ -13,6 +13,7 @@ import cs.bilkent.joker.engine.exception.InitializationException;
 import cs.bilkent.joker.engine.kvstore.OperatorKVStore;
 import cs.bilkent.joker.engine.metric.PipelineReplicaMeter;
 import cs.bilkent.joker.engine.partition.PartitionKey;
+import cs.bilkent.joker.engine.pipeline.impl.tuplesupplier.TuplePool;
 import static cs.bilkent.joker.engine.pipeline.OperatorReplicaStatus.COMPLETED;
 import static cs.bilkent.joker.engine.pipeline.OperatorReplicaStatus.COMPLETING;
 import static cs.bilkent.joker.engine.pipeline.OperatorReplicaStatus.INITIAL;
@@ -26,6 +27,8 @@ import cs.bilkent.joker.engine.tuplequeue.TupleQueueDrainer;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueueDrainerPool;
 import static cs.bilkent.joker.engine.util.ExceptionUtils.checkInterruption;
 import cs.bilkent.joker.flow.FlowDef;
+import cs.bilkent.joker.operator.ColumnarOperator;
+import cs.bilkent.joker.operator.ColumnarTuples;
 import cs.bilkent.joker.operator.InitializationContext;
 import cs.bilkent.joker.operator.InvocationContext.InvocationReason;
 import static cs.bilkent.joker.operator.InvocationContext.InvocationReason.INPUT_PORT_CLOSED;
@@ -41,8 +44,13 @@ import cs.bilkent.joker.operator.kvstore.KVStore;
 import cs.bilkent.joker.operator.scheduling.ScheduleNever;
 import cs.bilkent.joker.operator.scheduling.ScheduleWhenAvailable;
 import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable;
+import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByCount.AT_LEAST;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort.ANY_PORT;
+import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailableOrTimeout;
 import cs.bilkent.joker.operator.scheduling.SchedulingStrategy;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
+import static cs.bilkent.joker.operator.spec.OperatorType.STATELESS;
 import static java.lang.Math.min;
 import static java.util.Arrays.fill;
 
@@ -98,6 +106,20 @@ public class OperatorReplica
 
     private boolean operatorInvokedOnLastAttempt;
 
+    private TuplePool tuplePool;
+
+    private ColumnarOperator columnarOperator;
+
+    private ColumnarTuples columnarInput;
+
+    private boolean fusible;
+
+    private int[] outputTupleCounts;
+
+    private boolean compiledTupleSchemasEnabled;
+
+    private AdaptiveBatchController batchController;
+
     public OperatorReplica ( final PipelineReplicaId pipelineReplicaId,
                              final OperatorDef operatorDef,
                              final OperatorTupleQueue queue,
@@ -143,6 +165,8 @@ public class OperatorReplica
             checkState( operator != null, "Operator %s implementation can not be null", operatorName );
             setUpstreamContext( upstreamContext );
             initializeOperator( upstreamContext );
+            columnarOperator = toColumnarOperator();
+            fusible = isSingleTupleStatelessOperator();
             setSelfUpstreamContext( ACTIVE );
 
             setStatus( RUNNING );
@@ -173,7 +197,11 @@ public class OperatorReplica
     private void initializeOperator ( final UpstreamContext upstreamContext )
     {
         final boolean[] upstreamConnectionStatuses = upstreamContext.getUpstreamConnectionStatuses( operatorDef.getInputPortCount() );
-        final InitializationContext initContext = new InitializationContextImpl( operatorDef, upstreamConnectionStatuses );
+        final InitializationContext initContext = compiledTupleSchemasEnabled
+                                                  ? new InitializationContextImpl( operatorDef,
+                                                                                   upstreamConnectionStatuses,
+                                                                                   PortRuntimeSchema::compile )
+                                                  : new InitializationContextImpl( operatorDef, upstreamConnectionStatuses );
         final SchedulingStrategy schedulingStrategy = operator.init( initContext );
         upstreamContext.verifyOrFail( operatorDef, schedulingStrategy );
         this.initialSchedulingStrategy = schedulingStrategy;
@@ -181,6 +209,40 @@ public class OperatorReplica
         setQueueTupleCounts( schedulingStrategy );
     }
 
+    /**
+     * Returns the operator if it is a stateless {@link ColumnarOperator} with a single input port and a single output port, and it is
+     * invoked whenever a tuple is available. Otherwise, returns null.
+     */
+    private ColumnarOperator toColumnarOperator ()
+    {
+        if ( !( operator instanceof ColumnarOperator && ( (ColumnarOperator) operator ).isColumnarInvocationEnabled() ) )
+        {
+            return null;
+        }
+
+        return isSingleTupleStatelessOperator() ? (ColumnarOperator) operator : null;
+    }
+
+    /**
+     * Returns true if the operator is a stateless operator with a single input port and a single output port, and it is invoked
+     * whenever a tuple is available.
+     */
+    private boolean isSingleTupleStatelessOperator ()
+    {
+        if ( operatorDef.getOperatorType() != STATELESS || operatorDef.getInputPortCount() != 1 || operatorDef.getOutputPortCount() != 1 )
+        {
+            return false;
+        }
+
+        if ( !( initialSchedulingStrategy instanceof ScheduleWhenTuplesAvailable ) )
+        {
+            return false;
+        }
+
+        final ScheduleWhenTuplesAvailable ss = (ScheduleWhenTuplesAvailable) initialSchedulingStrategy;
+        return ss.getTupleAvailabilityByCount() == AT_LEAST && ss.getTupleCount( 0 ) == 1;
+    }
+
     private void setQueueTupleCounts ( final SchedulingStrategy schedulingStrategy )
     {
         if ( schedulingStrategy instanceof ScheduleWhenTuplesAvailable )
@@ -188,6 +250,10 @@ public class OperatorReplica
             final ScheduleWhenTuplesAvailable ss = (ScheduleWhenTuplesAvailable) schedulingStrategy;
             queue.setTupleCounts( ss.getTupleCounts(), ss.getTupleAvailabilityByPort() );
         }
+        else if ( schedulingStrategy instanceof ScheduleWhenTuplesAvailableOrTimeout )
+        {
+            setQueueTupleCounts( ( (ScheduleWhenTuplesAvailableOrTimeout) schedulingStrategy ).getTupleAvailability() );
+        }
     }
 
     /**
@@ -212,7 +278,8 @@ public class OperatorReplica
      * <p>
      * When the operator is in {@link OperatorReplicaStatus#RUNNING} status:
      * invokes the operator successfully if
-     * - the operator has a non-empty input for its {@link ScheduleWhenTuplesAvailable} scheduling strategy,
+     * - the operator has a non-empty input for its {@link ScheduleWhenTuplesAvailable} scheduling strategy, or for its
+     * {@link ScheduleWhenTuplesAvailableOrTimeout} scheduling strategy, which is drained after the timeout with fewer tuples if needed,
      * - scheduling strategy is {@link ScheduleWhenAvailable} and there is no change upstream context.
      * Otherwise, it checks if there is a change in the upstream context. If it is the case,
      * - it makes the final invocation and moves the operator into {@link OperatorReplicaStatus#COMPLETED},
@@ -253,6 +320,11 @@ public class OperatorReplica
         TuplesImpl input, output = null;
 
         int invocationCount = queue.getDrainCountHint();
+        if ( batchController != null )
+        {
+            invocationCount = batchController.update( queue.getQueuedTupleCount(), invocationCount );
+            drainer.setMaxBatchSize( batchController.getBatchSize() );
+        }
 
         while ( true )
         {
@@ -333,6 +405,124 @@ public class OperatorReplica
         return output;
     }
 
+    /**
+     * Returns true if the operator can be invoked with a {@link ColumnarTuples} batch passed by the previous operator in the pipeline,
+     * without offering the tuples to its queue. It is possible only when the operator is running, there is no change in the upstream
+     * context, and there is no tuple waiting in the queue.
+     */
+    public boolean isColumnarInvocable ( final UpstreamContext upstreamContext )
+    {
+        return columnarOperator != null && status == RUNNING && this.upstreamContext.getVersion() >= upstreamContext.getVersion()
+               && queue.isEmpty();
+    }
+
+    /**
+     * Converts the given tuples of the previous operator in the pipeline into a {@link ColumnarTuples} batch to invoke the operator
+     * with {@link #invoke(ColumnarTuples)}. Returns null if the tuples are empty, or they can not be kept in a batch.
+     * The tuples are released if tuple recycling is enabled and they are converted into a batch.
+     */
+    public ColumnarTuples toColumnarTuples ( final TuplesImpl upstreamInput )
+    {
+        if ( upstreamInput == null || upstreamInput.getTupleCount( 0 ) == 0 )
+        {
+            return null;
+        }
+
+        final List<Tuple> tuples = upstreamInput.getTuplesModifiable( 0 );
+        final TupleSchema schema = tuples.get( 0 ).getSchema();
+        if ( columnarInput == null || columnarInput.getSchema() != schema )
+        {
+            columnarInput = new ColumnarTuples( schema, tuples.size() );
+        }
+        else
+        {
+            columnarInput.clear();
+        }
+
+        if ( !columnarInput.addAll( tuples ) )
+        {
+            return null;
+        }
+
+        if ( tuplePool != null )
+        {
+            releaseInputTuples( upstreamInput );
+        }
+
+        return columnarInput;
+    }
+
+    /**
+     * Invokes the operator with the selected rows of the given batch and returns its output batch. If there is no selected row in
+     * the given batch, the operator is not invoked and the given batch is returned.
+     */
+    public ColumnarTuples invoke ( final ColumnarTuples input )
+    {
+        checkState( columnarOperator != null, "%s is not a columnar operator", operatorName );
+
+        if ( input.isEmpty() )
+        {
+            operatorInvokedOnLastAttempt = false;
+            return input;
+        }
+
+        meter.onInvocationStart( operatorDef.getId(), input.getSelectedCount() );
+        final ColumnarTuples output = columnarOperator.invoke( input );
+        meter.onInvocationComplete( operatorDef.getId() );
+        operatorInvokedOnLastAttempt = true;
+
+        return output;
+    }
+
+    /**
+     * Returns true if the operator can be fused with the previous operator in the pipeline, i.e., it can be invoked with the output of
+     * the previous operator via {@link #invokeFused(TuplesImpl)}, without offering the tuples to its queue and draining them back.
+     * It is possible only when the operator is a stateless operator invoked whenever a tuple is available, it is running, there is no
+     * change in the upstream context, and there is no tuple waiting in the queue.
+     */
+    public boolean isFusedInvocable ( final UpstreamContext upstreamContext )
+    {
+        return fusible && status == RUNNING && this.upstreamContext.getVersion() >= upstreamContext.getVersion() && queue.isEmpty();
+    }
+
+    /**
+     * Invokes the operator directly with the given output of the previous operator in the pipeline, and returns its output.
+     * If the given tuples are empty, the operator is not invoked and null is returned.
+     */
+    public TuplesImpl invokeFused ( final TuplesImpl upstreamInput )
+    {
+        checkState( fusible, "%s is not a fusible operator", operatorName );
+
+        if ( upstreamInput == null || upstreamInput.getTupleCount( 0 ) == 0 )
+        {
+            operatorInvokedOnLastAttempt = false;
+            return null;
+        }
+
+        operatorInvokedOnLastAttempt = true;
+
+        return invokeOperator( SUCCESS, upstreamInput, null, null );
+    }
+
+    /**
+     * Creates tuples for the selected rows of the given batch produced by the operator, and returns them as output of the operator.
+     */
+    public TuplesImpl materialize ( final ColumnarTuples output )
+    {
+        final TuplesImpl tuples = outputSupplier.get();
+        output.materialize( tuples, 0, invocationContext::newTuple );
+        if ( tuplePool != null )
+        {
+            final List<Tuple> materialized = tuples.getTuplesModifiable( 0 );
+            for ( int i = 0, j = materialized.size(); i < j; i++ )
+            {
+                materialized.get( i ).retain( 1 );
+            }
+        }
+
+        return tuples;
+    }
+
     private void setQueueTupleCountsForGreedyDraining ()
     {
         final int[] tupleCounts = new int[ operatorDef.getInputPortCount() ];
@@ -370,15 +560,70 @@ public class OperatorReplica
     {
         final KVStore kvStore = operatorKvStore.getKVStore( key );
         final TuplesImpl invocationOutput = output != null ? output : outputSupplier.get();
+        if ( tuplePool != null )
+        {
+            recordOutputTupleCounts( invocationOutput );
+        }
         invocationContext.setInvocationParameters( reason, input, invocationOutput, key, kvStore );
         meter.onInvocationStart( operatorDef.getId(), input );
+        final long invocationStartNanos = batchController != null ? System.nanoTime() : 0;
         operator.invoke( invocationContext );
+        if ( batchController != null )
+        {
+            batchController.onInvocation( input, System.nanoTime() - invocationStartNanos );
+        }
         meter.onInvocationComplete( operatorDef.getId() );
         invocationContext.resetInvocationParameters();
+        if ( tuplePool != null )
+        {
+            retainOutputTuples( invocationOutput );
+            releaseInputTuples( input );
+        }
 
         return invocationOutput;
     }
 
+    private void recordOutputTupleCounts ( final TuplesImpl output )
+    {
+        for ( int i = 0; i < outputTupleCounts.length; i++ )
+        {
+            outputTupleCounts[ i ] = output.getTupleCount( i );
+        }
+    }
+
+    /**
+     * Retains the tuples added to the output by the last invocation, before the input tuples are released,
+     * so that the input tuples forwarded to the output are not recycled.
+     */
+    private void retainOutputTuples ( final TuplesImpl output )
+    {
+        for ( int i = 0; i < outputTupleCounts.length; i++ )
+        {
+            final List<Tuple> tuples = output.getTuplesModifiable( i );
+            for ( int j = outputTupleCounts[ i ], size = tuples.size(); j < size; j++ )
+            {
+                tuples.get( j ).retain( 1 );
+            }
+        }
+    }
+
+    private void releaseInputTuples ( final TuplesImpl input )
+    {
+        if ( input == null )
+        {
+            return;
+        }
+
+        for ( int i = 0; i < input.getPortCount(); i++ )
+        {
+            final List<Tuple> tuples = input.getTuplesModifiable( i );
+            for ( int j = 0, size = tuples.size(); j < size; j++ )
+            {
+                tuples.get( j ).release();
+            }
+        }
+    }
+
     /**
      * Updates the scheduling strategy of the operator with new scheduling strategy given in the argument.
      * It also releases the drainer of the previous scheduling strategy and acquires a new one for the new scheduling strategy.
@@ -503,6 +748,8 @@ public class OperatorReplica
         duplicate.upstreamContext = this.upstreamContext;
         duplicate.selfUpstreamContext = this.selfUpstreamContext;
         duplicate.operator = this.operator;
+        duplicate.columnarOperator = this.columnarOperator;
+        duplicate.fusible = this.fusible;
         duplicate.initialSchedulingStrategy = this.initialSchedulingStrategy;
         duplicate.schedulingStrategy = this.schedulingStrategy;
         drainerPool.reset();
@@ -513,6 +760,36 @@ public class OperatorReplica
         return duplicate;
     }
 
+    /**
+     * Sets the pool from which the operator obtains the output tuples via {@link InvocationContextImpl#newTuple}. When a pool is set,
+     * the output tuples are retained after each invocation and the input tuples are released.
+     */
+    void setTuplePool ( final TuplePool tuplePool )
+    {
+        checkArgument( tuplePool != null, "cannot set null tuple pool to %s", operatorName );
+        this.tuplePool = tuplePool;
+        this.outputTupleCounts = new int[ operatorDef.getOutputPortCount() ];
+        this.invocationContext.setTupleFactory( tuplePool );
+    }
+
+    /**
+     * Makes the operator get its port schemas in compiled form, so that the tuples it creates dispatch field names with the tables
+     * generated for their schemas. It has no effect if the operator is already initialized.
+     */
+    void enableCompiledTupleSchemas ()
+    {
+        this.compiledTupleSchemasEnabled = true;
+    }
+
+    /**
+     * Makes the operator tune its batch size and invocation count at runtime with an {@link AdaptiveBatchController}, instead of
+     * draining its queue with the static batch size of its drainer.
+     */
+    void enableAdaptiveBatching ( final int initialBatchSize, final int maxBatchSize, final long targetLatencyNanos )
+    {
+        this.batchController = new AdaptiveBatchController( initialBatchSize, maxBatchSize, targetLatencyNanos );
+    }
+
     void setOperatorReplicaListener ( final OperatorReplicaListener listener )
     {
         checkArgument( listener != null, "cannot set null operator replica listener to %s", operatorName );
@@ -57,6 +57,9 @@ public class Pipeline
 
     private PipelineReplicaRunnerStatus runnerStatus;
 
+    // set if the runners are run by the worker threads of a scheduler, which are not owned by the pipeline
+    private boolean scheduled;
+
     private SchedulingStrategy initialSchedulingStrategy;
 
     private volatile UpstreamContext upstreamContext;
@@ -437,15 +440,40 @@ public class Pipeline
         runnerStatus = PipelineReplicaRunnerStatus.RUNNING;
     }
 
+    public void startPipelineReplicaRunners ( final JokerConfig jokerConfig,
+                                              final Supervisor supervisor,
+                                              final PipelineReplicaScheduler scheduler )
+    {
+        checkArgument( jokerConfig != null, "cannot start pipeline %s replica runners since config is null", id );
+        checkArgument( supervisor != null, "cannot start pipeline %s replica runners since supervisor is null", id );
+        checkArgument( scheduler != null, "cannot start pipeline %s replica runners since scheduler is null", id );
+        checkState( pipelineStatus == RUNNING, "cannot create pipeline %s replica runners since in %s status", id, pipelineStatus );
+        checkState( runnerStatus == null, "cannot create pipeline %s replica runners since runner status is %s", id, runnerStatus );
+
+        for ( int replicaIndex = 0; replicaIndex < getReplicaCount(); replicaIndex++ )
+        {
+            final PipelineReplica replica = replicas[ replicaIndex ];
+            final DownstreamTupleSender downstreamTupleSender = downstreamTupleSenders[ replicaIndex ];
+            final PipelineReplicaRunner runner = new PipelineReplicaRunner( jokerConfig, replica, supervisor, downstreamTupleSender );
+            setPipelineReplicaRunner( replicaIndex, runner, scheduler.schedule( runner ) );
+        }
+
+        scheduled = true;
+        runnerStatus = PipelineReplicaRunnerStatus.RUNNING;
+
+        LOGGER.info( "Pipeline {} runners are scheduled", id );
+    }
+
     private void createPipelineReplicaRunners ( final JokerConfig jokerConfig, final Supervisor supervisor, final ThreadGroup threadGroup )
     {
+        final PipelineReplicaThreadFactory threadFactory = jokerConfig.getPipelineReplicaRunnerConfig().newThreadFactoryInstance();
         for ( int replicaIndex = 0; replicaIndex < getReplicaCount(); replicaIndex++ )
         {
             final PipelineReplica replica = replicas[ replicaIndex ];
             final DownstreamTupleSender downstreamTupleSender = downstreamTupleSenders[ replicaIndex ];
             final PipelineReplicaRunner runner = new PipelineReplicaRunner( jokerConfig, replica, supervisor, downstreamTupleSender );
             final String threadName = getThreadName( threadGroup, replica );
-            final Thread thread = new Thread( threadGroup, runner, threadName );
+            final Thread thread = threadFactory.newThread( threadGroup, runner, threadName );
             setPipelineReplicaRunner( replicaIndex, runner, thread );
         }
 
@@ -576,7 +604,15 @@ public class Pipeline
 
         LOGGER.info( "Replica runners of Pipeline {} are stopped...", id );
 
-        joinPipelineReplicaRunnerThreads( timeoutInMillis, failures );
+        if ( scheduled )
+        {
+            // the runners are completed with their stop commands. worker threads of the scheduler continue to run the other runners
+            fill( threads, null );
+        }
+        else
+        {
+            joinPipelineReplicaRunnerThreads( timeoutInMillis, failures );
+        }
 
         runnerStatus = PipelineReplicaRunnerStatus.COMPLETED;
 
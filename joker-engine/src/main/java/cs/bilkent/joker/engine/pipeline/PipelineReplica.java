@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import cs.bilkent.joker.engine.config.JokerConfig;
+import cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig;
 import cs.bilkent.joker.engine.config.TupleQueueDrainerConfig;
 import cs.bilkent.joker.engine.exception.InitializationException;
 import cs.bilkent.joker.engine.flow.RegionDef;
@@ -18,6 +19,7 @@ import static cs.bilkent.joker.engine.pipeline.OperatorReplicaStatus.INITIAL;
 import static cs.bilkent.joker.engine.pipeline.OperatorReplicaStatus.RUNNING;
 import static cs.bilkent.joker.engine.pipeline.OperatorReplicaStatus.SHUT_DOWN;
 import static cs.bilkent.joker.engine.pipeline.UpstreamConnectionStatus.ACTIVE;
+import cs.bilkent.joker.engine.pipeline.impl.tuplesupplier.TuplePool;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueueDrainer;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.BlockingMultiPortDisjunctiveDrainer;
@@ -26,14 +28,17 @@ import cs.bilkent.joker.engine.tuplequeue.impl.drainer.GreedyDrainer;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.MultiPortDrainer;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.NopDrainer;
 import cs.bilkent.joker.engine.tuplequeue.impl.operator.EmptyOperatorTupleQueue;
+import cs.bilkent.joker.operator.ColumnarTuples;
 import cs.bilkent.joker.operator.OperatorDef;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
 import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByCount.AT_LEAST;
+import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailableOrTimeout;
 import cs.bilkent.joker.operator.scheduling.SchedulingStrategy;
 import static cs.bilkent.joker.operator.spec.OperatorType.PARTITIONED_STATEFUL;
 import cs.bilkent.joker.utils.Pair;
 import static java.util.Arrays.sort;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.stream.Collectors.toList;
 
 /**
@@ -58,6 +63,10 @@ public class PipelineReplica
 
     private final int operatorCount;
 
+    private final boolean columnarInvocationEnabled;
+
+    private final boolean operatorFusionEnabled;
+
     private final int pipelineInputPortCount;
 
     private final int[] upstreamInputPorts;
@@ -87,9 +96,28 @@ public class PipelineReplica
         this.pipelineInputPortCount = operators[ 0 ].getOperatorDef().getInputPortCount();
         this.upstreamInputPorts = new int[ pipelineInputPortCount ];
         this.pipelineReplicaCompletionTracker = new PipelineReplicaCompletionTracker( id, operators );
+        final PipelineReplicaRunnerConfig runnerConfig = config.getPipelineReplicaRunnerConfig();
+        this.columnarInvocationEnabled = runnerConfig.isColumnarInvocationEnabled();
+        this.operatorFusionEnabled = runnerConfig.isOperatorFusionEnabled();
+        final TupleQueueDrainerConfig drainerConfig = config.getTupleQueueDrainerConfig();
+        final TuplePool tuplePool = runnerConfig.isTupleRecyclingEnabled() ? new TuplePool( runnerConfig.getTuplePoolCapacity() ) : null;
         for ( OperatorReplica operator : operators )
         {
             operator.setOperatorReplicaListener( this.pipelineReplicaCompletionTracker );
+            if ( tuplePool != null )
+            {
+                operator.setTuplePool( tuplePool );
+            }
+            if ( runnerConfig.isCompiledTupleSchemasEnabled() )
+            {
+                operator.enableCompiledTupleSchemas();
+            }
+            if ( drainerConfig.isAdaptiveBatchingEnabled() )
+            {
+                operator.enableAdaptiveBatching( drainerConfig.getMaxBatchSize(),
+                                                 drainerConfig.getAdaptiveBatchingMaxBatchSize(),
+                                                 MICROSECONDS.toNanos( drainerConfig.getAdaptiveBatchingTargetLatencyInMicros() ) );
+            }
         }
     }
 
@@ -193,6 +221,11 @@ public class PipelineReplica
                 {
                     updateUpstreamInputPortDrainOrder( operator, (ScheduleWhenTuplesAvailable) schedulingStrategy );
                 }
+                else if ( schedulingStrategy instanceof ScheduleWhenTuplesAvailableOrTimeout )
+                {
+                    updateUpstreamInputPortDrainOrder( operator,
+                                                       ( (ScheduleWhenTuplesAvailableOrTimeout) schedulingStrategy ).getTupleAvailability() );
+                }
                 else
                 {
                     LOGGER.info( "{} is not updating drainer parameters because {}", id, schedulingStrategy );
@@ -288,16 +321,53 @@ public class PipelineReplica
 
         UpstreamContext upstreamContext = this.pipelineUpstreamContext;
         OperatorReplica operator;
+        // the columnar batch produced by the previous operator, and the operator that produced it
+        ColumnarTuples batch = null;
+        OperatorReplica batchOperator = null;
 
         boolean invoked = false;
         for ( int i = 0; i < operatorCount; i++ )
         {
             operator = operators[ i ];
-            tuples = operator.invoke( drainerMaySkipBlocking, tuples, upstreamContext );
+            // head operator receives its tuples from its own queue so it is always invoked with tuples
+            if ( columnarInvocationEnabled && i > 0 && operator.isColumnarInvocable( upstreamContext ) )
+            {
+                final ColumnarTuples input = batch != null ? batch : operator.toColumnarTuples( tuples );
+                if ( input != null )
+                {
+                    batch = operator.invoke( input );
+                    batchOperator = operator;
+                    upstreamContext = operator.getSelfUpstreamContext();
+                    invoked |= operator.isOperatorInvokedOnLastAttempt();
+                    continue;
+                }
+            }
+
+            if ( batch != null )
+            {
+                tuples = batchOperator.materialize( batch );
+                batch = null;
+            }
+
+            // a single-port output is passed directly to the next operator if they are fused, without passing through its queue
+            if ( operatorFusionEnabled && i > 0 && ( tuples == null || tuples.getPortCount() == 1 )
+                 && operator.isFusedInvocable( upstreamContext ) )
+            {
+                tuples = operator.invokeFused( tuples );
+            }
+            else
+            {
+                tuples = operator.invoke( drainerMaySkipBlocking, tuples, upstreamContext );
+            }
             upstreamContext = operator.getSelfUpstreamContext();
             invoked |= operator.isOperatorInvokedOnLastAttempt();
         }
 
+        if ( batch != null )
+        {
+            tuples = batchOperator.materialize( batch );
+        }
+
         drainerMaySkipBlocking = invoked;
 
         return tuples;
@@ -381,6 +451,22 @@ public class PipelineReplica
         return pipelineReplicaCompletionTracker.isPipelineCompleted();
     }
 
+    /**
+     * Returns true if any operator of the pipeline replica is invoked in the last {@link #invoke()} call
+     */
+    public boolean isInvokedOnLastAttempt ()
+    {
+        return drainerMaySkipBlocking;
+    }
+
+    /**
+     * Returns true if the pipeline tuple queue of the pipeline replica has tuples waiting to be drained
+     */
+    public boolean hasPendingTuples ()
+    {
+        return !getPipelineTupleQueue().isEmpty();
+    }
+
     public OperatorReplicaStatus getStatus ()
     {
         return status;
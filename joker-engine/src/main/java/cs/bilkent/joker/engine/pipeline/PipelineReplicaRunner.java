@@ -1,8 +1,12 @@
 package cs.bilkent.joker.engine.pipeline;
 
+import java.util.ArrayDeque;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +14,7 @@ import org.slf4j.LoggerFactory;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import cs.bilkent.joker.engine.config.JokerConfig;
+import cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig;
 import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineReplicaRunnerCommandType.PAUSE;
 import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineReplicaRunnerCommandType.RESUME;
 import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineReplicaRunnerCommandType.STOP;
@@ -17,9 +22,12 @@ import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineRep
 import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineReplicaRunnerStatus.COMPLETED;
 import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineReplicaRunnerStatus.PAUSED;
 import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineReplicaRunnerStatus.RUNNING;
+import cs.bilkent.joker.engine.pipeline.impl.tuplesupplier.DoubleBufferedTuplesImplSupplier;
 import cs.bilkent.joker.engine.supervisor.Supervisor;
+import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
 import static java.lang.Boolean.TRUE;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 
 public class PipelineReplicaRunner implements Runnable
 {
@@ -41,12 +49,37 @@ public class PipelineReplicaRunner implements Runnable
 
     private final long waitTimeoutInMillis;
 
+    private final boolean tupleRecyclingEnabled;
+
+    private final boolean asyncDownstreamSendingEnabled;
+
+    private final PipelineReplicaThreadFactory threadFactory;
+
+    private final boolean partialDownstreamSendingEnabled;
+
+    private final boolean pooledSchedulingEnabled;
+
+    private final int maxPendingDownstreamTupleCount;
+
     private final Supervisor supervisor;
 
     private DownstreamTupleSender downstreamTupleSender;
 
     private Future<Void> downstreamTuplesFuture;
 
+    // sends the outputs of the pipeline replica asynchronously. created on the first asynchronous sending
+    private ExecutorService downstreamTupleSenderExecutor;
+
+    // outputs which are not completely sent to the downstream yet, in the invocation order. only the first one can be sent partially
+    private final ArrayDeque<TuplesImpl> pendingOutputs = new ArrayDeque<>();
+
+    private int pendingTupleCount;
+
+    // set if a scheduled runner cannot invoke the pipeline or handle its command on its last step since the downstream is full
+    private boolean downstreamBlocked;
+
+    private long downstreamBlockedStartTimeInNanos;
+
     private PipelineReplicaRunnerStatus status = RUNNING;
 
     private volatile PipelineReplicaRunnerCommand command;
@@ -59,7 +92,15 @@ public class PipelineReplicaRunner implements Runnable
     {
         this.pipeline = pipeline;
         this.id = pipeline.id();
-        this.waitTimeoutInMillis = config.getPipelineReplicaRunnerConfig().getRunnerWaitTimeoutInMillis();
+        final PipelineReplicaRunnerConfig runnerConfig = config.getPipelineReplicaRunnerConfig();
+        this.waitTimeoutInMillis = runnerConfig.getRunnerWaitTimeoutInMillis();
+        this.tupleRecyclingEnabled = runnerConfig.isTupleRecyclingEnabled();
+        this.asyncDownstreamSendingEnabled = runnerConfig.isAsyncDownstreamSendingEnabled();
+        this.threadFactory = asyncDownstreamSendingEnabled ? runnerConfig.newThreadFactoryInstance() : null;
+        this.pooledSchedulingEnabled = runnerConfig.isPooledSchedulingEnabled();
+        // a worker thread of the scheduler must not block while waiting for the downstream, hence it always sends partially
+        this.partialDownstreamSendingEnabled = pooledSchedulingEnabled || runnerConfig.isPartialDownstreamSendingEnabled();
+        this.maxPendingDownstreamTupleCount = runnerConfig.getMaxPendingDownstreamTupleCount();
         this.supervisor = supervisor;
         this.downstreamTupleSender = downstreamTupleSender;
     }
@@ -366,42 +407,132 @@ public class PipelineReplicaRunner implements Runnable
         {
             while ( true )
             {
-                final PipelineReplicaRunnerStatus status = checkStatus();
-                if ( status == RUNNING )
+                final PipelineReplicaRunnerStatus status = runOnce();
+                meterDownstreamBlockedTime();
+                if ( status == COMPLETED )
                 {
-                    sendToDownstream( pipeline.invoke() );
-
-                    if ( pipeline.isCompleted() )
-                    {
-                        LOGGER.info( "All operators of Pipeline {} are completed.", id );
-                        completeRun();
-                        break;
-                    }
+                    break;
                 }
                 else if ( status == PAUSED )
                 {
-                    awaitDownstreamTuplesFuture();
                     synchronized ( monitor )
                     {
                         monitor.wait( waitTimeoutInMillis );
                     }
                 }
-                else if ( status == COMPLETED )
+            }
+        }
+        catch ( Exception e )
+        {
+            completeRunWithFailure( e );
+        }
+
+        logRunCompletion();
+    }
+
+    /**
+     * Runs the pipeline replica on a worker thread of {@link PipelineReplicaScheduler} for at most the given number of invocations.
+     * The run ends early if the runner is paused, none of the operators is invoked, or the downstream is full, so that the worker
+     * thread can run other pipeline replicas, including the downstream ones.
+     *
+     * @param maxInvocationCount
+     *         maximum number of invocations of the pipeline replica
+     *
+     * @return true if any operator is invoked in the last invocation, false otherwise. The returned value is not meaningful if
+     * the runner has completed its run, which is checked via {@link #getStatus()}
+     */
+    boolean runScheduled ( final int maxInvocationCount )
+    {
+        try
+        {
+            for ( int i = 0; i < maxInvocationCount; i++ )
+            {
+                final PipelineReplicaRunnerStatus status = runOnce();
+                meterDownstreamBlockedTime();
+                if ( status == COMPLETED )
                 {
-                    completeRun();
-                    break;
+                    logRunCompletion();
+                    return false;
                 }
-                else
+                else if ( status == PAUSED || downstreamBlocked || !pipeline.isInvokedOnLastAttempt() )
                 {
-                    throw new IllegalStateException( "Illegal status: " + status );
+                    return false;
                 }
             }
+
+            return true;
         }
         catch ( Exception e )
         {
             completeRunWithFailure( e );
+            logRunCompletion();
+            return false;
+        }
+    }
+
+    /**
+     * Returns true if the runner should be scheduled, because the pipeline replica has tuples to be drained or to be sent to the
+     * downstream, or there is a pending command. It must be called by the thread running the runner.
+     */
+    boolean isSchedulable ()
+    {
+        return command != null || pipeline.hasPendingTuples() || !pendingOutputs.isEmpty();
+    }
+
+    long getWaitTimeoutInMillis ()
+    {
+        return waitTimeoutInMillis;
+    }
+
+    private PipelineReplicaRunnerStatus runOnce () throws InterruptedException
+    {
+        downstreamBlocked = false;
+        final PipelineReplicaRunnerStatus status = checkStatus();
+        if ( status == RUNNING )
+        {
+            if ( pooledSchedulingEnabled && ( downstreamBlocked || isDownstreamBlocked() ) )
+            {
+                downstreamBlocked = true;
+                return status;
+            }
+
+            // a scheduled runner may have deferred its completion until its pending outputs are sent
+            if ( !( pooledSchedulingEnabled && pipeline.isCompleted() ) )
+            {
+                sendToDownstream( pipeline.invoke() );
+            }
+
+            if ( pipeline.isCompleted() )
+            {
+                if ( pooledSchedulingEnabled && !pendingOutputs.isEmpty() )
+                {
+                    downstreamBlocked = true;
+                    return status;
+                }
+
+                LOGGER.info( "All operators of Pipeline {} are completed.", id );
+                completeRun();
+                return COMPLETED;
+            }
+        }
+        else if ( status == PAUSED )
+        {
+            awaitDownstreamTuplesFuture();
+        }
+        else if ( status == COMPLETED )
+        {
+            completeRun();
+        }
+        else
+        {
+            throw new IllegalStateException( "Illegal status: " + status );
         }
 
+        return status;
+    }
+
+    private void logRunCompletion ()
+    {
         if ( status == COMPLETED )
         {
             LOGGER.info( "{}: completed the run", id );
@@ -418,6 +549,22 @@ public class PipelineReplicaRunner implements Runnable
         PipelineReplicaRunnerCommand command = this.command;
         if ( command != null )
         {
+            // commands may replace the downstream tuple sender, hence the last outputs are sent to the current one first
+            awaitDownstreamTuplesFuture();
+            if ( pooledSchedulingEnabled )
+            {
+                if ( !trySendPendingOutputs() )
+                {
+                    // the command is handled on a next step once the downstream accepts the pending outputs
+                    downstreamBlocked = true;
+                    return status;
+                }
+            }
+            else
+            {
+                sendPendingOutputs();
+            }
+
             synchronized ( monitor )
             {
                 // we are re-reading the command here because it can be updated by one of the API methods before we acquire the lock
@@ -527,7 +674,9 @@ public class PipelineReplicaRunner implements Runnable
     {
         LOGGER.info( "{}: completing the run", id );
 
+        sendPendingOutputs();
         awaitDownstreamTuplesFuture();
+        shutdownDownstreamTupleSenderExecutor();
         LOGGER.info( "{}: all downstream tuples are sent", id );
 
         if ( pipeline.isCompleted() )
@@ -557,18 +706,243 @@ public class PipelineReplicaRunner implements Runnable
         }
     }
 
+    /**
+     * A scheduled runner does not wait for its downstream. It retries its pending outputs, and it does not invoke the pipeline while
+     * it keeps more tuples than {@link PipelineReplicaRunnerConfig#getMaxPendingDownstreamTupleCount()}, or complete its run before
+     * all of its pending outputs are sent.
+     */
+    private boolean isDownstreamBlocked ()
+    {
+        trySendPendingOutputs();
+        return pendingTupleCount > maxPendingDownstreamTupleCount || ( pipeline.isCompleted() && !pendingOutputs.isEmpty() );
+    }
+
+    /**
+     * The time from the first run of a scheduled runner which is blocked by its downstream or keeps pending outputs until all of its
+     * pending outputs are sent is reported to the meter of the pipeline replica as backpressure, since its sends never wait.
+     */
+    private void meterDownstreamBlockedTime ()
+    {
+        final boolean blocked = downstreamBlocked || !pendingOutputs.isEmpty();
+        if ( blocked && downstreamBlockedStartTimeInNanos == 0 )
+        {
+            downstreamBlockedStartTimeInNanos = System.nanoTime();
+        }
+        else if ( !blocked && downstreamBlockedStartTimeInNanos != 0 )
+        {
+            pipeline.getMeter().getDownstreamBlockedTimeCounter().add( System.nanoTime() - downstreamBlockedStartTimeInNanos );
+            downstreamBlockedStartTimeInNanos = 0;
+        }
+    }
+
     private void sendToDownstream ( final TuplesImpl output )
     {
-        if ( output != null && output.isNonEmpty() )
+        if ( partialDownstreamSendingEnabled )
+        {
+            sendToDownstreamPartially( output );
+        }
+        else if ( output != null && output.isNonEmpty() )
         {
             awaitDownstreamTuplesFuture();
+            if ( tupleRecyclingEnabled )
+            {
+                retainOutputTuples( output );
+                downstreamTuplesFuture = downstreamTupleSender.send( output );
+                // released tuples can be reused by the pipeline before the downstream tuple sender completes
+                awaitDownstreamTuplesFuture();
+                releaseOutputTuples( output );
+            }
+            else if ( asyncDownstreamSendingEnabled )
+            {
+                sendToDownstreamAsync( output );
+            }
+            else
+            {
+                downstreamTuplesFuture = downstreamTupleSender.send( output );
+            }
+        }
+    }
+
+    /**
+     * Hands the output off to the sender thread if the last operator of the pipeline has a double-buffered output supplier, and swaps
+     * its buffers so that the next invocation fills the other buffer while the given output is being sent. Sending of the other buffer
+     * is already completed at this point.
+     */
+    private void sendToDownstreamAsync ( final TuplesImpl output )
+    {
+        final Supplier<TuplesImpl> outputSupplier = pipeline.getOperator( pipeline.getOperatorCount() - 1 ).getOutputSupplier();
+        if ( !( outputSupplier instanceof DoubleBufferedTuplesImplSupplier ) )
+        {
             downstreamTuplesFuture = downstreamTupleSender.send( output );
+            return;
+        }
+
+        if ( downstreamTupleSenderExecutor == null )
+        {
+            final Thread runnerThread = Thread.currentThread();
+            final String threadName = runnerThread.getName() + "-sender";
+            downstreamTupleSenderExecutor = newSingleThreadExecutor( runnable -> threadFactory.newThread( runnerThread.getThreadGroup(),
+                                                                                                        runnable,
+                                                                                                        threadName ) );
+        }
+
+        final DownstreamTupleSender downstreamTupleSender = this.downstreamTupleSender;
+        downstreamTuplesFuture = downstreamTupleSenderExecutor.submit( () -> {
+            final Future<Void> future = downstreamTupleSender.send( output );
+            if ( future != null )
+            {
+                future.get();
+            }
+
+            return null;
+        } );
+
+        ( (DoubleBufferedTuplesImplSupplier) outputSupplier ).swap();
+    }
+
+    /**
+     * Retries the pending outputs and sends the given output without waiting for the full downstream tuple queues. The tuples which
+     * cannot be sent are kept until the next invocation. The downstream is waited for only if the number of the kept tuples exceeds
+     * {@link PipelineReplicaRunnerConfig#getMaxPendingDownstreamTupleCount()}, so that the backpressure eventually reaches the
+     * upstream. A scheduled runner stops invoking the pipeline instead of waiting. If tuple recycling is enabled, the output tuples are
+     * released once they are completely sent.
+     */
+    private void sendToDownstreamPartially ( final TuplesImpl output )
+    {
+        // pending outputs are sent first to preserve the order of the tuples
+        trySendPendingOutputs();
+
+        if ( output == null || !output.isNonEmpty() )
+        {
+            return;
+        }
+
+        if ( tupleRecyclingEnabled )
+        {
+            retainOutputTuples( output );
+        }
+
+        if ( pendingOutputs.isEmpty() && downstreamTupleSender.trySend( output ) )
+        {
+            if ( tupleRecyclingEnabled )
+            {
+                releaseOutputTuples( output );
+            }
+
+            return;
+        }
+
+        // the last operator reuses its output object in the next invocation. the sender continues with the same tuple indices on the copy
+        final TuplesImpl pendingOutput = new TuplesImpl( output.getPortCount() );
+        for ( int portIndex = 0; portIndex < output.getPortCount(); portIndex++ )
+        {
+            pendingOutput.addAll( portIndex, output.getTuplesModifiable( portIndex ) );
+        }
+
+        pendingOutputs.addLast( pendingOutput );
+        pendingTupleCount += getTupleCount( pendingOutput );
+
+        while ( !pooledSchedulingEnabled && pendingTupleCount > maxPendingDownstreamTupleCount )
+        {
+            sendFirstPendingOutput();
+        }
+    }
+
+    /**
+     * Sends the pending outputs in order without waiting for the full downstream tuple queues
+     *
+     * @return true if all pending outputs are sent, false otherwise
+     */
+    private boolean trySendPendingOutputs ()
+    {
+        while ( !pendingOutputs.isEmpty() && downstreamTupleSender.trySend( pendingOutputs.peekFirst() ) )
+        {
+            onPendingOutputSent();
+        }
+
+        return pendingOutputs.isEmpty();
+    }
+
+    private void sendPendingOutputs ()
+    {
+        while ( !pendingOutputs.isEmpty() )
+        {
+            sendFirstPendingOutput();
+        }
+    }
+
+    private void sendFirstPendingOutput ()
+    {
+        downstreamTupleSender.send( pendingOutputs.peekFirst() );
+        onPendingOutputSent();
+    }
+
+    private void onPendingOutputSent ()
+    {
+        final TuplesImpl pendingOutput = pendingOutputs.pollFirst();
+        pendingTupleCount -= getTupleCount( pendingOutput );
+        if ( tupleRecyclingEnabled )
+        {
+            releaseOutputTuples( pendingOutput );
+        }
+    }
+
+    private int getTupleCount ( final TuplesImpl tuples )
+    {
+        int count = 0;
+        for ( int portIndex = 0; portIndex < tuples.getPortCount(); portIndex++ )
+        {
+            count += tuples.getTupleCount( portIndex );
+        }
+
+        return count;
+    }
+
+    private void shutdownDownstreamTupleSenderExecutor ()
+    {
+        if ( downstreamTupleSenderExecutor != null )
+        {
+            downstreamTupleSenderExecutor.shutdownNow();
+            downstreamTupleSenderExecutor = null;
+        }
+    }
+
+    /**
+     * Retains each output tuple for each downstream tuple queue to which it is sent. Retaining must be done before sending since
+     * downstream pipelines may consume and release tuples before sending completes.
+     */
+    private void retainOutputTuples ( final TuplesImpl output )
+    {
+        for ( int i = 0; i < output.getPortCount(); i++ )
+        {
+            final int destinationCount = downstreamTupleSender.getDestinationCount( i );
+            final List<Tuple> tuples = output.getTuplesModifiable( i );
+            for ( int j = 0, size = tuples.size(); j < size; j++ )
+            {
+                tuples.get( j ).retain( destinationCount );
+            }
+        }
+    }
+
+    /**
+     * Releases the references of the last operator of the pipeline to its output tuples
+     */
+    private void releaseOutputTuples ( final TuplesImpl output )
+    {
+        for ( int i = 0; i < output.getPortCount(); i++ )
+        {
+            final List<Tuple> tuples = output.getTuplesModifiable( i );
+            for ( int j = 0, size = tuples.size(); j < size; j++ )
+            {
+                tuples.get( j ).release();
+            }
         }
     }
 
     private void completeRunWithFailure ( final Exception e )
     {
         LOGGER.error( id + ": runner failed", e );
+        shutdownDownstreamTupleSenderExecutor();
         supervisor.notifyPipelineReplicaFailed( id, e );
 
         synchronized ( monitor )
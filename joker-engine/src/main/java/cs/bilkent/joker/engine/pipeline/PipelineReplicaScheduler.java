@@ -0,0 +1,252 @@
+package cs.bilkent.joker.engine.pipeline;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.engine.config.JokerConfig;
+import static cs.bilkent.joker.engine.config.JokerConfig.JOKER_THREAD_GROUP_NAME;
+import cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig;
+import cs.bilkent.joker.engine.metric.IdleTimeMeter;
+import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineReplicaRunnerStatus.COMPLETED;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Runs {@link PipelineReplicaRunner} instances as cooperative tasks on a fixed number of worker threads, instead of a thread per
+ * pipeline replica. Each runner is pinned to the worker with the fewest runners when it is scheduled, hence splitting and merging
+ * pipelines only adds and removes tasks. A worker runs its runners in round-robin order, picks only the runners with tuples to drain or
+ * pending commands, and idles only when none of its ready runners invokes its pipeline. A runner yields its worker after
+ * {@link PipelineReplicaRunnerConfig#getSchedulerMaxInvocationsPerRun()} invocations, when none of its operators is invoked, or when its
+ * downstream tuple queues are full. A runner never waits for its downstream on the worker thread. It keeps the tuples which cannot be
+ * sent and retries them on its next runs, hence the downstream runners of the same worker can make progress in the meantime.
+ * <p>
+ * Worker threads are started lazily and terminate when they have no runners.
+ */
+@Singleton
+@ThreadSafe
+public class PipelineReplicaScheduler
+{
+
+    private static final Logger LOGGER = LoggerFactory.getLogger( PipelineReplicaScheduler.class );
+
+
+    private final ThreadGroup threadGroup;
+
+    private final IdleTimeMeter idleTimeMeter;
+
+    private final IdleStrategyPreset idleStrategy;
+
+    private final int maxInvocationsPerRun;
+
+    private final Worker[] workers;
+
+    @Inject
+    public PipelineReplicaScheduler ( final JokerConfig config,
+                                      final IdleTimeMeter idleTimeMeter,
+                                      @Named( JOKER_THREAD_GROUP_NAME ) final ThreadGroup threadGroup )
+    {
+        final PipelineReplicaRunnerConfig runnerConfig = config.getPipelineReplicaRunnerConfig();
+        checkArgument( runnerConfig.getSchedulerWorkerCount() > 0,
+                       "invalid scheduler worker count: %s",
+                       runnerConfig.getSchedulerWorkerCount() );
+        checkArgument( runnerConfig.getSchedulerMaxInvocationsPerRun() > 0,
+                       "invalid scheduler max invocations per run: %s",
+                       runnerConfig.getSchedulerMaxInvocationsPerRun() );
+        this.threadGroup = threadGroup;
+        this.idleTimeMeter = idleTimeMeter;
+        this.idleStrategy = runnerConfig.getIdleStrategy();
+        this.maxInvocationsPerRun = runnerConfig.getSchedulerMaxInvocationsPerRun();
+        this.workers = new Worker[ runnerConfig.getSchedulerWorkerCount() ];
+    }
+
+    /**
+     * Schedules the given runner to the worker with the fewest runners. The runner is run until it completes its run.
+     *
+     * @param runner
+     *         runner to schedule
+     *
+     * @return the worker thread which runs the given runner
+     */
+    public synchronized Thread schedule ( final PipelineReplicaRunner runner )
+    {
+        checkArgument( runner != null, "runner can't be null" );
+
+        int workerIndex = 0;
+        for ( int i = 1; i < workers.length && workers[ workerIndex ] != null; i++ )
+        {
+            if ( workers[ i ] == null || workers[ i ].runnerCount < workers[ workerIndex ].runnerCount )
+            {
+                workerIndex = i;
+            }
+        }
+
+        Worker worker = workers[ workerIndex ];
+        if ( worker == null )
+        {
+            worker = new Worker( workerIndex );
+            workers[ workerIndex ] = worker;
+            worker.start();
+            LOGGER.info( "Started scheduler worker: {}", worker.getName() );
+        }
+
+        worker.runnerCount++;
+        worker.newRunners.offer( runner );
+
+        return worker;
+    }
+
+    synchronized int getRunnerCount ()
+    {
+        int runnerCount = 0;
+        for ( Worker worker : workers )
+        {
+            if ( worker != null )
+            {
+                runnerCount += worker.runnerCount;
+            }
+        }
+
+        return runnerCount;
+    }
+
+    private synchronized void onRunnerCompleted ( final Worker worker )
+    {
+        worker.runnerCount--;
+    }
+
+    private synchronized boolean retire ( final Worker worker )
+    {
+        if ( worker.runnerCount > 0 )
+        {
+            return false;
+        }
+
+        workers[ worker.workerIndex ] = null;
+        LOGGER.info( "Stopping scheduler worker: {} since it has no runners", worker.getName() );
+
+        return true;
+    }
+
+
+    private static class ScheduledRunner
+    {
+
+        private final PipelineReplicaRunner runner;
+
+        private final long waitTimeoutInNanos;
+
+        // set if any operator is invoked on the last run
+        private boolean busy = true;
+
+        private long lastRunTime;
+
+        ScheduledRunner ( final PipelineReplicaRunner runner )
+        {
+            this.runner = runner;
+            this.waitTimeoutInNanos = MILLISECONDS.toNanos( runner.getWaitTimeoutInMillis() );
+        }
+
+        // an idle runner is run at least once in the runner wait timeout so that it can complete when its upstream is closed
+        boolean isReady ( final long now )
+        {
+            return busy || runner.isSchedulable() || now - lastRunTime >= waitTimeoutInNanos;
+        }
+
+    }
+
+
+    private class Worker extends Thread
+    {
+
+        private final int workerIndex;
+
+        private final Queue<PipelineReplicaRunner> newRunners = new ConcurrentLinkedQueue<>();
+
+        private final ArrayDeque<ScheduledRunner> runners = new ArrayDeque<>();
+
+        // guarded by the scheduler
+        private int runnerCount;
+
+        Worker ( final int workerIndex )
+        {
+            super( threadGroup, threadGroup.getName() + "-scheduler-worker-" + workerIndex );
+            this.workerIndex = workerIndex;
+        }
+
+        @Override
+        public void run ()
+        {
+            final IdleStrategy idleStrategy = idleTimeMeter.newIdleStrategy( PipelineReplicaScheduler.this.idleStrategy );
+            while ( true )
+            {
+                if ( runAnother() )
+                {
+                    idleStrategy.reset();
+                }
+                else if ( runners.isEmpty() && newRunners.isEmpty() && retire( this ) )
+                {
+                    break;
+                }
+                else
+                {
+                    idleStrategy.idle();
+                }
+            }
+        }
+
+        /**
+         * Runs the ready runners of the worker in round-robin order until one of them invokes its pipeline or completes its run
+         *
+         * @return true if a runner invokes its pipeline or completes its run, false otherwise
+         */
+        private boolean runAnother ()
+        {
+            PipelineReplicaRunner newRunner;
+            while ( ( newRunner = newRunners.poll() ) != null )
+            {
+                runners.addFirst( new ScheduledRunner( newRunner ) );
+            }
+
+            final long now = System.nanoTime();
+            for ( int i = 0, count = runners.size(); i < count; i++ )
+            {
+                final ScheduledRunner scheduledRunner = runners.pollFirst();
+                runners.addLast( scheduledRunner );
+                if ( scheduledRunner.isReady( now ) && run( scheduledRunner ) )
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private boolean run ( final ScheduledRunner scheduledRunner )
+        {
+            final PipelineReplicaRunner runner = scheduledRunner.runner;
+            scheduledRunner.busy = runner.runScheduled( maxInvocationsPerRun );
+            scheduledRunner.lastRunTime = System.nanoTime();
+
+            if ( runner.getStatus() == COMPLETED )
+            {
+                runners.remove( scheduledRunner );
+                onRunnerCompleted( this );
+                return true;
+            }
+
+            return scheduledRunner.busy;
+        }
+
+    }
+
+}
@@ -0,0 +1,24 @@
+package cs.bilkent.joker.engine.pipeline;
+
+/**
+ * Creates the threads running {@link PipelineReplicaRunner} instances when pipeline replicas are not run by
+ * {@link PipelineReplicaScheduler}. Implementations must have a public no-arg constructor.
+ */
+public interface PipelineReplicaThreadFactory
+{
+
+    /**
+     * Returns a new unstarted thread which runs the given runnable
+     *
+     * @param threadGroup
+     *         thread group of the Joker instance
+     * @param runnable
+     *         runnable to be run by the thread
+     * @param name
+     *         name of the thread
+     *
+     * @return a new unstarted thread which runs the given runnable
+     */
+    Thread newThread ( ThreadGroup threadGroup, Runnable runnable, String name );
+
+}
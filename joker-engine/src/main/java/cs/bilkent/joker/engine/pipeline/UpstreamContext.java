@@ -14,7 +14,9 @@ import cs.bilkent.joker.operator.scheduling.ScheduleWhenAvailable;
 import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort.ALL_PORTS;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort.ANY_PORT;
+import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailableOrTimeout;
 import cs.bilkent.joker.operator.scheduling.SchedulingStrategy;
+import static cs.bilkent.joker.operator.spec.OperatorType.PARTITIONED_STATEFUL;
 import static java.lang.Math.min;
 
 public class UpstreamContext
@@ -131,6 +133,15 @@ public class UpstreamContext
                 throw new IllegalStateException( s.toString() );
             }
         }
+        else if ( schedulingStrategy instanceof ScheduleWhenTuplesAvailableOrTimeout )
+        {
+            checkState( operatorDef.getOperatorType() != PARTITIONED_STATEFUL,
+                        "%s operator: %s cannot use %s",
+                        PARTITIONED_STATEFUL,
+                        operatorDef.getId(),
+                        ScheduleWhenTuplesAvailableOrTimeout.class.getSimpleName() );
+            verifyOrFail( operatorDef, ( (ScheduleWhenTuplesAvailableOrTimeout) schedulingStrategy ).getTupleAvailability() );
+        }
         else
         {
             throw new IllegalStateException( operatorDef.getId() + " returns invalid initial scheduling strategy: " + schedulingStrategy );
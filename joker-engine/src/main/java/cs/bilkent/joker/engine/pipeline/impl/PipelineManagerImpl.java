@@ -11,7 +11,6 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
-import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -35,7 +34,9 @@ import cs.bilkent.joker.engine.flow.FlowExecutionPlan;
 import cs.bilkent.joker.engine.flow.PipelineId;
 import cs.bilkent.joker.engine.flow.RegionDef;
 import cs.bilkent.joker.engine.flow.RegionExecutionPlan;
+import cs.bilkent.joker.engine.metric.IdleTimeMeter;
 import cs.bilkent.joker.engine.metric.PipelineMeter;
+import cs.bilkent.joker.engine.metric.PipelineReplicaMeter;
 import cs.bilkent.joker.engine.partition.PartitionDistribution;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractorFactory;
@@ -52,6 +53,7 @@ import static cs.bilkent.joker.engine.pipeline.Pipeline.createAlreadyRunningPipe
 import cs.bilkent.joker.engine.pipeline.PipelineManager;
 import cs.bilkent.joker.engine.pipeline.PipelineReplica;
 import cs.bilkent.joker.engine.pipeline.PipelineReplicaId;
+import cs.bilkent.joker.engine.pipeline.PipelineReplicaScheduler;
 import cs.bilkent.joker.engine.pipeline.UpstreamConnectionStatus;
 import static cs.bilkent.joker.engine.pipeline.UpstreamConnectionStatus.ACTIVE;
 import static cs.bilkent.joker.engine.pipeline.UpstreamConnectionStatus.CLOSED;
@@ -65,12 +67,18 @@ import cs.bilkent.joker.engine.region.Region;
 import cs.bilkent.joker.engine.region.RegionManager;
 import cs.bilkent.joker.engine.supervisor.Supervisor;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.engine.tuplequeue.impl.operator.MultiLaneOperatorTupleQueue;
 import static cs.bilkent.joker.engine.util.RegionUtil.getFirstOperator;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset;
+import cs.bilkent.joker.engine.util.concurrent.MeteredIdleStrategy;
 import cs.bilkent.joker.flow.FlowDef;
 import cs.bilkent.joker.flow.Port;
 import cs.bilkent.joker.operator.OperatorDef;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
 import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable;
+import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailableOrTimeout;
 import cs.bilkent.joker.operator.scheduling.SchedulingStrategy;
 import static cs.bilkent.joker.operator.spec.OperatorType.PARTITIONED_STATEFUL;
 import static cs.bilkent.joker.operator.spec.OperatorType.STATEFUL;
@@ -106,13 +114,19 @@ public class PipelineManagerImpl implements PipelineManager
 
     private final DownstreamTupleSenderFailureFlag downstreamTupleSenderFailureFlag;
 
+    private final TupleQueueMemoryBudget tupleQueueMemoryBudget;
+
     private final ThreadGroup jokerThreadGroup;
 
-    private final BiFunction<List<Pair<Integer, Integer>>, OperatorTupleQueue, DownstreamTupleSender>[]
-            defaultDownstreamTupleSenderConstructors = new BiFunction[ 6 ];
+    private final IdleTimeMeter idleTimeMeter;
+
+    private final PipelineReplicaScheduler pipelineReplicaScheduler;
+
+    private final Function4<List<Pair<Integer, Integer>>, OperatorTupleQueue, IdleStrategy, DownstreamTupleSender>[]
+            defaultDownstreamTupleSenderConstructors = new Function4[ 6 ];
 
-    private final Function6<List<Pair<Integer, Integer>>, Integer, int[], OperatorTupleQueue[], PartitionKeyExtractor,
-                                   DownstreamTupleSender>[] partitionedDownstreamTupleSenderConstructors = new Function6[ 6 ];
+    private final Function7<List<Pair<Integer, Integer>>, Integer, int[], OperatorTupleQueue[], PartitionKeyExtractor, IdleStrategy,
+                                   DownstreamTupleSender>[] partitionedDownstreamTupleSenderConstructors = new Function7[ 6 ];
 
     private Supervisor supervisor;
 
@@ -132,6 +146,9 @@ public class PipelineManagerImpl implements PipelineManager
                                  final PartitionService partitionService,
                                  final PartitionKeyExtractorFactory partitionKeyExtractorFactory,
                                  final DownstreamTupleSenderFailureFlag downstreamTupleSenderFailureFlag,
+                                 final TupleQueueMemoryBudget tupleQueueMemoryBudget,
+                                 final IdleTimeMeter idleTimeMeter,
+                                 final PipelineReplicaScheduler pipelineReplicaScheduler,
                                  @Named( JOKER_THREAD_GROUP_NAME ) final ThreadGroup jokerThreadGroup )
     {
         this.jokerConfig = jokerConfig;
@@ -139,6 +156,9 @@ public class PipelineManagerImpl implements PipelineManager
         this.partitionService = partitionService;
         this.partitionKeyExtractorFactory = partitionKeyExtractorFactory;
         this.downstreamTupleSenderFailureFlag = downstreamTupleSenderFailureFlag;
+        this.tupleQueueMemoryBudget = tupleQueueMemoryBudget;
+        this.idleTimeMeter = idleTimeMeter;
+        this.pipelineReplicaScheduler = pipelineReplicaScheduler;
         this.jokerThreadGroup = jokerThreadGroup;
         createDownstreamTupleSenderFactories();
     }
@@ -151,23 +171,35 @@ public class PipelineManagerImpl implements PipelineManager
 
     private void createDownstreamTupleSenderFactories ()
     {
-        defaultDownstreamTupleSenderConstructors[ 1 ] = ( pairs, tupleQueue ) ->
+        defaultDownstreamTupleSenderConstructors[ 1 ] = ( pairs, tupleQueue, idleStrategy ) ->
         {
             final Pair<Integer, Integer> pair1 = pairs.get( 0 );
-            return new DownstreamTupleSender1( downstreamTupleSenderFailureFlag, pair1._1, pair1._2, tupleQueue );
+            return new DownstreamTupleSender1( downstreamTupleSenderFailureFlag,
+                                               tupleQueueMemoryBudget,
+                                               idleStrategy,
+                                               pair1._1,
+                                               pair1._2,
+                                               tupleQueue );
         };
-        defaultDownstreamTupleSenderConstructors[ 2 ] = ( pairs, tupleQueue ) ->
+        defaultDownstreamTupleSenderConstructors[ 2 ] = ( pairs, tupleQueue, idleStrategy ) ->
         {
             final int[] sourcePorts = new int[ pairs.size() ];
             final int[] destinationPorts = new int[ pairs.size() ];
             copyPorts( pairs, sourcePorts, destinationPorts );
-            return new DownstreamTupleSenderN( downstreamTupleSenderFailureFlag, sourcePorts, destinationPorts, tupleQueue );
+            return new DownstreamTupleSenderN( downstreamTupleSenderFailureFlag,
+                                               tupleQueueMemoryBudget,
+                                               idleStrategy,
+                                               sourcePorts,
+                                               destinationPorts,
+                                               tupleQueue );
         };
         partitionedDownstreamTupleSenderConstructors[ 1 ] = ( pairs, partitionCount, partitionDistribution, tupleQueues,
-                                                              partitionKeyFunction ) ->
+                                                              partitionKeyFunction, idleStrategy ) ->
         {
             final Pair<Integer, Integer> pair1 = pairs.get( 0 );
             return new PartitionedDownstreamTupleSender1( downstreamTupleSenderFailureFlag,
+                                                          tupleQueueMemoryBudget,
+                                                          idleStrategy,
                                                           pair1._1,
                                                           pair1._2,
                                                           partitionCount,
@@ -176,12 +208,14 @@ public class PipelineManagerImpl implements PipelineManager
                                                           partitionKeyFunction );
         };
         partitionedDownstreamTupleSenderConstructors[ 2 ] = ( pairs, partitionCount, partitionDistribution, tupleQueues,
-                                                              partitionKeyFunction ) ->
+                                                              partitionKeyFunction, idleStrategy ) ->
         {
             final int[] sourcePorts = new int[ pairs.size() ];
             final int[] destinationPorts = new int[ pairs.size() ];
             copyPorts( pairs, sourcePorts, destinationPorts );
             return new PartitionedDownstreamTupleSenderN( downstreamTupleSenderFailureFlag,
+                                                          tupleQueueMemoryBudget,
+                                                          idleStrategy,
                                                           sourcePorts,
                                                           destinationPorts,
                                                           partitionCount,
@@ -483,7 +517,7 @@ public class PipelineManagerImpl implements PipelineManager
                                                                     upstreamContext );
             addPipeline( pipeline );
             createDownstreamTupleSenders( flow, pipeline );
-            pipeline.startPipelineReplicaRunners( jokerConfig, supervisor, jokerThreadGroup );
+            startPipelineReplicaRunners( pipeline, supervisor );
             incrementFlowVersion();
         }
         catch ( Exception e )
@@ -547,7 +581,7 @@ public class PipelineManagerImpl implements PipelineManager
             for ( Pipeline pipeline : newPipelines )
             {
                 LOGGER.info( "Starting new pipeline {}", pipeline.getId() );
-                pipeline.startPipelineReplicaRunners( jokerConfig, supervisor, jokerThreadGroup );
+                startPipelineReplicaRunners( pipeline, supervisor );
             }
 
             incrementFlowVersion();
@@ -629,7 +663,7 @@ public class PipelineManagerImpl implements PipelineManager
             for ( Pipeline pipeline : newPipelines )
             {
                 LOGGER.info( "Starting new pipeline {}", pipeline.getId() );
-                pipeline.startPipelineReplicaRunners( jokerConfig, supervisor, jokerThreadGroup );
+                startPipelineReplicaRunners( pipeline, supervisor );
             }
 
             for ( Pipeline pausedPipeline : upstreamPipelines )
@@ -802,7 +836,11 @@ public class PipelineManagerImpl implements PipelineManager
             final PipelineReplica pipelineReplica = pipeline.getPipelineReplica( replicaIndex );
             for ( OperatorReplica operatorReplica : pipelineReplica.getOperators() )
             {
-                final SchedulingStrategy schedulingStrategy = operatorReplica.getInitialSchedulingStrategy();
+                SchedulingStrategy schedulingStrategy = operatorReplica.getInitialSchedulingStrategy();
+                if ( schedulingStrategy instanceof ScheduleWhenTuplesAvailableOrTimeout )
+                {
+                    schedulingStrategy = ( (ScheduleWhenTuplesAvailableOrTimeout) schedulingStrategy ).getTupleAvailability();
+                }
                 if ( schedulingStrategy instanceof ScheduleWhenTuplesAvailable )
                 {
                     final ScheduleWhenTuplesAvailable s = (ScheduleWhenTuplesAvailable) schedulingStrategy;
@@ -829,6 +867,8 @@ public class PipelineManagerImpl implements PipelineManager
     private void createDownstreamTupleSenders ( final FlowDef flow, final Pipeline pipeline )
     {
         final OperatorDef lastOperator = pipeline.getLastOperatorDef();
+        final IdleStrategyPreset idleStrategyPreset = jokerConfig.getPipelineReplicaRunnerConfig()
+                                                                 .getIdleStrategy( pipeline.getFirstOperatorDef().getId() );
         final Map<String, List<Pair<Integer, Integer>>> connectionsByOperatorId = getDownstreamConnectionsByOperatorId( flow,
                                                                                                                         lastOperator );
         LOGGER.info( "Pipeline {} with last operator {} has following downstream connectionsByOperatorId: {}",
@@ -837,9 +877,11 @@ public class PipelineManagerImpl implements PipelineManager
                      connectionsByOperatorId );
 
         final DownstreamTupleSender[] senders = new DownstreamTupleSender[ pipeline.getReplicaCount() ];
+        final Map<String, OperatorTupleQueue[][]> laneTupleQueuesByOperatorId = new HashMap<>();
         for ( int replicaIndex = 0; replicaIndex < pipeline.getReplicaCount(); replicaIndex++ )
         {
             final DownstreamTupleSender[] sendersToDownstreamOperators = new DownstreamTupleSender[ connectionsByOperatorId.size() ];
+            final PipelineReplicaMeter replicaMeter = pipeline.getPipelineReplica( replicaIndex ).getMeter();
             int i = 0;
             for ( Entry<String, List<Pair<Integer, Integer>>> e : connectionsByOperatorId.entrySet() )
             {
@@ -850,23 +892,34 @@ public class PipelineManagerImpl implements PipelineManager
                 final RegionDef downstreamRegionDef = downstreamPipeline.getRegionDef();
                 final OperatorTupleQueue[] pipelineTupleQueues = getPipelineTupleQueues( downstreamOperator );
                 final int j = min( pairs.size(), DOWNSTREAM_TUPLE_SENDER_CONSTRUCTOR_COUNT );
+                final IdleStrategy senderIdleStrategy = newSenderIdleStrategy( idleStrategyPreset, replicaMeter );
 
                 if ( pipeline.getId().getRegionId() == downstreamPipeline.getId().getRegionId() )
                 {
                     final OperatorTupleQueue pipelineTupleQueue = pipelineTupleQueues[ replicaIndex ];
-                    sendersToDownstreamOperators[ i ] = defaultDownstreamTupleSenderConstructors[ j ].apply( pairs, pipelineTupleQueue );
+                    sendersToDownstreamOperators[ i ] = defaultDownstreamTupleSenderConstructors[ j ].apply( pairs,
+                                                                                                             pipelineTupleQueue,
+                                                                                                             senderIdleStrategy );
                 }
                 else if ( downstreamRegionDef.getRegionType() == PARTITIONED_STATEFUL )
                 {
                     final int[] partitionDistribution = getPartitionDistribution( downstreamOperator );
+                    final List<String> partitionFieldNames = downstreamRegionDef.getPartitionFieldNames();
                     final PartitionKeyExtractor partitionKeyExtractor = partitionKeyExtractorFactory.createPartitionKeyExtractor(
-                            downstreamRegionDef.getPartitionFieldNames() );
+                            partitionFieldNames,
+                            partitionFieldNames.size(),
+                            downstreamOperator.getSchema().getInputSchema( 0 ) );
+                    final OperatorTupleQueue[] laneTupleQueues = laneTupleQueuesByOperatorId.computeIfAbsent( downstreamOperatorId,
+                                                                                                              operatorId -> getLaneTupleQueues(
+                                                                                                                      pipelineTupleQueues,
+                                                                                                                      pipeline ) )[ replicaIndex ];
                     sendersToDownstreamOperators[ i ] = partitionedDownstreamTupleSenderConstructors[ j ].apply( pairs,
                                                                                                                  partitionService
                                                                                                                          .getPartitionCount(),
                                                                                                                  partitionDistribution,
-                                                                                                                 pipelineTupleQueues,
-                                                                                                                 partitionKeyExtractor );
+                                                                                                                 laneTupleQueues,
+                                                                                                                 partitionKeyExtractor,
+                                                                                                                 senderIdleStrategy );
                 }
                 else if ( downstreamRegionDef.getRegionType() == STATELESS )
                 {
@@ -883,7 +936,8 @@ public class PipelineManagerImpl implements PipelineManager
                     if ( pipelineTupleQueue != null )
                     {
                         sendersToDownstreamOperators[ i ] = defaultDownstreamTupleSenderConstructors[ j ].apply( pairs,
-                                                                                                                 pipelineTupleQueue );
+                                                                                                                 pipelineTupleQueue,
+                                                                                                                 senderIdleStrategy );
                     }
                     else
                     {
@@ -898,7 +952,9 @@ public class PipelineManagerImpl implements PipelineManager
                     final int l = pipelineTupleQueues.length;
                     checkState( l == 1, "Operator %s can not have %s replicas", downstreamOperatorId, l );
                     final OperatorTupleQueue pipelineTupleQueue = pipelineTupleQueues[ 0 ];
-                    sendersToDownstreamOperators[ i ] = defaultDownstreamTupleSenderConstructors[ j ].apply( pairs, pipelineTupleQueue );
+                    sendersToDownstreamOperators[ i ] = defaultDownstreamTupleSenderConstructors[ j ].apply( pairs,
+                                                                                                             pipelineTupleQueue,
+                                                                                                             senderIdleStrategy );
                 }
                 else
                 {
@@ -988,6 +1044,30 @@ public class PipelineManagerImpl implements PipelineManager
         return pipelineTupleQueues;
     }
 
+    // each replica of the upstream pipeline offers its tuples to its own lane if a pipeline tuple queue has multiple lanes.
+    // lanes are keyed by the upstream region, so that the lanes of its previous replicas are retired when its senders are re-created.
+    // returns the tuple queues indexed by the upstream and downstream replica indices
+    private OperatorTupleQueue[][] getLaneTupleQueues ( final OperatorTupleQueue[] pipelineTupleQueues, final Pipeline upstreamPipeline )
+    {
+        final int upstreamReplicaCount = upstreamPipeline.getReplicaCount();
+        final OperatorTupleQueue[][] laneTupleQueues = new OperatorTupleQueue[ upstreamReplicaCount ][ pipelineTupleQueues.length ];
+        for ( int i = 0; i < pipelineTupleQueues.length; i++ )
+        {
+            final OperatorTupleQueue pipelineTupleQueue = pipelineTupleQueues[ i ];
+            final int upstreamRegionId = upstreamPipeline.getId().getRegionId();
+            final OperatorTupleQueue[] lanes = pipelineTupleQueue instanceof MultiLaneOperatorTupleQueue
+                                               ? ( (MultiLaneOperatorTupleQueue) pipelineTupleQueue ).replaceLanes( upstreamRegionId,
+                                                                                                                     upstreamReplicaCount )
+                                               : null;
+            for ( int replicaIndex = 0; replicaIndex < upstreamReplicaCount; replicaIndex++ )
+            {
+                laneTupleQueues[ replicaIndex ][ i ] = lanes != null ? lanes[ replicaIndex ] : pipelineTupleQueue;
+            }
+        }
+
+        return laneTupleQueues;
+    }
+
     private void copyPorts ( final List<Pair<Integer, Integer>> pairs, final int[] sourcePorts, final int[] destinationPorts )
     {
         for ( int i = 0; i < pairs.size(); i++ )
@@ -1057,11 +1137,31 @@ public class PipelineManagerImpl implements PipelineManager
     private void startPipelineReplicaRunners ( final Supervisor supervisor )
     {
         for ( Pipeline pipeline : pipelines.values() )
+        {
+            startPipelineReplicaRunners( pipeline, supervisor );
+        }
+    }
+
+    private void startPipelineReplicaRunners ( final Pipeline pipeline, final Supervisor supervisor )
+    {
+        if ( jokerConfig.getPipelineReplicaRunnerConfig().isPooledSchedulingEnabled() )
+        {
+            pipeline.startPipelineReplicaRunners( jokerConfig, supervisor, pipelineReplicaScheduler );
+        }
+        else
         {
             pipeline.startPipelineReplicaRunners( jokerConfig, supervisor, jokerThreadGroup );
         }
     }
 
+    // the time spent by a sender while waiting for the full downstream is reported to the meter of the pipeline replica as backpressure.
+    // senders of scheduled pipeline replicas never wait since they only send partially. their runners meter the time until their pending
+    // outputs are sent instead
+    private IdleStrategy newSenderIdleStrategy ( final IdleStrategyPreset idleStrategyPreset, final PipelineReplicaMeter replicaMeter )
+    {
+        return new MeteredIdleStrategy( idleTimeMeter.newIdleStrategy( idleStrategyPreset ), replicaMeter.getDownstreamBlockedTimeCounter() );
+    }
+
     private Pipeline getPipeline ( final OperatorDef operator, final int operatorIndex )
     {
         for ( Pipeline pipeline : pipelines.values() )
@@ -1182,9 +1282,15 @@ public class PipelineManagerImpl implements PipelineManager
     }
 
     @FunctionalInterface
-    private interface Function6<T1, T2, T3, T4, T5, T6>
+    private interface Function4<T1, T2, T3, T4>
     {
-        T6 apply ( T1 t1, T2 t2, T3 t3, T4 t4, T5 t5 );
+        T4 apply ( T1 t1, T2 t2, T3 t3 );
+    }
+
+    @FunctionalInterface
+    private interface Function7<T1, T2, T3, T4, T5, T6, T7>
+    {
+        T7 apply ( T1 t1, T2 t2, T3 t3, T4 t4, T5 t5, T6 t6 );
     }
 
 
@@ -1197,6 +1303,12 @@ public class PipelineManagerImpl implements PipelineManager
             return null;
         }
 
+        @Override
+        public int getDestinationCount ( final int sourcePortIndex )
+        {
+            return 0;
+        }
+
     }
 
 }
@@ -1,56 +1,107 @@
 package cs.bilkent.joker.engine.pipeline.impl.downstreamtuplesender;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 import cs.bilkent.joker.engine.exception.JokerException;
+import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.pipeline.DownstreamTupleSender;
 import cs.bilkent.joker.engine.pipeline.DownstreamTupleSenderFailureFlag;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
-import cs.bilkent.joker.engine.util.concurrent.BackoffIdleStrategy;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
 import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
 import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.impl.TuplesImpl;
 
 public abstract class AbstractDownstreamTupleSender implements DownstreamTupleSender
 {
 
-    final IdleStrategy idleStrategy = BackoffIdleStrategy.newDefaultInstance();
+    static final int ALL_SENT = -1;
+
 
     final DownstreamTupleSenderFailureFlag failureFlag;
 
-    AbstractDownstreamTupleSender ( final DownstreamTupleSenderFailureFlag failureFlag )
+    final TupleQueueMemoryBudget memoryBudget;
+
+    final IdleStrategy idleStrategy;
+
+    AbstractDownstreamTupleSender ( final DownstreamTupleSenderFailureFlag failureFlag,
+                                    final TupleQueueMemoryBudget memoryBudget,
+                                    final IdleStrategy idleStrategy )
     {
         this.failureFlag = failureFlag;
+        this.memoryBudget = memoryBudget;
+        this.idleStrategy = idleStrategy;
     }
 
-    protected void send ( final OperatorTupleQueue operatorTupleQueue, final int destinationPortIndex, final List<Tuple> tuples )
+    @Override
+    public final Future<Void> send ( final TuplesImpl input )
     {
-        final int size = tuples.size();
-        int fromIndex = 0;
-        while ( true )
+        int offered;
+        while ( ( offered = offerPendingTuples( input ) ) != ALL_SENT )
         {
-            final int offered = operatorTupleQueue.offer( destinationPortIndex, tuples, fromIndex );
-            fromIndex += offered;
-            if ( fromIndex == size )
+            if ( offered > 0 )
             {
-                break;
+                idleStrategy.reset();
             }
-            else if ( offered == 0 )
+            else if ( idleStrategy.idle() )
             {
-                if ( idleStrategy.idle() )
+                if ( failureFlag.isFailed() )
                 {
-                    if ( failureFlag.isFailed() )
-                    {
-                        throw new JokerException( "Not sending tuples to downstream since failure flag is set" );
-                    }
+                    throw new JokerException( "Not sending tuples to downstream since failure flag is set" );
                 }
             }
-            else
-            {
-                idleStrategy.reset();
-            }
         }
 
         idleStrategy.reset();
+
+        return null;
+    }
+
+    @Override
+    public final boolean trySend ( final TuplesImpl input )
+    {
+        return offerPendingTuples( input ) == ALL_SENT;
+    }
+
+    /**
+     * Offers the tuples of the given input which are not sent yet to the downstream tuple queues once. The sender keeps its progress
+     * on the given input until all of its tuples are sent.
+     *
+     * @param input
+     *         tuples to send
+     *
+     * @return number of the tuples offered in this call, or {@link #ALL_SENT} if all tuples of the given input are sent
+     */
+    abstract int offerPendingTuples ( TuplesImpl input );
+
+    // tuples are not offered to a tuple queue with pending tuples while the memory budget is exhausted. they are always offered to an
+    // empty tuple queue so that the downstream pipeline can make progress and release the budget
+    final int offer ( final OperatorTupleQueue operatorTupleQueue,
+                      final int destinationPortIndex,
+                      final List<Tuple> tuples,
+                      final int fromIndex )
+    {
+        if ( memoryBudget.isExhausted() && !operatorTupleQueue.isEmpty() )
+        {
+            return 0;
+        }
+
+        return operatorTupleQueue.offer( destinationPortIndex, tuples, fromIndex );
+    }
+
+    final int offer ( final OperatorTupleQueue operatorTupleQueue,
+                      final int destinationPortIndex,
+                      final List<Tuple> tuples,
+                      final List<PartitionKey> partitionKeys,
+                      final int fromIndex )
+    {
+        if ( memoryBudget.isExhausted() && !operatorTupleQueue.isEmpty() )
+        {
+            return 0;
+        }
+
+        return operatorTupleQueue.offer( destinationPortIndex, tuples, partitionKeys, fromIndex );
     }
 
 }
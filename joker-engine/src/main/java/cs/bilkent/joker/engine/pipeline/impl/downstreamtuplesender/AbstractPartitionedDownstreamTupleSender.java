@@ -3,15 +3,17 @@ package cs.bilkent.joker.engine.pipeline.impl.downstreamtuplesender;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
-import cs.bilkent.joker.engine.exception.JokerException;
+import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
+import cs.bilkent.joker.engine.partition.PrimitivePartitionKeyExtractor;
 import static cs.bilkent.joker.engine.partition.PartitionUtil.getPartitionId;
 import cs.bilkent.joker.engine.pipeline.DownstreamTupleSender;
 import cs.bilkent.joker.engine.pipeline.DownstreamTupleSenderFailureFlag;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
 import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
 
@@ -29,28 +31,66 @@ public abstract class AbstractPartitionedDownstreamTupleSender extends AbstractD
 
     private final PartitionKeyExtractor partitionKeyExtractor;
 
+    // partition key extractor of the downstream tuple queues if they all share the same one and it cannot read partition field values
+    // without allocating partition keys, null otherwise
+    private final PartitionKeyExtractor downstreamPartitionKeyExtractor;
+
     private List<Tuple>[] tupleLists;
 
+    // partition keys of the tuples in the tuple lists with the same indices, if the downstream partition key extractor is present.
+    // they are passed next to the tuples since a tuple can be sent to multiple downstream operators on different threads
+    private List<PartitionKey>[] partitionKeyLists;
+
     private int[] indices;
 
+    // set while the tuples of a source port are distributed to the tuple lists but not sent yet
+    private boolean distributed;
+
     AbstractPartitionedDownstreamTupleSender ( final DownstreamTupleSenderFailureFlag failureFlag,
+                                               final TupleQueueMemoryBudget memoryBudget,
+                                               final IdleStrategy idleStrategy,
                                                final int partitionCount,
                                                final int[] partitionDistribution,
                                                final OperatorTupleQueue[] operatorTupleQueues,
                                                final PartitionKeyExtractor partitionKeyExtractor )
     {
-        super( failureFlag );
+        super( failureFlag, memoryBudget, idleStrategy );
         this.partitionCount = partitionCount;
         this.partitionDistribution = Arrays.copyOf( partitionDistribution, partitionDistribution.length );
         this.replicaCount = operatorTupleQueues.length;
         this.operatorTupleQueues = Arrays.copyOf( operatorTupleQueues, operatorTupleQueues.length );
         this.partitionKeyExtractor = partitionKeyExtractor;
+        this.downstreamPartitionKeyExtractor = getDownstreamPartitionKeyExtractor( operatorTupleQueues );
         this.tupleLists = new List[ operatorTupleQueues.length ];
+        this.partitionKeyLists = downstreamPartitionKeyExtractor != null ? new List[ operatorTupleQueues.length ] : null;
         this.indices = new int[ operatorTupleQueues.length ];
         for ( int i = 0; i < operatorTupleQueues.length; i++ )
         {
             tupleLists[ i ] = new ArrayList<>();
+            if ( partitionKeyLists != null )
+            {
+                partitionKeyLists[ i ] = new ArrayList<>();
+            }
+        }
+    }
+
+    private static PartitionKeyExtractor getDownstreamPartitionKeyExtractor ( final OperatorTupleQueue[] operatorTupleQueues )
+    {
+        final PartitionKeyExtractor partitionKeyExtractor = operatorTupleQueues[ 0 ].getPartitionKeyExtractor();
+        if ( partitionKeyExtractor instanceof PrimitivePartitionKeyExtractor )
+        {
+            return null;
         }
+
+        for ( OperatorTupleQueue operatorTupleQueue : operatorTupleQueues )
+        {
+            if ( operatorTupleQueue.getPartitionKeyExtractor() != partitionKeyExtractor )
+            {
+                return null;
+            }
+        }
+
+        return partitionKeyExtractor;
     }
 
     public final OperatorTupleQueue[] get ()
@@ -58,64 +98,77 @@ public abstract class AbstractPartitionedDownstreamTupleSender extends AbstractD
         return Arrays.copyOf( operatorTupleQueues, operatorTupleQueues.length );
     }
 
-    protected final Future<Void> send ( final TuplesImpl input, final int sourcePortIndex, final int destinationPortIndex )
+    /**
+     * Distributes the tuples of the given source port to the downstream tuple queues on the first call, and offers the tuples not sent
+     * yet once.
+     *
+     * @return number of the tuples offered in this call, or {@link #ALL_SENT} if all tuples of the given source port are sent
+     */
+    final int offerPendingTuples ( final TuplesImpl input, final int sourcePortIndex, final int destinationPortIndex )
     {
-        for ( Tuple tuple : input.getTuplesModifiable( sourcePortIndex ) )
+        if ( !distributed )
         {
-            final int partitionId = getPartitionId( partitionKeyExtractor.getPartitionHash( tuple ), partitionCount );
-            final int replicaIndex = partitionDistribution[ partitionId ];
-            tupleLists[ replicaIndex ].add( tuple );
+            distribute( input.getTuplesModifiable( sourcePortIndex ) );
+            distributed = true;
         }
 
-        int completed;
-        while ( true )
+        int offered = 0, pending = 0;
+        for ( int i = 0; i < replicaCount; i++ )
         {
-            completed = 0;
-            for ( int i = 0; i < replicaCount; i++ )
+            final List<Tuple> tuples = tupleLists[ i ];
+            int fromIndex = indices[ i ];
+            if ( fromIndex < tuples.size() )
             {
-                final List<Tuple> tuples = tupleLists[ i ];
-                int fromIndex = indices[ i ];
+                final int count = partitionKeyLists != null
+                                  ? offer( operatorTupleQueues[ i ], destinationPortIndex, tuples, partitionKeyLists[ i ], fromIndex )
+                                  : offer( operatorTupleQueues[ i ], destinationPortIndex, tuples, fromIndex );
+                fromIndex += count;
+                indices[ i ] = fromIndex;
+                offered += count;
                 if ( fromIndex < tuples.size() )
                 {
-                    final int offered = operatorTupleQueues[ i ].offer( destinationPortIndex, tuples, fromIndex );
-                    if ( offered == 0 )
-                    {
-                        if ( idleStrategy.idle() )
-                        {
-                            if ( failureFlag.isFailed() )
-                            {
-                                throw new JokerException( "Not sending tuples to downstream since failure flag is set" );
-                            }
-                        }
-                    }
-                    else
-                    {
-                        idleStrategy.reset();
-                        fromIndex += offered;
-                        indices[ i ] = fromIndex;
-                    }
-                }
-
-                if ( fromIndex == tuples.size() )
-                {
-                    completed++;
+                    pending++;
                 }
             }
+        }
 
-            if ( completed == replicaCount )
-            {
-                break;
-            }
+        if ( pending > 0 )
+        {
+            return offered;
         }
 
-        idleStrategy.reset();
         for ( int i = 0; i < replicaCount; i++ )
         {
             tupleLists[ i ].clear();
+            if ( partitionKeyLists != null )
+            {
+                partitionKeyLists[ i ].clear();
+            }
             indices[ i ] = 0;
         }
+        distributed = false;
 
-        return null;
+        return ALL_SENT;
+    }
+
+    private void distribute ( final List<Tuple> tuples )
+    {
+        for ( Tuple tuple : tuples )
+        {
+            if ( downstreamPartitionKeyExtractor != null )
+            {
+                // the downstream tuple queues use the given partition key instead of extracting it again
+                final PartitionKey partitionKey = downstreamPartitionKeyExtractor.getPartitionKey( tuple );
+                final int replicaIndex = partitionDistribution[ getPartitionId( partitionKey.partitionHashCode(), partitionCount ) ];
+                tupleLists[ replicaIndex ].add( tuple );
+                partitionKeyLists[ replicaIndex ].add( partitionKey );
+            }
+            else
+            {
+                final int partitionId = getPartitionId( partitionKeyExtractor.getPartitionHash( tuple ), partitionCount );
+                tupleLists[ partitionDistribution[ partitionId ] ].add( tuple );
+            }
+        }
     }
 
 }
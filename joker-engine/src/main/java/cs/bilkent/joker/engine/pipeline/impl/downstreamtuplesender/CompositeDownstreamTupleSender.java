@@ -5,6 +5,7 @@ import java.util.concurrent.Future;
 
 import cs.bilkent.joker.engine.pipeline.DownstreamTupleSender;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
+import static java.util.Arrays.fill;
 
 public class CompositeDownstreamTupleSender implements DownstreamTupleSender
 {
@@ -13,10 +14,14 @@ public class CompositeDownstreamTupleSender implements DownstreamTupleSender
 
     private final int size;
 
+    // flags of the senders which have sent all tuples given to the last trySend() call
+    private final boolean[] sent;
+
     public CompositeDownstreamTupleSender ( final DownstreamTupleSender[] senders )
     {
         this.senders = Arrays.copyOf( senders, senders.length );
         this.size = senders.length;
+        this.sent = new boolean[ size ];
     }
 
     @Override
@@ -24,12 +29,50 @@ public class CompositeDownstreamTupleSender implements DownstreamTupleSender
     {
         for ( int i = 0; i < size; i++ )
         {
-            senders[ i ].send( tuples );
+            if ( !sent[ i ] )
+            {
+                senders[ i ].send( tuples );
+            }
         }
 
+        fill( sent, false );
+
         return null;
     }
 
+    @Override
+    public boolean trySend ( final TuplesImpl tuples )
+    {
+        boolean allSent = true;
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( !sent[ i ] )
+            {
+                sent[ i ] = senders[ i ].trySend( tuples );
+                allSent &= sent[ i ];
+            }
+        }
+
+        if ( allSent )
+        {
+            fill( sent, false );
+        }
+
+        return allSent;
+    }
+
+    @Override
+    public int getDestinationCount ( final int sourcePortIndex )
+    {
+        int count = 0;
+        for ( int i = 0; i < size; i++ )
+        {
+            count += senders[ i ].getDestinationCount( sourcePortIndex );
+        }
+
+        return count;
+    }
+
     public DownstreamTupleSender[] getDownstreamTupleSenders ()
     {
         return Arrays.copyOf( senders, senders.length );
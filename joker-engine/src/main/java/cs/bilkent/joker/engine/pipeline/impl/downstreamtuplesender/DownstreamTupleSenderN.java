@@ -1,29 +1,20 @@
 package cs.bilkent.joker.engine.pipeline.impl.downstreamtuplesender;
 
 import java.util.List;
-import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import cs.bilkent.joker.engine.exception.JokerException;
-import cs.bilkent.joker.engine.pipeline.DownstreamTupleSender;
 import cs.bilkent.joker.engine.pipeline.DownstreamTupleSenderFailureFlag;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
-import cs.bilkent.joker.engine.util.concurrent.BackoffIdleStrategy;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
 import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
 import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
 import static java.util.Arrays.fill;
 
-public class DownstreamTupleSenderN implements DownstreamTupleSender, Supplier<OperatorTupleQueue>
+public class DownstreamTupleSenderN extends AbstractDownstreamTupleSender implements Supplier<OperatorTupleQueue>
 {
 
-    private final IdleStrategy idleStrategy = BackoffIdleStrategy.newDefaultInstance();
-
-    private final DownstreamTupleSenderFailureFlag failureFlag;
-
-    private final int portCount;
-
     private final int[] ports;
 
     private final int[] fromIndices;
@@ -33,18 +24,21 @@ public class DownstreamTupleSenderN implements DownstreamTupleSender, Supplier<O
     private final OperatorTupleQueue operatorTupleQueue;
 
     public DownstreamTupleSenderN ( final DownstreamTupleSenderFailureFlag failureFlag,
+                                    final TupleQueueMemoryBudget memoryBudget,
+                                    final IdleStrategy idleStrategy,
                                     final int[] sourcePorts,
                                     final int[] destinationPorts,
                                     final OperatorTupleQueue operatorTupleQueue )
     {
-        this.failureFlag = failureFlag;
+        super( failureFlag, memoryBudget, idleStrategy );
         checkArgument( sourcePorts.length == destinationPorts.length,
                        "source ports size = %s and destination ports = %s ! operatorId=%s",
                        sourcePorts.length,
                        destinationPorts.length,
                        operatorTupleQueue.getOperatorId() );
-        this.portCount = sourcePorts.length;
+        final int portCount = sourcePorts.length;
         this.ports = new int[ portCount * 2 ];
+        // indices of the first tuples not sent yet, for each source and destination port pair
         this.fromIndices = new int[ portCount * 2 ];
         this.limit = this.ports.length - 1;
         for ( int i = 0; i < portCount; i++ )
@@ -56,55 +50,49 @@ public class DownstreamTupleSenderN implements DownstreamTupleSender, Supplier<O
     }
 
     @Override
-    public Future<Void> send ( final TuplesImpl input )
+    int offerPendingTuples ( final TuplesImpl input )
     {
-        fill( fromIndices, 0 );
-        idleStrategy.reset();
-        int done = 0;
-
-        while ( true )
+        int offered = 0, pending = 0;
+        for ( int i = 0; i < limit; i += 2 )
         {
-            boolean idle = true;
-            for ( int i = 0; i < limit; i += 2 )
+            final List<Tuple> tuples = input.getTuplesModifiable( ports[ i ] );
+            int fromIndex = fromIndices[ i ];
+            if ( fromIndex < tuples.size() )
             {
-                final int sourcePortIndex = ports[ i ];
-                final int destinationPortIndex = ports[ i + 1 ];
-                int fromIndex = fromIndices[ sourcePortIndex ];
-                final List<Tuple> tuples = input.getTuplesModifiable( sourcePortIndex );
-
+                final int count = offer( operatorTupleQueue, ports[ i + 1 ], tuples, fromIndex );
+                fromIndex += count;
+                fromIndices[ i ] = fromIndex;
+                offered += count;
                 if ( fromIndex < tuples.size() )
                 {
-                    final int offered = operatorTupleQueue.offer( destinationPortIndex, tuples, fromIndex );
-                    fromIndex += offered;
-                    fromIndices[ sourcePortIndex ] = fromIndex;
-                    if ( fromIndex == tuples.size() )
-                    {
-                        done++;
-                    }
-                    if ( offered > 0 )
-                    {
-                        idle = false;
-                    }
+                    pending++;
                 }
             }
+        }
 
-            if ( done == portCount )
-            {
-                break;
-            }
-            else if ( idle )
+        if ( pending > 0 )
+        {
+            return offered;
+        }
+
+        fill( fromIndices, 0 );
+
+        return ALL_SENT;
+    }
+
+    @Override
+    public int getDestinationCount ( final int sourcePortIndex )
+    {
+        int count = 0;
+        for ( int i = 0; i < limit; i += 2 )
+        {
+            if ( ports[ i ] == sourcePortIndex )
             {
-                if ( idleStrategy.idle() )
-                {
-                    if ( failureFlag.isFailed() )
-                    {
-                        throw new JokerException( "Not sending tuples to downstream since failure flag is set" );
-                    }
-                }
+                count++;
             }
         }
 
-        return null;
+        return count;
     }
 
     @Override
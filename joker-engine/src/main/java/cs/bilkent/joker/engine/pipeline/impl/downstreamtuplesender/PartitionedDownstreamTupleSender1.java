@@ -1,10 +1,10 @@
 package cs.bilkent.joker.engine.pipeline.impl.downstreamtuplesender;
 
-import java.util.concurrent.Future;
-
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import cs.bilkent.joker.engine.pipeline.DownstreamTupleSenderFailureFlag;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
 
 public class PartitionedDownstreamTupleSender1 extends AbstractPartitionedDownstreamTupleSender
@@ -15,6 +15,8 @@ public class PartitionedDownstreamTupleSender1 extends AbstractPartitionedDownst
     private final int destinationPortIndex;
 
     public PartitionedDownstreamTupleSender1 ( final DownstreamTupleSenderFailureFlag failureFlag,
+                                               final TupleQueueMemoryBudget memoryBudget,
+                                               final IdleStrategy idleStrategy,
                                                final int sourcePortIndex,
                                                final int destinationPortIndex,
                                                final int partitionCount,
@@ -22,17 +24,22 @@ public class PartitionedDownstreamTupleSender1 extends AbstractPartitionedDownst
                                                final OperatorTupleQueue[] operatorTupleQueues,
                                                final PartitionKeyExtractor partitionKeyExtractor )
     {
-        super( failureFlag, partitionCount, partitionDistribution, operatorTupleQueues, partitionKeyExtractor );
+        super( failureFlag, memoryBudget, idleStrategy, partitionCount, partitionDistribution, operatorTupleQueues, partitionKeyExtractor );
         this.sourcePortIndex = sourcePortIndex;
         this.destinationPortIndex = destinationPortIndex;
 
     }
 
     @Override
-    public Future<Void> send ( final TuplesImpl input )
+    int offerPendingTuples ( final TuplesImpl input )
+    {
+        return offerPendingTuples( input, sourcePortIndex, destinationPortIndex );
+    }
+
+    @Override
+    public int getDestinationCount ( final int sourcePortIndex )
     {
-        send( input, sourcePortIndex, destinationPortIndex );
-        return null;
+        return this.sourcePortIndex == sourcePortIndex ? 1 : 0;
     }
 
 }
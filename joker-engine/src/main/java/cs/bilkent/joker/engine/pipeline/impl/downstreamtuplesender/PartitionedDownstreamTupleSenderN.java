@@ -1,11 +1,11 @@
 package cs.bilkent.joker.engine.pipeline.impl.downstreamtuplesender;
 
-import java.util.concurrent.Future;
-
 import static com.google.common.base.Preconditions.checkArgument;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import cs.bilkent.joker.engine.pipeline.DownstreamTupleSenderFailureFlag;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
 
 public class PartitionedDownstreamTupleSenderN extends AbstractPartitionedDownstreamTupleSender
@@ -15,7 +15,12 @@ public class PartitionedDownstreamTupleSenderN extends AbstractPartitionedDownst
 
     private final int limit;
 
+    // index of the source and destination port pair being sent
+    private int portPairIndex;
+
     public PartitionedDownstreamTupleSenderN ( final DownstreamTupleSenderFailureFlag failureFlag,
+                                               final TupleQueueMemoryBudget memoryBudget,
+                                               final IdleStrategy idleStrategy,
                                                final int[] sourcePorts,
                                                final int[] destinationPorts,
                                                final int partitionCount,
@@ -23,7 +28,7 @@ public class PartitionedDownstreamTupleSenderN extends AbstractPartitionedDownst
                                                final OperatorTupleQueue[] operatorTupleQueues,
                                                final PartitionKeyExtractor partitionKeyExtractor )
     {
-        super( failureFlag, partitionCount, partitionDistribution, operatorTupleQueues, partitionKeyExtractor );
+        super( failureFlag, memoryBudget, idleStrategy, partitionCount, partitionDistribution, operatorTupleQueues, partitionKeyExtractor );
         checkArgument( sourcePorts.length == destinationPorts.length,
                        "source ports size = %s and destination ports = %s ! destination operatorId=%s",
                        sourcePorts.length,
@@ -40,13 +45,40 @@ public class PartitionedDownstreamTupleSenderN extends AbstractPartitionedDownst
     }
 
     @Override
-    public Future<Void> send ( final TuplesImpl tuples )
+    int offerPendingTuples ( final TuplesImpl input )
+    {
+        int offered = 0;
+        while ( portPairIndex < limit )
+        {
+            final int count = offerPendingTuples( input, ports[ portPairIndex ], ports[ portPairIndex + 1 ] );
+            if ( count != ALL_SENT )
+            {
+                return offered + count;
+            }
+
+            // the port pairs are sent one by one, hence completing a port pair is a progress
+            offered++;
+            portPairIndex += 2;
+        }
+
+        portPairIndex = 0;
+
+        return ALL_SENT;
+    }
+
+    @Override
+    public int getDestinationCount ( final int sourcePortIndex )
     {
+        int count = 0;
         for ( int i = 0; i < limit; i += 2 )
         {
-            send( tuples, ports[ i ], ports[ i + 1 ] );
+            if ( ports[ i ] == sourcePortIndex )
+            {
+                count++;
+            }
         }
 
-        return null;
+        return count;
     }
+
 }
@@ -0,0 +1,14 @@
+package cs.bilkent.joker.engine.pipeline.impl.threadfactory;
+
+import cs.bilkent.joker.engine.pipeline.PipelineReplicaThreadFactory;
+
+public class PlatformThreadFactory implements PipelineReplicaThreadFactory
+{
+
+    @Override
+    public Thread newThread ( final ThreadGroup threadGroup, final Runnable runnable, final String name )
+    {
+        return new Thread( threadGroup, runnable, name );
+    }
+
+}
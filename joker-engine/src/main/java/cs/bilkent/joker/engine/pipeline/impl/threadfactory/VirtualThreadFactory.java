@@ -0,0 +1,67 @@
+package cs.bilkent.joker.engine.pipeline.impl.threadfactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import cs.bilkent.joker.engine.pipeline.PipelineReplicaThreadFactory;
+
+/**
+ * Creates virtual threads on the JVMs supporting them, i.e., Java 21 and later. The virtual thread API is accessed reflectively so that
+ * Joker still compiles and runs on Java 8. Virtual threads are multiplexed on a carrier thread pool sized to the number of cores, and
+ * they unmount from their carriers only while parking. Therefore, the pipeline replicas must be configured with the
+ * {@link cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset#PARK} idle strategy, which is validated by
+ * {@link cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig}, and should use signalling tuple queues. Virtual threads do
+ * not belong to the given thread group, and the JVM does not report their states and CPU times to the pipeline metrics.
+ */
+public class VirtualThreadFactory implements PipelineReplicaThreadFactory
+{
+
+    private final Method ofVirtual;
+
+    private final Method name;
+
+    private final Method unstarted;
+
+    public VirtualThreadFactory ()
+    {
+        try
+        {
+            this.ofVirtual = Thread.class.getMethod( "ofVirtual" );
+            final Class<?> builderClass = ofVirtual.getReturnType();
+            this.name = builderClass.getMethod( "name", String.class );
+            this.unstarted = builderClass.getMethod( "unstarted", Runnable.class );
+        }
+        catch ( NoSuchMethodException e )
+        {
+            throw new IllegalStateException( "virtual threads are not supported by Java " + System.getProperty( "java.version" ), e );
+        }
+    }
+
+    public static boolean isSupported ()
+    {
+        try
+        {
+            Thread.class.getMethod( "ofVirtual" );
+            return true;
+        }
+        catch ( NoSuchMethodException e )
+        {
+            return false;
+        }
+    }
+
+    @Override
+    public Thread newThread ( final ThreadGroup threadGroup, final Runnable runnable, final String name )
+    {
+        try
+        {
+            final Object builder = this.name.invoke( ofVirtual.invoke( null ), name );
+            return (Thread) unstarted.invoke( builder, runnable );
+        }
+        catch ( IllegalAccessException | InvocationTargetException e )
+        {
+            throw new IllegalStateException( "cannot create virtual thread: " + name, e );
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package cs.bilkent.joker.engine.pipeline.impl.tuplesupplier;
+
+import java.util.function.Supplier;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import cs.bilkent.joker.operator.impl.TuplesImpl;
+
+/**
+ * Output supplier of the last operators of the pipelines when downstream tuples are sent asynchronously. It has a pair of
+ * {@link TuplesImpl} objects and returns the same one until {@link #swap()} is called, so that the pipeline replica can fill one of them
+ * while the other one is being sent to the downstream. The pipeline replica runner must swap the buffers only after sending of the
+ * other buffer completes.
+ */
+@NotThreadSafe
+public class DoubleBufferedTuplesImplSupplier implements Supplier<TuplesImpl>
+{
+
+    private final TuplesImpl[] buffers;
+
+    private int current;
+
+    public DoubleBufferedTuplesImplSupplier ( final int portCount )
+    {
+        this.buffers = new TuplesImpl[] { new TuplesImpl( portCount ), new TuplesImpl( portCount ) };
+    }
+
+    @Override
+    public TuplesImpl get ()
+    {
+        final TuplesImpl tuples = buffers[ current ];
+        tuples.clear();
+        return tuples;
+    }
+
+    /**
+     * Switches to the other buffer. The current buffer is not returned by {@link #get()} until the next call.
+     */
+    public void swap ()
+    {
+        current ^= 1;
+    }
+
+}
@@ -0,0 +1,116 @@
+package cs.bilkent.joker.engine.pipeline.impl.tuplesupplier;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
+
+/**
+ * Keeps released {@link Tuple} objects of a pipeline replica to be reused for the new tuples created by its operators.
+ * <p/>
+ * Tuples are acquired only by the thread running the pipeline replica, but they can be released by any downstream pipeline replica.
+ * Therefore, each schema has a separate many-to-one queue. If a queue is full, released tuples are left to the garbage collector.
+ */
+@NotThreadSafe
+public class TuplePool implements Function<TupleSchema, Tuple>
+{
+
+    private final int capacity;
+
+    private SchemaTuplePool[] pools = new SchemaTuplePool[ 0 ];
+
+    public TuplePool ( final int capacity )
+    {
+        checkArgument( capacity > 0, "invalid tuple pool capacity: %s", capacity );
+        this.capacity = capacity;
+    }
+
+    @Override
+    public Tuple apply ( final TupleSchema schema )
+    {
+        return acquire( schema );
+    }
+
+    /**
+     * Returns a released tuple of the given schema if there is one, or a new recyclable tuple otherwise.
+     *
+     * @param schema
+     *         schema of the tuple
+     *
+     * @return a tuple of the given schema with no value
+     */
+    public Tuple acquire ( final TupleSchema schema )
+    {
+        final SchemaTuplePool pool = getPool( schema );
+        final Tuple tuple = pool.queue.poll();
+
+        return tuple != null ? tuple : new Tuple( schema, pool );
+    }
+
+    public int getCapacity ()
+    {
+        return capacity;
+    }
+
+    /**
+     * Returns number of the released tuples of the given schema waiting to be reused
+     */
+    public int getAvailableTupleCount ( final TupleSchema schema )
+    {
+        for ( SchemaTuplePool pool : pools )
+        {
+            if ( pool.schema == schema )
+            {
+                return pool.queue.size();
+            }
+        }
+
+        return 0;
+    }
+
+    private SchemaTuplePool getPool ( final TupleSchema schema )
+    {
+        // pipeline replicas create tuples of a few schemas so a linear scan with identity check is cheaper than hashing
+        for ( SchemaTuplePool pool : pools )
+        {
+            if ( pool.schema == schema )
+            {
+                return pool;
+            }
+        }
+
+        final SchemaTuplePool pool = new SchemaTuplePool( schema, capacity );
+        pools = Arrays.copyOf( pools, pools.length + 1 );
+        pools[ pools.length - 1 ] = pool;
+
+        return pool;
+    }
+
+    private static class SchemaTuplePool implements Consumer<Tuple>
+    {
+
+        private final TupleSchema schema;
+
+        private final ManyToOneConcurrentArrayQueue<Tuple> queue;
+
+        SchemaTuplePool ( final TupleSchema schema, final int capacity )
+        {
+            this.schema = schema;
+            this.queue = new ManyToOneConcurrentArrayQueue<>( capacity );
+        }
+
+        @Override
+        public void accept ( final Tuple tuple )
+        {
+            queue.offer( tuple );
+        }
+
+    }
+
+}
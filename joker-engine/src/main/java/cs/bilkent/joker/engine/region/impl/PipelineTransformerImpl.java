@@ -16,6 +16,7 @@ import static cs.bilkent.joker.engine.config.ThreadingPreference.MULTI_THREADED;
 import cs.bilkent.joker.engine.flow.PipelineId;
 import cs.bilkent.joker.engine.flow.RegionDef;
 import cs.bilkent.joker.engine.flow.RegionExecutionPlan;
+import cs.bilkent.joker.engine.metric.IdleTimeMeter;
 import cs.bilkent.joker.engine.metric.PipelineReplicaMeter;
 import cs.bilkent.joker.engine.pipeline.OperatorReplica;
 import cs.bilkent.joker.engine.pipeline.PipelineReplica;
@@ -55,11 +56,16 @@ public class PipelineTransformerImpl implements PipelineTransformer
 
     private final OperatorTupleQueueManager operatorTupleQueueManager;
 
+    private final IdleTimeMeter idleTimeMeter;
+
     @Inject
-    public PipelineTransformerImpl ( final JokerConfig config, final OperatorTupleQueueManager operatorTupleQueueManager )
+    public PipelineTransformerImpl ( final JokerConfig config,
+                                     final OperatorTupleQueueManager operatorTupleQueueManager,
+                                     final IdleTimeMeter idleTimeMeter )
     {
         this.config = config;
         this.operatorTupleQueueManager = operatorTupleQueueManager;
+        this.idleTimeMeter = idleTimeMeter;
     }
 
     @Override
@@ -390,10 +396,12 @@ public class PipelineTransformerImpl implements PipelineTransformer
                                       regionId,
                                       replicaIndex,
                                       firstOperatorDef.getId() );
+                        // the new pipeline replica receives tuples only from the same replica of the previous pipeline
                         pipelineTupleQueue = operatorTupleQueueManager.createDefaultOperatorTupleQueue( regionId,
                                                                                                         replicaIndex,
                                                                                                         firstOperatorDef,
-                                                                                                        MULTI_THREADED );
+                                                                                                        MULTI_THREADED,
+                                                                                                        true );
                     }
                     else
                     {
@@ -477,17 +485,22 @@ public class PipelineTransformerImpl implements PipelineTransformer
                     isFirstOperator && ( operatorDef.getOperatorType() == STATEFUL || operatorDef.getOperatorType() == STATELESS );
             if ( switchThreadingPreferenceOfFirstOperator && multiThreaded )
             {
+                // the split pipeline replica receives tuples only from the same replica of the previous pipeline
                 queue = operatorTupleQueueManager.switchThreadingPreference( newPipelineReplicaId.pipelineId.getRegionId(),
                                                                              newPipelineReplicaId.replicaIndex,
-                                                                             operatorDef.getId() );
+                                                                             operatorDef.getId(),
+                                                                             true );
             }
             else
             {
                 queue = operator.getQueue();
             }
 
-            final TupleQueueDrainerPool drainerPool = ( multiThreaded && operatorDef.getInputPortCount() > 0 )
-                                                      ? new BlockingTupleQueueDrainerPool( config, operatorDef )
+            // scheduled pipeline replicas must not block their worker threads while waiting for tuples
+            final boolean blocking = multiThreaded && operatorDef.getInputPortCount() > 0
+                                     && !config.getPipelineReplicaRunnerConfig().isPooledSchedulingEnabled();
+            final TupleQueueDrainerPool drainerPool = blocking
+                                                      ? new BlockingTupleQueueDrainerPool( config, operatorDef, idleTimeMeter )
                                                       : new NonBlockingTupleQueueDrainerPool( config, operatorDef );
 
             final int outputPortCount = operatorDef.getOutputPortCount();
@@ -1,8 +1,10 @@
 package cs.bilkent.joker.engine.region.impl;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -25,6 +27,7 @@ import cs.bilkent.joker.engine.kvstore.OperatorKVStoreManager;
 import cs.bilkent.joker.engine.kvstore.impl.DefaultOperatorKVStore;
 import cs.bilkent.joker.engine.kvstore.impl.EmptyOperatorKVStore;
 import cs.bilkent.joker.engine.kvstore.impl.PartitionedOperatorKVStore;
+import cs.bilkent.joker.engine.metric.IdleTimeMeter;
 import cs.bilkent.joker.engine.metric.PipelineReplicaMeter;
 import cs.bilkent.joker.engine.partition.PartitionDistribution;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
@@ -48,8 +51,10 @@ import cs.bilkent.joker.engine.tuplequeue.impl.drainer.pool.BlockingTupleQueueDr
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.pool.NonBlockingTupleQueueDrainerPool;
 import cs.bilkent.joker.engine.tuplequeue.impl.operator.DefaultOperatorTupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.impl.operator.EmptyOperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.impl.operator.MultiLaneOperatorTupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.impl.operator.PartitionedOperatorTupleQueue;
 import cs.bilkent.joker.flow.FlowDef;
+import cs.bilkent.joker.flow.Port;
 import cs.bilkent.joker.operator.OperatorDef;
 import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
@@ -79,6 +84,8 @@ public class RegionManagerImpl implements RegionManager
 
     private final PartitionKeyExtractorFactory partitionKeyExtractorFactory;
 
+    private final IdleTimeMeter idleTimeMeter;
+
     private final Map<Integer, Region> regions = new HashMap<>();
 
     @Inject
@@ -87,7 +94,8 @@ public class RegionManagerImpl implements RegionManager
                                final OperatorKVStoreManager operatorKvStoreManager,
                                final OperatorTupleQueueManager operatorTupleQueueManager,
                                final PipelineTransformer pipelineTransformer,
-                               final PartitionKeyExtractorFactory partitionKeyExtractorFactory )
+                               final PartitionKeyExtractorFactory partitionKeyExtractorFactory,
+                               final IdleTimeMeter idleTimeMeter )
     {
         this.config = config;
         this.partitionService = partitionService;
@@ -95,6 +103,7 @@ public class RegionManagerImpl implements RegionManager
         this.operatorTupleQueueManager = operatorTupleQueueManager;
         this.pipelineTransformer = pipelineTransformer;
         this.partitionKeyExtractorFactory = partitionKeyExtractorFactory;
+        this.idleTimeMeter = idleTimeMeter;
     }
 
     @Override
@@ -150,10 +159,12 @@ public class RegionManagerImpl implements RegionManager
                 final OperatorDef operatorDef = operatorDefs[ operatorIndex ];
 
                 final boolean isFirstOperator = operatorIndex == 0;
+                final boolean singleProducer = isFirstOperator && hasSingleProducer( flow, pipelineIndex, operatorDef );
                 final OperatorTupleQueue[] operatorTupleQueues = createOperatorTupleQueues( flow,
                                                                                             regionId,
                                                                                             replicaCount,
                                                                                             isFirstOperator,
+                                                                                            singleProducer,
                                                                                             operatorDef,
                                                                                             forwardKeyLimit );
 
@@ -189,6 +200,7 @@ public class RegionManagerImpl implements RegionManager
                 final OperatorReplica[] pipelineOperatorReplicas = operatorReplicas[ replicaIndex ];
                 final OperatorTupleQueue pipelineTupleQueue = createPipelineTupleQueue( flow,
                                                                                         regionId,
+                                                                                        pipelineIndex,
                                                                                         replicaIndex,
                                                                                         pipelineOperatorReplicas );
 
@@ -282,7 +294,7 @@ public class RegionManagerImpl implements RegionManager
 
         drainPipelineTupleQueues( region );
 
-        rebalanceRegion( region, newReplicaCount );
+        rebalanceRegion( flow, region, newReplicaCount );
 
         final Region newRegion;
         if ( regionExecutionPlan.getReplicaCount() < newReplicaCount )
@@ -330,7 +342,7 @@ public class RegionManagerImpl implements RegionManager
         }
     }
 
-    private void rebalanceRegion ( final Region region, final int newReplicaCount )
+    private void rebalanceRegion ( final FlowDef flow, final Region region, final int newReplicaCount )
     {
         final int regionId = region.getRegionId();
 
@@ -346,7 +358,13 @@ public class RegionManagerImpl implements RegionManager
             final PipelineReplica[] pipelineReplicas = region.getPipelineReplicas( pipelineIndex );
             final OperatorDef[] operatorDefs = regionExecutionPlan.getOperatorDefsByPipelineIndex( pipelineIndex );
             rebalancePartitionedStatefulOperators( regionId, currentPartitionDistribution, newPartitionDistribution, operatorDefs );
-            rebalanceStatelessOperators( region, newPartitionDistribution, currentReplicaCount, pipelineReplicas, operatorDefs );
+            rebalanceStatelessOperators( flow,
+                                         region,
+                                         pipelineIndex,
+                                         newPartitionDistribution,
+                                         currentReplicaCount,
+                                         pipelineReplicas,
+                                         operatorDefs );
         }
     }
 
@@ -374,7 +392,9 @@ public class RegionManagerImpl implements RegionManager
         }
     }
 
-    private void rebalanceStatelessOperators ( final Region region,
+    private void rebalanceStatelessOperators ( final FlowDef flow,
+                                               final Region region,
+                                               final int pipelineIndex,
                                                final PartitionDistribution newPartitionDistribution,
                                                final int currentReplicaCount,
                                                final PipelineReplica[] pipelineReplicas,
@@ -408,17 +428,20 @@ public class RegionManagerImpl implements RegionManager
                     for ( int replicaIndex = currentReplicaCount; replicaIndex < newReplicaCount; replicaIndex++ )
                     {
                         final boolean isFirstOperator = ( operatorIndex == 0 );
+                        final boolean singleProducer = isFirstOperator && hasSingleProducer( flow, pipelineIndex, operatorDef );
                         final ThreadingPreference threadingPreference = getThreadingPreference( isFirstOperator );
-                        LOGGER.debug( "Creating {} {} for regionId={} replicaIndex={} operatorId={}",
+                        LOGGER.debug( "Creating {} {} for regionId={} replicaIndex={} operatorId={} singleProducer={}",
                                       threadingPreference,
                                       DefaultOperatorTupleQueue.class.getSimpleName(),
                                       regionId,
                                       replicaIndex,
-                                      operatorDef.getId() );
+                                      operatorDef.getId(),
+                                      singleProducer );
                         operatorTupleQueueManager.createDefaultOperatorTupleQueue( regionId,
                                                                                    replicaIndex,
                                                                                    operatorDef,
-                                                                                   threadingPreference );
+                                                                                   threadingPreference,
+                                                                                   singleProducer );
                     }
                 }
                 else
@@ -618,7 +641,11 @@ public class RegionManagerImpl implements RegionManager
                                                                              replicaMeter );
                 }
 
-                final OperatorTupleQueue pipelineTupleQueue = createPipelineTupleQueue( flow, regionId, replicaIndex, operatorReplicas );
+                final OperatorTupleQueue pipelineTupleQueue = createPipelineTupleQueue( flow,
+                                                                                        regionId,
+                                                                                        pipelineIndex,
+                                                                                        replicaIndex,
+                                                                                        operatorReplicas );
 
                 newPipelineReplicas[ pipelineIndex ][ replicaIndex ] = new PipelineReplica( config,
                                                                                             pipelineReplicaId,
@@ -773,6 +800,7 @@ public class RegionManagerImpl implements RegionManager
                                                              final int regionId,
                                                              final int replicaCount,
                                                              final boolean isFirstOperator,
+                                                             final boolean singleProducer,
                                                              final OperatorDef operatorDef,
                                                              final int forwardKeyLimit )
     {
@@ -805,18 +833,20 @@ public class RegionManagerImpl implements RegionManager
         else
         {
             final ThreadingPreference threadingPreference = getThreadingPreference( isFirstOperator );
-            LOGGER.debug( "Creating {} {} for regionId={} operatorId={}",
+            LOGGER.debug( "Creating {} {} for regionId={} operatorId={} singleProducer={}",
                           threadingPreference,
                           DefaultOperatorTupleQueue.class.getSimpleName(),
                           regionId,
-                          operatorId );
+                          operatorId,
+                          singleProducer );
             operatorTupleQueues = new OperatorTupleQueue[ replicaCount ];
             for ( int replicaIndex = 0; replicaIndex < replicaCount; replicaIndex++ )
             {
                 operatorTupleQueues[ replicaIndex ] = operatorTupleQueueManager.createDefaultOperatorTupleQueue( regionId,
                                                                                                                  replicaIndex,
                                                                                                                  operatorDef,
-                                                                                                                 threadingPreference );
+                                                                                                                 threadingPreference,
+                                                                                                                 singleProducer );
             }
         }
 
@@ -828,6 +858,31 @@ public class RegionManagerImpl implements RegionManager
         return isFirstOperator ? MULTI_THREADED : SINGLE_THREADED;
     }
 
+    /**
+     * Returns true if tuples sent to the given first operator of a pipeline are always offered by a single thread, regardless of the
+     * replica counts of the regions. It is the case if the pipeline is not the first pipeline of its region, since each replica of the
+     * pipeline receives tuples only from the same replica of the previous pipeline, or all upstream operators of the operator are
+     * a single {@link cs.bilkent.joker.operator.spec.OperatorType#STATEFUL} operator, which is never replicated.
+     */
+    private boolean hasSingleProducer ( final FlowDef flow, final int pipelineIndex, final OperatorDef operatorDef )
+    {
+        if ( pipelineIndex > 0 )
+        {
+            return true;
+        }
+
+        final Set<String> upstreamOperatorIds = new HashSet<>();
+        for ( Set<Port> upstreamPorts : flow.getInboundConnections( operatorDef.getId() ).values() )
+        {
+            for ( Port upstreamPort : upstreamPorts )
+            {
+                upstreamOperatorIds.add( upstreamPort.getOperatorId() );
+            }
+        }
+
+        return upstreamOperatorIds.size() == 1 && flow.getOperator( upstreamOperatorIds.iterator().next() ).getOperatorType() == STATEFUL;
+    }
+
     private TupleQueueDrainerPool[] createTupleQueueDrainerPools ( final int regionId,
                                                                    final int replicaCount,
                                                                    final boolean isFirstOperator,
@@ -861,9 +916,12 @@ public class RegionManagerImpl implements RegionManager
 
     private TupleQueueDrainerPool createTupleQueueDrainerPool ( final OperatorDef operatorDef, final boolean isFirstOperator )
     {
-        return ( isFirstOperator && operatorDef.getInputPortCount() > 0 && ( operatorDef.getOperatorType() == STATEFUL
-                                                                             || operatorDef.getOperatorType() == STATELESS ) )
-               ? new BlockingTupleQueueDrainerPool( config, operatorDef )
+        // scheduled pipeline replicas must not block their worker threads while waiting for tuples
+        final boolean blocking = isFirstOperator && operatorDef.getInputPortCount() > 0 && ( operatorDef.getOperatorType() == STATEFUL
+                                                                                             || operatorDef.getOperatorType() == STATELESS )
+                                 && !config.getPipelineReplicaRunnerConfig().isPooledSchedulingEnabled();
+        return blocking
+               ? new BlockingTupleQueueDrainerPool( config, operatorDef, idleTimeMeter )
                : new NonBlockingTupleQueueDrainerPool( config, operatorDef );
     }
 
@@ -940,6 +998,7 @@ public class RegionManagerImpl implements RegionManager
 
     private OperatorTupleQueue createPipelineTupleQueue ( final FlowDef flow,
                                                           final int regionId,
+                                                          final int pipelineIndex,
                                                           final int replicaIndex,
                                                           final OperatorReplica[] pipelineOperatorReplicas )
     {
@@ -955,6 +1014,17 @@ public class RegionManagerImpl implements RegionManager
         {
             if ( firstOperatorDef.getOperatorType() == PARTITIONED_STATEFUL )
             {
+                final boolean singleProducer = hasSingleProducer( flow, pipelineIndex, firstOperatorDef );
+                if ( !singleProducer && !config.getTupleQueueManagerConfig().isOffHeapTupleQueueEnabled() )
+                {
+                    // all replicas of the upstream operators send tuples to each replica of the pipeline
+                    LOGGER.debug( "Creating {} for pipeline tuple queue of regionId={} for pipeline operator={}",
+                                  MultiLaneOperatorTupleQueue.class.getSimpleName(),
+                                  regionId,
+                                  firstOperatorDef.getId() );
+                    return operatorTupleQueueManager.createMultiLaneOperatorTupleQueue( regionId, replicaIndex, firstOperatorDef );
+                }
+
                 LOGGER.debug( "Creating {} for pipeline tuple queue of regionId={} for pipeline operator={}",
                               DefaultOperatorTupleQueue.class.getSimpleName(),
                               regionId,
@@ -962,7 +1032,8 @@ public class RegionManagerImpl implements RegionManager
                 return operatorTupleQueueManager.createDefaultOperatorTupleQueue( regionId,
                                                                                   replicaIndex,
                                                                                   firstOperatorDef,
-                                                                                  MULTI_THREADED );
+                                                                                  MULTI_THREADED,
+                                                                                  singleProducer );
             }
             else
             {
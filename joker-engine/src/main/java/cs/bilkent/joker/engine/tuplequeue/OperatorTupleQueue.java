@@ -2,6 +2,8 @@ package cs.bilkent.joker.engine.tuplequeue;
 
 import java.util.List;
 
+import cs.bilkent.joker.engine.partition.PartitionKey;
+import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort;
 
@@ -43,6 +45,28 @@ public interface OperatorTupleQueue
      */
     int offer ( int portIndex, List<Tuple> tuples, int fromIndex );
 
+    /**
+     * Attempts to offer given tuples to the tuple queue of given port index without blocking, starting from the given index (inclusive),
+     * along with their partition keys built by {@link #getPartitionKeyExtractor()}, and returns the number of tuples that are
+     * successfully offered. Partitioned tuple queues use the given partition keys instead of extracting them again. Other tuple queues
+     * ignore them.
+     *
+     * @param portIndex
+     *         port index to offer the tuples
+     * @param tuples
+     *         tuples to be offered
+     * @param partitionKeys
+     *         partition keys of the tuples with the same indices
+     * @param fromIndex
+     *         starting index of the tuples to be offered (inclusive)
+     *
+     * @return number of tuples that are successfully offered
+     */
+    default int offer ( int portIndex, List<Tuple> tuples, List<PartitionKey> partitionKeys, int fromIndex )
+    {
+        return offer( portIndex, tuples, fromIndex );
+    }
+
 
     default void drain ( TupleQueueDrainer drainer )
     {
@@ -65,8 +89,27 @@ public interface OperatorTupleQueue
 
     boolean isEmpty ();
 
+    /**
+     * Returns the number of tuples waiting in the input port which has the most tuples
+     *
+     * @return the number of tuples waiting in the input port which has the most tuples
+     */
+    int getQueuedTupleCount ();
+
     void ensureCapacity ( int capacity );
 
     int getDrainCountHint ();
 
+    /**
+     * Returns the {@link PartitionKeyExtractor} used to partition the offered tuples, or null if the tuple queue is not partitioned.
+     * If an upstream offers the tuples with their partition keys built by this extractor via {@link #offer(int, List, List, int)}, the
+     * tuple queue uses the given partition keys instead of extracting them again.
+     *
+     * @return the {@link PartitionKeyExtractor} used to partition the offered tuples, or null if the tuple queue is not partitioned
+     */
+    default PartitionKeyExtractor getPartitionKeyExtractor ()
+    {
+        return null;
+    }
+
 }
@@ -8,10 +8,29 @@ import cs.bilkent.joker.operator.OperatorDef;
 public interface OperatorTupleQueueManager
 {
 
+    default OperatorTupleQueue createDefaultOperatorTupleQueue ( int regionId,
+                                                                 int replicaIndex,
+                                                                 OperatorDef operatorDef,
+                                                                 ThreadingPreference threadingPreference )
+    {
+        return createDefaultOperatorTupleQueue( regionId, replicaIndex, operatorDef, threadingPreference, false );
+    }
+
+    /**
+     * Creates a default operator tuple queue. If the queue is {@link ThreadingPreference#MULTI_THREADED} and {@code singleProducer} is
+     * true, tuples of each input port are offered by a single thread and the queue is created with single-producer tuple queues.
+     */
     OperatorTupleQueue createDefaultOperatorTupleQueue ( int regionId,
                                                          int replicaIndex,
                                                          OperatorDef operatorDef,
-                                                         ThreadingPreference threadingPreference );
+                                                         ThreadingPreference threadingPreference,
+                                                         boolean singleProducer );
+
+    /**
+     * Creates a {@link ThreadingPreference#MULTI_THREADED} default operator tuple queue which contains a dedicated lane for each producer.
+     * The queue is registered and released as a default operator tuple queue.
+     */
+    OperatorTupleQueue createMultiLaneOperatorTupleQueue ( int regionId, int replicaIndex, OperatorDef operatorDef );
 
     OperatorTupleQueue getDefaultOperatorTupleQueue ( int regionId, int replicaIndex, String operatorId );
 
@@ -65,5 +84,15 @@ public interface OperatorTupleQueueManager
 
     void releasePartitionedOperatorTupleQueues ( int regionId, String operatorId );
 
-    OperatorTupleQueue switchThreadingPreference ( int regionId, int replicaIndex, String operatorId );
+    default OperatorTupleQueue switchThreadingPreference ( int regionId, int replicaIndex, String operatorId )
+    {
+        return switchThreadingPreference( regionId, replicaIndex, operatorId, false );
+    }
+
+    /**
+     * Switches threading preference of a default operator tuple queue. {@code singleProducer} is used only if the queue is switched to
+     * {@link ThreadingPreference#MULTI_THREADED}, as in {@link #createDefaultOperatorTupleQueue(int, int, OperatorDef,
+     * ThreadingPreference, boolean)}
+     */
+    OperatorTupleQueue switchThreadingPreference ( int regionId, int replicaIndex, String operatorId, boolean singleProducer );
 }
@@ -81,4 +81,25 @@ public interface TupleQueue
 
     boolean ensureCapacity ( int capacity );
 
+    /**
+     * Registers the calling consumer thread to be unparked by the producers once size of the queue reaches the given threshold.
+     * The consumer must check size of the queue again after the registration and before parking.
+     *
+     * @param threshold
+     *         size of the queue to unpark the consumer
+     *
+     * @return true if the queue signals its consumer, false otherwise
+     */
+    default boolean registerWaiter ( int threshold )
+    {
+        return false;
+    }
+
+    /**
+     * Removes the registration made via {@link #registerWaiter(int)}
+     */
+    default void deregisterWaiter ()
+    {
+    }
+
 }
@@ -48,4 +48,15 @@ public interface TupleQueueDrainer
      */
     void reset ();
 
+    /**
+     * Sets the maximum number of tuples to be drained from a tuple queue in a single drain, if the drainer is not configured to drain
+     * an exact number of tuples. It is ignored by the drainers which do not have a batch size.
+     *
+     * @param maxBatchSize
+     *         maximum number of tuples to be drained from a tuple queue in a single drain
+     */
+    default void setMaxBatchSize ( int maxBatchSize )
+    {
+    }
+
 }
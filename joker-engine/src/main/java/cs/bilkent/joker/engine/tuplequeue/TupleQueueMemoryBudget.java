@@ -0,0 +1,86 @@
+package cs.bilkent.joker.engine.tuplequeue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.engine.config.JokerConfig;
+
+/**
+ * Engine-wide budget for the estimated byte size of the tuples waiting in multi-threaded tuple queues. Tuple queues add the estimated
+ * sizes of the offered tuples to the budget and release them when the tuples are polled. Downstream tuple senders stop offering
+ * tuples to non-empty tuple queues while the budget is exhausted, so that upstream pipelines are throttled before the enqueued tuples
+ * exhaust the heap. The budget is soft: a batch of tuples is accepted as a whole once its offer begins, and a tuple queue with no
+ * pending tuples always accepts tuples so that downstream pipelines can make progress.
+ */
+@Singleton
+@ThreadSafe
+public class TupleQueueMemoryBudget
+{
+
+    private final long limitInBytes;
+
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    @Inject
+    public TupleQueueMemoryBudget ( final JokerConfig jokerConfig )
+    {
+        this( jokerConfig.getTupleQueueManagerConfig().getTupleQueueMemoryBudgetInBytes() );
+    }
+
+    public TupleQueueMemoryBudget ( final long limitInBytes )
+    {
+        checkArgument( limitInBytes >= 0, "invalid tuple queue memory budget: %s", limitInBytes );
+        this.limitInBytes = limitInBytes;
+    }
+
+    public boolean isEnabled ()
+    {
+        return limitInBytes > 0;
+    }
+
+    public boolean isExhausted ()
+    {
+        return limitInBytes > 0 && usedBytes.get() >= limitInBytes;
+    }
+
+    public void acquire ( final long bytes )
+    {
+        usedBytes.getAndAdd( bytes );
+    }
+
+    public void release ( final long bytes )
+    {
+        usedBytes.getAndAdd( -bytes );
+    }
+
+    public long getLimitInBytes ()
+    {
+        return limitInBytes;
+    }
+
+    public long getUsedBytes ()
+    {
+        return usedBytes.get();
+    }
+
+    /**
+     * Returns ratio of the used bytes to the limit of the budget, or 0 if the budget is disabled. The ratio can be greater than 1
+     * since the budget is soft.
+     *
+     * @return ratio of the used bytes to the limit of the budget, or 0 if the budget is disabled
+     */
+    public double getUtilization ()
+    {
+        return limitInBytes > 0 ? ( (double) getUsedBytes() ) / limitInBytes : 0;
+    }
+
+    @Override
+    public String toString ()
+    {
+        return "TupleQueueMemoryBudget{" + "limitInBytes=" + limitInBytes + ", usedBytes=" + usedBytes.get() + '}';
+    }
+
+}
@@ -0,0 +1,63 @@
+package cs.bilkent.joker.engine.tuplequeue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Singleton;
+
+/**
+ * Engine-wide counters of the tuples spilled to disk by the tuple queues. Replay lag is the amount of spilled tuples which are not
+ * replayed to the consumers of the tuple queues yet.
+ */
+@Singleton
+@ThreadSafe
+public class TupleQueueSpillMetrics
+{
+
+    private final LongAdder spilledBytes = new LongAdder();
+
+    private final AtomicLong replayLagInBytes = new AtomicLong();
+
+    private final AtomicLong replayLagInTuples = new AtomicLong();
+
+    public void onSpilled ( final long bytes )
+    {
+        spilledBytes.add( bytes );
+        replayLagInBytes.addAndGet( bytes );
+        replayLagInTuples.incrementAndGet();
+    }
+
+    public void onReplayed ( final long bytes, final int tupleCount )
+    {
+        replayLagInBytes.addAndGet( -bytes );
+        replayLagInTuples.addAndGet( -tupleCount );
+    }
+
+    /**
+     * Returns total number of bytes spilled to disk so far
+     *
+     * @return total number of bytes spilled to disk so far
+     */
+    public long getSpilledBytes ()
+    {
+        return spilledBytes.sum();
+    }
+
+    public long getReplayLagInBytes ()
+    {
+        return replayLagInBytes.get();
+    }
+
+    public long getReplayLagInTuples ()
+    {
+        return replayLagInTuples.get();
+    }
+
+    @Override
+    public String toString ()
+    {
+        return "TupleQueueSpillMetrics{" + "spilledBytes=" + spilledBytes.sum() + ", replayLagInBytes=" + replayLagInBytes.get()
+               + ", replayLagInTuples=" + replayLagInTuples.get() + '}';
+    }
+
+}
@@ -1,6 +1,8 @@
 package cs.bilkent.joker.engine.tuplequeue.impl;
 
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -16,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import cs.bilkent.joker.engine.config.JokerConfig;
+import cs.bilkent.joker.engine.config.PipelineReplicaRunnerConfig;
 import cs.bilkent.joker.engine.config.ThreadingPreference;
 import static cs.bilkent.joker.engine.config.ThreadingPreference.MULTI_THREADED;
 import static cs.bilkent.joker.engine.config.ThreadingPreference.SINGLE_THREADED;
@@ -23,15 +26,26 @@ import cs.bilkent.joker.engine.config.TupleQueueManagerConfig;
 import cs.bilkent.joker.engine.partition.PartitionDistribution;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractorFactory;
+import cs.bilkent.joker.engine.pipeline.impl.tuplesupplier.TuplePool;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueueManager;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueSpillMetrics;
 import cs.bilkent.joker.engine.tuplequeue.impl.operator.DefaultOperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.impl.operator.MultiLaneOperatorTupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.impl.operator.PartitionedOperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.impl.queue.MemoryBudgetedTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.impl.queue.MultiLaneTupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.impl.queue.MultiThreadedTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.impl.queue.OffHeapTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.impl.queue.SingleProducerTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.impl.queue.SignallingTupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.impl.queue.SingleThreadedTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.impl.queue.SpillingTupleQueue;
 import cs.bilkent.joker.operator.OperatorDef;
 import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
 import static cs.bilkent.joker.operator.spec.OperatorType.PARTITIONED_STATEFUL;
 import cs.bilkent.joker.utils.Pair;
 import cs.bilkent.joker.utils.Triple;
@@ -50,6 +64,14 @@ public class OperatorTupleQueueManagerImpl implements OperatorTupleQueueManager
 
     private final TupleQueueManagerConfig tupleQueueManagerConfig;
 
+    private final PipelineReplicaRunnerConfig pipelineReplicaRunnerConfig;
+
+    private final boolean signallingEnabled;
+
+    private final TupleQueueMemoryBudget memoryBudget;
+
+    private final TupleQueueSpillMetrics spillMetrics;
+
     private final Map<Triple<Integer, Integer, String>, DefaultOperatorTupleQueue> singleOperatorTupleQueues = new HashMap<>();
 
     private final Map<Pair<Integer, String>, PartitionedOperatorTupleQueue[]> partitionedOperatorTupleQueues = new HashMap<>();
@@ -58,17 +80,25 @@ public class OperatorTupleQueueManagerImpl implements OperatorTupleQueueManager
 
 
     @Inject
-    public OperatorTupleQueueManagerImpl ( final JokerConfig jokerConfig, final PartitionKeyExtractorFactory partitionKeyExtractorFactory )
+    public OperatorTupleQueueManagerImpl ( final JokerConfig jokerConfig,
+                                           final PartitionKeyExtractorFactory partitionKeyExtractorFactory,
+                                           final TupleQueueMemoryBudget memoryBudget,
+                                           final TupleQueueSpillMetrics spillMetrics )
     {
         this.partitionKeyExtractorFactory = partitionKeyExtractorFactory;
         this.tupleQueueManagerConfig = jokerConfig.getTupleQueueManagerConfig();
+        this.pipelineReplicaRunnerConfig = jokerConfig.getPipelineReplicaRunnerConfig();
+        this.signallingEnabled = jokerConfig.getTupleQueueDrainerConfig().isSignallingEnabled();
+        this.memoryBudget = memoryBudget;
+        this.spillMetrics = spillMetrics;
     }
 
     @Override
     public OperatorTupleQueue createDefaultOperatorTupleQueue ( final int regionId,
                                                                 final int replicaIndex,
                                                                 final OperatorDef operatorDef,
-                                                                final ThreadingPreference threadingPreference )
+                                                                final ThreadingPreference threadingPreference,
+                                                                final boolean singleProducer )
     {
         checkArgument( operatorDef != null, "No operator definition! regionId %s, replicaIndex %s", regionId, replicaIndex );
         checkArgument( threadingPreference != null,
@@ -100,7 +130,7 @@ public class OperatorTupleQueueManagerImpl implements OperatorTupleQueueManager
         {
             tupleQueues[ portIndex ] = threadingPreference == SINGLE_THREADED
                                        ? new SingleThreadedTupleQueue( tupleQueueManagerConfig.getTupleQueueCapacity() )
-                                       : new MultiThreadedTupleQueue( tupleQueueManagerConfig.getTupleQueueCapacity() );
+                                       : createMultiThreadedTupleQueue( tupleQueueManagerConfig.getTupleQueueCapacity(), singleProducer );
         }
 
         final String operatorTupleQueueId = toOperatorTupleQueueId( operatorId, replicaIndex );
@@ -112,11 +142,106 @@ public class OperatorTupleQueueManagerImpl implements OperatorTupleQueueManager
                                                                                                                             () );
 
         singleOperatorTupleQueues.put( key, operatorTupleQueue );
-        LOGGER.debug( "created default tuple queue for regionId={} replicaIndex={} operatorId={}", regionId, replicaIndex, operatorId );
+        LOGGER.debug( "created default tuple queue for regionId={} replicaIndex={} operatorId={} singleProducer={}",
+                      regionId,
+                      replicaIndex,
+                      operatorId,
+                      singleProducer );
+
+        return operatorTupleQueue;
+    }
+
+    @Override
+    public OperatorTupleQueue createMultiLaneOperatorTupleQueue ( final int regionId, final int replicaIndex, final OperatorDef operatorDef )
+    {
+        checkArgument( operatorDef != null, "No operator definition! regionId %s, replicaIndex %s", regionId, replicaIndex );
+        checkArgument( replicaIndex >= 0,
+                       "invalid replica index! regionId %s, replicaIndex %s operatorId %s",
+                       regionId,
+                       replicaIndex,
+                       operatorDef.getId() );
+
+        final String operatorId = operatorDef.getId();
+        final Triple<Integer, Integer, String> key = Triple.of( regionId, replicaIndex, operatorId );
+        checkState( !singleOperatorTupleQueues.containsKey( key ),
+                    "default operator tuple queue already exists for regionId %s operatorId %s replicaIndex %s",
+                    regionId,
+                    operatorId,
+                    replicaIndex );
+
+        final int inputPortCount = operatorDef.getInputPortCount();
+        final MultiLaneTupleQueue[] tupleQueues = new MultiLaneTupleQueue[ inputPortCount ];
+        for ( int portIndex = 0; portIndex < inputPortCount; portIndex++ )
+        {
+            tupleQueues[ portIndex ] = new MultiLaneTupleQueue( tupleQueueManagerConfig.getTupleQueueCapacity(),
+                                                                this::decorateMultiThreadedTupleQueue,
+                                                                signallingEnabled );
+        }
+
+        final String operatorTupleQueueId = toOperatorTupleQueueId( operatorId, replicaIndex );
+        final MultiLaneOperatorTupleQueue operatorTupleQueue = new MultiLaneOperatorTupleQueue( operatorTupleQueueId,
+                                                                                                inputPortCount,
+                                                                                                tupleQueues,
+                                                                                                tupleQueueManagerConfig
+                                                                                                        .getTupleQueueCapacity() );
+
+        singleOperatorTupleQueues.put( key, operatorTupleQueue );
+        LOGGER.debug( "created multi-lane tuple queue for regionId={} replicaIndex={} operatorId={}", regionId, replicaIndex, operatorId );
 
         return operatorTupleQueue;
     }
 
+    private TupleQueue createMultiThreadedTupleQueue ( final int capacity, final boolean singleProducer )
+    {
+        if ( tupleQueueManagerConfig.isOffHeapTupleQueueEnabled() )
+        {
+            // polled tuples are recycled into the pool of the queue if the consumer releases them
+            final TuplePool tuplePool = pipelineReplicaRunnerConfig.isTupleRecyclingEnabled()
+                                        ? new TuplePool( pipelineReplicaRunnerConfig.getTuplePoolCapacity() )
+                                        : null;
+            final TupleQueue tupleQueue = new OffHeapTupleQueue( capacity,
+                                                                 tupleQueueManagerConfig.getOffHeapTupleQueueRecordSize(),
+                                                                 tuplePool );
+            return applySignalling( applySpillToDisk( tupleQueue ) );
+        }
+
+        final int maxCapacity = max( capacity, tupleQueueManagerConfig.getMaxTupleQueueCapacity() );
+        final TupleQueue tupleQueue = singleProducer
+                                      ? new SingleProducerTupleQueue( capacity )
+                                      : new MultiThreadedTupleQueue( capacity, maxCapacity );
+
+        return applySignalling( decorateMultiThreadedTupleQueue( tupleQueue ) );
+    }
+
+    // the consumer of a multi-lane tuple queue is signalled by the lanes instead
+    private TupleQueue applySignalling ( final TupleQueue tupleQueue )
+    {
+        return signallingEnabled ? new SignallingTupleQueue( tupleQueue ) : tupleQueue;
+    }
+
+    private TupleQueue decorateMultiThreadedTupleQueue ( final TupleQueue tupleQueue )
+    {
+        return applySpillToDisk( applyMemoryBudget( tupleQueue ) );
+    }
+
+    // off-heap tuple queues are not tracked since they do not keep the tuples on heap
+    private TupleQueue applyMemoryBudget ( final TupleQueue tupleQueue )
+    {
+        return memoryBudget.isEnabled() ? new MemoryBudgetedTupleQueue( tupleQueue, memoryBudget ) : tupleQueue;
+    }
+
+    // spilled tuples are not tracked by the memory budget since they are kept on disk
+    private TupleQueue applySpillToDisk ( final TupleQueue tupleQueue )
+    {
+        if ( !tupleQueueManagerConfig.isSpillToDiskEnabled() )
+        {
+            return tupleQueue;
+        }
+
+        final Path spillDirectory = Paths.get( tupleQueueManagerConfig.getSpillDirectory() );
+        return new SpillingTupleQueue( tupleQueue, spillDirectory, tupleQueueManagerConfig.getSpillSegmentSizeInBytes(), spillMetrics );
+    }
+
     private String toOperatorTupleQueueId ( final String operatorId, final int replicaIndex )
     {
         return operatorId + "_replica" + replicaIndex;
@@ -154,8 +279,10 @@ public class OperatorTupleQueueManagerImpl implements OperatorTupleQueueManager
 
         final PartitionedOperatorTupleQueue[] operatorTupleQueues = new PartitionedOperatorTupleQueue[ replicaCount ];
         final List<String> partitionFieldNames = operatorDef.getPartitionFieldNames();
+        final PortRuntimeSchema inputSchema = operatorDef.getSchema().getInputSchema( 0 );
         final PartitionKeyExtractor partitionKeyExtractor = partitionKeyExtractorFactory.createPartitionKeyExtractor( partitionFieldNames,
-                                                                                                                      forwardKeyLimit );
+                                                                                                                      forwardKeyLimit,
+                                                                                                                      inputSchema );
 
         for ( int replicaIndex = 0; replicaIndex < replicaCount; replicaIndex++ )
         {
@@ -334,7 +461,10 @@ public class OperatorTupleQueueManagerImpl implements OperatorTupleQueueManager
     }
 
     @Override
-    public OperatorTupleQueue switchThreadingPreference ( final int regionId, final int replicaIndex, final String operatorId )
+    public OperatorTupleQueue switchThreadingPreference ( final int regionId,
+                                                          final int replicaIndex,
+                                                          final String operatorId,
+                                                          final boolean singleProducer )
     {
         final Triple<Integer, Integer, String> tupleQueueId = Triple.of( regionId, replicaIndex, operatorId );
         final DefaultOperatorTupleQueue operatorTupleQueue = singleOperatorTupleQueues.remove( tupleQueueId );
@@ -368,7 +498,7 @@ public class OperatorTupleQueueManagerImpl implements OperatorTupleQueueManager
             for ( int portIndex = 0; portIndex < operatorTupleQueue.getInputPortCount(); portIndex++ )
             {
                 final TupleQueue currentQueue = operatorTupleQueue.getTupleQueue( portIndex );
-                final MultiThreadedTupleQueue newQueue = new MultiThreadedTupleQueue( capacity );
+                final TupleQueue newQueue = createMultiThreadedTupleQueue( capacity, singleProducer );
                 drain( currentQueue, newQueue );
                 tupleQueues[ portIndex ] = newQueue;
             }
@@ -1,11 +1,9 @@
 package cs.bilkent.joker.engine.tuplequeue.impl;
 
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 import java.util.function.Function;
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -14,6 +12,8 @@ import org.slf4j.LoggerFactory;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import cs.bilkent.joker.engine.partition.PartitionKey;
+import cs.bilkent.joker.engine.partition.PrimitivePartitionKey;
+import cs.bilkent.joker.engine.partition.PrimitivePartitionKeyExtractor;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueueDrainer;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.GreedyDrainer;
@@ -23,8 +23,13 @@ import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAva
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort.ALL_PORTS;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort.ANY_PORT;
 import gnu.trove.map.hash.THashMap;
-import gnu.trove.set.hash.THashSet;
+import gnu.trove.map.hash.TLongObjectHashMap;
 
+/**
+ * Keeps the tuple queues of the partition keys of a partition. Keys with pending tuples and keys satisfying the tuple counts are kept
+ * in two intrusive ready lists, hence draining does not iterate the keys without tuples. Tuple queues of the keys removed after
+ * greedy draining are kept in an arena and reused for the new keys.
+ */
 @NotThreadSafe
 public class TupleQueueContainer
 {
@@ -33,6 +38,8 @@ public class TupleQueueContainer
 
     private static final int TUPLE_QUEUE_INITIAL_SIZE = 10;
 
+    static final int TUPLE_QUEUES_ARENA_CAPACITY = 1024;
+
 
     private final String operatorId;
 
@@ -40,11 +47,23 @@ public class TupleQueueContainer
 
     private final int partitionId;
 
-    private final Function<Object, TupleQueue[]> tupleQueuesConstructor;
+    private final Function<PartitionKey, KeyTupleQueues> tupleQueuesConstructor;
+
+    private final Map<PartitionKey, KeyTupleQueues> tupleQueuesByKeys;
+
+    // keys with at least one tuple in their tuple queues
+    private final ReadyList pendingKeys = new ReadyList();
+
+    // keys satisfying the tuple counts
+    private final ReadyList drainableKeys = new ReadyList();
 
-    private final Map<PartitionKey, TupleQueue[]> tupleQueuesByKeys;
+    // tuple queues of the removed keys to be reused for the new keys
+    private final KeyTupleQueues[] arena = new KeyTupleQueues[ TUPLE_QUEUES_ARENA_CAPACITY ];
 
-    private final Set<PartitionKey> drainableKeys = new THashSet<>();
+    private int arenaSize;
+
+    // keys of the tuple queues offered with primitive partition field values, to look them up without allocating partition keys
+    private final TLongObjectHashMap<PartitionKey> primitiveKeys = new TLongObjectHashMap<>();
 
     private int[] tupleCounts;
 
@@ -56,15 +75,7 @@ public class TupleQueueContainer
         this.inputPortCount = inputPortCount;
         this.partitionId = partitionId;
         this.tupleQueuesByKeys = new THashMap<>();
-        this.tupleQueuesConstructor = ( partitionKey ) ->
-        {
-            final TupleQueue[] tupleQueues = new TupleQueue[ inputPortCount ];
-            for ( int i = 0; i < inputPortCount; i++ )
-            {
-                tupleQueues[ i ] = new SingleThreadedTupleQueue( TUPLE_QUEUE_INITIAL_SIZE );
-            }
-            return tupleQueues;
-        };
+        this.tupleQueuesConstructor = this::newKeyTupleQueues;
         this.tupleCounts = new int[ inputPortCount ];
         Arrays.fill( this.tupleCounts, 1 );
         this.tupleAvailabilityByPort = ANY_PORT;
@@ -82,9 +93,25 @@ public class TupleQueueContainer
 
     public boolean offer ( final int portIndex, final Tuple tuple, final PartitionKey key )
     {
-        final TupleQueue[] tupleQueues = getTupleQueues( key );
-        tupleQueues[ portIndex ].offer( tuple );
-        return addToDrainableKeys( key, tupleQueues );
+        final KeyTupleQueues keyTupleQueues = getTupleQueues( key );
+        keyTupleQueues.tupleQueues[ portIndex ].offer( tuple );
+        pendingKeys.add( keyTupleQueues.pendingNode );
+        return addToDrainableKeys( keyTupleQueues );
+    }
+
+    public boolean offer ( final int portIndex,
+                           final Tuple tuple,
+                           final long primitiveKey,
+                           final PrimitivePartitionKeyExtractor partitionKeyExtractor )
+    {
+        PartitionKey key = primitiveKeys.get( primitiveKey );
+        if ( key == null )
+        {
+            key = partitionKeyExtractor.getPartitionKey( primitiveKey );
+            primitiveKeys.put( primitiveKey, key );
+        }
+
+        return offer( portIndex, tuple, key );
     }
 
     public int drain ( final boolean maySkipBlocking, final TupleQueueDrainer drainer )
@@ -92,19 +119,18 @@ public class TupleQueueContainer
         int nonDrainableKeyCount = 0;
         if ( drainer instanceof GreedyDrainer )
         {
-            final Iterator<PartitionKey> it = tupleQueuesByKeys.keySet().iterator();
-            while ( it.hasNext() )
+            ReadyListNode node;
+            while ( ( node = pendingKeys.head ) != null )
             {
-                final PartitionKey key = it.next();
-                final TupleQueue[] tupleQueues = getTupleQueues( key );
-
-                drainer.drain( maySkipBlocking, key, tupleQueues );
-                it.remove();
+                final KeyTupleQueues keyTupleQueues = node.keyTupleQueues;
+                final PartitionKey key = keyTupleQueues.key;
 
-                if ( drainableKeys.remove( key ) )
+                drainer.drain( maySkipBlocking, key, keyTupleQueues.tupleQueues );
+                if ( drainableKeys.remove( keyTupleQueues.drainableNode ) )
                 {
                     nonDrainableKeyCount++;
                 }
+                removeKey( keyTupleQueues );
 
                 if ( !drainer.getResult().isEmpty() )
                 {
@@ -117,18 +143,21 @@ public class TupleQueueContainer
         else
         {
             // tuple count based draining
-            final Iterator<PartitionKey> it = drainableKeys.iterator();
-            final boolean drainable = it.hasNext();
-            if ( drainable )
+            final ReadyListNode node = drainableKeys.head;
+            if ( node != null )
             {
-                final PartitionKey key = it.next();
-                final TupleQueue[] tupleQueues = getTupleQueues( key );
-                drainer.drain( maySkipBlocking, key, tupleQueues );
-                if ( !checkIfDrainable( tupleQueues ) )
+                final KeyTupleQueues keyTupleQueues = node.keyTupleQueues;
+                drainer.drain( maySkipBlocking, keyTupleQueues.key, keyTupleQueues.tupleQueues );
+                if ( !checkIfDrainable( keyTupleQueues.tupleQueues ) )
                 {
-                    it.remove();
+                    drainableKeys.remove( node );
                     nonDrainableKeyCount++;
                 }
+
+                if ( !hasPendingTuples( keyTupleQueues.tupleQueues ) )
+                {
+                    pendingKeys.remove( keyTupleQueues.pendingNode );
+                }
             }
         }
 
@@ -139,9 +168,9 @@ public class TupleQueueContainer
     {
         LOGGER.debug( "Clearing partitioned tuple queues of operator: {} partitionId={}", operatorId, partitionId );
 
-        for ( Entry<PartitionKey, TupleQueue[]> e : tupleQueuesByKeys.entrySet() )
+        for ( Entry<PartitionKey, KeyTupleQueues> e : tupleQueuesByKeys.entrySet() )
         {
-            final TupleQueue[] tupleQueues = e.getValue();
+            final TupleQueue[] tupleQueues = e.getValue().tupleQueues;
             for ( int portIndex = 0; portIndex < tupleQueues.length; portIndex++ )
             {
                 final TupleQueue tupleQueue = tupleQueues[ portIndex ];
@@ -169,10 +198,14 @@ public class TupleQueueContainer
                 }
                 tupleQueue.clear();
             }
+
+            recycle( e.getValue() );
         }
 
         tupleQueuesByKeys.clear();
-        final int drainableKeyCount = drainableKeys.size();
+        primitiveKeys.clear();
+        pendingKeys.clear();
+        final int drainableKeyCount = drainableKeys.size;
         drainableKeys.clear();
 
         return drainableKeyCount;
@@ -193,26 +226,32 @@ public class TupleQueueContainer
         this.tupleCounts = Arrays.copyOf( tupleCounts, tupleCounts.length );
         this.tupleAvailabilityByPort = tupleAvailabilityByPort;
         this.drainableKeys.clear();
-        for ( Entry<PartitionKey, TupleQueue[]> e : tupleQueuesByKeys.entrySet() )
+        for ( KeyTupleQueues keyTupleQueues : tupleQueuesByKeys.values() )
         {
-            if ( checkIfDrainable( e.getValue() ) )
+            if ( checkIfDrainable( keyTupleQueues.tupleQueues ) )
             {
-                drainableKeys.add( e.getKey() );
+                drainableKeys.add( keyTupleQueues.drainableNode );
             }
         }
     }
 
     public int getDrainableKeyCount ()
     {
-        return drainableKeys.size();
+        return drainableKeys.size;
+    }
+
+    public int getKeyCount ()
+    {
+        return tupleQueuesByKeys.size();
     }
 
     public void addAvailableTupleCounts ( final int[] availableTupleCounts )
     {
         checkArgument( availableTupleCounts.length == inputPortCount );
 
-        for ( TupleQueue[] tupleQueues : tupleQueuesByKeys.values() )
+        for ( ReadyListNode node = pendingKeys.head; node != null; node = node.next )
         {
+            final TupleQueue[] tupleQueues = node.keyTupleQueues.tupleQueues;
             for ( int portIndex = 0; portIndex < inputPortCount; portIndex++ )
             {
                 availableTupleCounts[ portIndex ] += tupleQueues[ portIndex ].size();
@@ -222,31 +261,27 @@ public class TupleQueueContainer
 
     public boolean isEmpty ()
     {
-        for ( TupleQueue[] tupleQueues : tupleQueuesByKeys.values() )
-        {
-            for ( TupleQueue tupleQueue : tupleQueues )
-            {
-                if ( tupleQueue.size() > 0 )
-                {
-                    return false;
-                }
-            }
-        }
-
-        return true;
+        return pendingKeys.size == 0;
     }
 
-    private boolean addToDrainableKeys ( final PartitionKey key, final TupleQueue[] tupleQueues )
+    private boolean addToDrainableKeys ( final KeyTupleQueues keyTupleQueues )
     {
-        if ( drainableKeys.contains( key ) )
+        if ( keyTupleQueues.drainableNode.linked )
         {
             return false;
         }
 
-        if ( checkIfDrainable( tupleQueues ) )
+        return checkIfDrainable( keyTupleQueues.tupleQueues ) && drainableKeys.add( keyTupleQueues.drainableNode );
+    }
+
+    private boolean hasPendingTuples ( final TupleQueue[] tupleQueues )
+    {
+        for ( int i = 0; i < inputPortCount; i++ )
         {
-            drainableKeys.add( key );
-            return true;
+            if ( tupleQueues[ i ].size() > 0 )
+            {
+                return true;
+            }
         }
 
         return false;
@@ -280,9 +315,180 @@ public class TupleQueueContainer
         }
     }
 
-    private TupleQueue[] getTupleQueues ( final PartitionKey key )
+    private KeyTupleQueues getTupleQueues ( final PartitionKey key )
     {
         return tupleQueuesByKeys.computeIfAbsent( key, this.tupleQueuesConstructor );
     }
 
+    private KeyTupleQueues newKeyTupleQueues ( final PartitionKey key )
+    {
+        if ( arenaSize > 0 )
+        {
+            final KeyTupleQueues keyTupleQueues = arena[ --arenaSize ];
+            arena[ arenaSize ] = null;
+            keyTupleQueues.key = key;
+            return keyTupleQueues;
+        }
+
+        final TupleQueue[] tupleQueues = new TupleQueue[ inputPortCount ];
+        for ( int i = 0; i < inputPortCount; i++ )
+        {
+            tupleQueues[ i ] = new SingleThreadedTupleQueue( TUPLE_QUEUE_INITIAL_SIZE );
+        }
+
+        return new KeyTupleQueues( key, tupleQueues );
+    }
+
+    private void removeKey ( final KeyTupleQueues keyTupleQueues )
+    {
+        final PartitionKey key = keyTupleQueues.key;
+        tupleQueuesByKeys.remove( key );
+        if ( key instanceof PrimitivePartitionKey )
+        {
+            primitiveKeys.remove( ( (PrimitivePartitionKey) key ).getPrimitiveValue() );
+        }
+
+        pendingKeys.remove( keyTupleQueues.pendingNode );
+        drainableKeys.remove( keyTupleQueues.drainableNode );
+        recycle( keyTupleQueues );
+    }
+
+    // tuple queues must be empty
+    private void recycle ( final KeyTupleQueues keyTupleQueues )
+    {
+        keyTupleQueues.key = null;
+        if ( arenaSize < TUPLE_QUEUES_ARENA_CAPACITY )
+        {
+            arena[ arenaSize++ ] = keyTupleQueues;
+        }
+    }
+
+    int getArenaSize ()
+    {
+        return arenaSize;
+    }
+
+    private static final class KeyTupleQueues
+    {
+
+        private final TupleQueue[] tupleQueues;
+
+        private final ReadyListNode pendingNode = new ReadyListNode( this );
+
+        private final ReadyListNode drainableNode = new ReadyListNode( this );
+
+        private PartitionKey key;
+
+        KeyTupleQueues ( final PartitionKey key, final TupleQueue[] tupleQueues )
+        {
+            this.key = key;
+            this.tupleQueues = tupleQueues;
+        }
+
+    }
+
+
+    private static final class ReadyListNode
+    {
+
+        private final KeyTupleQueues keyTupleQueues;
+
+        private ReadyListNode prev, next;
+
+        private boolean linked;
+
+        ReadyListNode ( final KeyTupleQueues keyTupleQueues )
+        {
+            this.keyTupleQueues = keyTupleQueues;
+        }
+
+    }
+
+
+    /**
+     * Doubly-linked list of the nodes embedded into {@link KeyTupleQueues}. Nodes are appended to the tail and removed in O(1).
+     */
+    private static final class ReadyList
+    {
+
+        private ReadyListNode head, tail;
+
+        private int size;
+
+        boolean add ( final ReadyListNode node )
+        {
+            if ( node.linked )
+            {
+                return false;
+            }
+
+            node.prev = tail;
+            node.next = null;
+            if ( tail == null )
+            {
+                head = node;
+            }
+            else
+            {
+                tail.next = node;
+            }
+            tail = node;
+            node.linked = true;
+            size++;
+
+            return true;
+        }
+
+        boolean remove ( final ReadyListNode node )
+        {
+            if ( !node.linked )
+            {
+                return false;
+            }
+
+            if ( node.prev == null )
+            {
+                head = node.next;
+            }
+            else
+            {
+                node.prev.next = node.next;
+            }
+
+            if ( node.next == null )
+            {
+                tail = node.prev;
+            }
+            else
+            {
+                node.next.prev = node.prev;
+            }
+
+            node.prev = null;
+            node.next = null;
+            node.linked = false;
+            size--;
+
+            return true;
+        }
+
+        void clear ()
+        {
+            ReadyListNode node = head;
+            while ( node != null )
+            {
+                final ReadyListNode next = node.next;
+                node.prev = null;
+                node.next = null;
+                node.linked = false;
+                node = next;
+            }
+
+            head = null;
+            tail = null;
+            size = 0;
+        }
+
+    }
+
 }
@@ -0,0 +1,201 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.codec;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.agrona.DirectBuffer;
+
+import static com.google.common.base.Preconditions.checkState;
+import cs.bilkent.joker.operator.Fields;
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
+import static cs.bilkent.joker.operator.schema.runtime.TupleSchema.FIELD_NOT_FOUND;
+
+/**
+ * Read-only flyweight view of a record encoded by {@link BinaryTupleCodec}. It can be wrapped around different records of the same
+ * schema to read their values without creating {@link Tuple} objects. Values of a wrapped record are valid only until the underlying
+ * buffer region is reused.
+ */
+@NotThreadSafe
+public class BinaryTuple implements Fields<String>
+{
+
+    private final BinaryTupleCodec codec;
+
+    private DirectBuffer buffer;
+
+    private int offset;
+
+    private int length;
+
+    public BinaryTuple ( final BinaryTupleCodec codec )
+    {
+        this.codec = codec;
+    }
+
+    public BinaryTuple wrap ( final DirectBuffer buffer, final int offset, final int length )
+    {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+
+        return this;
+    }
+
+    public DirectBuffer buffer ()
+    {
+        return buffer;
+    }
+
+    public int offset ()
+    {
+        return offset;
+    }
+
+    public int length ()
+    {
+        return length;
+    }
+
+    public TupleSchema getSchema ()
+    {
+        return codec.getSchema();
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Override
+    public <T> T get ( final String key )
+    {
+        final int index = getSchema().getFieldIndex( key );
+        return index != FIELD_NOT_FOUND ? getAtSchemaIndex( index ) : null;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    public <T> T getAtSchemaIndex ( final int i )
+    {
+        checkWrapped();
+        return (T) codec.getValue( buffer, offset, i );
+    }
+
+    @Override
+    public boolean contains ( final String key )
+    {
+        final int index = getSchema().getFieldIndex( key );
+        return index != FIELD_NOT_FOUND && containsAtSchemaIndex( index );
+    }
+
+    public boolean containsAtSchemaIndex ( final int i )
+    {
+        checkWrapped();
+        return codec.isPresent( buffer, offset, i );
+    }
+
+    @Override
+    public long getLongValueOrDefault ( final String key, final long defaultVal )
+    {
+        final int index = getSchema().getFieldIndex( key );
+        return index != FIELD_NOT_FOUND ? getLongAtSchemaIndexOrDefault( index, defaultVal ) : defaultVal;
+    }
+
+    public long getLongAtSchemaIndexOrDefault ( final int i, final long defaultVal )
+    {
+        return containsAtSchemaIndex( i ) ? codec.getLong( buffer, offset, i ) : defaultVal;
+    }
+
+    @Override
+    public int getIntegerValueOrDefault ( final String key, final int defaultVal )
+    {
+        final int index = getSchema().getFieldIndex( key );
+        return index != FIELD_NOT_FOUND ? getIntegerAtSchemaIndexOrDefault( index, defaultVal ) : defaultVal;
+    }
+
+    public int getIntegerAtSchemaIndexOrDefault ( final int i, final int defaultVal )
+    {
+        return containsAtSchemaIndex( i ) ? codec.getInteger( buffer, offset, i ) : defaultVal;
+    }
+
+    @Override
+    public double getDoubleValueOrDefault ( final String key, final double defaultVal )
+    {
+        final int index = getSchema().getFieldIndex( key );
+        return index != FIELD_NOT_FOUND ? getDoubleAtSchemaIndexOrDefault( index, defaultVal ) : defaultVal;
+    }
+
+    public double getDoubleAtSchemaIndexOrDefault ( final int i, final double defaultVal )
+    {
+        return containsAtSchemaIndex( i ) ? codec.getDouble( buffer, offset, i ) : defaultVal;
+    }
+
+    @Override
+    public boolean getBooleanValueOrDefault ( final String key, final boolean defaultVal )
+    {
+        final int index = getSchema().getFieldIndex( key );
+        return index != FIELD_NOT_FOUND ? getBooleanAtSchemaIndexOrDefault( index, defaultVal ) : defaultVal;
+    }
+
+    public boolean getBooleanAtSchemaIndexOrDefault ( final int i, final boolean defaultVal )
+    {
+        return containsAtSchemaIndex( i ) ? codec.getBoolean( buffer, offset, i ) : defaultVal;
+    }
+
+    /**
+     * Returns a new {@link Tuple} object containing values of the wrapped record
+     *
+     * @return a new {@link Tuple} object containing values of the wrapped record
+     */
+    public Tuple toTuple ()
+    {
+        checkWrapped();
+        return codec.decode( buffer, offset );
+    }
+
+    @Override
+    public <T> void set ( final String key, final T value )
+    {
+        throw new UnsupportedOperationException( "binary tuple is read-only" );
+    }
+
+    @Override
+    public <T> T remove ( final String key )
+    {
+        throw new UnsupportedOperationException( "binary tuple is read-only" );
+    }
+
+    @Override
+    public boolean delete ( final String key )
+    {
+        throw new UnsupportedOperationException( "binary tuple is read-only" );
+    }
+
+    @Override
+    public void clear ()
+    {
+        throw new UnsupportedOperationException( "binary tuple is read-only" );
+    }
+
+    @Override
+    public int size ()
+    {
+        int size = 0;
+        for ( int i = 0; i < getSchema().getFieldCount(); i++ )
+        {
+            if ( containsAtSchemaIndex( i ) )
+            {
+                size++;
+            }
+        }
+
+        return size;
+    }
+
+    private void checkWrapped ()
+    {
+        checkState( buffer != null, "binary tuple is not wrapped" );
+    }
+
+    @Override
+    public String toString ()
+    {
+        return "BinaryTuple{" + "schema=" + getSchema() + ", offset=" + offset + ", length=" + length + '}';
+    }
+
+}
@@ -0,0 +1,370 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.codec;
+
+import java.util.List;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.agrona.BitUtil.SIZE_OF_BYTE;
+import static org.agrona.BitUtil.SIZE_OF_DOUBLE;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * Encodes {@link Tuple} objects of a fixed {@link TupleSchema} into a binary record and decodes them back.
+ * <p/>
+ * A record starts with a bitmap of the fields present in the tuple. It is followed by a fixed length slot for each field in the schema
+ * order, and a variable length section for the string values. {@link Long} and {@link Double} fields take 8 bytes, {@link Integer}
+ * fields take 4 bytes, {@link Boolean} fields take 1 byte, and {@link String} fields take 8 bytes for offset and length of their UTF-8
+ * bytes in the variable length section. Schemas with fields of other types are not supported. Tuples with values which do not have
+ * exactly the types of their fields are not encoded.
+ */
+@ThreadSafe
+public class BinaryTupleCodec
+{
+
+    public static final int NOT_ENCODABLE = -1;
+
+    private static final int VARIABLE_LENGTH_FIELD_SLOT_SIZE = SIZE_OF_INT * 2;
+
+    /**
+     * Returns true if all fields of the given schema can be encoded
+     *
+     * @param schema
+     *         schema to check
+     *
+     * @return true if all fields of the given schema can be encoded
+     */
+    public static boolean isEncodable ( final TupleSchema schema )
+    {
+        if ( schema.getFieldCount() == 0 )
+        {
+            return false;
+        }
+
+        final List<RuntimeSchemaField> fields = schema.getFields();
+        for ( int i = 0; i < schema.getFieldCount(); i++ )
+        {
+            if ( schema.getPrimitiveFieldType( i ) == null && fields.get( i ).getType() != String.class )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    private final TupleSchema schema;
+
+    // wrapper types of the fields. String.class for the variable length fields
+    private final Class<?>[] fieldTypes;
+
+    private final int[] fieldOffsets;
+
+    private final int fixedLength;
+
+    private final int variableLengthFieldCount;
+
+    public BinaryTupleCodec ( final TupleSchema schema )
+    {
+        checkArgument( schema != null, "schema can't be null" );
+        checkArgument( isEncodable( schema ), "schema is not encodable: %s", schema );
+
+        final int fieldCount = schema.getFieldCount();
+        this.schema = schema;
+        this.fieldTypes = new Class<?>[ fieldCount ];
+        this.fieldOffsets = new int[ fieldCount ];
+
+        int offset = ( fieldCount + 7 ) / 8;
+        int variableLengthFieldCount = 0;
+        for ( int i = 0; i < fieldCount; i++ )
+        {
+            final Class<?> primitiveType = schema.getPrimitiveFieldType( i );
+            fieldTypes[ i ] = primitiveType != null ? primitiveType : String.class;
+            fieldOffsets[ i ] = offset;
+            offset += getSlotSize( fieldTypes[ i ] );
+            if ( primitiveType == null )
+            {
+                variableLengthFieldCount++;
+            }
+        }
+
+        this.fixedLength = offset;
+        this.variableLengthFieldCount = variableLengthFieldCount;
+    }
+
+    private static int getSlotSize ( final Class<?> type )
+    {
+        if ( type == Long.class || type == Double.class )
+        {
+            return SIZE_OF_LONG;
+        }
+        else if ( type == Integer.class )
+        {
+            return SIZE_OF_INT;
+        }
+        else if ( type == Boolean.class )
+        {
+            return SIZE_OF_BYTE;
+        }
+
+        return VARIABLE_LENGTH_FIELD_SLOT_SIZE;
+    }
+
+    public TupleSchema getSchema ()
+    {
+        return schema;
+    }
+
+    /**
+     * Returns length of the records without the variable length section
+     */
+    public int getFixedLength ()
+    {
+        return fixedLength;
+    }
+
+    public int getVariableLengthFieldCount ()
+    {
+        return variableLengthFieldCount;
+    }
+
+    /**
+     * Encodes the given tuple into the buffer starting from the given offset. The buffer must have enough capacity or be expandable.
+     *
+     * @param tuple
+     *         tuple to encode
+     * @param buffer
+     *         buffer to write the record
+     * @param offset
+     *         offset of the record in the buffer
+     *
+     * @return length of the record, or {@link #NOT_ENCODABLE} if the tuple has another schema or a field which cannot be encoded
+     */
+    public int encode ( final Tuple tuple, final MutableDirectBuffer buffer, final int offset )
+    {
+        if ( tuple.getSchema() != schema || tuple.hasNonSchemaFields() )
+        {
+            return NOT_ENCODABLE;
+        }
+
+        int length = fixedLength;
+        int presenceBits = 0;
+        for ( int i = 0; i < fieldTypes.length; i++ )
+        {
+            if ( tuple.containsAtSchemaIndex( i ) )
+            {
+                final int fieldLength = encodeField( tuple, i, buffer, offset, length );
+                if ( fieldLength == NOT_ENCODABLE )
+                {
+                    return NOT_ENCODABLE;
+                }
+
+                length += fieldLength;
+                presenceBits |= 1 << ( i % 8 );
+            }
+
+            if ( i % 8 == 7 || i == fieldTypes.length - 1 )
+            {
+                buffer.putByte( offset + i / 8, (byte) presenceBits );
+                presenceBits = 0;
+            }
+        }
+
+        return length;
+    }
+
+    // returns number of the bytes written to the variable length section
+    private int encodeField ( final Tuple tuple, final int i, final MutableDirectBuffer buffer, final int offset, final int length )
+    {
+        final Class<?> type = fieldTypes[ i ];
+        final int index = offset + fieldOffsets[ i ];
+        // Tuple.set() accepts values of any type. a fixed length field is encoded only if its value has exactly the type of the field,
+        // so that the value is neither converted nor truncated
+        if ( type != String.class && !tuple.isPrimitiveAtSchemaIndex( i ) && tuple.getAtSchemaIndex( i ).getClass() != type )
+        {
+            return NOT_ENCODABLE;
+        }
+
+        if ( type == Long.class )
+        {
+            buffer.putLong( index, tuple.getLongAtSchemaIndexOrDefault( i, 0 ) );
+        }
+        else if ( type == Integer.class )
+        {
+            buffer.putInt( index, tuple.getIntegerAtSchemaIndexOrDefault( i, 0 ) );
+        }
+        else if ( type == Double.class )
+        {
+            buffer.putDouble( index, tuple.getDoubleAtSchemaIndexOrDefault( i, 0 ) );
+        }
+        else if ( type == Boolean.class )
+        {
+            buffer.putByte( index, (byte) ( tuple.getBooleanAtSchemaIndexOrDefault( i, false ) ? 1 : 0 ) );
+        }
+        else
+        {
+            final Object value = tuple.getAtSchemaIndex( i );
+            if ( !( value instanceof String ) )
+            {
+                return NOT_ENCODABLE;
+            }
+
+            final byte[] bytes = ( (String) value ).getBytes( UTF_8 );
+            buffer.putInt( index, length );
+            buffer.putInt( index + SIZE_OF_INT, bytes.length );
+            buffer.putBytes( offset + length, bytes );
+
+            return bytes.length;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Decodes the record at the given offset of the buffer into a new tuple
+     *
+     * @param buffer
+     *         buffer containing the record
+     * @param offset
+     *         offset of the record in the buffer
+     *
+     * @return the decoded tuple
+     */
+    public Tuple decode ( final DirectBuffer buffer, final int offset )
+    {
+        final Tuple tuple = new Tuple( schema );
+        decode( buffer, offset, tuple );
+
+        return tuple;
+    }
+
+    /**
+     * Decodes the record at the given offset of the buffer into the given tuple, which must have the schema of the codec
+     *
+     * @param buffer
+     *         buffer containing the record
+     * @param offset
+     *         offset of the record in the buffer
+     * @param tuple
+     *         tuple to set the decoded values
+     */
+    public void decode ( final DirectBuffer buffer, final int offset, final Tuple tuple )
+    {
+        checkArgument( tuple.getSchema() == schema, "tuple schema does not match to the codec schema" );
+
+        for ( int i = 0; i < fieldTypes.length; i++ )
+        {
+            if ( !isPresent( buffer, offset, i ) )
+            {
+                continue;
+            }
+
+            final Class<?> type = fieldTypes[ i ];
+            if ( type == Long.class )
+            {
+                tuple.setLongAtSchemaIndex( i, getLong( buffer, offset, i ) );
+            }
+            else if ( type == Integer.class )
+            {
+                tuple.setIntegerAtSchemaIndex( i, getInteger( buffer, offset, i ) );
+            }
+            else if ( type == Double.class )
+            {
+                tuple.setDoubleAtSchemaIndex( i, getDouble( buffer, offset, i ) );
+            }
+            else if ( type == Boolean.class )
+            {
+                tuple.setBooleanAtSchemaIndex( i, getBoolean( buffer, offset, i ) );
+            }
+            else
+            {
+                tuple.setAtSchemaIndex( i, getString( buffer, offset, i ) );
+            }
+        }
+    }
+
+    /**
+     * Returns true if the record at the given offset of the buffer contains a value for the given schema index
+     */
+    public boolean isPresent ( final DirectBuffer buffer, final int offset, final int i )
+    {
+        return ( buffer.getByte( offset + i / 8 ) & ( 1 << ( i % 8 ) ) ) != 0;
+    }
+
+    public long getLong ( final DirectBuffer buffer, final int offset, final int i )
+    {
+        checkFieldType( i, Long.class );
+        return buffer.getLong( offset + fieldOffsets[ i ] );
+    }
+
+    public int getInteger ( final DirectBuffer buffer, final int offset, final int i )
+    {
+        checkFieldType( i, Integer.class );
+        return buffer.getInt( offset + fieldOffsets[ i ] );
+    }
+
+    public double getDouble ( final DirectBuffer buffer, final int offset, final int i )
+    {
+        checkFieldType( i, Double.class );
+        return buffer.getDouble( offset + fieldOffsets[ i ] );
+    }
+
+    public boolean getBoolean ( final DirectBuffer buffer, final int offset, final int i )
+    {
+        checkFieldType( i, Boolean.class );
+        return buffer.getByte( offset + fieldOffsets[ i ] ) != 0;
+    }
+
+    public String getString ( final DirectBuffer buffer, final int offset, final int i )
+    {
+        checkFieldType( i, String.class );
+        final int index = offset + fieldOffsets[ i ];
+        return buffer.getStringWithoutLengthUtf8( offset + buffer.getInt( index ), buffer.getInt( index + SIZE_OF_INT ) );
+    }
+
+    /**
+     * Returns the boxed value of the given schema index in the record at the given offset of the buffer, or null if the record does
+     * not contain a value for it
+     */
+    public Object getValue ( final DirectBuffer buffer, final int offset, final int i )
+    {
+        if ( !isPresent( buffer, offset, i ) )
+        {
+            return null;
+        }
+
+        final Class<?> type = fieldTypes[ i ];
+        if ( type == Long.class )
+        {
+            return getLong( buffer, offset, i );
+        }
+        else if ( type == Integer.class )
+        {
+            return getInteger( buffer, offset, i );
+        }
+        else if ( type == Double.class )
+        {
+            return getDouble( buffer, offset, i );
+        }
+        else if ( type == Boolean.class )
+        {
+            return getBoolean( buffer, offset, i );
+        }
+
+        return getString( buffer, offset, i );
+    }
+
+    private void checkFieldType ( final int i, final Class<?> type )
+    {
+        checkArgument( fieldTypes[ i ] == type, "field %s is not %s", schema.getFieldAt( i ), type.getSimpleName() );
+    }
+
+}
@@ -0,0 +1,88 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.codec;
+
+import java.util.Arrays;
+import javax.annotation.concurrent.ThreadSafe;
+
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
+
+/**
+ * Keeps a {@link BinaryTupleCodec} for each encodable {@link TupleSchema} seen by a tuple queue, and assigns consecutive indices to
+ * the codecs so that the index of the codec can be written into the records. Codecs are looked up with identity checks, since a tuple
+ * queue receives tuples of a few schemas and a linear scan is cheaper than hashing.
+ */
+@ThreadSafe
+public class BinaryTupleCodecRegistry
+{
+
+    public static final int NOT_ENCODABLE_SCHEMA = -1;
+
+
+    private volatile BinaryTupleCodec[] codecs = new BinaryTupleCodec[ 0 ];
+
+    private volatile TupleSchema[] nonEncodableSchemas = new TupleSchema[ 0 ];
+
+    /**
+     * Returns index of the codec of the given schema, or {@link #NOT_ENCODABLE_SCHEMA} if the schema is not encodable
+     *
+     * @param schema
+     *         schema to get the codec index
+     *
+     * @return index of the codec of the given schema, or {@link #NOT_ENCODABLE_SCHEMA} if the schema is not encodable
+     */
+    public int getCodecIndex ( final TupleSchema schema )
+    {
+        final BinaryTupleCodec[] codecs = this.codecs;
+        for ( int i = 0; i < codecs.length; i++ )
+        {
+            if ( codecs[ i ].getSchema() == schema )
+            {
+                return i;
+            }
+        }
+
+        for ( TupleSchema nonEncodableSchema : nonEncodableSchemas )
+        {
+            if ( nonEncodableSchema == schema )
+            {
+                return NOT_ENCODABLE_SCHEMA;
+            }
+        }
+
+        return addSchema( schema );
+    }
+
+    public BinaryTupleCodec getCodec ( final int codecIndex )
+    {
+        return codecs[ codecIndex ];
+    }
+
+    private synchronized int addSchema ( final TupleSchema schema )
+    {
+        for ( int i = 0; i < codecs.length; i++ )
+        {
+            if ( codecs[ i ].getSchema() == schema )
+            {
+                return i;
+            }
+        }
+
+        if ( !BinaryTupleCodec.isEncodable( schema ) )
+        {
+            if ( !Arrays.asList( nonEncodableSchemas ).contains( schema ) )
+            {
+                final TupleSchema[] nonEncodableSchemas = Arrays.copyOf( this.nonEncodableSchemas, this.nonEncodableSchemas.length + 1 );
+                nonEncodableSchemas[ nonEncodableSchemas.length - 1 ] = schema;
+                this.nonEncodableSchemas = nonEncodableSchemas;
+            }
+
+            return NOT_ENCODABLE_SCHEMA;
+        }
+
+        final BinaryTupleCodec[] codecs = Arrays.copyOf( this.codecs, this.codecs.length + 1 );
+        codecs[ codecs.length - 1 ] = new BinaryTupleCodec( schema );
+        this.codecs = codecs;
+
+        return codecs.length - 1;
+    }
+
+}
@@ -1,17 +1,33 @@
 package cs.bilkent.joker.engine.tuplequeue.impl.drainer;
 
 import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import static cs.bilkent.joker.engine.tuplequeue.impl.drainer.DrainerIdleStrategy.SIGNALLING_DISABLED;
 import cs.bilkent.joker.engine.util.concurrent.BackoffIdleStrategy;
 import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
 
 public class BlockingMultiPortConjunctiveDrainer extends MultiPortDrainer
 {
 
-    private final IdleStrategy idleStrategy = BackoffIdleStrategy.newDefaultInstance();
+    private final DrainerIdleStrategy idleStrategy;
 
     public BlockingMultiPortConjunctiveDrainer ( final int inputPortCount, final int maxBatchSize )
+    {
+        this( inputPortCount, maxBatchSize, BackoffIdleStrategy.newDefaultInstance(), SIGNALLING_DISABLED );
+    }
+
+    /**
+     * @param idleStrategy
+     *         idle strategy to use while waiting for tuples without signals
+     * @param signallingParkTimeoutNanos
+     *         maximum duration to park while waiting for a signal of the tuple queues, or 0 to idle without signals
+     */
+    public BlockingMultiPortConjunctiveDrainer ( final int inputPortCount,
+                                                 final int maxBatchSize,
+                                                 final IdleStrategy idleStrategy,
+                                                 final long signallingParkTimeoutNanos )
     {
         super( inputPortCount, maxBatchSize );
+        this.idleStrategy = new DrainerIdleStrategy( idleStrategy, signallingParkTimeoutNanos );
     }
 
     @Override
@@ -20,7 +36,7 @@ public class BlockingMultiPortConjunctiveDrainer extends MultiPortDrainer
         boolean idle = maySkipBlocking;
         while ( true )
         {
-            int satisfied = 0;
+            int satisfied = 0, unsatisfiedIndex = -1;
             for ( int i = 0; i < limit; i += 2 )
             {
                 final int portIndex = tupleCounts[ i ];
@@ -29,6 +45,10 @@ public class BlockingMultiPortConjunctiveDrainer extends MultiPortDrainer
                 {
                     satisfied++;
                 }
+                else if ( unsatisfiedIndex == -1 )
+                {
+                    unsatisfiedIndex = i;
+                }
             }
 
             if ( satisfied == inputPortCount )
@@ -42,7 +62,8 @@ public class BlockingMultiPortConjunctiveDrainer extends MultiPortDrainer
                     return null;
                 }
 
-                idle = idleStrategy.idle();
+                // waits for the first unsatisfied port. the other ports are checked again after it is satisfied
+                idle = idleStrategy.idle( tupleQueues[ tupleCounts[ unsatisfiedIndex ] ], tupleCounts[ unsatisfiedIndex + 1 ] );
             }
         }
     }
@@ -1,6 +1,7 @@
 package cs.bilkent.joker.engine.tuplequeue.impl.drainer;
 
 import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import static cs.bilkent.joker.engine.tuplequeue.impl.drainer.DrainerIdleStrategy.SIGNALLING_DISABLED;
 import cs.bilkent.joker.engine.util.concurrent.BackoffIdleStrategy;
 import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
 
@@ -8,11 +9,26 @@ import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
 public class BlockingMultiPortDisjunctiveDrainer extends MultiPortDrainer
 {
 
-    private final IdleStrategy idleStrategy = BackoffIdleStrategy.newDefaultInstance();
+    private final DrainerIdleStrategy idleStrategy;
 
     public BlockingMultiPortDisjunctiveDrainer ( final int inputPortCount, final int maxBatchSize )
+    {
+        this( inputPortCount, maxBatchSize, BackoffIdleStrategy.newDefaultInstance(), SIGNALLING_DISABLED );
+    }
+
+    /**
+     * @param idleStrategy
+     *         idle strategy to use while waiting for tuples without signals
+     * @param signallingParkTimeoutNanos
+     *         maximum duration to park while waiting for a signal of the tuple queues, or 0 to idle without signals
+     */
+    public BlockingMultiPortDisjunctiveDrainer ( final int inputPortCount,
+                                                 final int maxBatchSize,
+                                                 final IdleStrategy idleStrategy,
+                                                 final long signallingParkTimeoutNanos )
     {
         super( inputPortCount, maxBatchSize );
+        this.idleStrategy = new DrainerIdleStrategy( idleStrategy, signallingParkTimeoutNanos );
     }
 
     @Override
@@ -53,7 +69,7 @@ public class BlockingMultiPortDisjunctiveDrainer extends MultiPortDrainer
                     return null;
                 }
 
-                idle = idleStrategy.idle();
+                idle = idleStrategy.idleUntilAny( tupleQueues, tupleCounts, limit );
             }
         }
 
@@ -3,17 +3,30 @@ package cs.bilkent.joker.engine.tuplequeue.impl.drainer;
 import static com.google.common.base.Preconditions.checkArgument;
 import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import static cs.bilkent.joker.engine.tuplequeue.impl.drainer.DrainerIdleStrategy.SIGNALLING_DISABLED;
 import cs.bilkent.joker.engine.util.concurrent.BackoffIdleStrategy;
 import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
 
 public class BlockingSinglePortDrainer extends SinglePortDrainer
 {
 
-    private final IdleStrategy idleStrategy = BackoffIdleStrategy.newDefaultInstance();
+    private final DrainerIdleStrategy idleStrategy;
 
     public BlockingSinglePortDrainer ( final int maxBatchSize )
+    {
+        this( maxBatchSize, BackoffIdleStrategy.newDefaultInstance(), SIGNALLING_DISABLED );
+    }
+
+    /**
+     * @param idleStrategy
+     *         idle strategy to use while waiting for tuples without signals
+     * @param signallingParkTimeoutNanos
+     *         maximum duration to park while waiting for a signal of the tuple queue, or 0 to idle without signals
+     */
+    public BlockingSinglePortDrainer ( final int maxBatchSize, final IdleStrategy idleStrategy, final long signallingParkTimeoutNanos )
     {
         super( maxBatchSize );
+        this.idleStrategy = new DrainerIdleStrategy( idleStrategy, signallingParkTimeoutNanos );
     }
 
     @Override
@@ -25,19 +38,17 @@ public class BlockingSinglePortDrainer extends SinglePortDrainer
         final TupleQueue tupleQueue = tupleQueues[ 0 ];
 
         boolean idle = maySkipBlocking;
-        while ( tupleQueue.size() < tupleCountToCheck )
+        while ( tupleQueue.size() < tupleCountToCheck && !isTimedOut( tupleQueue ) )
         {
             if ( idle )
             {
                 return;
             }
 
-            idle = idleStrategy.idle();
+            idle = idleStrategy.idle( tupleQueue, tupleCountToCheck );
         }
 
-        tupleQueue.poll( tupleCountToPoll, tuples );
-        this.result = buffer;
-        this.key = key;
+        drainTuples( key, tupleQueue );
     }
 
     @Override
@@ -0,0 +1,110 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.drainer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import static cs.bilkent.joker.engine.tuplequeue.impl.drainer.MultiPortDrainer.NO_TUPLES_AVAILABLE;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * Idle strategy of the blocking drainers. If signalling is enabled and the tuple queues signal their consumer, the drainer registers
+ * itself as the waiter of the tuple queues, checks the tuple queues again, and parks until a producer unparks it or the park timeout
+ * elapses. A single park completes the idling, so that the pipeline replica runner can check its commands and upstream. Otherwise,
+ * it falls back to the given {@link IdleStrategy}.
+ */
+final class DrainerIdleStrategy
+{
+
+    static final long SIGNALLING_DISABLED = 0;
+
+    private final IdleStrategy idleStrategy;
+
+    private final long parkTimeoutNanos;
+
+    DrainerIdleStrategy ( final IdleStrategy idleStrategy, final long parkTimeoutNanos )
+    {
+        checkArgument( idleStrategy != null, "idle strategy can't be null" );
+        checkArgument( parkTimeoutNanos >= 0, "invalid park timeout: %s", parkTimeoutNanos );
+        this.idleStrategy = idleStrategy;
+        this.parkTimeoutNanos = parkTimeoutNanos;
+    }
+
+    /**
+     * Idles until size of the given tuple queue reaches the given threshold
+     *
+     * @return true if the drainer should stop waiting
+     */
+    boolean idle ( final TupleQueue tupleQueue, final int threshold )
+    {
+        if ( parkTimeoutNanos == SIGNALLING_DISABLED || !tupleQueue.registerWaiter( threshold ) )
+        {
+            return idleStrategy.idle();
+        }
+
+        if ( tupleQueue.size() < threshold )
+        {
+            parkNanos( parkTimeoutNanos );
+        }
+
+        tupleQueue.deregisterWaiter();
+
+        return true;
+    }
+
+    /**
+     * Idles until size of any of the given tuple queues reaches its tuple count. Tuple counts are given in the layout of
+     * {@link MultiPortDrainer#tupleCounts}.
+     *
+     * @return true if the drainer should stop waiting
+     */
+    boolean idleUntilAny ( final TupleQueue[] tupleQueues, final int[] tupleCounts, final int limit )
+    {
+        if ( parkTimeoutNanos == SIGNALLING_DISABLED )
+        {
+            return idleStrategy.idle();
+        }
+
+        for ( int i = 0; i < limit; i += 2 )
+        {
+            final int tupleCount = tupleCounts[ i + 1 ];
+            if ( tupleCount != NO_TUPLES_AVAILABLE && !tupleQueues[ tupleCounts[ i ] ].registerWaiter( tupleCount ) )
+            {
+                deregister( tupleQueues, tupleCounts, i );
+                return idleStrategy.idle();
+            }
+        }
+
+        boolean satisfied = false;
+        for ( int i = 0; i < limit && !satisfied; i += 2 )
+        {
+            final int tupleCount = tupleCounts[ i + 1 ];
+            satisfied = tupleCount != NO_TUPLES_AVAILABLE && tupleQueues[ tupleCounts[ i ] ].size() >= tupleCount;
+        }
+
+        if ( !satisfied )
+        {
+            parkNanos( parkTimeoutNanos );
+        }
+
+        deregister( tupleQueues, tupleCounts, limit );
+
+        return true;
+    }
+
+    private void deregister ( final TupleQueue[] tupleQueues, final int[] tupleCounts, final int limit )
+    {
+        for ( int i = 0; i < limit; i += 2 )
+        {
+            if ( tupleCounts[ i + 1 ] != NO_TUPLES_AVAILABLE )
+            {
+                tupleQueues[ tupleCounts[ i ] ].deregisterWaiter();
+            }
+        }
+    }
+
+    void reset ()
+    {
+        idleStrategy.reset();
+    }
+
+}
@@ -23,7 +23,7 @@ public abstract class MultiPortDrainer implements TupleQueueDrainer
 
     protected final int[] tupleCountsBuffer;
 
-    private final int maxBatchSize;
+    private int maxBatchSize;
 
     private final TuplesImpl buffer;
 
@@ -33,6 +33,12 @@ public abstract class MultiPortDrainer implements TupleQueueDrainer
 
     private PartitionKey key;
 
+    private long timeoutNanos;
+
+    // the last time the tuple queues are observed empty or drained. the available tuples are offered after this time
+
+    private long waitStartNanos;
+
     MultiPortDrainer ( final int inputPortCount, final int maxBatchSize )
     {
         this.inputPortCount = inputPortCount;
@@ -61,17 +67,41 @@ public abstract class MultiPortDrainer implements TupleQueueDrainer
         reset();
     }
 
+    /**
+     * Makes the drainer drain the available tuples when they have been waiting for the given timeout without satisfying the tuple
+     * counts. The timeout is checked whenever the drainer is invoked, after the tuple counts are checked. The waiting time is measured
+     * from the last time the drainer observed the tuple queues empty or drained them, so that the timeout can be satisfied when the
+     * tuples are observed for the first time. 0 disables the timeout.
+     */
+    public final void setTimeout ( final long timeoutNanos )
+    {
+        checkArgument( timeoutNanos >= 0, "invalid timeout %s", timeoutNanos );
+        this.timeoutNanos = timeoutNanos;
+        this.waitStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public final void setMaxBatchSize ( final int maxBatchSize )
+    {
+        checkArgument( maxBatchSize > 0, "invalid max batch size %s", maxBatchSize );
+        this.maxBatchSize = maxBatchSize;
+    }
+
     @Override
     public void drain ( final boolean maySkipBlocking, final PartitionKey key, final TupleQueue[] tupleQueues )
     {
         checkArgument( tupleQueues != null );
         checkArgument( tupleQueues.length == inputPortCount );
 
-        final int[] tupleCounts = checkQueueSizes( maySkipBlocking, tupleQueues );
+        int[] tupleCounts = checkQueueSizes( maySkipBlocking, tupleQueues );
 
         if ( tupleCounts == null )
         {
-            return;
+            tupleCounts = checkTimeout( tupleQueues );
+            if ( tupleCounts == null )
+            {
+                return;
+            }
         }
 
         for ( int i = 0; i < limit; i += 2 )
@@ -91,6 +121,45 @@ public abstract class MultiPortDrainer implements TupleQueueDrainer
 
         this.result = buffer;
         this.key = key;
+        if ( timeoutNanos != 0 )
+        {
+            this.waitStartNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Returns tuple counts to drain the non-empty tuple queues if their tuples have been waiting for the timeout, or null otherwise.
+     */
+    private int[] checkTimeout ( final TupleQueue[] tupleQueues )
+    {
+        if ( timeoutNanos == 0 )
+        {
+            return null;
+        }
+
+        boolean available = false;
+        for ( int i = 0; i < limit; i += 2 )
+        {
+            final int tupleCountIndex = i + 1;
+            if ( tupleCounts[ tupleCountIndex ] != NO_TUPLES_AVAILABLE && tupleQueues[ tupleCounts[ i ] ].size() > 0 )
+            {
+                tupleCountsBuffer[ tupleCountIndex ] = 1;
+                available = true;
+            }
+            else
+            {
+                tupleCountsBuffer[ tupleCountIndex ] = NO_TUPLES_AVAILABLE;
+            }
+        }
+
+        final long now = System.nanoTime();
+        if ( !available )
+        {
+            waitStartNanos = now;
+            return null;
+        }
+
+        return now - waitStartNanos >= timeoutNanos ? tupleCountsBuffer : null;
     }
 
     @Override
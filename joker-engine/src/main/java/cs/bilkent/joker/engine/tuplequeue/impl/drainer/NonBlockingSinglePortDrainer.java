@@ -21,11 +21,9 @@ public class NonBlockingSinglePortDrainer extends SinglePortDrainer
 
         final TupleQueue tupleQueue = tupleQueues[ 0 ];
 
-        if ( tupleQueue.size() >= tupleCountToCheck )
+        if ( tupleQueue.size() >= tupleCountToCheck || isTimedOut( tupleQueue ) )
         {
-            tupleQueue.poll( tupleCountToPoll, tuples );
-            this.result = buffer;
-            this.key = key;
+            drainTuples( key, tupleQueue );
         }
     }
 
@@ -4,6 +4,7 @@ import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import cs.bilkent.joker.engine.partition.PartitionKey;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueueDrainer;
 import static cs.bilkent.joker.flow.Port.DEFAULT_PORT_INDEX;
 import cs.bilkent.joker.operator.Tuple;
@@ -15,7 +16,7 @@ import static java.lang.Math.max;
 public abstract class SinglePortDrainer implements TupleQueueDrainer
 {
 
-    protected final int maxBatchSize;
+    protected int maxBatchSize;
 
     final TuplesImpl buffer = new TuplesImpl( 1 );
 
@@ -25,10 +26,17 @@ public abstract class SinglePortDrainer implements TupleQueueDrainer
 
     int tupleCountToPoll;
 
+    private boolean pollWithExactCount;
+
     protected TuplesImpl result;
 
     protected PartitionKey key;
 
+    private long timeoutNanos;
+
+    // the last time the tuple queue is observed empty or drained. the available tuples are offered after this time
+    private long waitStartNanos;
+
     SinglePortDrainer ( final int maxBatchSize )
     {
         this.maxBatchSize = maxBatchSize;
@@ -39,7 +47,63 @@ public abstract class SinglePortDrainer implements TupleQueueDrainer
         checkArgument( tupleAvailabilityByCount != null );
         checkArgument( tupleCount > 0, "invalid tuple count %s", tupleCount );
         this.tupleCountToCheck = tupleCount;
-        this.tupleCountToPoll = tupleAvailabilityByCount == EXACT ? tupleCount : max( tupleCount, maxBatchSize );
+        this.pollWithExactCount = tupleAvailabilityByCount == EXACT;
+        this.tupleCountToPoll = pollWithExactCount ? tupleCount : max( tupleCount, maxBatchSize );
+    }
+
+    /**
+     * Makes the drainer drain the available tuples when they have been waiting for the given timeout without satisfying the tuple count.
+     * The timeout is checked whenever the drainer is invoked. The waiting time is measured from the last time the drainer observed the
+     * tuple queue empty or drained it, so that the timeout can be satisfied when the tuples are observed for the first time.
+     * 0 disables the timeout.
+     */
+    public final void setTimeout ( final long timeoutNanos )
+    {
+        checkArgument( timeoutNanos >= 0, "invalid timeout %s", timeoutNanos );
+        this.timeoutNanos = timeoutNanos;
+        this.waitStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns true if the given tuple queue is not empty and its tuples have been waiting for the timeout
+     */
+    final boolean isTimedOut ( final TupleQueue tupleQueue )
+    {
+        if ( timeoutNanos == 0 )
+        {
+            return false;
+        }
+
+        final long now = System.nanoTime();
+        if ( tupleQueue.size() == 0 )
+        {
+            waitStartNanos = now;
+            return false;
+        }
+
+        return now - waitStartNanos >= timeoutNanos;
+    }
+
+    final void drainTuples ( final PartitionKey key, final TupleQueue tupleQueue )
+    {
+        tupleQueue.poll( tupleCountToPoll, tuples );
+        this.result = buffer;
+        this.key = key;
+        if ( timeoutNanos != 0 )
+        {
+            this.waitStartNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public final void setMaxBatchSize ( final int maxBatchSize )
+    {
+        checkArgument( maxBatchSize > 0, "invalid max batch size %s", maxBatchSize );
+        this.maxBatchSize = maxBatchSize;
+        if ( !pollWithExactCount && tupleCountToCheck > 0 )
+        {
+            this.tupleCountToPoll = max( tupleCountToCheck, maxBatchSize );
+        }
     }
 
     @Override
@@ -6,12 +6,14 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import cs.bilkent.joker.engine.config.JokerConfig;
 import cs.bilkent.joker.engine.config.TupleQueueDrainerConfig;
+import cs.bilkent.joker.engine.metric.IdleTimeMeter;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueueDrainer;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueueDrainerPool;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.BlockingMultiPortConjunctiveDrainer;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.BlockingMultiPortDisjunctiveDrainer;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.BlockingSinglePortDrainer;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.GreedyDrainer;
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset;
 import static cs.bilkent.joker.flow.Port.DEFAULT_PORT_INDEX;
 import cs.bilkent.joker.operator.OperatorDef;
 import cs.bilkent.joker.operator.scheduling.ScheduleWhenAvailable;
@@ -19,7 +21,9 @@ import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByCount.AT_LEAST_BUT_SAME_ON_ALL_PORTS;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort.ALL_PORTS;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort.ANY_PORT;
+import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailableOrTimeout;
 import cs.bilkent.joker.operator.scheduling.SchedulingStrategy;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 
 @NotThreadSafe
 public class BlockingTupleQueueDrainerPool implements TupleQueueDrainerPool
@@ -39,22 +43,34 @@ public class BlockingTupleQueueDrainerPool implements TupleQueueDrainerPool
 
     private TupleQueueDrainer active;
 
-    public BlockingTupleQueueDrainerPool ( final JokerConfig config, final OperatorDef operatorDef )
+    public BlockingTupleQueueDrainerPool ( final JokerConfig config, final OperatorDef operatorDef, final IdleTimeMeter idleTimeMeter )
     {
         this.operatorId = operatorDef.getId();
         this.inputPortCount = operatorDef.getInputPortCount();
 
         final TupleQueueDrainerConfig tupleQueueDrainerConfig = config.getTupleQueueDrainerConfig();
         final int maxBatchSize = tupleQueueDrainerConfig.getMaxBatchSize();
+        final long parkTimeoutNanos = tupleQueueDrainerConfig.isSignallingEnabled()
+                                      ? MICROSECONDS.toNanos( tupleQueueDrainerConfig.getSignallingParkTimeoutInMicros() )
+                                      : 0;
+        final IdleStrategyPreset idleStrategyPreset = config.getPipelineReplicaRunnerConfig().getIdleStrategy( operatorId );
 
         if ( inputPortCount == 1 )
         {
-            this.singlePortDrainer = new BlockingSinglePortDrainer( maxBatchSize );
+            this.singlePortDrainer = new BlockingSinglePortDrainer( maxBatchSize,
+                                                                   idleTimeMeter.newIdleStrategy( idleStrategyPreset ),
+                                                                   parkTimeoutNanos );
         }
         else if ( inputPortCount > 1 )
         {
-            this.multiPortConjunctiveDrainer = new BlockingMultiPortConjunctiveDrainer( inputPortCount, maxBatchSize );
-            this.multiPortDisjunctiveDrainer = new BlockingMultiPortDisjunctiveDrainer( inputPortCount, maxBatchSize );
+            this.multiPortConjunctiveDrainer = new BlockingMultiPortConjunctiveDrainer( inputPortCount,
+                                                                                        maxBatchSize,
+                                                                                        idleTimeMeter.newIdleStrategy( idleStrategyPreset ),
+                                                                                        parkTimeoutNanos );
+            this.multiPortDisjunctiveDrainer = new BlockingMultiPortDisjunctiveDrainer( inputPortCount,
+                                                                                        maxBatchSize,
+                                                                                        idleTimeMeter.newIdleStrategy( idleStrategyPreset ),
+                                                                                        parkTimeoutNanos );
         }
 
         this.greedyDrainer = new GreedyDrainer( inputPortCount );
@@ -71,36 +87,12 @@ public class BlockingTupleQueueDrainerPool implements TupleQueueDrainerPool
         }
         else if ( input instanceof ScheduleWhenTuplesAvailable )
         {
-            final ScheduleWhenTuplesAvailable strategy = (ScheduleWhenTuplesAvailable) input;
-            if ( inputPortCount == 1 )
-            {
-                singlePortDrainer.setParameters( strategy.getTupleAvailabilityByCount(), strategy.getTupleCount( DEFAULT_PORT_INDEX ) );
-                active = singlePortDrainer;
-            }
-            else
-            {
-                checkArgument( !( strategy.getTupleAvailabilityByPort() == ANY_PORT
-                                  && strategy.getTupleAvailabilityByCount() == AT_LEAST_BUT_SAME_ON_ALL_PORTS ), "invalid %s", strategy );
-                final int[] inputPorts = new int[ inputPortCount ];
-                for ( int i = 0; i < inputPortCount; i++ )
-                {
-                    inputPorts[ i ] = i;
-                }
-                if ( strategy.getTupleAvailabilityByPort() == ALL_PORTS )
-                {
-                    multiPortConjunctiveDrainer.setParameters( strategy.getTupleAvailabilityByCount(),
-                                                               inputPorts,
-                                                               strategy.getTupleCounts() );
-                    active = multiPortConjunctiveDrainer;
-                }
-                else
-                {
-                    multiPortDisjunctiveDrainer.setParameters( strategy.getTupleAvailabilityByCount(),
-                                                               inputPorts,
-                                                               strategy.getTupleCounts() );
-                    active = multiPortDisjunctiveDrainer;
-                }
-            }
+            active = acquire( (ScheduleWhenTuplesAvailable) input, 0 );
+        }
+        else if ( input instanceof ScheduleWhenTuplesAvailableOrTimeout )
+        {
+            final ScheduleWhenTuplesAvailableOrTimeout strategy = (ScheduleWhenTuplesAvailableOrTimeout) input;
+            active = acquire( strategy.getTupleAvailability(), MICROSECONDS.toNanos( strategy.getTimeoutInMicros() ) );
         }
         else
         {
@@ -110,6 +102,42 @@ public class BlockingTupleQueueDrainerPool implements TupleQueueDrainerPool
         return active;
     }
 
+    private TupleQueueDrainer acquire ( final ScheduleWhenTuplesAvailable strategy, final long timeoutNanos )
+    {
+        if ( inputPortCount == 1 )
+        {
+            singlePortDrainer.setParameters( strategy.getTupleAvailabilityByCount(), strategy.getTupleCount( DEFAULT_PORT_INDEX ) );
+            singlePortDrainer.setTimeout( timeoutNanos );
+            return singlePortDrainer;
+        }
+        else
+        {
+            checkArgument( !( strategy.getTupleAvailabilityByPort() == ANY_PORT
+                              && strategy.getTupleAvailabilityByCount() == AT_LEAST_BUT_SAME_ON_ALL_PORTS ), "invalid %s", strategy );
+            final int[] inputPorts = new int[ inputPortCount ];
+            for ( int i = 0; i < inputPortCount; i++ )
+            {
+                inputPorts[ i ] = i;
+            }
+            if ( strategy.getTupleAvailabilityByPort() == ALL_PORTS )
+            {
+                multiPortConjunctiveDrainer.setParameters( strategy.getTupleAvailabilityByCount(),
+                                                           inputPorts,
+                                                           strategy.getTupleCounts() );
+                multiPortConjunctiveDrainer.setTimeout( timeoutNanos );
+                return multiPortConjunctiveDrainer;
+            }
+            else
+            {
+                multiPortDisjunctiveDrainer.setParameters( strategy.getTupleAvailabilityByCount(),
+                                                           inputPorts,
+                                                           strategy.getTupleCounts() );
+                multiPortDisjunctiveDrainer.setTimeout( timeoutNanos );
+                return multiPortDisjunctiveDrainer;
+            }
+        }
+    }
+
     @Override
     public void release ( final TupleQueueDrainer drainer )
     {
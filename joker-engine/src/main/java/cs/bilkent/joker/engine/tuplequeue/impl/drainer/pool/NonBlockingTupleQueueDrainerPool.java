@@ -18,9 +18,11 @@ import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByCount.AT_LEAST_BUT_SAME_ON_ALL_PORTS;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort.ALL_PORTS;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort.ANY_PORT;
+import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailableOrTimeout;
 import cs.bilkent.joker.operator.scheduling.SchedulingStrategy;
 import cs.bilkent.joker.operator.spec.OperatorType;
 import static cs.bilkent.joker.operator.spec.OperatorType.PARTITIONED_STATEFUL;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 
 @NotThreadSafe
 public class NonBlockingTupleQueueDrainerPool implements TupleQueueDrainerPool
@@ -74,37 +76,12 @@ public class NonBlockingTupleQueueDrainerPool implements TupleQueueDrainerPool
         }
         else if ( input instanceof ScheduleWhenTuplesAvailable )
         {
-            final ScheduleWhenTuplesAvailable strategy = (ScheduleWhenTuplesAvailable) input;
-
-            if ( inputPortCount == 1 )
-            {
-                singlePortDrainer.setParameters( strategy.getTupleAvailabilityByCount(), strategy.getTupleCount( DEFAULT_PORT_INDEX ) );
-                active = singlePortDrainer;
-            }
-            else
-            {
-                checkArgument( !( strategy.getTupleAvailabilityByPort() == ANY_PORT
-                                  && strategy.getTupleAvailabilityByCount() == AT_LEAST_BUT_SAME_ON_ALL_PORTS ), "invalid %s", strategy );
-                final int[] inputPorts = new int[ inputPortCount ];
-                for ( int i = 0; i < inputPortCount; i++ )
-                {
-                    inputPorts[ i ] = i;
-                }
-                if ( strategy.getTupleAvailabilityByPort() == ALL_PORTS && operatorType != PARTITIONED_STATEFUL )
-                {
-                    multiPortConjunctiveDrainer.setParameters( strategy.getTupleAvailabilityByCount(),
-                                                               inputPorts,
-                                                               strategy.getTupleCounts() );
-                    active = multiPortConjunctiveDrainer;
-                }
-                else
-                {
-                    multiPortDisjunctiveDrainer.setParameters( strategy.getTupleAvailabilityByCount(),
-                                                               inputPorts,
-                                                               strategy.getTupleCounts() );
-                    active = multiPortDisjunctiveDrainer;
-                }
-            }
+            active = acquire( (ScheduleWhenTuplesAvailable) input, 0 );
+        }
+        else if ( input instanceof ScheduleWhenTuplesAvailableOrTimeout )
+        {
+            final ScheduleWhenTuplesAvailableOrTimeout strategy = (ScheduleWhenTuplesAvailableOrTimeout) input;
+            active = acquire( strategy.getTupleAvailability(), MICROSECONDS.toNanos( strategy.getTimeoutInMicros() ) );
         }
         else
         {
@@ -114,6 +91,42 @@ public class NonBlockingTupleQueueDrainerPool implements TupleQueueDrainerPool
         return active;
     }
 
+    private TupleQueueDrainer acquire ( final ScheduleWhenTuplesAvailable strategy, final long timeoutNanos )
+    {
+        if ( inputPortCount == 1 )
+        {
+            singlePortDrainer.setParameters( strategy.getTupleAvailabilityByCount(), strategy.getTupleCount( DEFAULT_PORT_INDEX ) );
+            singlePortDrainer.setTimeout( timeoutNanos );
+            return singlePortDrainer;
+        }
+        else
+        {
+            checkArgument( !( strategy.getTupleAvailabilityByPort() == ANY_PORT
+                              && strategy.getTupleAvailabilityByCount() == AT_LEAST_BUT_SAME_ON_ALL_PORTS ), "invalid %s", strategy );
+            final int[] inputPorts = new int[ inputPortCount ];
+            for ( int i = 0; i < inputPortCount; i++ )
+            {
+                inputPorts[ i ] = i;
+            }
+            if ( strategy.getTupleAvailabilityByPort() == ALL_PORTS && operatorType != PARTITIONED_STATEFUL )
+            {
+                multiPortConjunctiveDrainer.setParameters( strategy.getTupleAvailabilityByCount(),
+                                                           inputPorts,
+                                                           strategy.getTupleCounts() );
+                multiPortConjunctiveDrainer.setTimeout( timeoutNanos );
+                return multiPortConjunctiveDrainer;
+            }
+            else
+            {
+                multiPortDisjunctiveDrainer.setParameters( strategy.getTupleAvailabilityByCount(),
+                                                           inputPorts,
+                                                           strategy.getTupleCounts() );
+                multiPortDisjunctiveDrainer.setTimeout( timeoutNanos );
+                return multiPortDisjunctiveDrainer;
+            }
+        }
+    }
+
     @Override
     public void release ( final TupleQueueDrainer drainer )
     {
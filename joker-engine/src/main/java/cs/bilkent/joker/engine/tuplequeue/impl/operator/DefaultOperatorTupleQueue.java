@@ -15,6 +15,7 @@ import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueueDrainer;
 import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort;
+import static java.lang.Math.max;
 
 
 public class DefaultOperatorTupleQueue implements OperatorTupleQueue
@@ -128,6 +129,18 @@ public class DefaultOperatorTupleQueue implements OperatorTupleQueue
         return true;
     }
 
+    @Override
+    public int getQueuedTupleCount ()
+    {
+        int queuedTupleCount = 0;
+        for ( int portIndex = 0; portIndex < getInputPortCount(); portIndex++ )
+        {
+            queuedTupleCount = max( queuedTupleCount, tupleQueues[ portIndex ].size() );
+        }
+
+        return queuedTupleCount;
+    }
+
     @Override
     public void ensureCapacity ( final int capacity )
     {
@@ -84,6 +84,12 @@ public class EmptyOperatorTupleQueue implements OperatorTupleQueue
         return true;
     }
 
+    @Override
+    public int getQueuedTupleCount ()
+    {
+        return 0;
+    }
+
     @Override
     public void ensureCapacity ( final int capacity )
     {
@@ -0,0 +1,118 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.operator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static cs.bilkent.joker.engine.config.ThreadingPreference.MULTI_THREADED;
+import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.impl.queue.MultiLaneTupleQueue;
+
+/**
+ * {@link DefaultOperatorTupleQueue} which contains a {@link MultiLaneTupleQueue} for each input port. Producers, such as replicas of an
+ * upstream pipeline, obtain their own lanes via {@link #replaceLanes(Object, int)} and offer their tuples to the lanes without contending
+ * with the other producers. Tuples offered directly to this queue go to the shared lanes of the input ports.
+ * <p/>
+ * Lanes of a producer group are retired when the group obtains new lanes, so the tuples remaining in the lanes of the previous producers
+ * are polled before the tuples of the new producers.
+ */
+public class MultiLaneOperatorTupleQueue extends DefaultOperatorTupleQueue
+{
+
+    private static final Logger LOGGER = LoggerFactory.getLogger( MultiLaneOperatorTupleQueue.class );
+
+    private final MultiLaneTupleQueue[] tupleQueues;
+
+    private final int tupleQueueCapacity;
+
+    // lane tuple queues of each producer group, indexed by producer and port index
+    private final Map<Object, TupleQueue[][]> laneTupleQueuesByProducerGroup = new HashMap<>();
+
+    public MultiLaneOperatorTupleQueue ( final String operatorId,
+                                         final int inputPortCount,
+                                         final MultiLaneTupleQueue[] tupleQueues,
+                                         final int tupleQueueCapacity )
+    {
+        super( operatorId, inputPortCount, MULTI_THREADED, tupleQueues, tupleQueueCapacity );
+        this.tupleQueues = tupleQueues;
+        this.tupleQueueCapacity = tupleQueueCapacity;
+    }
+
+    /**
+     * Retires the lanes previously obtained for the given producer group, and returns new lanes for its producers. If the group has a
+     * single producer, it does not get a dedicated lane and offers its tuples to the shared lanes via this queue. The previous producers
+     * of the group must be stopped before this method is called. Each returned lane must be used only by its producer.
+     *
+     * @param producerGroup
+     *         key of the producer group, such as id of an upstream region
+     * @param producerCount
+     *         number of the producers in the group, such as replica count of an upstream region
+     *
+     * @return the lanes of the producers, indexed by the producer index
+     */
+    public synchronized OperatorTupleQueue[] replaceLanes ( final Object producerGroup, final int producerCount )
+    {
+        checkArgument( producerGroup != null, "producer group can't be null" );
+        checkArgument( producerCount > 0, "invalid producer count: %s", producerCount );
+
+        final TupleQueue[][] retiredLaneTupleQueues = laneTupleQueuesByProducerGroup.remove( producerGroup );
+        if ( retiredLaneTupleQueues != null )
+        {
+            for ( TupleQueue[] laneTupleQueues : retiredLaneTupleQueues )
+            {
+                for ( int portIndex = 0; portIndex < tupleQueues.length; portIndex++ )
+                {
+                    tupleQueues[ portIndex ].retireLane( laneTupleQueues[ portIndex ] );
+                }
+            }
+
+            LOGGER.debug( "Retired {} lanes of producer group {} in tuple queue of operator {}",
+                          retiredLaneTupleQueues.length,
+                          producerGroup,
+                          getOperatorId() );
+        }
+
+        final OperatorTupleQueue[] lanes = new OperatorTupleQueue[ producerCount ];
+        if ( producerCount == 1 )
+        {
+            lanes[ 0 ] = this;
+            return lanes;
+        }
+
+        final TupleQueue[][] laneTupleQueues = new TupleQueue[ producerCount ][ tupleQueues.length ];
+        for ( int producerIndex = 0; producerIndex < producerCount; producerIndex++ )
+        {
+            for ( int portIndex = 0; portIndex < tupleQueues.length; portIndex++ )
+            {
+                laneTupleQueues[ producerIndex ][ portIndex ] = tupleQueues[ portIndex ].addLane();
+            }
+
+            lanes[ producerIndex ] = new DefaultOperatorTupleQueue( getOperatorId(),
+                                                                    tupleQueues.length,
+                                                                    MULTI_THREADED,
+                                                                    laneTupleQueues[ producerIndex ],
+                                                                    tupleQueueCapacity );
+        }
+
+        laneTupleQueuesByProducerGroup.put( producerGroup, laneTupleQueues );
+        LOGGER.debug( "Added {} lanes for producer group {} to tuple queue of operator {}", producerCount, producerGroup, getOperatorId() );
+
+        return lanes;
+    }
+
+    public synchronized int getLaneCount ()
+    {
+        int laneCount = 0;
+        for ( TupleQueue[][] laneTupleQueues : laneTupleQueuesByProducerGroup.values() )
+        {
+            laneCount += laneTupleQueues.length;
+        }
+
+        return laneCount;
+    }
+
+}
@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 import static com.google.common.base.Preconditions.checkArgument;
 import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
+import cs.bilkent.joker.engine.partition.PrimitivePartitionKeyExtractor;
 import static cs.bilkent.joker.engine.partition.PartitionUtil.getPartitionId;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueueDrainer;
@@ -16,6 +17,7 @@ import cs.bilkent.joker.engine.tuplequeue.impl.TupleQueueContainer;
 import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
 import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.util.Arrays.copyOf;
 import static java.util.Arrays.fill;
@@ -41,6 +43,9 @@ public class PartitionedOperatorTupleQueue implements OperatorTupleQueue
 
     private final PartitionKeyExtractor partitionKeyExtractor;
 
+    // same with the partition key extractor if it reads primitive partition field values, null otherwise
+    private final PrimitivePartitionKeyExtractor primitivePartitionKeyExtractor;
+
     private final TupleQueueContainer[] tupleQueueContainers;
 
     private final int[] drainIndices;
@@ -91,6 +96,9 @@ public class PartitionedOperatorTupleQueue implements OperatorTupleQueue
         this.partitionCount = partitionCount;
         this.tupleQueueCapacity = tupleQueueCapacity;
         this.partitionKeyExtractor = partitionKeyExtractor;
+        this.primitivePartitionKeyExtractor = partitionKeyExtractor instanceof PrimitivePartitionKeyExtractor
+                                              ? (PrimitivePartitionKeyExtractor) partitionKeyExtractor
+                                              : null;
         this.tupleQueueContainers = copyOf( tupleQueueContainers, partitionCount );
         this.availableTupleCounts = new int[ inputPortCount ];
         this.maxDrainableKeyCount = maxDrainableKeyCount;
@@ -127,6 +135,12 @@ public class PartitionedOperatorTupleQueue implements OperatorTupleQueue
 
     @Override
     public int offer ( final int portIndex, final List<Tuple> tuples, final int startIndex )
+    {
+        return offer( portIndex, tuples, null, startIndex );
+    }
+
+    @Override
+    public int offer ( final int portIndex, final List<Tuple> tuples, final List<PartitionKey> partitionKeys, final int startIndex )
     {
         if ( tuples == null )
         {
@@ -137,9 +151,28 @@ public class PartitionedOperatorTupleQueue implements OperatorTupleQueue
         for ( int i = startIndex; i < size; i++ )
         {
             final Tuple tuple = tuples.get( i );
-            final PartitionKey partitionKey = partitionKeyExtractor.getPartitionKey( tuple );
-            final int partitionId = getPartitionId( partitionKey.partitionHashCode(), partitionCount );
-            final boolean newDrainableKey = tupleQueueContainers[ partitionId ].offer( portIndex, tuple, partitionKey );
+            final int partitionId;
+            final boolean newDrainableKey;
+            PartitionKey partitionKey = partitionKeys != null ? partitionKeys.get( i ) : null;
+            if ( partitionKey == null && primitivePartitionKeyExtractor != null && primitivePartitionKeyExtractor.hasPrimitiveKey( tuple ) )
+            {
+                final long primitiveKey = primitivePartitionKeyExtractor.getPrimitiveKey( tuple );
+                partitionId = getPartitionId( primitivePartitionKeyExtractor.getPartitionHash( primitiveKey ), partitionCount );
+                newDrainableKey = tupleQueueContainers[ partitionId ].offer( portIndex,
+                                                                             tuple,
+                                                                             primitiveKey,
+                                                                             primitivePartitionKeyExtractor );
+            }
+            else
+            {
+                if ( partitionKey == null )
+                {
+                    partitionKey = partitionKeyExtractor.getPartitionKey( tuple );
+                }
+                partitionId = getPartitionId( partitionKey.partitionHashCode(), partitionCount );
+                newDrainableKey = tupleQueueContainers[ partitionId ].offer( portIndex, tuple, partitionKey );
+            }
+
             if ( newDrainableKey )
             {
                 markDrainablePartition( partitionId, 1 );
@@ -272,6 +305,18 @@ public class PartitionedOperatorTupleQueue implements OperatorTupleQueue
         return true;
     }
 
+    @Override
+    public int getQueuedTupleCount ()
+    {
+        int queuedTupleCount = 0;
+        for ( int portIndex = 0; portIndex < inputPortCount; portIndex++ )
+        {
+            queuedTupleCount = max( queuedTupleCount, availableTupleCounts[ portIndex ] );
+        }
+
+        return queuedTupleCount;
+    }
+
     @Override
     public void ensureCapacity ( final int capacity )
     {
@@ -360,6 +405,7 @@ public class PartitionedOperatorTupleQueue implements OperatorTupleQueue
         return released;
     }
 
+    @Override
     public PartitionKeyExtractor getPartitionKeyExtractor ()
     {
         return partitionKeyExtractor;
@@ -0,0 +1,251 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
+
+/**
+ * Bounded array queue for many producers and a single consumer, which works on batches of elements.
+ * <p/>
+ * A producer claims a contiguous range of slots for a batch with a single CAS on the tail, and then publishes the elements into the
+ * claimed slots with ordered writes. The consumer polls elements in order until it reaches the capacity, the given limit or a slot
+ * which is claimed but not published yet, and then advances the head once for the whole batch.
+ * <p/>
+ * {@link #offer(List, int)} may offer only a prefix of the given elements if the queue does not have enough capacity. Given lists must
+ * not contain null elements, since a null slot is considered as not published yet.
+ * <p/>
+ * Once the queue is sealed via {@link #seal()}, no more elements are offered to it. Elements offered before the queue is sealed can
+ * still be polled.
+ * <p/>
+ * {@link #poll(int, Collection)}, {@link #poll()} and {@link #clear()} must be called only by the consumer thread.
+ */
+@ThreadSafe
+final class ManyToOneBatchArrayQueue<E>
+{
+
+    // set on the tail when the queue is sealed
+    private static final long SEALED = Long.MIN_VALUE;
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> buffer;
+
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicLong tail = new AtomicLong();
+
+    // last head value seen by the producers. it is refreshed only when the queue looks short of capacity
+    private final AtomicLong headCache = new AtomicLong();
+
+    ManyToOneBatchArrayQueue ( final int requestedCapacity )
+    {
+        checkArgument( requestedCapacity > 0 );
+        this.capacity = findNextPositivePowerOfTwo( requestedCapacity );
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<>( capacity );
+    }
+
+    int capacity ()
+    {
+        return capacity;
+    }
+
+    boolean offer ( final E element )
+    {
+        checkArgument( element != null, "element can't be null" );
+
+        final long index = claim( 1 );
+        if ( index < 0 )
+        {
+            return false;
+        }
+
+        buffer.lazySet( (int) index & mask, element );
+        return true;
+    }
+
+    int offer ( final List<? extends E> elements, final int fromIndex )
+    {
+        final int count = elements.size() - fromIndex;
+        if ( count <= 0 )
+        {
+            return 0;
+        }
+
+        long index;
+        int claimed;
+        do
+        {
+            final long currentTail = tail.get();
+            if ( currentTail < 0 )
+            {
+                return 0;
+            }
+
+            final int available = getAvailableCapacity( currentTail, count );
+            if ( available == 0 )
+            {
+                return 0;
+            }
+
+            claimed = Math.min( count, available );
+            index = currentTail;
+            if ( tail.compareAndSet( currentTail, currentTail + claimed ) )
+            {
+                break;
+            }
+        } while ( true );
+
+        for ( int i = 0; i < claimed; i++ )
+        {
+            buffer.lazySet( (int) ( index + i ) & mask, elements.get( fromIndex + i ) );
+        }
+
+        return claimed;
+    }
+
+    E poll ()
+    {
+        final long currentHead = head.get();
+        final int slot = (int) currentHead & mask;
+        final E element = buffer.get( slot );
+        if ( element != null )
+        {
+            buffer.lazySet( slot, null );
+            head.lazySet( currentHead + 1 );
+        }
+
+        return element;
+    }
+
+    int poll ( final int limit, final Collection<? super E> elements )
+    {
+        final long currentHead = head.get();
+        int polled = 0;
+        while ( polled < limit )
+        {
+            final int slot = (int) ( currentHead + polled ) & mask;
+            final E element = buffer.get( slot );
+            if ( element == null )
+            {
+                break;
+            }
+
+            buffer.lazySet( slot, null );
+            elements.add( element );
+            polled++;
+        }
+
+        if ( polled > 0 )
+        {
+            head.lazySet( currentHead + polled );
+        }
+
+        return polled;
+    }
+
+    int size ()
+    {
+        long currentHead;
+        long currentTail;
+        do
+        {
+            currentHead = head.get();
+            currentTail = tail.get() & ~SEALED;
+        } while ( currentHead != head.get() );
+
+        final long size = currentTail - currentHead;
+        return (int) Math.max( 0, Math.min( size, capacity ) );
+    }
+
+    void clear ()
+    {
+        long currentHead = head.get();
+        int slot;
+        while ( buffer.get( slot = (int) currentHead & mask ) != null )
+        {
+            buffer.lazySet( slot, null );
+            currentHead++;
+        }
+
+        head.lazySet( currentHead );
+    }
+
+    /**
+     * Seals the queue so that no more elements can be offered to it.
+     *
+     * @return true if the queue is sealed by this call, false if it is already sealed
+     */
+    boolean seal ()
+    {
+        while ( true )
+        {
+            final long currentTail = tail.get();
+            if ( currentTail < 0 )
+            {
+                return false;
+            }
+
+            if ( tail.compareAndSet( currentTail, currentTail | SEALED ) )
+            {
+                return true;
+            }
+        }
+    }
+
+    boolean isSealed ()
+    {
+        return tail.get() < 0;
+    }
+
+    /**
+     * Returns true if the queue is sealed and all elements offered before it is sealed are polled.
+     * Must be called only by the consumer thread.
+     *
+     * @return true if the queue is sealed and all elements offered before it is sealed are polled
+     */
+    boolean isSealedAndDrained ()
+    {
+        final long currentTail = tail.get();
+        return currentTail < 0 && head.get() == ( currentTail & ~SEALED );
+    }
+
+    // returns index of the claimed slot, or -1 if the queue is full or sealed
+    private long claim ( final int count )
+    {
+        while ( true )
+        {
+            final long currentTail = tail.get();
+            if ( currentTail < 0 || getAvailableCapacity( currentTail, count ) < count )
+            {
+                return -1;
+            }
+
+            if ( tail.compareAndSet( currentTail, currentTail + count ) )
+            {
+                return currentTail;
+            }
+        }
+    }
+
+    private int getAvailableCapacity ( final long currentTail, final int required )
+    {
+        long available = capacity - ( currentTail - headCache.get() );
+        if ( available < required )
+        {
+            final long currentHead = head.get();
+            headCache.lazySet( currentHead );
+            available = capacity - ( currentTail - currentHead );
+        }
+
+        return (int) Math.max( 0, available );
+    }
+
+}
@@ -0,0 +1,159 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.operator.Tuple;
+
+/**
+ * {@link TupleQueue} which tracks the estimated byte size of the tuples enqueued to the given tuple queue in the given
+ * {@link TupleQueueMemoryBudget}. Estimated sizes of the offered tuples are added to the budget before they are offered to the given
+ * queue, and released when they are polled. Sizes are estimated only from the tuple schemas, so that the size released for a tuple is
+ * the size acquired for it even if the tuple is modified while it is in the queue. It does not reject tuples when the budget is
+ * exhausted. Backpressure is applied by the downstream tuple senders.
+ * <p/>
+ * It has the same thread-safety guarantees with the given tuple queue.
+ */
+public class MemoryBudgetedTupleQueue implements TupleQueue
+{
+
+    private final TupleQueue queue;
+
+    private final TupleQueueMemoryBudget memoryBudget;
+
+    private final TupleSizeEstimator tupleSizeEstimator = new TupleSizeEstimator();
+
+    public MemoryBudgetedTupleQueue ( final TupleQueue queue, final TupleQueueMemoryBudget memoryBudget )
+    {
+        checkArgument( queue != null, "queue can't be null" );
+        checkArgument( memoryBudget != null, "memory budget can't be null" );
+        this.queue = queue;
+        this.memoryBudget = memoryBudget;
+    }
+
+    public TupleQueue getQueue ()
+    {
+        return queue;
+    }
+
+    @Override
+    public boolean offer ( final Tuple tuple )
+    {
+        final long size = tupleSizeEstimator.estimate( tuple );
+        memoryBudget.acquire( size );
+        if ( queue.offer( tuple ) )
+        {
+            return true;
+        }
+
+        memoryBudget.release( size );
+        return false;
+    }
+
+    @Override
+    public int offer ( final List<Tuple> tuples )
+    {
+        return offer( tuples, 0 );
+    }
+
+    @Override
+    public int offer ( final List<Tuple> tuples, final int fromIndex )
+    {
+        checkArgument( tuples != null, "tuples can't be null" );
+
+        // the size is acquired before the tuples are offered, so that the consumer can not release it before it is acquired
+        final int size = tuples.size();
+        final long bytes = estimate( tuples, fromIndex, size );
+        memoryBudget.acquire( bytes );
+        final int offered = queue.offer( tuples, fromIndex );
+        if ( fromIndex + offered < size )
+        {
+            memoryBudget.release( estimate( tuples, fromIndex + offered, size ) );
+        }
+
+        return offered;
+    }
+
+    @Override
+    public Tuple poll ()
+    {
+        final Tuple tuple = queue.poll();
+        if ( tuple != null )
+        {
+            memoryBudget.release( tupleSizeEstimator.estimate( tuple ) );
+        }
+
+        return tuple;
+    }
+
+    @Override
+    public List<Tuple> poll ( final int limit )
+    {
+        final List<Tuple> tuples = new ArrayList<>();
+        poll( limit, tuples );
+        return tuples;
+    }
+
+    @Override
+    public int poll ( final int limit, final Collection<Tuple> tuples )
+    {
+        if ( tuples instanceof List )
+        {
+            final List<Tuple> list = (List<Tuple>) tuples;
+            final int start = list.size();
+            final int polled = queue.poll( limit, list );
+            if ( polled > 0 )
+            {
+                memoryBudget.release( estimate( list, start, start + polled ) );
+            }
+
+            return polled;
+        }
+
+        final List<Tuple> list = new ArrayList<>();
+        final int polled = queue.poll( limit, list );
+        if ( polled > 0 )
+        {
+            memoryBudget.release( estimate( list, 0, polled ) );
+            tuples.addAll( list );
+        }
+
+        return polled;
+    }
+
+    @Override
+    public int size ()
+    {
+        return queue.size();
+    }
+
+    @Override
+    public void clear ()
+    {
+        final List<Tuple> tuples = queue.poll( queue.size() );
+        memoryBudget.release( estimate( tuples, 0, tuples.size() ) );
+        queue.clear();
+    }
+
+    @Override
+    public boolean ensureCapacity ( final int capacity )
+    {
+        return queue.ensureCapacity( capacity );
+    }
+
+    private long estimate ( final List<Tuple> tuples, final int fromIndex, final int toIndex )
+    {
+        long bytes = 0;
+        for ( int i = fromIndex; i < toIndex; i++ )
+        {
+            bytes += tupleSizeEstimator.estimate( tuples.get( i ) );
+        }
+
+        return bytes;
+    }
+
+}
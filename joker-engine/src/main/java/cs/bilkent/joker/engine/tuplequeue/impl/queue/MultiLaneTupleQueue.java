@@ -0,0 +1,308 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import cs.bilkent.joker.engine.util.concurrent.ThresholdWaiter;
+import cs.bilkent.joker.operator.Tuple;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.copyOfRange;
+
+/**
+ * {@link TupleQueue} for many producers and a single consumer, which contains a dedicated {@link SingleProducerTupleQueue} lane for
+ * each producer added via {@link #addLane()}, so that the producers do not contend on a single tail. Tuples offered directly to this
+ * queue are offered to a shared {@link MultiThreadedTupleQueue} lane, which can be used by the producers without a dedicated lane.
+ * <p/>
+ * The consumer polls the lanes in round-robin order, starting from the next lane in each poll. Ordering of the tuples is preserved
+ * only among the tuples of the same lane.
+ * <p/>
+ * A lane is retired via {@link #retireLane(TupleQueue)} once its producer is stopped. The consumer polls the retired lanes before the
+ * other lanes and removes them once they are empty, so that the remaining tuples of a stopped producer are not polled after the tuples
+ * offered by its successors to the other lanes.
+ * <p/>
+ * Lanes can be decorated with a given function, such as wrapping them with {@link MemoryBudgetedTupleQueue}. If signalling is enabled,
+ * producers of all lanes unpark the consumer waiting via {@link #registerWaiter(int)}.
+ */
+@ThreadSafe
+public class MultiLaneTupleQueue implements TupleQueue
+{
+
+    private final int laneCapacity;
+
+    private final UnaryOperator<TupleQueue> laneDecorator;
+
+    // null if the lanes do not signal the consumer
+    private final ThresholdWaiter waiter;
+
+    private final TupleQueue sharedLane;
+
+    // the shared lane is always at index 0. the array is replaced when a new lane is added
+    private volatile TupleQueue[] lanes;
+
+    // lanes of the stopped producers, polled before the other lanes until they are empty
+    private volatile TupleQueue[] retiredLanes = new TupleQueue[ 0 ];
+
+    // accessed only by the consumer
+    private int nextLaneIndex;
+
+    public MultiLaneTupleQueue ( final int laneCapacity )
+    {
+        this( laneCapacity, UnaryOperator.identity() );
+    }
+
+    public MultiLaneTupleQueue ( final int laneCapacity, final UnaryOperator<TupleQueue> laneDecorator )
+    {
+        this( laneCapacity, laneDecorator, false );
+    }
+
+    public MultiLaneTupleQueue ( final int laneCapacity, final UnaryOperator<TupleQueue> laneDecorator, final boolean signalling )
+    {
+        checkArgument( laneCapacity > 0 );
+        checkArgument( laneDecorator != null, "lane decorator can't be null" );
+        this.laneCapacity = laneCapacity;
+        this.laneDecorator = laneDecorator;
+        this.waiter = signalling ? new ThresholdWaiter() : null;
+        this.sharedLane = decorateLane( new MultiThreadedTupleQueue( laneCapacity ) );
+        this.lanes = new TupleQueue[] { sharedLane };
+    }
+
+    /**
+     * Adds a new lane to the queue and returns it. The returned lane must be used by a single producer thread at a time.
+     *
+     * @return the new lane added to the queue
+     */
+    public synchronized TupleQueue addLane ()
+    {
+        final TupleQueue lane = decorateLane( new SingleProducerTupleQueue( laneCapacity ) );
+        final TupleQueue[] newLanes = copyOf( lanes, lanes.length + 1 );
+        newLanes[ lanes.length ] = lane;
+        this.lanes = newLanes;
+
+        return lane;
+    }
+
+    /**
+     * Retires the given lane. The producer of the lane must not offer tuples to it anymore. Tuples remaining in the lane are polled before
+     * the tuples of the other lanes.
+     *
+     * @param lane
+     *         a lane returned by {@link #addLane()}
+     */
+    public synchronized void retireLane ( final TupleQueue lane )
+    {
+        final int i = indexOf( lanes, lane );
+        checkArgument( i > 0, "not a lane of the queue" );
+
+        final TupleQueue[] newLanes = new TupleQueue[ lanes.length - 1 ];
+        System.arraycopy( lanes, 0, newLanes, 0, i );
+        System.arraycopy( lanes, i + 1, newLanes, i, newLanes.length - i );
+        this.lanes = newLanes;
+
+        final TupleQueue[] newRetiredLanes = copyOf( retiredLanes, retiredLanes.length + 1 );
+        newRetiredLanes[ retiredLanes.length ] = lane;
+        this.retiredLanes = newRetiredLanes;
+    }
+
+    // called by the consumer once the given retired lanes are empty
+    private synchronized void removeRetiredLanes ( final TupleQueue[] drainedLanes )
+    {
+        final TupleQueue[] retiredLanes = this.retiredLanes;
+        this.retiredLanes = copyOfRange( retiredLanes, drainedLanes.length, retiredLanes.length );
+    }
+
+    private static int indexOf ( final TupleQueue[] lanes, final TupleQueue lane )
+    {
+        for ( int i = 0; i < lanes.length; i++ )
+        {
+            if ( lanes[ i ] == lane )
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    // lanes signal the consumer with the total size of the lanes
+    private TupleQueue decorateLane ( final TupleQueue lane )
+    {
+        final TupleQueue decorated = laneDecorator.apply( lane );
+        return waiter != null ? new SignallingTupleQueue( decorated, waiter, this::size ) : decorated;
+    }
+
+    public int getLaneCount ()
+    {
+        return lanes.length;
+    }
+
+    public int getRetiredLaneCount ()
+    {
+        return retiredLanes.length;
+    }
+
+    @Override
+    public boolean offer ( final Tuple tuple )
+    {
+        return sharedLane.offer( tuple );
+    }
+
+    @Override
+    public int offer ( final List<Tuple> tuples )
+    {
+        return sharedLane.offer( tuples );
+    }
+
+    @Override
+    public int offer ( final List<Tuple> tuples, final int fromIndex )
+    {
+        return sharedLane.offer( tuples, fromIndex );
+    }
+
+    @Override
+    public Tuple poll ()
+    {
+        final TupleQueue[] retiredLanes = this.retiredLanes;
+        if ( retiredLanes.length > 0 )
+        {
+            for ( TupleQueue lane : retiredLanes )
+            {
+                final Tuple tuple = lane.poll();
+                if ( tuple != null )
+                {
+                    return tuple;
+                }
+            }
+
+            removeRetiredLanes( retiredLanes );
+        }
+
+        final TupleQueue[] lanes = this.lanes;
+        final int start = nextLaneIndex( lanes.length );
+        for ( int i = 0; i < lanes.length; i++ )
+        {
+            final Tuple tuple = lanes[ ( start + i ) % lanes.length ].poll();
+            if ( tuple != null )
+            {
+                return tuple;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public List<Tuple> poll ( final int limit )
+    {
+        final List<Tuple> tuples = new ArrayList<>();
+        poll( limit, tuples );
+        return tuples;
+    }
+
+    @Override
+    public int poll ( final int limit, final Collection<Tuple> tuples )
+    {
+        int polled = 0;
+        final TupleQueue[] retiredLanes = this.retiredLanes;
+        if ( retiredLanes.length > 0 )
+        {
+            for ( TupleQueue lane : retiredLanes )
+            {
+                polled += lane.poll( limit - polled, tuples );
+                if ( polled == limit )
+                {
+                    return polled;
+                }
+            }
+
+            // retired lanes do not get new tuples
+            removeRetiredLanes( retiredLanes );
+        }
+
+        final TupleQueue[] lanes = this.lanes;
+        final int start = nextLaneIndex( lanes.length );
+        for ( int i = 0; i < lanes.length && polled < limit; i++ )
+        {
+            polled += lanes[ ( start + i ) % lanes.length ].poll( limit - polled, tuples );
+        }
+
+        return polled;
+    }
+
+    private int nextLaneIndex ( final int laneCount )
+    {
+        final int laneIndex = nextLaneIndex < laneCount ? nextLaneIndex : 0;
+        nextLaneIndex = laneIndex + 1;
+        return laneIndex;
+    }
+
+    @Override
+    public int size ()
+    {
+        int size = 0;
+        for ( TupleQueue lane : retiredLanes )
+        {
+            size += lane.size();
+        }
+
+        for ( TupleQueue lane : lanes )
+        {
+            size += lane.size();
+        }
+
+        return size;
+    }
+
+    @Override
+    public void clear ()
+    {
+        for ( TupleQueue lane : retiredLanes )
+        {
+            lane.clear();
+        }
+
+        for ( TupleQueue lane : lanes )
+        {
+            lane.clear();
+        }
+    }
+
+    // THIS METHOD IS NOT THREAD-SAFE !!!
+    @Override
+    public boolean ensureCapacity ( final int capacity )
+    {
+        boolean extended = false;
+        for ( TupleQueue lane : lanes )
+        {
+            extended |= lane.ensureCapacity( capacity );
+        }
+
+        return extended;
+    }
+
+    @Override
+    public boolean registerWaiter ( final int threshold )
+    {
+        if ( waiter == null )
+        {
+            return false;
+        }
+
+        waiter.register( threshold );
+        return true;
+    }
+
+    @Override
+    public void deregisterWaiter ()
+    {
+        if ( waiter != null )
+        {
+            waiter.deregister();
+        }
+    }
+
+}
@@ -5,28 +5,89 @@ import java.util.Collection;
 import java.util.List;
 import javax.annotation.concurrent.ThreadSafe;
 
-import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
-
 import static com.google.common.base.Preconditions.checkArgument;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
 import cs.bilkent.joker.operator.Tuple;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
 
+/**
+ * {@link TupleQueue} for many producers and a single consumer. Lists of tuples are offered with a single CAS on the tail of the queue
+ * for the whole list, and polled with a single update on the head of the queue.
+ * <p/>
+ * Tuples are kept in a chain of array segments, so that the capacity of the queue can change while the producers and the consumer
+ * are running. When the last segment is full, a producer seals it and appends a new segment with double capacity, up to the maximum
+ * capacity. When the consumer keeps polling only a small fraction of the capacity for a while, it seals the last segment and appends
+ * a new segment with half capacity, down to the initial capacity. The consumer moves to the next segment once it polls all tuples
+ * offered to the sealed segment, so the order of the tuples offered by a producer is preserved. Capacities are applied per segment,
+ * hence the queue may contain more tuples than its current capacity until the consumer polls the remaining tuples of sealed segments.
+ * <p/>
+ * A capacity given to {@link #ensureCapacity(int)} is kept as the minimum capacity of the queue, and it extends the maximum capacity if
+ * it is larger. The next segment is allocated before the last segment is sealed, so the producers waiting for the next segment only
+ * wait for it to be published.
+ */
 @ThreadSafe
 public class MultiThreadedTupleQueue implements TupleQueue
 {
 
-    private ManyToOneConcurrentArrayQueue<Tuple> queue;
+    // number of polls with low occupancy after which the consumer shrinks the queue
+    static final int SHRINK_POLL_COUNT = 4096;
+
+    private final int initialCapacity;
+
+    private final int maxCapacity;
+
+    // the largest capacity given to ensureCapacity(), or the initial capacity
+    private volatile int ensuredCapacity;
+
+    // segment to which the producers offer tuples
+    private volatile Segment producerSegment;
+
+    // segment from which the consumer polls tuples
+    private volatile Segment consumerSegment;
+
+    // accessed only by the consumer
+    private int lowOccupancyPollCount;
 
     public MultiThreadedTupleQueue ( final int initialCapacity )
+    {
+        this( initialCapacity, initialCapacity );
+    }
+
+    public MultiThreadedTupleQueue ( final int initialCapacity, final int maxCapacity )
     {
         checkArgument( initialCapacity > 0 );
-        this.queue = new ManyToOneConcurrentArrayQueue<>( initialCapacity );
+        checkArgument( maxCapacity >= initialCapacity, "max capacity: %s is smaller than initial capacity: %s", maxCapacity,
+                       initialCapacity );
+        this.initialCapacity = findNextPositivePowerOfTwo( initialCapacity );
+        this.maxCapacity = findNextPositivePowerOfTwo( maxCapacity );
+        this.ensuredCapacity = this.initialCapacity;
+        final Segment segment = new Segment( initialCapacity );
+        this.producerSegment = segment;
+        this.consumerSegment = segment;
     }
 
     @Override
     public boolean offer ( final Tuple tuple )
     {
-        return queue.offer( tuple );
+        while ( true )
+        {
+            final Segment segment = producerSegment;
+            if ( segment.queue.offer( tuple ) )
+            {
+                return true;
+            }
+
+            if ( segment.queue.isSealed() )
+            {
+                awaitNextSegment( segment );
+            }
+            else if ( !grow( segment ) )
+            {
+                return false;
+            }
+        }
     }
 
     @Override
@@ -46,67 +107,193 @@ public class MultiThreadedTupleQueue implements TupleQueue
         checkArgument( tuples != null, "tuples can't be null" );
 
         int offered = 0;
-        for ( int i = fromIndex, j = tuples.size(); i < j; i++ )
+        while ( fromIndex + offered < tuples.size() )
         {
-            if ( queue.offer( tuples.get( i ) ) )
-            {
-                offered++;
-            }
-            else
+            final Segment segment = producerSegment;
+            offered += segment.queue.offer( tuples, fromIndex + offered );
+            if ( fromIndex + offered < tuples.size() )
             {
-                break;
+                if ( segment.queue.isSealed() )
+                {
+                    awaitNextSegment( segment );
+                }
+                else if ( !grow( segment ) )
+                {
+                    break;
+                }
             }
         }
 
         return offered;
     }
 
+    // returns false if the queue can not grow anymore
+    private boolean grow ( final Segment segment )
+    {
+        final int maxCapacity = max( this.maxCapacity, ensuredCapacity );
+        if ( segment.queue.capacity() >= maxCapacity )
+        {
+            return false;
+        }
+
+        replace( segment, min( segment.queue.capacity() * 2, maxCapacity ) );
+        return true;
+    }
+
+    // returns true if the given segment is replaced with a new segment with the given capacity by this call
+    private boolean replace ( final Segment segment, final int capacity )
+    {
+        // the next segment is allocated before sealing so that the other producers wait only for publishing it
+        final Segment next = new Segment( capacity );
+        if ( segment.queue.seal() )
+        {
+            segment.next = next;
+            producerSegment = next;
+            return true;
+        }
+
+        awaitNextSegment( segment );
+        return false;
+    }
+
+    // another thread sealed the segment and it is about to append the next segment
+    private void awaitNextSegment ( final Segment segment )
+    {
+        while ( producerSegment == segment )
+        {
+            Thread.yield();
+        }
+    }
+
     @Override
     public Tuple poll ()
     {
-        return queue.poll();
+        Segment segment = consumerSegment;
+        Tuple tuple = segment.queue.poll();
+        while ( tuple == null && segment.queue.isSealedAndDrained() && segment.next != null )
+        {
+            segment = segment.next;
+            consumerSegment = segment;
+            tuple = segment.queue.poll();
+        }
+
+        return tuple;
     }
 
     @Override
-    public List<Tuple> poll ( final int count )
+    public List<Tuple> poll ( final int limit )
     {
         final List<Tuple> tuples = new ArrayList<>();
-        queue.drainTo( tuples, count );
+        poll( limit, tuples );
         return tuples;
     }
 
     @Override
-    public int poll ( final int count, final Collection<Tuple> tuples )
+    public int poll ( final int limit, final Collection<Tuple> tuples )
     {
-        return queue.drainTo( tuples, count );
+        Segment segment = consumerSegment;
+        int polled = segment.queue.poll( limit, tuples );
+        while ( polled < limit && segment.queue.isSealedAndDrained() && segment.next != null )
+        {
+            segment = segment.next;
+            consumerSegment = segment;
+            polled += segment.queue.poll( limit - polled, tuples );
+        }
+
+        shrinkIfUnderutilized( segment, polled, limit );
+
+        return polled;
+    }
+
+    private void shrinkIfUnderutilized ( final Segment segment, final int polled, final int limit )
+    {
+        final int capacity = segment.queue.capacity();
+        final int minCapacity = ensuredCapacity;
+        if ( capacity <= minCapacity || segment != producerSegment )
+        {
+            return;
+        }
+
+        if ( polled == limit || polled > ( capacity >> 2 ) )
+        {
+            lowOccupancyPollCount = 0;
+        }
+        else if ( ++lowOccupancyPollCount >= SHRINK_POLL_COUNT && segment.queue.size() <= ( capacity >> 2 ) )
+        {
+            lowOccupancyPollCount = 0;
+            replace( segment, max( minCapacity, capacity >> 1 ) );
+        }
     }
 
     @Override
     public int size ()
     {
-        return queue.size();
+        int size = 0;
+        for ( Segment segment = consumerSegment; segment != null; segment = segment.next )
+        {
+            size += segment.queue.size();
+        }
+
+        return size;
     }
 
     @Override
     public void clear ()
     {
-        queue.clear();
+        Segment segment = consumerSegment;
+        segment.queue.clear();
+        while ( segment.queue.isSealedAndDrained() && segment.next != null )
+        {
+            segment = segment.next;
+            consumerSegment = segment;
+            segment.queue.clear();
+        }
     }
 
-    // THIS METHOD IS NOT THREAD-SAFE !!!
     @Override
     public boolean ensureCapacity ( final int capacity )
     {
-        if ( capacity > queue.capacity() )
+        if ( capacity > ensuredCapacity )
+        {
+            ensuredCapacity = findNextPositivePowerOfTwo( capacity );
+        }
+
+        while ( true )
         {
-            final ManyToOneConcurrentArrayQueue<Tuple> newQueue = new ManyToOneConcurrentArrayQueue<>( capacity );
-            queue.drain( newQueue::offer );
-            this.queue = newQueue;
+            final Segment segment = producerSegment;
+            if ( capacity <= segment.queue.capacity() )
+            {
+                return false;
+            }
 
-            return true;
+            if ( segment.queue.isSealed() )
+            {
+                awaitNextSegment( segment );
+            }
+            else if ( replace( segment, capacity ) )
+            {
+                return true;
+            }
+        }
+    }
+
+    int capacity ()
+    {
+        return producerSegment.queue.capacity();
+    }
+
+    private static final class Segment
+    {
+
+        final ManyToOneBatchArrayQueue<Tuple> queue;
+
+        volatile Segment next;
+
+        Segment ( final int capacity )
+        {
+            this.queue = new ManyToOneBatchArrayQueue<>( capacity );
         }
 
-        return false;
     }
 
 }
@@ -0,0 +1,431 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.engine.pipeline.impl.tuplesupplier.TuplePool;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.impl.codec.BinaryTuple;
+import cs.bilkent.joker.engine.tuplequeue.impl.codec.BinaryTupleCodec;
+import static cs.bilkent.joker.engine.tuplequeue.impl.codec.BinaryTupleCodec.NOT_ENCODABLE;
+import cs.bilkent.joker.engine.tuplequeue.impl.codec.BinaryTupleCodecRegistry;
+import static cs.bilkent.joker.engine.tuplequeue.impl.codec.BinaryTupleCodecRegistry.NOT_ENCODABLE_SCHEMA;
+import cs.bilkent.joker.operator.Fields;
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static org.agrona.BitUtil.align;
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
+import static org.agrona.concurrent.ringbuffer.RecordDescriptor.ALIGNMENT;
+import static org.agrona.concurrent.ringbuffer.RecordDescriptor.HEADER_LENGTH;
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.TRAILER_LENGTH;
+
+/**
+ * Many-to-one {@link TupleQueue} which keeps its tuples as binary records in an off-heap ring buffer. Tuples are encoded with a
+ * {@link BinaryTupleCodec} of their own schema while they are offered, and decoded into {@link Tuple} objects while they are polled.
+ * If a {@link TuplePool} is given, records are decoded into the tuples acquired from the pool, and the consumer recycles them by
+ * releasing the polled tuples. Otherwise, a new tuple is created for each record. A consumer which only reads the tuples can poll
+ * them with {@link #poll(int, Consumer)} to read the encoded records in place via {@link BinaryTuple} flyweights, without decoding them.
+ * <p/>
+ * Capacity of the ring buffer is calculated in bytes, using the given tuple capacity and estimated record size. Tuples which cannot be
+ * encoded, i.e., tuples containing fields not present in their schema or field types not supported by {@link BinaryTupleCodec}, and
+ * tuples of which records do not fit into the ring buffer are kept on heap, and the ring buffer only contains a reference record for
+ * them. Heap tuples are kept in a slot array indexed by their reference sequences, and the queue is considered full if the slot of a
+new heap tuple is still occupied. Therefore, the queue preserves the order of the tuples offered by a producer.
+ * <p/>
+ * Encoded tuples are released after they are written to the ring buffer, since the consumer gets the decoded tuples.
+ */
+@ThreadSafe
+public class OffHeapTupleQueue implements TupleQueue
+{
+
+    private static final int HEAP_TUPLE_RECORD_TYPE_ID = 1;
+
+    private static final int MAX_CAPACITY_IN_BYTES = 1 << 30;
+
+    private static final int ENCODING_BUFFER_INITIAL_CAPACITY = 256;
+
+
+    private final int recordSize;
+
+    private final ThreadLocal<ExpandableArrayBuffer> encodingBuffers = ThreadLocal.withInitial( () -> new ExpandableArrayBuffer(
+            ENCODING_BUFFER_INITIAL_CAPACITY ) );
+
+    private final TuplePool tuplePool;
+
+    private final AtomicLong heapTupleSequence = new AtomicLong();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    // each codec is identified with its index + 2 in the ring buffer records
+    private final BinaryTupleCodecRegistry codecRegistry = new BinaryTupleCodecRegistry();
+
+    private final MessageHandler collectingHandler = this::collect;
+
+    private final MessageHandler singleTupleHandler = this::setPolledTuple;
+
+    private final MessageHandler discardingHandler = this::discard;
+
+    private final MessageHandler flyweightHandler = this::passFlyweight;
+
+    // flyweights of the codecs, indexed by the codec indices. they are used only by the consumer
+    private final List<BinaryTuple> flyweights = new ArrayList<>();
+
+    private Consumer<? super Fields<String>> flyweightConsumer;
+
+    private Collection<Tuple> polledTuples;
+
+    private Tuple polledTuple;
+
+    private RingBuffer ringBuffer;
+
+    private AtomicReferenceArray<Tuple> heapTuples;
+
+    /**
+     * @param initialCapacity
+     *         number of tuples of the estimated record size the queue can keep
+     * @param recordSize
+     *         estimated size of an encoded tuple in bytes
+     */
+    public OffHeapTupleQueue ( final int initialCapacity, final int recordSize )
+    {
+        this( initialCapacity, recordSize, null );
+    }
+
+    /**
+     * @param initialCapacity
+     *         number of tuples of the estimated record size the queue can keep
+     * @param recordSize
+     *         estimated size of an encoded tuple in bytes
+     * @param tuplePool
+     *         pool to acquire the tuples to decode the records, or null to create a new tuple for each record
+     */
+    public OffHeapTupleQueue ( final int initialCapacity, final int recordSize, final TuplePool tuplePool )
+    {
+        checkArgument( initialCapacity > 0 );
+        checkArgument( recordSize > 0 );
+        this.recordSize = recordSize;
+        this.tuplePool = tuplePool;
+        this.ringBuffer = createRingBuffer( initialCapacity );
+        this.heapTuples = new AtomicReferenceArray<>( findNextPositivePowerOfTwo( initialCapacity ) );
+    }
+
+    private RingBuffer createRingBuffer ( final int capacity )
+    {
+        final int capacityInBytes = getCapacityInBytes( capacity );
+        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect( capacityInBytes + TRAILER_LENGTH );
+
+        return new ManyToOneRingBuffer( new UnsafeBuffer( byteBuffer ) );
+    }
+
+    private int getCapacityInBytes ( final int capacity )
+    {
+        final long bytes = (long) capacity * align( HEADER_LENGTH + recordSize, ALIGNMENT );
+        return findNextPositivePowerOfTwo( (int) min( bytes, MAX_CAPACITY_IN_BYTES ) );
+    }
+
+    @Override
+    public boolean offer ( final Tuple tuple )
+    {
+        checkArgument( tuple != null, "tuple can't be null" );
+
+        size.incrementAndGet();
+
+        final int recordTypeId = getRecordTypeId( tuple.getSchema() );
+        if ( recordTypeId != HEAP_TUPLE_RECORD_TYPE_ID )
+        {
+            final ExpandableArrayBuffer buffer = encodingBuffers.get();
+            final int length = codecRegistry.getCodec( recordTypeId - 2 ).encode( tuple, buffer, 0 );
+            if ( length != NOT_ENCODABLE && length <= ringBuffer.maxMsgLength() )
+            {
+                if ( ringBuffer.write( recordTypeId, buffer, 0, length ) )
+                {
+                    tuple.release();
+                    return true;
+                }
+
+                size.decrementAndGet();
+                return false;
+            }
+        }
+
+        return offerHeapTuple( tuple );
+    }
+
+    private boolean offerHeapTuple ( final Tuple tuple )
+    {
+        // the sequence is reserved only if its slot is free, so that a full queue does not skip slots
+        long sequence;
+        int slot;
+        do
+        {
+            sequence = heapTupleSequence.get() + 1;
+            slot = getHeapTupleSlot( heapTuples, sequence );
+            if ( heapTuples.get( slot ) != null )
+            {
+                size.decrementAndGet();
+                return false;
+            }
+        } while ( !heapTupleSequence.compareAndSet( sequence - 1, sequence ) );
+
+        // the tuple must be visible before its reference record
+        if ( heapTuples.compareAndSet( slot, null, tuple ) )
+        {
+            final MutableDirectBuffer buffer = encodingBuffers.get();
+            buffer.putLong( 0, sequence );
+            if ( ringBuffer.write( HEAP_TUPLE_RECORD_TYPE_ID, buffer, 0, SIZE_OF_LONG ) )
+            {
+                return true;
+            }
+
+            heapTuples.set( slot, null );
+        }
+
+        size.decrementAndGet();
+        return false;
+    }
+
+    @Override
+    public int offer ( final List<Tuple> tuples )
+    {
+        return doOfferTuples( tuples, 0 );
+    }
+
+    @Override
+    public int offer ( final List<Tuple> tuples, final int fromIndex )
+    {
+        return doOfferTuples( tuples, fromIndex );
+    }
+
+    private int doOfferTuples ( final List<Tuple> tuples, final int fromIndex )
+    {
+        checkArgument( tuples != null, "tuples can't be null" );
+
+        int offered = 0;
+        for ( int i = fromIndex, j = tuples.size(); i < j; i++ )
+        {
+            if ( offer( tuples.get( i ) ) )
+            {
+                offered++;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        return offered;
+    }
+
+    @Override
+    public Tuple poll ()
+    {
+        if ( ringBuffer.read( singleTupleHandler, 1 ) == 0 )
+        {
+            return null;
+        }
+
+        size.decrementAndGet();
+        final Tuple tuple = polledTuple;
+        polledTuple = null;
+
+        return tuple;
+    }
+
+    @Override
+    public List<Tuple> poll ( final int count )
+    {
+        final List<Tuple> tuples = new ArrayList<>();
+        poll( count, tuples );
+        return tuples;
+    }
+
+    @Override
+    public int poll ( final int count, final Collection<Tuple> tuples )
+    {
+        polledTuples = tuples;
+        // a single read does not wrap around the end of the ring buffer
+        int polled = 0, read;
+        while ( polled < count && ( read = ringBuffer.read( collectingHandler, count - polled ) ) > 0 )
+        {
+            polled += read;
+        }
+        polledTuples = null;
+        size.addAndGet( -polled );
+
+        return polled;
+    }
+
+    /**
+     * Polls at most the given number of tuples and passes them to the given consumer without decoding the encoded records. An encoded
+     * record is passed as a {@link BinaryTuple} wrapped around the record in the ring buffer. The flyweight is valid only during the
+     * call, since it is wrapped around the next record of the same schema afterwards and the record region is reused by the producers.
+     * Heap tuples are passed as they are.
+     *
+     * @param count
+     *         maximum number of tuples to poll
+     * @param consumer
+     *         consumer to read the polled tuples
+     *
+     * @return number of tuples polled
+     */
+    public int poll ( final int count, final Consumer<? super Fields<String>> consumer )
+    {
+        checkArgument( consumer != null, "consumer can't be null" );
+
+        flyweightConsumer = consumer;
+        int polled = 0, read;
+        while ( polled < count && ( read = ringBuffer.read( flyweightHandler, count - polled ) ) > 0 )
+        {
+            polled += read;
+        }
+        flyweightConsumer = null;
+        size.addAndGet( -polled );
+
+        return polled;
+    }
+
+    @Override
+    public int size ()
+    {
+        return size.get();
+    }
+
+    @Override
+    public void clear ()
+    {
+        int cleared;
+        while ( ( cleared = ringBuffer.read( discardingHandler ) ) > 0 )
+        {
+            size.addAndGet( -cleared );
+        }
+    }
+
+    // THIS METHOD IS NOT THREAD-SAFE !!!
+    @Override
+    public boolean ensureCapacity ( final int capacity )
+    {
+        if ( getCapacityInBytes( capacity ) > ringBuffer.capacity() )
+        {
+            final RingBuffer newRingBuffer = createRingBuffer( capacity );
+            final AtomicReferenceArray<Tuple> newHeapTuples = new AtomicReferenceArray<>( max( heapTuples.length(),
+                                                                                               findNextPositivePowerOfTwo( capacity ) ) );
+            // sequences of the heap tuples in the queue occupy distinct slots in the larger slot array as well
+            final MessageHandler transferringHandler = ( recordTypeId, buffer, index, length ) -> {
+                if ( recordTypeId == HEAP_TUPLE_RECORD_TYPE_ID )
+                {
+                    final long sequence = buffer.getLong( index );
+                    newHeapTuples.set( getHeapTupleSlot( newHeapTuples, sequence ),
+                                       heapTuples.getAndSet( getHeapTupleSlot( heapTuples, sequence ), null ) );
+                }
+                newRingBuffer.write( recordTypeId, buffer, index, length );
+            };
+            int transferred;
+            do
+            {
+                transferred = ringBuffer.read( transferringHandler );
+            } while ( transferred > 0 );
+            this.ringBuffer = newRingBuffer;
+            this.heapTuples = newHeapTuples;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private void collect ( final int recordTypeId, final MutableDirectBuffer buffer, final int index, final int length )
+    {
+        polledTuples.add( decode( recordTypeId, buffer, index ) );
+    }
+
+    private void setPolledTuple ( final int recordTypeId, final MutableDirectBuffer buffer, final int index, final int length )
+    {
+        polledTuple = decode( recordTypeId, buffer, index );
+    }
+
+    private void passFlyweight ( final int recordTypeId, final MutableDirectBuffer buffer, final int index, final int length )
+    {
+        if ( recordTypeId == HEAP_TUPLE_RECORD_TYPE_ID )
+        {
+            flyweightConsumer.accept( removeHeapTuple( buffer.getLong( index ) ) );
+        }
+        else
+        {
+            flyweightConsumer.accept( getFlyweight( recordTypeId - 2 ).wrap( buffer, index, length ) );
+        }
+    }
+
+    private BinaryTuple getFlyweight ( final int codecIndex )
+    {
+        while ( flyweights.size() <= codecIndex )
+        {
+            flyweights.add( new BinaryTuple( codecRegistry.getCodec( flyweights.size() ) ) );
+        }
+
+        return flyweights.get( codecIndex );
+    }
+
+    private void discard ( final int recordTypeId, final MutableDirectBuffer buffer, final int index, final int length )
+    {
+        if ( recordTypeId == HEAP_TUPLE_RECORD_TYPE_ID )
+        {
+            removeHeapTuple( buffer.getLong( index ) );
+        }
+    }
+
+    private Tuple decode ( final int recordTypeId, final MutableDirectBuffer buffer, final int index )
+    {
+        if ( recordTypeId == HEAP_TUPLE_RECORD_TYPE_ID )
+        {
+            return removeHeapTuple( buffer.getLong( index ) );
+        }
+
+        final BinaryTupleCodec codec = codecRegistry.getCodec( recordTypeId - 2 );
+        if ( tuplePool == null )
+        {
+            return codec.decode( buffer, index );
+        }
+
+        final Tuple tuple = tuplePool.acquire( codec.getSchema() );
+        codec.decode( buffer, index, tuple );
+        // the consumer releases the tuple when it is processed
+        tuple.retain( 1 );
+
+        return tuple;
+    }
+
+    private Tuple removeHeapTuple ( final long sequence )
+    {
+        return heapTuples.getAndSet( getHeapTupleSlot( heapTuples, sequence ), null );
+    }
+
+    private static int getHeapTupleSlot ( final AtomicReferenceArray<Tuple> heapTuples, final long sequence )
+    {
+        return (int) ( sequence & ( heapTuples.length() - 1 ) );
+    }
+
+    private int getRecordTypeId ( final TupleSchema schema )
+    {
+        final int codecIndex = codecRegistry.getCodecIndex( schema );
+        return codecIndex != NOT_ENCODABLE_SCHEMA ? codecIndex + 2 : HEAP_TUPLE_RECORD_TYPE_ID;
+    }
+
+}
@@ -0,0 +1,187 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
+
+/**
+ * Bounded array queue for a single producer and a single consumer, which works on batches of elements.
+ * <p/>
+ * The producer writes a batch of elements into the free slots with plain writes and publishes the whole batch with a single ordered
+ * write on the tail. Similarly, the consumer polls a batch of elements and releases the slots with a single ordered write on the head.
+ * Head and tail are kept on different cache lines, each together with the last value of the other side seen by its owner, so that
+ * the producer and the consumer do not invalidate each other's cache lines on each batch.
+ * <p/>
+ * {@link #offer(Object)} and {@link #offer(List, int)} must be called only by the producer thread, and {@link #poll()},
+ * {@link #poll(int, Collection)} and {@link #clear()} must be called only by the consumer thread.
+ */
+@ThreadSafe
+final class OneToOneBatchArrayQueue<E>
+{
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final Object[] buffer;
+
+    // owned by the consumer. its cached value is the last tail seen by the consumer
+    private final PaddedSequence head = new PaddedSequence();
+
+    // owned by the producer. its cached value is the last head seen by the producer
+    private final PaddedSequence tail = new PaddedSequence();
+
+    OneToOneBatchArrayQueue ( final int requestedCapacity )
+    {
+        checkArgument( requestedCapacity > 0 );
+        this.capacity = findNextPositivePowerOfTwo( requestedCapacity );
+        this.mask = capacity - 1;
+        this.buffer = new Object[ capacity ];
+    }
+
+    int capacity ()
+    {
+        return capacity;
+    }
+
+    boolean offer ( final E element )
+    {
+        checkArgument( element != null, "element can't be null" );
+
+        final long currentTail = tail.get();
+        if ( getAvailableCapacity( currentTail, 1 ) == 0 )
+        {
+            return false;
+        }
+
+        buffer[ (int) currentTail & mask ] = element;
+        tail.lazySet( currentTail + 1 );
+        return true;
+    }
+
+    int offer ( final List<? extends E> elements, final int fromIndex )
+    {
+        final int count = elements.size() - fromIndex;
+        if ( count <= 0 )
+        {
+            return 0;
+        }
+
+        final long currentTail = tail.get();
+        final int offered = Math.min( count, getAvailableCapacity( currentTail, count ) );
+        for ( int i = 0; i < offered; i++ )
+        {
+            buffer[ (int) ( currentTail + i ) & mask ] = elements.get( fromIndex + i );
+        }
+
+        if ( offered > 0 )
+        {
+            tail.lazySet( currentTail + offered );
+        }
+
+        return offered;
+    }
+
+    E poll ()
+    {
+        final long currentHead = head.get();
+        if ( getAvailableElementCount( currentHead, 1 ) == 0 )
+        {
+            return null;
+        }
+
+        final int slot = (int) currentHead & mask;
+        @SuppressWarnings( "unchecked" ) final E element = (E) buffer[ slot ];
+        buffer[ slot ] = null;
+        head.lazySet( currentHead + 1 );
+
+        return element;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    int poll ( final int limit, final Collection<? super E> elements )
+    {
+        final long currentHead = head.get();
+        final int polled = Math.min( limit, getAvailableElementCount( currentHead, limit ) );
+        for ( int i = 0; i < polled; i++ )
+        {
+            final int slot = (int) ( currentHead + i ) & mask;
+            elements.add( (E) buffer[ slot ] );
+            buffer[ slot ] = null;
+        }
+
+        if ( polled > 0 )
+        {
+            head.lazySet( currentHead + polled );
+        }
+
+        return polled;
+    }
+
+    int size ()
+    {
+        long currentHead;
+        long currentTail;
+        do
+        {
+            currentHead = head.get();
+            currentTail = tail.get();
+        } while ( currentHead != head.get() );
+
+        final long size = currentTail - currentHead;
+        return (int) Math.max( 0, Math.min( size, capacity ) );
+    }
+
+    void clear ()
+    {
+        final long currentHead = head.get();
+        final long currentTail = tail.get();
+        for ( long i = currentHead; i < currentTail; i++ )
+        {
+            buffer[ (int) i & mask ] = null;
+        }
+
+        head.cached = currentTail;
+        head.lazySet( currentTail );
+    }
+
+    private int getAvailableCapacity ( final long currentTail, final int required )
+    {
+        long available = capacity - ( currentTail - tail.cached );
+        if ( available < required )
+        {
+            tail.cached = head.get();
+            available = capacity - ( currentTail - tail.cached );
+        }
+
+        return (int) available;
+    }
+
+    private int getAvailableElementCount ( final long currentHead, final int required )
+    {
+        long available = head.cached - currentHead;
+        if ( available < required )
+        {
+            head.cached = tail.get();
+            available = head.cached - currentHead;
+        }
+
+        return (int) available;
+    }
+
+    // padded to keep sequences of the producer and the consumer on different cache lines
+    @SuppressWarnings( "unused" )
+    private static final class PaddedSequence extends AtomicLong
+    {
+
+        long cached;
+
+        long p1, p2, p3, p4, p5, p6, p7;
+
+    }
+
+}
@@ -0,0 +1,132 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import cs.bilkent.joker.engine.util.concurrent.ThresholdWaiter;
+import cs.bilkent.joker.operator.Tuple;
+
+/**
+ * {@link TupleQueue} which unparks its consumer when the producers offer tuples to the given tuple queue and the consumer waits for
+ * the size reached by the offers. The consumer registers itself via {@link #registerWaiter(int)} before it parks.
+ * <p/>
+ * The waiter and the size which is compared with the threshold of the consumer can be given explicitly, so that the lanes of a
+ * {@link MultiLaneTupleQueue} can signal the consumer of the multi-lane queue.
+ * <p/>
+ * It has the same thread-safety guarantees with the given tuple queue.
+ */
+public class SignallingTupleQueue implements TupleQueue
+{
+
+    private final TupleQueue queue;
+
+    private final ThresholdWaiter waiter;
+
+    private final IntSupplier size;
+
+    public SignallingTupleQueue ( final TupleQueue queue )
+    {
+        checkArgument( queue != null, "queue can't be null" );
+        this.queue = queue;
+        this.waiter = new ThresholdWaiter();
+        this.size = queue::size;
+    }
+
+    SignallingTupleQueue ( final TupleQueue queue, final ThresholdWaiter waiter, final IntSupplier size )
+    {
+        checkArgument( queue != null, "queue can't be null" );
+        checkArgument( waiter != null, "waiter can't be null" );
+        checkArgument( size != null, "size can't be null" );
+        this.queue = queue;
+        this.waiter = waiter;
+        this.size = size;
+    }
+
+    public TupleQueue getQueue ()
+    {
+        return queue;
+    }
+
+    @Override
+    public boolean offer ( final Tuple tuple )
+    {
+        if ( queue.offer( tuple ) )
+        {
+            waiter.signal( size );
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public int offer ( final List<Tuple> tuples )
+    {
+        return offer( tuples, 0 );
+    }
+
+    @Override
+    public int offer ( final List<Tuple> tuples, final int fromIndex )
+    {
+        final int offered = queue.offer( tuples, fromIndex );
+        if ( offered > 0 )
+        {
+            waiter.signal( size );
+        }
+
+        return offered;
+    }
+
+    @Override
+    public Tuple poll ()
+    {
+        return queue.poll();
+    }
+
+    @Override
+    public List<Tuple> poll ( final int limit )
+    {
+        return queue.poll( limit );
+    }
+
+    @Override
+    public int poll ( final int limit, final Collection<Tuple> tuples )
+    {
+        return queue.poll( limit, tuples );
+    }
+
+    @Override
+    public int size ()
+    {
+        return queue.size();
+    }
+
+    @Override
+    public void clear ()
+    {
+        queue.clear();
+    }
+
+    @Override
+    public boolean ensureCapacity ( final int capacity )
+    {
+        return queue.ensureCapacity( capacity );
+    }
+
+    @Override
+    public boolean registerWaiter ( final int threshold )
+    {
+        waiter.register( threshold );
+        return true;
+    }
+
+    @Override
+    public void deregisterWaiter ()
+    {
+        waiter.deregister();
+    }
+
+}
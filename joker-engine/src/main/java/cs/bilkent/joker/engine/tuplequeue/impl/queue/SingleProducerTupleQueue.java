@@ -0,0 +1,104 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import cs.bilkent.joker.operator.Tuple;
+
+/**
+ * {@link TupleQueue} for a single producer and a single consumer. It is used when all tuples of a queue are offered by a single thread,
+ * such as the upstream pipeline replica of a split pipeline. Lists of tuples are offered with a single ordered write on the tail of the
+ * queue, and polled with a single ordered write on the head of the queue.
+ */
+@ThreadSafe
+public class SingleProducerTupleQueue implements TupleQueue
+{
+
+    private OneToOneBatchArrayQueue<Tuple> queue;
+
+    public SingleProducerTupleQueue ( final int initialCapacity )
+    {
+        checkArgument( initialCapacity > 0 );
+        this.queue = new OneToOneBatchArrayQueue<>( initialCapacity );
+    }
+
+    @Override
+    public boolean offer ( final Tuple tuple )
+    {
+        return queue.offer( tuple );
+    }
+
+    @Override
+    public int offer ( final List<Tuple> tuples )
+    {
+        return doOfferTuples( tuples, 0 );
+    }
+
+    @Override
+    public int offer ( final List<Tuple> tuples, final int fromIndex )
+    {
+        return doOfferTuples( tuples, fromIndex );
+    }
+
+    private int doOfferTuples ( final List<Tuple> tuples, final int fromIndex )
+    {
+        checkArgument( tuples != null, "tuples can't be null" );
+
+        return queue.offer( tuples, fromIndex );
+    }
+
+    @Override
+    public Tuple poll ()
+    {
+        return queue.poll();
+    }
+
+    @Override
+    public List<Tuple> poll ( final int count )
+    {
+        final List<Tuple> tuples = new ArrayList<>();
+        queue.poll( count, tuples );
+        return tuples;
+    }
+
+    @Override
+    public int poll ( final int count, final Collection<Tuple> tuples )
+    {
+        return queue.poll( count, tuples );
+    }
+
+    @Override
+    public int size ()
+    {
+        return queue.size();
+    }
+
+    @Override
+    public void clear ()
+    {
+        queue.clear();
+    }
+
+    // THIS METHOD IS NOT THREAD-SAFE !!!
+    @Override
+    public boolean ensureCapacity ( final int capacity )
+    {
+        if ( capacity > queue.capacity() )
+        {
+            final OneToOneBatchArrayQueue<Tuple> newQueue = new OneToOneBatchArrayQueue<>( capacity );
+            final List<Tuple> tuples = new ArrayList<>( queue.size() );
+            queue.poll( Integer.MAX_VALUE, tuples );
+            newQueue.offer( tuples, 0 );
+            this.queue = newQueue;
+
+            return true;
+        }
+
+        return false;
+    }
+
+}
@@ -0,0 +1,228 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.engine.exception.JokerException;
+import cs.bilkent.joker.engine.util.MappedBufferUtils;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+
+/**
+ * Append-only log of binary records kept in memory-mapped segment files. Records are read in the order they are appended. A new segment
+ * file is created when the last segment is full, and segment files are deleted once all of their records are read. The last segment is
+ * reused once all of its records are read.
+ * <p/>
+ * File channels of the segments are closed right after they are mapped. Mapped buffers of the segments are unmapped explicitly via
+ * {@link MappedBufferUtils} before the segment files are deleted, so that the mapped memory and the disk space of the deleted files
+ * are not kept until the buffers are garbage collected.
+ * <p/>
+ * Each record consists of its length, its type id, and the record bytes. The remaining bytes of a segment are skipped with a padding
+ * record if the next record does not fit into the segment.
+ */
+@NotThreadSafe
+final class SpillLog
+{
+
+    private static final Logger LOGGER = LoggerFactory.getLogger( SpillLog.class );
+
+    static final int RECORD_HEADER_LENGTH = SIZE_OF_INT * 2;
+
+    private static final int PADDING_RECORD_LENGTH = -1;
+
+
+    /**
+     * Handles a record read from the log. The given buffer must not be accessed after the call returns, since it is unmapped once all
+     * records of its segment are read.
+     */
+    @FunctionalInterface
+    interface RecordHandler
+    {
+        void onRecord ( int recordTypeId, DirectBuffer buffer, int index, int length );
+    }
+
+
+    private final Path directory;
+
+    private final String filePrefix;
+
+    private final int segmentSize;
+
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    SpillLog ( final Path directory, final String filePrefix, final int segmentSize )
+    {
+        checkArgument( directory != null, "directory can't be null" );
+        checkArgument( segmentSize > RECORD_HEADER_LENGTH, "invalid segment size: %s", segmentSize );
+        this.directory = directory;
+        this.filePrefix = filePrefix;
+        this.segmentSize = segmentSize;
+    }
+
+    int getMaxRecordLength ()
+    {
+        return segmentSize - RECORD_HEADER_LENGTH;
+    }
+
+    boolean isEmpty ()
+    {
+        final Segment segment = segments.peekFirst();
+        return segment == null || ( segments.size() == 1 && segment.readPosition == segment.writePosition );
+    }
+
+    int getSegmentCount ()
+    {
+        return segments.size();
+    }
+
+    /**
+     * Appends the given record to the log
+     *
+     * @return number of bytes written to the log for the record
+     */
+    int append ( final int recordTypeId, final DirectBuffer buffer, final int offset, final int length )
+    {
+        checkArgument( length >= 0 && length <= getMaxRecordLength(), "invalid record length: %s", length );
+
+        Segment segment = segments.peekLast();
+        if ( segment == null || segment.writePosition + RECORD_HEADER_LENGTH + length > segmentSize )
+        {
+            if ( segment != null && segment.writePosition + SIZE_OF_INT <= segmentSize )
+            {
+                segment.buffer.putInt( segment.writePosition, PADDING_RECORD_LENGTH );
+            }
+
+            segment = createSegment();
+            segments.addLast( segment );
+        }
+
+        final int position = segment.writePosition;
+        segment.buffer.putInt( position, length );
+        segment.buffer.putInt( position + SIZE_OF_INT, recordTypeId );
+        segment.buffer.putBytes( position + RECORD_HEADER_LENGTH, buffer, offset, length );
+        segment.writePosition = position + RECORD_HEADER_LENGTH + length;
+
+        return RECORD_HEADER_LENGTH + length;
+    }
+
+    /**
+     * Reads the next record of the log into the given handler
+     *
+     * @return number of bytes read from the log for the record, or 0 if the log is empty
+     */
+    int read ( final RecordHandler handler )
+    {
+        while ( true )
+        {
+            final Segment segment = segments.peekFirst();
+            if ( segment == null )
+            {
+                return 0;
+            }
+
+            final int position = segment.readPosition;
+            if ( position < segment.writePosition )
+            {
+                final int length = segment.buffer.getInt( position );
+                if ( length != PADDING_RECORD_LENGTH )
+                {
+                    final int recordTypeId = segment.buffer.getInt( position + SIZE_OF_INT );
+                    handler.onRecord( recordTypeId, segment.buffer, position + RECORD_HEADER_LENGTH, length );
+                    segment.readPosition = position + RECORD_HEADER_LENGTH + length;
+                    if ( segment.readPosition == segment.writePosition && segments.size() == 1 )
+                    {
+                        segment.readPosition = 0;
+                        segment.writePosition = 0;
+                    }
+
+                    return RECORD_HEADER_LENGTH + length;
+                }
+            }
+            else if ( segments.size() == 1 )
+            {
+                return 0;
+            }
+
+            // the segment is completely read and the writer moved to the next segment
+            segments.pollFirst();
+            release( segment );
+        }
+    }
+
+    void clear ()
+    {
+        Segment segment;
+        while ( ( segment = segments.pollFirst() ) != null )
+        {
+            release( segment );
+        }
+    }
+
+    private Segment createSegment ()
+    {
+        try
+        {
+            Files.createDirectories( directory );
+            final Path path = Files.createTempFile( directory, filePrefix, ".spill" );
+            try ( RandomAccessFile file = new RandomAccessFile( path.toFile(), "rw" ); FileChannel channel = file.getChannel() )
+            {
+                final MappedByteBuffer mappedBuffer = channel.map( READ_WRITE, 0, segmentSize );
+                LOGGER.debug( "Created spill segment {}", path );
+                return new Segment( path, mappedBuffer );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new JokerException( "Cannot create spill segment in " + directory, e );
+        }
+    }
+
+    private void release ( final Segment segment )
+    {
+        MappedBufferUtils.unmap( segment.mappedBuffer );
+        try
+        {
+            Files.deleteIfExists( segment.path );
+            LOGGER.debug( "Deleted spill segment {}", segment.path );
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "Cannot delete spill segment " + segment.path, e );
+        }
+    }
+
+    private static final class Segment
+    {
+
+        final Path path;
+
+        final MappedByteBuffer mappedBuffer;
+
+        final UnsafeBuffer buffer;
+
+        int writePosition;
+
+        int readPosition;
+
+        Segment ( final Path path, final MappedByteBuffer mappedBuffer )
+        {
+            this.path = path;
+            this.mappedBuffer = mappedBuffer;
+            this.buffer = new UnsafeBuffer( mappedBuffer );
+        }
+
+    }
+
+}
@@ -0,0 +1,287 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueSpillMetrics;
+import cs.bilkent.joker.engine.tuplequeue.impl.codec.BinaryTupleCodecRegistry;
+import static cs.bilkent.joker.engine.tuplequeue.impl.codec.BinaryTupleCodec.NOT_ENCODABLE;
+import static cs.bilkent.joker.engine.tuplequeue.impl.codec.BinaryTupleCodecRegistry.NOT_ENCODABLE_SCHEMA;
+import cs.bilkent.joker.operator.Tuple;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * {@link TupleQueue} for many producers and a single consumer, which spills the offered tuples to a {@link SpillLog} of memory-mapped
+ * segment files on disk once the given in-memory tuple queue is full, instead of rejecting them. Once a tuple is spilled, the following
+ * tuples are spilled as well until the consumer replays all spilled tuples, so that the order of the tuples offered by a producer is
+ * preserved. The consumer polls the in-memory tuple queue before replaying the spilled tuples.
+ * <p/>
+ * Tuples are encoded with a {@link cs.bilkent.joker.engine.tuplequeue.impl.codec.BinaryTupleCodec} of their own schema while they are
+ * spilled, and decoded into new {@link Tuple} objects while they are replayed. Tuples which cannot be encoded are kept on heap, and the
+ * log only contains a reference record for them.
+ * <p/>
+ * Offers to the in-memory queue are not synchronized. Spilling and replaying are synchronized on the queue.
+ */
+@ThreadSafe
+public class SpillingTupleQueue implements TupleQueue
+{
+
+    private static final int HEAP_TUPLE_RECORD_TYPE_ID = 1;
+
+    private static final int ENCODING_BUFFER_INITIAL_CAPACITY = 256;
+
+
+    private final TupleQueue queue;
+
+    private final TupleQueueSpillMetrics spillMetrics;
+
+    // each codec is identified with its index + 2 in the log records
+    private final BinaryTupleCodecRegistry codecRegistry = new BinaryTupleCodecRegistry();
+
+    private final ThreadLocal<ExpandableArrayBuffer> encodingBuffers = ThreadLocal.withInitial( () -> new ExpandableArrayBuffer(
+            ENCODING_BUFFER_INITIAL_CAPACITY ) );
+
+    private final UnsafeBuffer heapTupleRecordBuffer = new UnsafeBuffer( new byte[ SIZE_OF_LONG ] );
+
+    @GuardedBy( "this" )
+    private final SpillLog spillLog;
+
+    @GuardedBy( "this" )
+    private final Map<Long, Tuple> heapTuples = new HashMap<>();
+
+    @GuardedBy( "this" )
+    private long heapTupleSequence;
+
+    // written while holding the lock
+    private volatile boolean spilling;
+
+    // written while holding the lock
+    private volatile int spilledTupleCount;
+
+    @GuardedBy( "this" )
+    private Collection<Tuple> replayedTuples;
+
+    private final SpillLog.RecordHandler replayingHandler = this::replay;
+
+    public SpillingTupleQueue ( final TupleQueue queue,
+                                final Path spillDirectory,
+                                final int spillSegmentSize,
+                                final TupleQueueSpillMetrics spillMetrics )
+    {
+        checkArgument( queue != null, "queue can't be null" );
+        checkArgument( spillMetrics != null, "spill metrics can't be null" );
+        this.queue = queue;
+        this.spillLog = new SpillLog( spillDirectory, "joker-tuple-queue-", spillSegmentSize );
+        this.spillMetrics = spillMetrics;
+    }
+
+    public boolean isSpilling ()
+    {
+        return spilling;
+    }
+
+    @Override
+    public boolean offer ( final Tuple tuple )
+    {
+        checkArgument( tuple != null, "tuple can't be null" );
+
+        if ( !spilling && queue.offer( tuple ) )
+        {
+            return true;
+        }
+
+        spill( tuple );
+        return true;
+    }
+
+    @Override
+    public int offer ( final List<Tuple> tuples )
+    {
+        return offer( tuples, 0 );
+    }
+
+    @Override
+    public int offer ( final List<Tuple> tuples, final int fromIndex )
+    {
+        checkArgument( tuples != null, "tuples can't be null" );
+
+        final int size = tuples.size();
+        int i = fromIndex;
+        if ( !spilling )
+        {
+            i += queue.offer( tuples, fromIndex );
+        }
+
+        for ( ; i < size; i++ )
+        {
+            spill( tuples.get( i ) );
+        }
+
+        return size - fromIndex;
+    }
+
+    private void spill ( final Tuple tuple )
+    {
+        final ExpandableArrayBuffer buffer = encodingBuffers.get();
+        final int codecIndex = codecRegistry.getCodecIndex( tuple.getSchema() );
+        final int length =
+                codecIndex != NOT_ENCODABLE_SCHEMA ? codecRegistry.getCodec( codecIndex ).encode( tuple, buffer, 0 ) : NOT_ENCODABLE;
+        final boolean encoded = length != NOT_ENCODABLE && length <= spillLog.getMaxRecordLength();
+
+        synchronized ( this )
+        {
+            spilling = true;
+            final int bytes;
+            if ( encoded )
+            {
+                bytes = spillLog.append( codecIndex + 2, buffer, 0, length );
+            }
+            else
+            {
+                final long sequence = ++heapTupleSequence;
+                heapTuples.put( sequence, tuple );
+                heapTupleRecordBuffer.putLong( 0, sequence );
+                bytes = spillLog.append( HEAP_TUPLE_RECORD_TYPE_ID, heapTupleRecordBuffer, 0, SIZE_OF_LONG );
+            }
+
+            spilledTupleCount++;
+            spillMetrics.onSpilled( bytes );
+        }
+
+        if ( encoded )
+        {
+            // the consumer gets a new tuple
+            tuple.release();
+        }
+    }
+
+    @Override
+    public Tuple poll ()
+    {
+        final Tuple tuple = queue.poll();
+        if ( tuple != null || !spilling )
+        {
+            return tuple;
+        }
+
+        final List<Tuple> tuples = new ArrayList<>( 1 );
+        replay( 1, tuples );
+        return tuples.isEmpty() ? null : tuples.get( 0 );
+    }
+
+    @Override
+    public List<Tuple> poll ( final int limit )
+    {
+        final List<Tuple> tuples = new ArrayList<>();
+        poll( limit, tuples );
+        return tuples;
+    }
+
+    @Override
+    public int poll ( final int limit, final Collection<Tuple> tuples )
+    {
+        final int polled = queue.poll( limit, tuples );
+        if ( polled == limit || !spilling )
+        {
+            return polled;
+        }
+
+        return polled + replay( limit - polled, tuples );
+    }
+
+    private synchronized int replay ( final int limit, final Collection<Tuple> tuples )
+    {
+        // a producer may have offered to the in-memory queue before it spilled its next tuple, and it must be polled first
+        final int polled = queue.poll( limit, tuples );
+
+        replayedTuples = tuples;
+        long bytes = 0;
+        int replayed = 0;
+        while ( polled + replayed < limit )
+        {
+            final int read = spillLog.read( replayingHandler );
+            if ( read == 0 )
+            {
+                break;
+            }
+
+            bytes += read;
+            replayed++;
+        }
+        replayedTuples = null;
+
+        if ( replayed > 0 )
+        {
+            spilledTupleCount -= replayed;
+            spillMetrics.onReplayed( bytes, replayed );
+        }
+
+        if ( spillLog.isEmpty() )
+        {
+            // segment files are not kept once all spilled tuples are replayed, so that a discarded queue does not leave files behind
+            spillLog.clear();
+            spilling = false;
+        }
+
+        return polled + replayed;
+    }
+
+    private void replay ( final int recordTypeId, final DirectBuffer buffer, final int index, final int length )
+    {
+        if ( recordTypeId == HEAP_TUPLE_RECORD_TYPE_ID )
+        {
+            replayedTuples.add( heapTuples.remove( buffer.getLong( index ) ) );
+        }
+        else
+        {
+            replayedTuples.add( codecRegistry.getCodec( recordTypeId - 2 ).decode( buffer, index ) );
+        }
+    }
+
+    @Override
+    public int size ()
+    {
+        return queue.size() + spilledTupleCount;
+    }
+
+    @Override
+    public synchronized void clear ()
+    {
+        queue.clear();
+
+        final List<Tuple> tuples = new ArrayList<>();
+        while ( spilledTupleCount > 0 )
+        {
+            tuples.clear();
+            replay( spilledTupleCount, tuples );
+        }
+
+        spillLog.clear();
+        heapTuples.clear();
+        spilling = false;
+    }
+
+    @Override
+    public boolean ensureCapacity ( final int capacity )
+    {
+        return queue.ensureCapacity( capacity );
+    }
+
+    synchronized int getSpillSegmentCount ()
+    {
+        return spillLog.getSegmentCount();
+    }
+
+}
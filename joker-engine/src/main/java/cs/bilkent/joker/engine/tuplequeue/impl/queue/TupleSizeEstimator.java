@@ -0,0 +1,95 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
+
+/**
+ * Estimates heap sizes of tuples only from their schemas. The estimated size of a schema is computed once and cached for the last seen
+ * schema, since tuples offered to a tuple queue usually share the same schema. Tuples of schemas without fields keep all of their
+ * fields in a map, and they are estimated with a fixed number of such fields. Values of a tuple are not used, and the schema of a tuple
+ * does not change. Therefore, the same size is computed when the tuple is offered and polled, even if the tuple is modified meanwhile.
+ */
+final class TupleSizeEstimator
+{
+
+    // object header and fields of a tuple, and header of its values array
+    static final int TUPLE_OVERHEAD = 64;
+
+    // reference slot and a boxed primitive value, or a slot in the primitive values array
+    static final int PRIMITIVE_FIELD_SIZE = 24;
+
+    // reference slot and a short string
+    static final int STRING_FIELD_SIZE = 56;
+
+    // reference slot and a small object
+    static final int OBJECT_FIELD_SIZE = 40;
+
+    // map entry, key and value of a field which is not present in the schema
+    static final int NON_SCHEMA_FIELD_SIZE = 96;
+
+    // estimated number of fields of a tuple of a schema without fields
+    static final int SCHEMALESS_TUPLE_FIELD_COUNT = 2;
+
+    // racy single-entry cache. SchemaSize is immutable, hence it can be safely published without synchronization
+    private SchemaSize lastSchemaSize = new SchemaSize( null, 0 );
+
+    long estimate ( final Tuple tuple )
+    {
+        final TupleSchema schema = tuple.getSchema();
+        SchemaSize schemaSize = lastSchemaSize;
+        if ( schemaSize.schema != schema )
+        {
+            schemaSize = new SchemaSize( schema, estimate( schema ) );
+            lastSchemaSize = schemaSize;
+        }
+
+        return schemaSize.size;
+    }
+
+    static int estimate ( final TupleSchema schema )
+    {
+        if ( schema.getFieldCount() == 0 )
+        {
+            return TUPLE_OVERHEAD + SCHEMALESS_TUPLE_FIELD_COUNT * NON_SCHEMA_FIELD_SIZE;
+        }
+
+        int size = TUPLE_OVERHEAD;
+        for ( RuntimeSchemaField field : schema.getFields() )
+        {
+            size += estimate( field.getType() );
+        }
+
+        return size;
+    }
+
+    static int estimate ( final Class<?> type )
+    {
+        if ( type == String.class )
+        {
+            return STRING_FIELD_SIZE;
+        }
+        else if ( type.isPrimitive() || Number.class.isAssignableFrom( type ) || type == Boolean.class || type == Character.class )
+        {
+            return PRIMITIVE_FIELD_SIZE;
+        }
+
+        return OBJECT_FIELD_SIZE;
+    }
+
+    private static final class SchemaSize
+    {
+
+        final TupleSchema schema;
+
+        final int size;
+
+        SchemaSize ( final TupleSchema schema, final int size )
+        {
+            this.schema = schema;
+            this.size = size;
+        }
+
+    }
+
+}
@@ -0,0 +1,87 @@
+package cs.bilkent.joker.engine.util;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+import org.agrona.UnsafeAccess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Unmaps memory-mapped buffers explicitly, instead of waiting for them to be garbage collected. Buffers are unmapped with
+ * {@code sun.misc.Unsafe.invokeCleaner()} on JDK 9 and later, and with {@code sun.misc.Cleaner} of the buffer on JDK 8. If neither
+ * of them is accessible, buffers are left to the garbage collector.
+ */
+public final class MappedBufferUtils
+{
+
+    private static final Logger LOGGER = LoggerFactory.getLogger( MappedBufferUtils.class );
+
+    private static final Unmapper UNMAPPER = createUnmapper();
+
+
+    @FunctionalInterface
+    private interface Unmapper
+    {
+        void unmap ( MappedByteBuffer buffer ) throws Exception;
+    }
+
+
+    /**
+     * Unmaps the given buffer. The buffer and the buffers created from it must not be accessed after it is unmapped.
+     *
+     * @param buffer
+     *         buffer to unmap
+     *
+     * @return true if the buffer is unmapped, false if it is left to the garbage collector
+     */
+    public static boolean unmap ( final MappedByteBuffer buffer )
+    {
+        if ( UNMAPPER == null )
+        {
+            return false;
+        }
+
+        try
+        {
+            UNMAPPER.unmap( buffer );
+            return true;
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Cannot unmap buffer", e );
+            return false;
+        }
+    }
+
+    private static Unmapper createUnmapper ()
+    {
+        try
+        {
+            final Method invokeCleaner = UnsafeAccess.UNSAFE.getClass().getMethod( "invokeCleaner", ByteBuffer.class );
+            return buffer -> invokeCleaner.invoke( UnsafeAccess.UNSAFE, buffer );
+        }
+        catch ( NoSuchMethodException e )
+        {
+            // JDK 8
+            try
+            {
+                final Method cleaner = Class.forName( "sun.nio.ch.DirectBuffer" ).getMethod( "cleaner" );
+                final Method clean = Class.forName( "sun.misc.Cleaner" ).getMethod( "clean" );
+                return buffer -> clean.invoke( cleaner.invoke( buffer ) );
+            }
+            catch ( ReflectiveOperationException e2 )
+            {
+                LOGGER.warn( "Mapped buffers will not be unmapped explicitly", e2 );
+                return null;
+            }
+        }
+    }
+
+    private MappedBufferUtils ()
+    {
+
+    }
+
+}
@@ -0,0 +1,38 @@
+package cs.bilkent.joker.engine.util.concurrent;
+
+import org.agrona.hints.ThreadHints;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Spins on the CPU without yielding or parking. It is meant for latency-critical pipelines which own a dedicated core.
+ * {@link #idle()} returns true after the given number of spins, so that the caller can check its other conditions.
+ */
+public final class BusySpinIdleStrategy implements IdleStrategy
+{
+
+    private final long maxSpins;
+
+    private long spins;
+
+    public BusySpinIdleStrategy ( final long maxSpins )
+    {
+        checkArgument( maxSpins > 0, "invalid max spins: %s", maxSpins );
+        this.maxSpins = maxSpins;
+    }
+
+    @Override
+    public boolean idle ()
+    {
+        ThreadHints.onSpinWait();
+
+        return ++spins > maxSpins;
+    }
+
+    @Override
+    public void reset ()
+    {
+        spins = 0;
+    }
+
+}
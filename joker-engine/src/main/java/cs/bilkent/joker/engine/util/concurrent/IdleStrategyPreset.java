@@ -0,0 +1,49 @@
+package cs.bilkent.joker.engine.util.concurrent;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Idle strategies which can be selected for the pipelines via configuration
+ */
+public enum IdleStrategyPreset
+{
+
+    /**
+     * Spins on the CPU. Lowest reaction latency with a fully used core while waiting.
+     */
+    BUSY_SPIN
+            {
+                @Override
+                public IdleStrategy newInstance ()
+                {
+                    return new BusySpinIdleStrategy( 10000 );
+                }
+            },
+
+    /**
+     * Spins, then yields, then parks with short and increasing periods. Default trade-off between latency and CPU usage.
+     */
+    BACKOFF
+            {
+                @Override
+                public IdleStrategy newInstance ()
+                {
+                    return BackoffIdleStrategy.newDefaultInstance();
+                }
+            },
+
+    /**
+     * Only parks, with a fixed period. Lowest CPU usage while waiting, with a reaction latency up to the park period.
+     */
+    PARK
+            {
+                @Override
+                public IdleStrategy newInstance ()
+                {
+                    return new ParkingIdleStrategy( MICROSECONDS.toNanos( 100 ), 10 );
+                }
+            };
+
+    public abstract IdleStrategy newInstance ();
+
+}
@@ -0,0 +1,41 @@
+package cs.bilkent.joker.engine.util.concurrent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Adds the time spent in each {@link #idle()} call of the given idle strategy to the given counter, in nanoseconds.
+ */
+public final class MeteredIdleStrategy implements IdleStrategy
+{
+
+    private final IdleStrategy idleStrategy;
+
+    private final LongAdder idleTimeInNanos;
+
+    public MeteredIdleStrategy ( final IdleStrategy idleStrategy, final LongAdder idleTimeInNanos )
+    {
+        checkArgument( idleStrategy != null, "idle strategy can't be null" );
+        checkArgument( idleTimeInNanos != null, "idle time counter can't be null" );
+        this.idleStrategy = idleStrategy;
+        this.idleTimeInNanos = idleTimeInNanos;
+    }
+
+    @Override
+    public boolean idle ()
+    {
+        final long start = System.nanoTime();
+        final boolean idle = idleStrategy.idle();
+        idleTimeInNanos.add( System.nanoTime() - start );
+
+        return idle;
+    }
+
+    @Override
+    public void reset ()
+    {
+        idleStrategy.reset();
+    }
+
+}
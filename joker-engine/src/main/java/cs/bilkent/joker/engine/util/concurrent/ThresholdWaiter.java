@@ -0,0 +1,76 @@
+package cs.bilkent.joker.engine.util.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.agrona.UnsafeAccess.UNSAFE;
+
+/**
+ * A waiter flag for a single consumer thread which parks until a value observed by producers, such as the size of a queue, reaches a
+ * threshold. The consumer registers itself with a threshold, re-checks the value, and parks. Producers call {@link #signal(IntSupplier)}
+ * after they increase the value, and unpark the consumer if it is registered and the value reaches its threshold.
+ * <p>
+ * The fast path of the producers is a memory fence and a volatile read when there is no registered consumer. Consumers must tolerate
+ * spurious wake-ups and should park with a timeout.
+ */
+@ThreadSafe
+public final class ThresholdWaiter
+{
+
+    private static final int NO_THRESHOLD = Integer.MAX_VALUE;
+
+
+    private volatile int threshold = NO_THRESHOLD;
+
+    private volatile Thread waiter;
+
+    /**
+     * Registers the current thread to be unparked once the value reaches the given threshold. The caller must re-check the value after
+     * the registration and before parking, so that a signal given before the registration is not missed.
+     *
+     * @param threshold
+     *         value to be reached for unparking the current thread
+     */
+    public void register ( final int threshold )
+    {
+        checkArgument( threshold > 0 && threshold < NO_THRESHOLD, "invalid threshold: %s", threshold );
+        this.waiter = Thread.currentThread();
+        this.threshold = threshold;
+    }
+
+    public void deregister ()
+    {
+        this.threshold = NO_THRESHOLD;
+        this.waiter = null;
+    }
+
+    public boolean isRegistered ()
+    {
+        return threshold != NO_THRESHOLD;
+    }
+
+    /**
+     * Unparks the registered thread if the given value reaches its threshold. The value is computed only if there is a registered thread.
+     *
+     * @param value
+     *         supplies the current value
+     */
+    public void signal ( final IntSupplier value )
+    {
+        // orders the producer's preceding writes before reading the threshold. pairs with the volatile write in register()
+        UNSAFE.fullFence();
+
+        final int threshold = this.threshold;
+        if ( threshold != NO_THRESHOLD && value.getAsInt() >= threshold )
+        {
+            final Thread waiter = this.waiter;
+            if ( waiter != null )
+            {
+                LockSupport.unpark( waiter );
+            }
+        }
+    }
+
+}
@@ -16,6 +16,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
 import cs.bilkent.joker.Joker.JokerBuilder;
 import cs.bilkent.joker.engine.config.JokerConfig;
+import cs.bilkent.joker.engine.config.JokerConfigBuilder;
 import cs.bilkent.joker.engine.flow.FlowExecutionPlan;
 import cs.bilkent.joker.engine.flow.PipelineId;
 import cs.bilkent.joker.engine.flow.RegionDef;
@@ -216,6 +217,114 @@ public class JokerTest extends AbstractJokerTest
         }
     }
 
+    @Category( SlowTest.class )
+    @Test
+    public void testEndToEndSystemWithSplittingPooledPipelines () throws InterruptedException, ExecutionException, TimeoutException
+    {
+        final FlowExample1 flowExample = new FlowExample1();
+        final JokerConfigBuilder configBuilder = new JokerConfigBuilder();
+        configBuilder.getPipelineReplicaRunnerConfigBuilder().enablePooledScheduling();
+        final JokerConfig jokerConfig = configBuilder.build();
+        final StaticRegionExecutionPlanFactory2 regionExecPlanFactory = new StaticRegionExecutionPlanFactory2( jokerConfig,
+                                                                                                               PARTITIONED_STATEFUL_REGION_REPLICA_COUNT );
+        final Joker joker = new JokerBuilder().setRegionExecutionPlanFactory( regionExecPlanFactory ).setJokerConfig( jokerConfig ).build();
+
+        final FlowExecutionPlan flowExecPlan = joker.run( flowExample.flow );
+
+        sleepUninterruptibly( 15, SECONDS );
+
+        final RegionExecutionPlan regionExecPlan = flowExecPlan.getRegionExecutionPlan( flowExample.join.getId() );
+        joker.splitPipeline( flowExecPlan.getVersion(), regionExecPlan.getPipelineIds().get( 0 ), asList( 1, 2 ) ).get( 15, SECONDS );
+
+        sleepUninterruptibly( 15, SECONDS );
+
+        joker.shutdown().get( 60, SECONDS );
+
+        System.out.println( "Value generator 1 is invoked " + flowExample.valueGenerator1.invocationCount.get() + " times." );
+        System.out.println( "Value generator 2 is invoked " + flowExample.valueGenerator2.invocationCount.get() + " times." );
+        System.out.println( "Collector is invoked " + flowExample.valueCollector.invocationCount.get() + " times." );
+
+        for ( int i = 0; i < flowExample.valueCollector.values.length(); i++ )
+        {
+            final int expected = ( flowExample.valueGenerator1.generatedValues[ i ].intValue()
+                                   + flowExample.valueGenerator2.generatedValues[ i ].intValue() ) * MULTIPLIER_VALUE;
+            final int actual = flowExample.valueCollector.values.get( i );
+            assertEquals( "i: " + i + " expected: " + expected + " actual: " + actual, expected, actual );
+        }
+    }
+
+    @Category( SlowTest.class )
+    @Test
+    public void testEndToEndSystemWithSplittingPipelinesSendingAsynchronously () throws InterruptedException, ExecutionException, TimeoutException
+    {
+        final FlowExample1 flowExample = new FlowExample1();
+        final JokerConfigBuilder configBuilder = new JokerConfigBuilder();
+        configBuilder.getPipelineReplicaRunnerConfigBuilder().enableAsyncDownstreamSending();
+        final JokerConfig jokerConfig = configBuilder.build();
+        final StaticRegionExecutionPlanFactory2 regionExecPlanFactory = new StaticRegionExecutionPlanFactory2( jokerConfig,
+                                                                                                               PARTITIONED_STATEFUL_REGION_REPLICA_COUNT );
+        final Joker joker = new JokerBuilder().setRegionExecutionPlanFactory( regionExecPlanFactory ).setJokerConfig( jokerConfig ).build();
+
+        final FlowExecutionPlan flowExecPlan = joker.run( flowExample.flow );
+
+        sleepUninterruptibly( 15, SECONDS );
+
+        final RegionExecutionPlan regionExecPlan = flowExecPlan.getRegionExecutionPlan( flowExample.join.getId() );
+        joker.splitPipeline( flowExecPlan.getVersion(), regionExecPlan.getPipelineIds().get( 0 ), asList( 1, 2 ) ).get( 15, SECONDS );
+
+        sleepUninterruptibly( 15, SECONDS );
+
+        joker.shutdown().get( 60, SECONDS );
+
+        System.out.println( "Value generator 1 is invoked " + flowExample.valueGenerator1.invocationCount.get() + " times." );
+        System.out.println( "Value generator 2 is invoked " + flowExample.valueGenerator2.invocationCount.get() + " times." );
+        System.out.println( "Collector is invoked " + flowExample.valueCollector.invocationCount.get() + " times." );
+
+        for ( int i = 0; i < flowExample.valueCollector.values.length(); i++ )
+        {
+            final int expected = ( flowExample.valueGenerator1.generatedValues[ i ].intValue()
+                                   + flowExample.valueGenerator2.generatedValues[ i ].intValue() ) * MULTIPLIER_VALUE;
+            final int actual = flowExample.valueCollector.values.get( i );
+            assertEquals( "i: " + i + " expected: " + expected + " actual: " + actual, expected, actual );
+        }
+    }
+
+    @Category( SlowTest.class )
+    @Test
+    public void testEndToEndSystemWithSplittingPipelinesSendingPartially () throws InterruptedException, ExecutionException, TimeoutException
+    {
+        final FlowExample1 flowExample = new FlowExample1();
+        final JokerConfigBuilder configBuilder = new JokerConfigBuilder();
+        configBuilder.getPipelineReplicaRunnerConfigBuilder().enablePartialDownstreamSending();
+        final JokerConfig jokerConfig = configBuilder.build();
+        final StaticRegionExecutionPlanFactory2 regionExecPlanFactory = new StaticRegionExecutionPlanFactory2( jokerConfig,
+                                                                                                               PARTITIONED_STATEFUL_REGION_REPLICA_COUNT );
+        final Joker joker = new JokerBuilder().setRegionExecutionPlanFactory( regionExecPlanFactory ).setJokerConfig( jokerConfig ).build();
+
+        final FlowExecutionPlan flowExecPlan = joker.run( flowExample.flow );
+
+        sleepUninterruptibly( 15, SECONDS );
+
+        final RegionExecutionPlan regionExecPlan = flowExecPlan.getRegionExecutionPlan( flowExample.join.getId() );
+        joker.splitPipeline( flowExecPlan.getVersion(), regionExecPlan.getPipelineIds().get( 0 ), asList( 1, 2 ) ).get( 15, SECONDS );
+
+        sleepUninterruptibly( 15, SECONDS );
+
+        joker.shutdown().get( 60, SECONDS );
+
+        System.out.println( "Value generator 1 is invoked " + flowExample.valueGenerator1.invocationCount.get() + " times." );
+        System.out.println( "Value generator 2 is invoked " + flowExample.valueGenerator2.invocationCount.get() + " times." );
+        System.out.println( "Collector is invoked " + flowExample.valueCollector.invocationCount.get() + " times." );
+
+        for ( int i = 0; i < flowExample.valueCollector.values.length(); i++ )
+        {
+            final int expected = ( flowExample.valueGenerator1.generatedValues[ i ].intValue()
+                                   + flowExample.valueGenerator2.generatedValues[ i ].intValue() ) * MULTIPLIER_VALUE;
+            final int actual = flowExample.valueCollector.values.get( i );
+            assertEquals( "i: " + i + " expected: " + expected + " actual: " + actual, expected, actual );
+        }
+    }
+
     @Category( SlowTest.class )
     @Test
     public void testEndToEndSystemWithSplittingAndMergingPipelines () throws InterruptedException, ExecutionException, TimeoutException
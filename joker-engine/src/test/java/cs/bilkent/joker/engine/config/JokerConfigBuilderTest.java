@@ -3,7 +3,13 @@ package cs.bilkent.joker.engine.config;
 import org.junit.Test;
 
 import cs.bilkent.joker.engine.metric.impl.pipelinemetricshistorysummarizer.LatestPipelineMetrics;
+import cs.bilkent.joker.engine.pipeline.impl.threadfactory.PlatformThreadFactory;
+import cs.bilkent.joker.engine.pipeline.impl.threadfactory.VirtualThreadFactory;
+import cs.bilkent.joker.engine.pipeline.impl.tuplesupplier.CachedTuplesImplSupplier;
+import cs.bilkent.joker.engine.pipeline.impl.tuplesupplier.DoubleBufferedTuplesImplSupplier;
 import cs.bilkent.joker.engine.pipeline.impl.tuplesupplier.NonCachedTuplesImplSupplier;
+import static cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset.BUSY_SPIN;
+import static cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset.PARK;
 import cs.bilkent.joker.test.AbstractJokerTest;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -313,6 +319,208 @@ public class JokerConfigBuilderTest extends AbstractJokerTest
         assertEquals( val, builder.build().getPipelineReplicaRunnerConfig().getRunnerWaitTimeoutInMillis() );
     }
 
+    @Test
+    public void test_PipelineReplicaRunnerConfig_tupleRecyclingEnabled ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().enableTupleRecycling();
+
+        assertTrue( builder.build().getPipelineReplicaRunnerConfig().isTupleRecyclingEnabled() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_tupleRecyclingDisabled ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().disableTupleRecycling();
+
+        assertFalse( builder.build().getPipelineReplicaRunnerConfig().isTupleRecyclingEnabled() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_columnarInvocationEnabled ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().enableColumnarInvocation();
+
+        assertTrue( builder.build().getPipelineReplicaRunnerConfig().isColumnarInvocationEnabled() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_columnarInvocationDisabled ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().disableColumnarInvocation();
+
+        assertFalse( builder.build().getPipelineReplicaRunnerConfig().isColumnarInvocationEnabled() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_operatorFusionEnabled ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().enableOperatorFusion();
+
+        assertTrue( builder.build().getPipelineReplicaRunnerConfig().isOperatorFusionEnabled() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_operatorFusionDisabled ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().disableOperatorFusion();
+
+        assertFalse( builder.build().getPipelineReplicaRunnerConfig().isOperatorFusionEnabled() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_compiledTupleSchemasEnabled ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().enableCompiledTupleSchemas();
+
+        assertTrue( builder.build().getPipelineReplicaRunnerConfig().isCompiledTupleSchemasEnabled() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_tuplePoolCapacity ()
+    {
+        final int val = 512;
+        builder.getPipelineReplicaRunnerConfigBuilder().setTuplePoolCapacity( val );
+
+        assertEquals( val, builder.build().getPipelineReplicaRunnerConfig().getTuplePoolCapacity() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_idleStrategy ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().setIdleStrategy( PARK );
+
+        assertEquals( PARK, builder.build().getPipelineReplicaRunnerConfig().getIdleStrategy() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_idleStrategiesByOperatorId ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().setIdleStrategy( PARK ).setIdleStrategy( "op.1", BUSY_SPIN );
+
+        final PipelineReplicaRunnerConfig config = builder.build().getPipelineReplicaRunnerConfig();
+        assertEquals( BUSY_SPIN, config.getIdleStrategy( "op.1" ) );
+        assertEquals( PARK, config.getIdleStrategy( "op2" ) );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_pooledSchedulingEnabled ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().enablePooledScheduling();
+
+        assertTrue( builder.build().getPipelineReplicaRunnerConfig().isPooledSchedulingEnabled() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_schedulerWorkerCount ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().setSchedulerWorkerCount( 3 );
+
+        assertEquals( 3, builder.build().getPipelineReplicaRunnerConfig().getSchedulerWorkerCount() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_defaultSchedulerWorkerCount ()
+    {
+        assertEquals( Runtime.getRuntime().availableProcessors(), builder.build().getPipelineReplicaRunnerConfig().getSchedulerWorkerCount() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_schedulerMaxInvocationsPerRun ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().setSchedulerMaxInvocationsPerRun( 16 );
+
+        assertEquals( 16, builder.build().getPipelineReplicaRunnerConfig().getSchedulerMaxInvocationsPerRun() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_threadFactoryClass ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().setIdleStrategy( PARK ).setThreadFactoryClass( VirtualThreadFactory.class.getName() );
+
+        assertEquals( VirtualThreadFactory.class, builder.build().getPipelineReplicaRunnerConfig().getThreadFactoryClass() );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void test_PipelineReplicaRunnerConfig_virtualThreadFactoryClassWithNonParkingIdleStrategy ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().setThreadFactoryClass( VirtualThreadFactory.class.getName() );
+
+        builder.build();
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void test_PipelineReplicaRunnerConfig_virtualThreadFactoryClassWithNonParkingOperatorIdleStrategy ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder()
+               .setIdleStrategy( PARK )
+               .setIdleStrategy( "op1", BUSY_SPIN )
+               .setThreadFactoryClass( VirtualThreadFactory.class.getName() );
+
+        builder.build();
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_defaultThreadFactoryClass ()
+    {
+        assertTrue( builder.build().getPipelineReplicaRunnerConfig().newThreadFactoryInstance() instanceof PlatformThreadFactory );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_asyncDownstreamSendingEnabled ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().enableAsyncDownstreamSending();
+
+        final JokerConfig config = builder.build();
+        assertTrue( config.getPipelineReplicaRunnerConfig().isAsyncDownstreamSendingEnabled() );
+        assertEquals( DoubleBufferedTuplesImplSupplier.class, config.getRegionManagerConfig().getPipelineTailOperatorOutputSupplierClass() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_asyncDownstreamSendingIgnoredWithTupleRecycling ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().enableAsyncDownstreamSending().enableTupleRecycling();
+
+        final JokerConfig config = builder.build();
+        assertFalse( config.getPipelineReplicaRunnerConfig().isAsyncDownstreamSendingEnabled() );
+        assertEquals( CachedTuplesImplSupplier.class, config.getRegionManagerConfig().getPipelineTailOperatorOutputSupplierClass() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_asyncDownstreamSendingIgnoredWithPooledScheduling ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().enableAsyncDownstreamSending().enablePooledScheduling();
+
+        final JokerConfig config = builder.build();
+        assertFalse( config.getPipelineReplicaRunnerConfig().isAsyncDownstreamSendingEnabled() );
+        assertEquals( CachedTuplesImplSupplier.class, config.getRegionManagerConfig().getPipelineTailOperatorOutputSupplierClass() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_partialDownstreamSendingIgnoredWithAsyncDownstreamSending ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().enableAsyncDownstreamSending().enablePartialDownstreamSending();
+
+        final PipelineReplicaRunnerConfig config = builder.build().getPipelineReplicaRunnerConfig();
+        assertTrue( config.isAsyncDownstreamSendingEnabled() );
+        assertFalse( config.isPartialDownstreamSendingEnabled() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_partialDownstreamSendingEnabled ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().enablePartialDownstreamSending();
+
+        assertTrue( builder.build().getPipelineReplicaRunnerConfig().isPartialDownstreamSendingEnabled() );
+    }
+
+    @Test
+    public void test_PipelineReplicaRunnerConfig_maxPendingDownstreamTupleCount ()
+    {
+        builder.getPipelineReplicaRunnerConfigBuilder().setMaxPendingDownstreamTupleCount( 128 );
+
+        assertEquals( 128, builder.build().getPipelineReplicaRunnerConfig().getMaxPendingDownstreamTupleCount() );
+    }
+
     @Test
     public void test_RegionManagerConfig_pipelineTailOperatorOutputSupplierClass ()
     {
@@ -341,6 +549,49 @@ public class JokerConfigBuilderTest extends AbstractJokerTest
         assertEquals( val, builder.build().getTupleQueueDrainerConfig().getPartitionedStatefulPipelineDrainerMaxBatchSize() );
     }
 
+    @Test
+    public void test_TupleQueueDrainerConfig_signallingEnabled ()
+    {
+        builder.getTupleQueueDrainerConfigBuilder().enableSignalling();
+
+        assertTrue( builder.build().getTupleQueueDrainerConfig().isSignallingEnabled() );
+    }
+
+    @Test
+    public void test_TupleQueueDrainerConfig_signallingParkTimeoutInMicros ()
+    {
+        final long val = 234;
+        builder.getTupleQueueDrainerConfigBuilder().setSignallingParkTimeoutInMicros( val );
+
+        assertEquals( val, builder.build().getTupleQueueDrainerConfig().getSignallingParkTimeoutInMicros() );
+    }
+
+    @Test
+    public void test_TupleQueueDrainerConfig_adaptiveBatchingEnabled ()
+    {
+        builder.getTupleQueueDrainerConfigBuilder().enableAdaptiveBatching();
+
+        assertTrue( builder.build().getTupleQueueDrainerConfig().isAdaptiveBatchingEnabled() );
+    }
+
+    @Test
+    public void test_TupleQueueDrainerConfig_adaptiveBatchingMaxBatchSize ()
+    {
+        final int val = 234;
+        builder.getTupleQueueDrainerConfigBuilder().setAdaptiveBatchingMaxBatchSize( val );
+
+        assertEquals( val, builder.build().getTupleQueueDrainerConfig().getAdaptiveBatchingMaxBatchSize() );
+    }
+
+    @Test
+    public void test_TupleQueueDrainerConfig_adaptiveBatchingTargetLatencyInMicros ()
+    {
+        final long val = 234;
+        builder.getTupleQueueDrainerConfigBuilder().setAdaptiveBatchingTargetLatencyInMicros( val );
+
+        assertEquals( val, builder.build().getTupleQueueDrainerConfig().getAdaptiveBatchingTargetLatencyInMicros() );
+    }
+
     @Test
     public void test_TupleQueueManagerConfig_tupleQueueCapacity ()
     {
@@ -350,6 +601,15 @@ public class JokerConfigBuilderTest extends AbstractJokerTest
         assertEquals( val, builder.build().getTupleQueueManagerConfig().getTupleQueueCapacity() );
     }
 
+    @Test
+    public void test_TupleQueueManagerConfig_maxTupleQueueCapacity ()
+    {
+        final int val = 23456;
+        builder.getTupleQueueManagerConfigBuilder().setMaxTupleQueueCapacity( val );
+
+        assertEquals( val, builder.build().getTupleQueueManagerConfig().getMaxTupleQueueCapacity() );
+    }
+
     @Test
     public void test_TupleQueueManagerConfig_maxDrainableKeyCount ()
     {
@@ -368,4 +628,56 @@ public class JokerConfigBuilderTest extends AbstractJokerTest
         assertEquals( val, builder.build().getTupleQueueManagerConfig().getPartitionedTupleQueueDrainHint() );
     }
 
+    @Test
+    public void test_TupleQueueManagerConfig_offHeapTupleQueueEnabled ()
+    {
+        builder.getTupleQueueManagerConfigBuilder().enableOffHeapTupleQueue();
+
+        assertTrue( builder.build().getTupleQueueManagerConfig().isOffHeapTupleQueueEnabled() );
+    }
+
+    @Test
+    public void test_TupleQueueManagerConfig_offHeapTupleQueueRecordSize ()
+    {
+        final int val = 234;
+        builder.getTupleQueueManagerConfigBuilder().setOffHeapTupleQueueRecordSize( val );
+
+        assertEquals( val, builder.build().getTupleQueueManagerConfig().getOffHeapTupleQueueRecordSize() );
+    }
+
+    @Test
+    public void test_TupleQueueManagerConfig_tupleQueueMemoryBudgetInBytes ()
+    {
+        final long val = 1L << 32;
+        builder.getTupleQueueManagerConfigBuilder().setTupleQueueMemoryBudgetInBytes( val );
+
+        assertEquals( val, builder.build().getTupleQueueManagerConfig().getTupleQueueMemoryBudgetInBytes() );
+    }
+
+    @Test
+    public void test_TupleQueueManagerConfig_spillToDiskEnabled ()
+    {
+        builder.getTupleQueueManagerConfigBuilder().enableSpillToDisk();
+
+        assertTrue( builder.build().getTupleQueueManagerConfig().isSpillToDiskEnabled() );
+    }
+
+    @Test
+    public void test_TupleQueueManagerConfig_spillDirectory ()
+    {
+        final String val = "/tmp/joker-spill";
+        builder.getTupleQueueManagerConfigBuilder().setSpillDirectory( val );
+
+        assertEquals( val, builder.build().getTupleQueueManagerConfig().getSpillDirectory() );
+    }
+
+    @Test
+    public void test_TupleQueueManagerConfig_spillSegmentSizeInBytes ()
+    {
+        final int val = 4096;
+        builder.getTupleQueueManagerConfigBuilder().setSpillSegmentSizeInBytes( val );
+
+        assertEquals( val, builder.build().getTupleQueueManagerConfig().getSpillSegmentSizeInBytes() );
+    }
+
 }
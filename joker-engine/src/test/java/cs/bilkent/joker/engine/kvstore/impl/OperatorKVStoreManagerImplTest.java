@@ -12,12 +12,14 @@ import cs.bilkent.joker.engine.partition.PartitionDistribution;
 import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.partition.PartitionService;
 import static cs.bilkent.joker.engine.partition.PartitionUtil.getPartitionId;
+import cs.bilkent.joker.engine.partition.impl.LongPartitionKey;
 import cs.bilkent.joker.engine.partition.impl.PartitionKey1;
 import cs.bilkent.joker.engine.partition.impl.PartitionServiceImpl;
 import cs.bilkent.joker.operator.kvstore.KVStore;
 import cs.bilkent.joker.test.AbstractJokerTest;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -88,6 +90,22 @@ public class OperatorKVStoreManagerImplTest extends AbstractJokerTest
         assertNull( kvStoreManager.getPartitionedOperatorKVStores( REGION_ID, OPERATOR_ID ) );
     }
 
+    @Test
+    public void shouldGetKVStoreOfPrimitivePartitionKey ()
+    {
+        final PartitionDistribution partitionDistribution = partitionService.createPartitionDistribution( REGION_ID, 1 );
+        final OperatorKVStore operatorKvStore = kvStoreManager.createPartitionedOperatorKVStores( REGION_ID,
+                                                                                                  OPERATOR_ID,
+                                                                                                  partitionDistribution )[ 0 ];
+        final KVStore kvStore = operatorKvStore.getKVStore( new LongPartitionKey( 1 ) );
+        kvStore.set( "key", "value" );
+
+        assertThat( operatorKvStore.getKVStore( new LongPartitionKey( 1 ) ), sameInstance( kvStore ) );
+
+        kvStoreManager.releasePartitionedOperatorKVStores( REGION_ID, OPERATOR_ID );
+        assertThat( kvStore.size(), equalTo( 0 ) );
+    }
+
     @Test
     public void shouldShrinkPartitionedOperatorKVStores ()
     {
@@ -0,0 +1,44 @@
+package cs.bilkent.joker.engine.metric;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
+import static cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset.BACKOFF;
+import static cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset.BUSY_SPIN;
+import static cs.bilkent.joker.engine.util.concurrent.IdleStrategyPreset.PARK;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class IdleTimeMeterTest extends AbstractJokerTest
+{
+
+    private final IdleTimeMeter meter = new IdleTimeMeter();
+
+    @Test
+    public void shouldMeterIdleTimeOfPreset ()
+    {
+        final IdleStrategy idleStrategy = meter.newIdleStrategy( PARK );
+
+        idleStrategy.idle();
+
+        assertThat( meter.getIdleTimeInNanos( PARK ), greaterThan( 0L ) );
+        assertThat( meter.getIdleTimeInNanos( BACKOFF ), equalTo( 0L ) );
+        assertThat( meter.getIdleTimeInNanos( BUSY_SPIN ), equalTo( 0L ) );
+    }
+
+    @Test
+    public void shouldSumIdleTimesOfIdleStrategiesOfSamePreset ()
+    {
+        final IdleStrategy idleStrategy1 = meter.newIdleStrategy( PARK );
+        final IdleStrategy idleStrategy2 = meter.newIdleStrategy( PARK );
+
+        idleStrategy1.idle();
+        final long idleTime = meter.getIdleTimeInNanos( PARK );
+        idleStrategy2.idle();
+
+        assertThat( meter.getIdleTimeInNanos( PARK ), greaterThan( idleTime ) );
+    }
+
+}
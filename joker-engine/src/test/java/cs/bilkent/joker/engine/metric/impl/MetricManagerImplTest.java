@@ -14,6 +14,9 @@ import com.codahale.metrics.MetricRegistry;
 
 import cs.bilkent.joker.engine.config.JokerConfig;
 import cs.bilkent.joker.engine.exception.JokerException;
+import cs.bilkent.joker.engine.metric.IdleTimeMeter;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueSpillMetrics;
 import cs.bilkent.joker.test.AbstractJokerTest;
 import static java.util.Collections.emptyList;
 import static org.junit.Assert.fail;
@@ -49,6 +52,9 @@ public class MetricManagerImplTest extends AbstractJokerTest
                                                threadMXBean,
                                                runtimeMXBean,
                                                osMXBean,
+                                               new TupleQueueMemoryBudget( 0 ),
+                                               new TupleQueueSpillMetrics(),
+                                               new IdleTimeMeter(),
                                                new ThreadGroup( "Test" ) );
     }
 
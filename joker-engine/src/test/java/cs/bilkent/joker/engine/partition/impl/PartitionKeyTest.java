@@ -4,11 +4,17 @@ import org.junit.Test;
 
 import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
+import cs.bilkent.joker.engine.partition.PrimitivePartitionKeyExtractor;
+import static cs.bilkent.joker.engine.partition.impl.PartitionKeyUtil.toFieldAccessors;
 import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
 import cs.bilkent.joker.test.AbstractJokerTest;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class PartitionKeyTest extends AbstractJokerTest
 {
@@ -42,7 +48,81 @@ public class PartitionKeyTest extends AbstractJokerTest
         assertEquals( key.partitionHashCode(), expectedHash );
         assertEquals( key.partitionHashCode(), new PartitionKey2Fwd1( val0, "val1" ).partitionHashCode() );
         assertEquals( key.partitionHashCode(), new PartitionKey3Fwd1( val0, "val1", "val2" ).partitionHashCode() );
-        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd1( tuple, singletonList( "val0" ) ).partitionHashCode() );
+        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd1( tuple, toFieldAccessors( singletonList( "val0" ) ) ).partitionHashCode() );
+    }
+
+    @Test
+    public void shouldHashLongField ()
+    {
+        final long val = -123456789012L;
+        final Tuple tuple = new Tuple( new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "val0", long.class ) ) ) );
+        tuple.setLong( "val0", val );
+
+        final PartitionKey key = new LongPartitionKey( val );
+        final PrimitivePartitionKeyExtractor extractor = new LongPartitionKeyExtractor( singletonList( "val0" ) );
+
+        assertEquals( key, extractor.getPartitionKey( tuple ) );
+        assertEquals( key, extractor.getPartitionKey( extractor.getPrimitiveKey( tuple ) ) );
+        assertEquals( key, new PartitionKey1( val ) );
+        assertEquals( new PartitionKey1( val ), key );
+        assertEquals( key, singletonList( val ) );
+
+        final int expectedHash = singletonList( val ).hashCode();
+        assertEquals( key.hashCode(), expectedHash );
+        assertEquals( key.partitionHashCode(), expectedHash );
+        assertEquals( extractor.getPartitionHash( tuple ), expectedHash );
+        assertEquals( extractor.getPartitionHash( extractor.getPrimitiveKey( tuple ) ), expectedHash );
+        assertEquals( new PartitionKeyExtractor1( singletonList( "val0" ) ).getPartitionHash( tuple ), expectedHash );
+    }
+
+    @Test
+    public void shouldHashIntegerField ()
+    {
+        final int val = -123456;
+        final Tuple tuple = new Tuple( new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "val0", int.class ) ) ) );
+        tuple.setInteger( "val0", val );
+
+        final PartitionKey key = new IntegerPartitionKey( val );
+        final PrimitivePartitionKeyExtractor extractor = new IntegerPartitionKeyExtractor( singletonList( "val0" ) );
+
+        assertEquals( key, extractor.getPartitionKey( tuple ) );
+        assertEquals( key, extractor.getPartitionKey( extractor.getPrimitiveKey( tuple ) ) );
+        assertEquals( key, new PartitionKey1( val ) );
+        assertEquals( key, singletonList( val ) );
+
+        final int expectedHash = singletonList( val ).hashCode();
+        assertEquals( key.hashCode(), expectedHash );
+        assertEquals( key.partitionHashCode(), expectedHash );
+        assertEquals( extractor.getPartitionHash( tuple ), expectedHash );
+        assertEquals( extractor.getPartitionHash( extractor.getPrimitiveKey( tuple ) ), expectedHash );
+        assertEquals( new PartitionKeyExtractor1( singletonList( "val0" ) ).getPartitionHash( tuple ), expectedHash );
+    }
+
+    @Test
+    public void shouldHashNonLongValueOfLongField ()
+    {
+        final Tuple tuple = new Tuple( new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "val0", long.class ) ) ) );
+        tuple.set( "val0", val0 );
+
+        final PrimitivePartitionKeyExtractor extractor = new LongPartitionKeyExtractor( singletonList( "val0" ) );
+
+        assertFalse( extractor.hasPrimitiveKey( tuple ) );
+        assertEquals( new PartitionKey1( val0 ), extractor.getPartitionKey( tuple ) );
+        assertEquals( new PartitionKeyExtractor1( singletonList( "val0" ) ).getPartitionHash( tuple ), extractor.getPartitionHash( tuple ) );
+    }
+
+    @Test
+    public void shouldCreatePrimitivePartitionKeyExtractorsForSchema ()
+    {
+        final PortRuntimeSchema schema = new PortRuntimeSchema( asList( new RuntimeSchemaField( "val0", long.class ),
+                                                                        new RuntimeSchemaField( "val1", int.class ),
+                                                                        new RuntimeSchemaField( "val2", String.class ) ) );
+        final PartitionKeyExtractorFactoryImpl factory = new PartitionKeyExtractorFactoryImpl();
+
+        assertTrue( factory.createPartitionKeyExtractor( singletonList( "val0" ), 1, schema ) instanceof LongPartitionKeyExtractor );
+        assertTrue( factory.createPartitionKeyExtractor( singletonList( "val1" ), 1, schema ) instanceof IntegerPartitionKeyExtractor );
+        assertTrue( factory.createPartitionKeyExtractor( singletonList( "val2" ), 1, schema ) instanceof PartitionKeyExtractor1 );
+        assertTrue( factory.createPartitionKeyExtractor( asList( "val0", "val1" ), 2, schema ) instanceof PartitionKeyExtractor2 );
     }
 
     @Test
@@ -62,7 +142,7 @@ public class PartitionKeyTest extends AbstractJokerTest
         assertEquals( extractor.getPartitionHash( tuple ), expectedHash );
         assertEquals( key.partitionHashCode(), expectedHash );
         assertEquals( key.partitionHashCode(), new PartitionKey3Fwd2( val0, val1, "val2" ).partitionHashCode() );
-        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd2( tuple, asList( "val0", "val1" ) ).partitionHashCode() );
+        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd2( tuple, toFieldAccessors( asList( "val0", "val1" ) ) ).partitionHashCode() );
     }
 
     @Test
@@ -84,7 +164,7 @@ public class PartitionKeyTest extends AbstractJokerTest
         assertEquals( key.partitionHashCode(), expectedPartitionHash );
         assertEquals( key.partitionHashCode(), new PartitionKey1( val0 ).partitionHashCode() );
         assertEquals( key.partitionHashCode(), new PartitionKey3Fwd1( val0, "val1", "val2" ).partitionHashCode() );
-        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd1( tuple, singletonList( "val0" ) ).partitionHashCode() );
+        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd1( tuple, toFieldAccessors( singletonList( "val0" ) ) ).partitionHashCode() );
     }
 
     @Test
@@ -127,7 +207,7 @@ public class PartitionKeyTest extends AbstractJokerTest
         assertEquals( key.partitionHashCode(), expectedPartitionHash );
         assertEquals( key.partitionHashCode(), new PartitionKey1( val0 ).partitionHashCode() );
         assertEquals( key.partitionHashCode(), new PartitionKey2Fwd1( val0, "val1" ).partitionHashCode() );
-        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd1( tuple, singletonList( "val0" ) ).partitionHashCode() );
+        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd1( tuple, toFieldAccessors( singletonList( "val0" ) ) ).partitionHashCode() );
     }
 
     @Test
@@ -149,7 +229,7 @@ public class PartitionKeyTest extends AbstractJokerTest
         assertEquals( extractor.getPartitionHash( tuple ), expectedPartitionHash );
         assertEquals( key.partitionHashCode(), expectedPartitionHash );
         assertEquals( key.partitionHashCode(), new PartitionKey2( val0, val1 ).partitionHashCode() );
-        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd2( tuple, asList( "val0", "val1" ) ).partitionHashCode() );
+        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd2( tuple, toFieldAccessors( asList( "val0", "val1" ) ) ).partitionHashCode() );
     }
 
     @Test
@@ -158,10 +238,10 @@ public class PartitionKeyTest extends AbstractJokerTest
         final Tuple tuple = new Tuple();
         tuple.set( "val0", val0 );
 
-        final PartitionKey key = new PartitionKeyN( tuple, singletonList( "val0" ) );
+        final PartitionKey key = new PartitionKeyN( tuple, toFieldAccessors( singletonList( "val0" ) ) );
         final PartitionKeyExtractor extractor = new PartitionKeyExtractorN( singletonList( "val0" ) );
 
-        assertEquals( key, new PartitionKeyN( tuple, singletonList( "val0" ) ) );
+        assertEquals( key, new PartitionKeyN( tuple, toFieldAccessors( singletonList( "val0" ) ) ) );
         assertEquals( key, extractor.getPartitionKey( tuple ) );
 
         assertEquals( key, singletonList( val0 ) );
@@ -172,7 +252,7 @@ public class PartitionKeyTest extends AbstractJokerTest
         assertEquals( key.partitionHashCode(), new PartitionKey1( val0 ).partitionHashCode() );
         assertEquals( key.partitionHashCode(), new PartitionKey2Fwd1( val0, "val1" ).partitionHashCode() );
         assertEquals( key.partitionHashCode(), new PartitionKey3Fwd1( val0, "val1", "val2" ).partitionHashCode() );
-        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd1( tuple, singletonList( "val0" ) ).partitionHashCode() );
+        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd1( tuple, toFieldAccessors( singletonList( "val0" ) ) ).partitionHashCode() );
     }
 
     @Test
@@ -185,10 +265,10 @@ public class PartitionKeyTest extends AbstractJokerTest
         tuple.set( "val3", val3 );
         tuple.set( "val4", val4 );
 
-        final PartitionKey key = new PartitionKeyN( tuple, asList( "val0", "val1", "val2", "val3", "val4" ) );
+        final PartitionKey key = new PartitionKeyN( tuple, toFieldAccessors( asList( "val0", "val1", "val2", "val3", "val4" ) ) );
         final PartitionKeyExtractor extractor = new PartitionKeyExtractorN( asList( "val0", "val1", "val2", "val3", "val4" ) );
 
-        assertEquals( key, new PartitionKeyN( tuple, asList( "val0", "val1", "val2", "val3", "val4" ) ) );
+        assertEquals( key, new PartitionKeyN( tuple, toFieldAccessors( asList( "val0", "val1", "val2", "val3", "val4" ) ) ) );
         assertEquals( key, extractor.getPartitionKey( tuple ) );
         assertEquals( key, asList( val0, val1, val2, val3, val4 ) );
 
@@ -208,10 +288,10 @@ public class PartitionKeyTest extends AbstractJokerTest
         tuple.set( "val3", val3 );
         tuple.set( "val4", val4 );
 
-        final PartitionKey key = new PartitionKeyNFwd1( tuple, asList( "val0", "val1", "val2", "val3", "val4" ) );
+        final PartitionKey key = new PartitionKeyNFwd1( tuple, toFieldAccessors( asList( "val0", "val1", "val2", "val3", "val4" ) ) );
         final PartitionKeyExtractor extractor = new PartitionKeyExtractorNFwd1( asList( "val0", "val1", "val2", "val3", "val4" ) );
 
-        assertEquals( key, new PartitionKeyNFwdM( tuple, asList( "val0", "val1", "val2", "val3", "val4" ), 1 ) );
+        assertEquals( key, new PartitionKeyNFwdM( tuple, toFieldAccessors( asList( "val0", "val1", "val2", "val3", "val4" ) ), 1 ) );
         assertEquals( key, extractor.getPartitionKey( tuple ) );
         assertEquals( key, asList( val0, val1, val2, val3, val4 ) );
 
@@ -222,7 +302,7 @@ public class PartitionKeyTest extends AbstractJokerTest
         assertEquals( key.partitionHashCode(), new PartitionKey1( val0 ).partitionHashCode() );
         assertEquals( key.partitionHashCode(), new PartitionKey2Fwd1( val0, "val1" ).partitionHashCode() );
         assertEquals( key.partitionHashCode(), new PartitionKey3Fwd1( val0, "val1", "val2" ).partitionHashCode() );
-        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd1( tuple, singletonList( "val0" ) ).partitionHashCode() );
+        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd1( tuple, toFieldAccessors( singletonList( "val0" ) ) ).partitionHashCode() );
     }
 
     @Test
@@ -235,10 +315,10 @@ public class PartitionKeyTest extends AbstractJokerTest
         tuple.set( "val3", val3 );
         tuple.set( "val4", val4 );
 
-        final PartitionKey key = new PartitionKeyNFwd2( tuple, asList( "val0", "val1", "val2", "val3", "val4" ) );
+        final PartitionKey key = new PartitionKeyNFwd2( tuple, toFieldAccessors( asList( "val0", "val1", "val2", "val3", "val4" ) ) );
         final PartitionKeyExtractor extractor = new PartitionKeyExtractorNFwd2( asList( "val0", "val1", "val2", "val3", "val4" ) );
 
-        assertEquals( key, new PartitionKeyNFwd2( tuple, asList( "val0", "val1", "val2", "val3", "val4" ) ) );
+        assertEquals( key, new PartitionKeyNFwd2( tuple, toFieldAccessors( asList( "val0", "val1", "val2", "val3", "val4" ) ) ) );
         assertEquals( key, extractor.getPartitionKey( tuple ) );
         assertEquals( key, asList( val0, val1, val2, val3, val4 ) );
 
@@ -248,7 +328,7 @@ public class PartitionKeyTest extends AbstractJokerTest
         assertEquals( extractor.getPartitionHash( tuple ), expectedPartitionHash );
         assertEquals( key.partitionHashCode(), new PartitionKey2( val0, val1 ).partitionHashCode() );
         assertEquals( key.partitionHashCode(), new PartitionKey3Fwd2( val0, val1, val2 ).partitionHashCode() );
-        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd2( tuple, asList( "val0", "val1" ) ).partitionHashCode() );
+        assertEquals( key.partitionHashCode(), new PartitionKeyNFwd2( tuple, toFieldAccessors( asList( "val0", "val1" ) ) ).partitionHashCode() );
     }
 
     @Test
@@ -261,10 +341,10 @@ public class PartitionKeyTest extends AbstractJokerTest
         tuple.set( "val3", val3 );
         tuple.set( "val4", val4 );
 
-        final PartitionKey key = new PartitionKeyNFwd3( tuple, asList( "val0", "val1", "val2", "val3", "val4" ) );
+        final PartitionKey key = new PartitionKeyNFwd3( tuple, toFieldAccessors( asList( "val0", "val1", "val2", "val3", "val4" ) ) );
         final PartitionKeyExtractor extractor = new PartitionKeyExtractorNFwd3( asList( "val0", "val1", "val2", "val3", "val4" ) );
 
-        assertEquals( key, new PartitionKeyNFwdM( tuple, asList( "val0", "val1", "val2", "val3", "val4" ), 2 ) );
+        assertEquals( key, new PartitionKeyNFwdM( tuple, toFieldAccessors( asList( "val0", "val1", "val2", "val3", "val4" ) ), 2 ) );
         assertEquals( key, extractor.getPartitionKey( tuple ) );
         assertEquals( key, asList( val0, val1, val2, val3, val4 ) );
 
@@ -285,10 +365,10 @@ public class PartitionKeyTest extends AbstractJokerTest
         tuple.set( "val3", val3 );
         tuple.set( "val4", val4 );
 
-        final PartitionKey key = new PartitionKeyNFwdM( tuple, asList( "val0", "val1", "val2", "val3", "val4" ), 4 );
+        final PartitionKey key = new PartitionKeyNFwdM( tuple, toFieldAccessors( asList( "val0", "val1", "val2", "val3", "val4" ) ), 4 );
         final PartitionKeyExtractor extractor = new PartitionKeyExtractorNFwdM( asList( "val0", "val1", "val2", "val3", "val4" ), 4 );
 
-        assertEquals( key, new PartitionKeyNFwdM( tuple, asList( "val0", "val1", "val2", "val3", "val4" ), 4 ) );
+        assertEquals( key, new PartitionKeyNFwdM( tuple, toFieldAccessors( asList( "val0", "val1", "val2", "val3", "val4" ) ), 4 ) );
         assertEquals( key, extractor.getPartitionKey( tuple ) );
         assertEquals( key, asList( val0, val1, val2, val3, val4 ) );
 
@@ -0,0 +1,111 @@
+package cs.bilkent.joker.engine.pipeline;
+
+import org.junit.Test;
+
+import static cs.bilkent.joker.engine.pipeline.AdaptiveBatchController.MIN_BATCH_SIZE;
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.impl.TuplesImpl;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class AdaptiveBatchControllerTest extends AbstractJokerTest
+{
+
+    private static final int INITIAL_BATCH_SIZE = 4;
+
+    private static final int MAX_BATCH_SIZE = 16;
+
+    private static final long TARGET_LATENCY_NANOS = 1000;
+
+    private final AdaptiveBatchController controller = new AdaptiveBatchController( INITIAL_BATCH_SIZE,
+                                                                                    MAX_BATCH_SIZE,
+                                                                                    TARGET_LATENCY_NANOS );
+
+    @Test
+    public void shouldGrowBatchSizeWhileFullBatchIsQueued ()
+    {
+        controller.update( 100, 1 );
+        assertThat( controller.getBatchSize(), equalTo( 8 ) );
+
+        controller.update( 100, 1 );
+        assertThat( controller.getBatchSize(), equalTo( MAX_BATCH_SIZE ) );
+
+        controller.update( 100, 1 );
+        assertThat( controller.getBatchSize(), equalTo( MAX_BATCH_SIZE ) );
+    }
+
+    @Test
+    public void shouldKeepBatchSizeWhenPartialBatchIsQueued ()
+    {
+        controller.update( INITIAL_BATCH_SIZE - 1, 1 );
+
+        assertThat( controller.getBatchSize(), equalTo( INITIAL_BATCH_SIZE ) );
+    }
+
+    @Test
+    public void shouldShrinkBatchSizeWhenQueueIsEmpty ()
+    {
+        controller.update( 0, 1 );
+        assertThat( controller.getBatchSize(), equalTo( 2 ) );
+
+        controller.update( 0, 1 );
+        controller.update( 0, 1 );
+        assertThat( controller.getBatchSize(), equalTo( MIN_BATCH_SIZE ) );
+    }
+
+    @Test
+    public void shouldInvokeForQueuedBatches ()
+    {
+        assertThat( controller.update( 40, 1 ), equalTo( 5 ) );
+    }
+
+    @Test
+    public void shouldNotInvokeLessThanDrainCountHint ()
+    {
+        assertThat( controller.update( 0, 3 ), equalTo( 3 ) );
+    }
+
+    @Test
+    public void shouldBoundBatchSizeAndInvocationCountByTargetLatency ()
+    {
+        // 100 nanos per tuple, hence 10 tuples in the target latency
+        controller.onInvocation( newTuples( 10 ), 1000 );
+        assertThat( controller.getCostPerTupleNanos(), equalTo( 100L ) );
+
+        assertThat( controller.update( 100, 1 ), equalTo( 1 ) );
+        assertThat( controller.getBatchSize(), equalTo( 8 ) );
+
+        assertThat( controller.update( 100, 1 ), equalTo( 1 ) );
+        assertThat( controller.getBatchSize(), equalTo( 10 ) );
+    }
+
+    @Test
+    public void shouldAverageInvocationCosts ()
+    {
+        controller.onInvocation( newTuples( 1 ), 100 );
+        controller.onInvocation( newTuples( 1 ), 900 );
+
+        assertThat( controller.getCostPerTupleNanos(), equalTo( 200L ) );
+    }
+
+    @Test
+    public void shouldIgnoreInvocationsWithoutTuples ()
+    {
+        controller.onInvocation( new TuplesImpl( 1 ), 1000 );
+
+        assertThat( controller.getCostPerTupleNanos(), equalTo( 0L ) );
+    }
+
+    private TuplesImpl newTuples ( final int count )
+    {
+        final TuplesImpl tuples = new TuplesImpl( 1 );
+        for ( int i = 0; i < count; i++ )
+        {
+            tuples.add( new Tuple() );
+        }
+
+        return tuples;
+    }
+
+}
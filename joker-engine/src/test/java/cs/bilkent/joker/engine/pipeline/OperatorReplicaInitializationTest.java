@@ -31,7 +31,10 @@ import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByCount.AT_LEAST;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.scheduleWhenTuplesAvailableOnAll;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.scheduleWhenTuplesAvailableOnAny;
+import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailableOrTimeout;
+import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailableOrTimeout.scheduleWhenTuplesAvailableOrTimeoutOnDefaultPort;
 import cs.bilkent.joker.operator.scheduling.SchedulingStrategy;
+import static cs.bilkent.joker.operator.spec.OperatorType.PARTITIONED_STATEFUL;
 import cs.bilkent.joker.test.AbstractJokerTest;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -123,6 +126,14 @@ public class OperatorReplicaInitializationTest extends AbstractJokerTest
                                               newUpstreamContextInstance( 0, inputPortCount, ACTIVE ) );
     }
 
+    @Test
+    public void shouldInitializeOperatorReplicaWhenOperatorInitializationSucceeds_ScheduleWhenTuplesAvailableOrTimeout ()
+    {
+        final int inputPortCount = 1;
+        final ScheduleWhenTuplesAvailableOrTimeout schedulingStrategy = scheduleWhenTuplesAvailableOrTimeoutOnDefaultPort( 2, 100 );
+        shouldInitializeOperatorSuccessfully( inputPortCount, schedulingStrategy, newUpstreamContextInstance( 0, inputPortCount, ACTIVE ) );
+    }
+
     public void shouldInitializeOperatorSuccessfully ( final int inputPortCount,
                                                        final SchedulingStrategy schedulingStrategy,
                                                        final UpstreamContext upstreamContext )
@@ -211,6 +222,16 @@ public class OperatorReplicaInitializationTest extends AbstractJokerTest
                                               newUpstreamContextInstance( 1, 1, ACTIVE ) );
     }
 
+    @Test
+    public void shouldFailWhenPartitionedStatefulOperatorInitializationReturnsScheduleWhenTuplesAvailableOrTimeout ()
+    {
+        when( operatorDef.getOperatorType() ).thenReturn( PARTITIONED_STATEFUL );
+        final int inputPortCount = 1;
+        shouldFailToInitializeOperator( inputPortCount,
+                                        scheduleWhenTuplesAvailableOrTimeoutOnDefaultPort( 2, 100 ),
+                                        newUpstreamContextInstance( 0, inputPortCount, ACTIVE ) );
+    }
+
     private void shouldFailToInitializeOperator ( final int inputPortCount,
                                                   final SchedulingStrategy schedulingStrategy,
                                                   final UpstreamContext upstreamContext )
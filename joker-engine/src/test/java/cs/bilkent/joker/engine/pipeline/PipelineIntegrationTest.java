@@ -24,6 +24,7 @@ import cs.bilkent.joker.engine.flow.PipelineId;
 import cs.bilkent.joker.engine.kvstore.OperatorKVStore;
 import cs.bilkent.joker.engine.kvstore.impl.KVStoreContainer;
 import cs.bilkent.joker.engine.kvstore.impl.OperatorKVStoreManagerImpl;
+import cs.bilkent.joker.engine.metric.IdleTimeMeter;
 import cs.bilkent.joker.engine.metric.PipelineReplicaMeter;
 import cs.bilkent.joker.engine.partition.PartitionDistribution;
 import cs.bilkent.joker.engine.partition.PartitionService;
@@ -37,6 +38,8 @@ import cs.bilkent.joker.engine.supervisor.Supervisor;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueueDrainerPool;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueSpillMetrics;
 import cs.bilkent.joker.engine.tuplequeue.impl.OperatorTupleQueueManagerImpl;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.pool.BlockingTupleQueueDrainerPool;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.pool.NonBlockingTupleQueueDrainerPool;
@@ -44,6 +47,8 @@ import cs.bilkent.joker.engine.tuplequeue.impl.operator.EmptyOperatorTupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.impl.queue.MultiThreadedTupleQueue;
 import cs.bilkent.joker.engine.util.concurrent.BackoffIdleStrategy;
 import cs.bilkent.joker.engine.util.concurrent.IdleStrategy;
+import cs.bilkent.joker.operator.ColumnarTuples;
+import cs.bilkent.joker.operator.ColumnarTuples.RowPredicate;
 import cs.bilkent.joker.operator.InitializationContext;
 import cs.bilkent.joker.operator.InvocationContext;
 import cs.bilkent.joker.operator.Operator;
@@ -63,20 +68,27 @@ import cs.bilkent.joker.operator.schema.annotation.OperatorSchema;
 import cs.bilkent.joker.operator.schema.annotation.PortSchema;
 import static cs.bilkent.joker.operator.schema.annotation.PortSchemaScope.EXACT_FIELD_SET;
 import cs.bilkent.joker.operator.schema.annotation.SchemaField;
+import cs.bilkent.joker.operator.schema.runtime.OperatorRuntimeSchemaBuilder;
 import cs.bilkent.joker.operator.spec.OperatorSpec;
 import static cs.bilkent.joker.operator.spec.OperatorType.PARTITIONED_STATEFUL;
 import static cs.bilkent.joker.operator.spec.OperatorType.STATEFUL;
 import static cs.bilkent.joker.operator.spec.OperatorType.STATELESS;
 import cs.bilkent.joker.operators.FilterOperator;
+import static cs.bilkent.joker.operators.FilterOperator.COLUMNAR_PREDICATE_CONFIG_PARAMETER;
 import static cs.bilkent.joker.operators.FilterOperator.PREDICATE_CONFIG_PARAMETER;
 import cs.bilkent.joker.operators.MapperOperator;
+import static cs.bilkent.joker.operators.MapperOperator.COLUMNAR_MAPPER_CONFIG_PARAMETER;
 import static cs.bilkent.joker.operators.MapperOperator.MAPPER_CONFIG_PARAMETER;
 import cs.bilkent.joker.test.AbstractJokerTest;
 import cs.bilkent.joker.utils.Pair;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -94,10 +106,14 @@ public class PipelineIntegrationTest extends AbstractJokerTest
     private final PartitionService partitionService = new PartitionServiceImpl( jokerConfig );
 
     private final OperatorTupleQueueManagerImpl operatorTupleQueueManager = new OperatorTupleQueueManagerImpl( jokerConfig,
-                                                                                                               new PartitionKeyExtractorFactoryImpl() );
+                                                                                                               new PartitionKeyExtractorFactoryImpl(),
+                                                                                                               new TupleQueueMemoryBudget( jokerConfig ),
+                                                                                                               new TupleQueueSpillMetrics() );
 
     private final OperatorKVStoreManagerImpl operatorKVStoreManager = new OperatorKVStoreManagerImpl();
 
+    private final IdleTimeMeter idleTimeMeter = new IdleTimeMeter();
+
     private final OperatorKVStore nopOperatorKvStore = mock( OperatorKVStore.class );
 
     private final PipelineReplicaId pipelineReplicaId1 = new PipelineReplicaId( new PipelineId( 0, 0 ), 0 );
@@ -126,7 +142,7 @@ public class PipelineIntegrationTest extends AbstractJokerTest
                                                                                                                  REPLICA_INDEX,
                                                                                                                  mapperOperatorDef,
                                                                                                                  MULTI_THREADED );
-        final TupleQueueDrainerPool drainerPool = new BlockingTupleQueueDrainerPool( jokerConfig, mapperOperatorDef );
+        final TupleQueueDrainerPool drainerPool = new BlockingTupleQueueDrainerPool( jokerConfig, mapperOperatorDef, idleTimeMeter );
         final Supplier<TuplesImpl> tuplesImplSupplier = new NonCachedTuplesImplSupplier( mapperOperatorDef.getOutputPortCount() );
         final OperatorReplica mapperOperator = new OperatorReplica( pipelineReplicaId1,
                                                                     mapperOperatorDef,
@@ -201,7 +217,7 @@ public class PipelineIntegrationTest extends AbstractJokerTest
                                                                                                                        mapperOperatorDef,
                                                                                                                        MULTI_THREADED );
 
-        final TupleQueueDrainerPool mapperDrainerPool = new BlockingTupleQueueDrainerPool( jokerConfig, mapperOperatorDef );
+        final TupleQueueDrainerPool mapperDrainerPool = new BlockingTupleQueueDrainerPool( jokerConfig, mapperOperatorDef, idleTimeMeter );
         final Supplier<TuplesImpl> mapperTuplesImplSupplier = new CachedTuplesImplSupplier( mapperOperatorDef.getOutputPortCount() );
         final OperatorReplica mapperOperator = new OperatorReplica( pipelineReplicaId1,
                                                                     mapperOperatorDef,
@@ -275,6 +291,218 @@ public class PipelineIntegrationTest extends AbstractJokerTest
         runnerThread.join();
     }
 
+    @Test
+    public void testPipelineWithColumnarOperators () throws ExecutionException, InterruptedException
+    {
+        final OperatorConfig mapperOperatorConfig = new OperatorConfig();
+        final BiConsumer<Tuple, Tuple> add1 = ( input, output ) -> output.setInteger( "val",
+                                                                                      1 + input.getIntegerValueOrDefault( "val", -1 ) );
+        mapperOperatorConfig.set( MAPPER_CONFIG_PARAMETER, add1 );
+        final OperatorRuntimeSchemaBuilder mapperSchemaBuilder = new OperatorRuntimeSchemaBuilder( 1, 1 );
+        mapperSchemaBuilder.addOutputField( 0, "val", int.class );
+        final OperatorDef mapperOperatorDef = OperatorDefBuilder.newInstance( "map", MapperOperator.class )
+                                                                .setExtendingSchema( mapperSchemaBuilder )
+                                                                .setConfig( mapperOperatorConfig )
+                                                                .build();
+
+        final OperatorConfig filterOperatorConfig = new OperatorConfig();
+        final RowPredicate filterEvenVals = ( tuples, row ) -> tuples.getIntegerColumn( 0 )[ row ] % 2 == 0;
+        filterOperatorConfig.set( COLUMNAR_PREDICATE_CONFIG_PARAMETER, filterEvenVals );
+        final OperatorDef filterOperatorDef = OperatorDefBuilder.newInstance( "filter", FilterOperator.class )
+                                                                .setConfig( filterOperatorConfig )
+                                                                .build();
+
+        final OperatorConfig columnarMapperOperatorConfig = new OperatorConfig();
+        final BiConsumer<ColumnarTuples, ColumnarTuples> multiplyBy10 = ( input, output ) ->
+        {
+            final int[] vals = input.getIntegerColumn( 0 );
+            final long[] multipliedVals = output.getLongColumn( 0 );
+            for ( int i = 0; i < input.getSelectedCount(); i++ )
+            {
+                multipliedVals[ i ] = 10L * vals[ input.getSelectedRow( i ) ];
+            }
+        };
+        columnarMapperOperatorConfig.set( COLUMNAR_MAPPER_CONFIG_PARAMETER, multiplyBy10 );
+        final OperatorRuntimeSchemaBuilder columnarMapperSchemaBuilder = new OperatorRuntimeSchemaBuilder( 1, 1 );
+        columnarMapperSchemaBuilder.addOutputField( 0, "val", long.class );
+        final OperatorDef columnarMapperOperatorDef = OperatorDefBuilder.newInstance( "columnarMap", MapperOperator.class )
+                                                                        .setExtendingSchema( columnarMapperSchemaBuilder )
+                                                                        .setConfig( columnarMapperOperatorConfig )
+                                                                        .build();
+
+        final PipelineReplicaMeter pipelineReplicaMeter = new PipelineReplicaMeter( jokerConfig.getMetricManagerConfig().getTickMask(),
+                                                                                    pipelineReplicaId1,
+                                                                                    mapperOperatorDef );
+
+        final OperatorTupleQueue mapperOperatorTupleQueue = operatorTupleQueueManager.createDefaultOperatorTupleQueue( REGION_ID,
+                                                                                                                       REPLICA_INDEX,
+                                                                                                                       mapperOperatorDef,
+                                                                                                                       MULTI_THREADED );
+        final OperatorReplica mapperOperator = new OperatorReplica( pipelineReplicaId1,
+                                                                    mapperOperatorDef,
+                                                                    mapperOperatorTupleQueue,
+                                                                    nopOperatorKvStore,
+                                                                    new BlockingTupleQueueDrainerPool( jokerConfig, mapperOperatorDef, idleTimeMeter ),
+                                                                    new CachedTuplesImplSupplier( mapperOperatorDef.getOutputPortCount() ),
+                                                                    pipelineReplicaMeter );
+
+        final OperatorReplica filterOperator = createSingleThreadedOperatorReplica( filterOperatorDef, pipelineReplicaMeter );
+        final OperatorReplica columnarMapperOperator = createSingleThreadedOperatorReplica( columnarMapperOperatorDef,
+                                                                                            pipelineReplicaMeter );
+
+        final PipelineReplica pipeline = new PipelineReplica( jokerConfig,
+                                                              pipelineReplicaId1,
+                                                              new OperatorReplica[] { mapperOperator, filterOperator,
+                                                                                      columnarMapperOperator },
+                                                              new EmptyOperatorTupleQueue( "map", mapperOperatorDef.getInputPortCount() ),
+                                                              pipelineReplicaMeter );
+
+        final Supervisor supervisor = mock( Supervisor.class );
+
+        pipeline.init( new UpstreamContext( 0, new UpstreamConnectionStatus[] { ACTIVE } ) );
+
+        final TupleCollectorDownstreamTupleSender tupleCollector = new TupleCollectorDownstreamTupleSender( columnarMapperOperatorDef
+                                                                                                                    .getOutputPortCount() );
+
+        final PipelineReplicaRunner runner = new PipelineReplicaRunner( jokerConfig, pipeline, supervisor, tupleCollector );
+
+        final Thread runnerThread = spawnThread( runner );
+
+        final int tupleCount = 200;
+        for ( int i = 0; i < tupleCount; i++ )
+        {
+            final Tuple tuple = new Tuple();
+            tuple.set( "val", i );
+            mapperOperatorTupleQueue.offer( 0, singletonList( tuple ) );
+        }
+
+        final int evenValCount = tupleCount / 2;
+        assertTrueEventually( () -> assertEquals( evenValCount, tupleCollector.tupleQueues[ 0 ].size() ) );
+        final List<Tuple> tuples = tupleCollector.tupleQueues[ 0 ].poll( Integer.MAX_VALUE );
+        for ( int i = 0; i < evenValCount; i++ )
+        {
+            final Tuple tuple = tuples.get( i );
+            assertEquals( columnarMapperOperatorDef.getSchema().getOutputSchema( 0 ), tuple.getSchema() );
+            assertEquals( 10L * ( 2 * i + 2 ), tuple.getLongValueOrDefault( "val", -1 ) );
+        }
+
+        final UpstreamContext updatedUpstreamContext = new UpstreamContext( 1, new UpstreamConnectionStatus[] { CLOSED } );
+        when( supervisor.getUpstreamContext( pipelineReplicaId1 ) ).thenReturn( updatedUpstreamContext );
+        runner.updatePipelineUpstreamContext();
+        runnerThread.join();
+    }
+
+    @Test
+    public void testPipelineWithFusedOperators () throws ExecutionException, InterruptedException
+    {
+        final OperatorConfig mapperOperatorConfig = new OperatorConfig();
+        final BiConsumer<Tuple, Tuple> add1 = ( input, output ) -> output.set( "val", 1 + input.getIntegerValueOrDefault( "val", -1 ) );
+        mapperOperatorConfig.set( MAPPER_CONFIG_PARAMETER, add1 );
+        final OperatorDef mapperOperatorDef = OperatorDefBuilder.newInstance( "map", MapperOperator.class )
+                                                                .setConfig( mapperOperatorConfig )
+                                                                .build();
+
+        final OperatorConfig filterOperatorConfig = new OperatorConfig();
+        final Predicate<Tuple> filterEvenVals = tuple -> tuple.getInteger( "val" ) % 2 == 0;
+        filterOperatorConfig.set( PREDICATE_CONFIG_PARAMETER, filterEvenVals );
+        final OperatorDef filterOperatorDef = OperatorDefBuilder.newInstance( "filter", FilterOperator.class )
+                                                                .setConfig( filterOperatorConfig )
+                                                                .build();
+
+        final OperatorConfig multiplierOperatorConfig = new OperatorConfig();
+        final BiConsumer<Tuple, Tuple> multiplyBy10 = ( input, output ) -> output.set( "val", 10 * input.getInteger( "val" ) );
+        multiplierOperatorConfig.set( MAPPER_CONFIG_PARAMETER, multiplyBy10 );
+        final OperatorDef multiplierOperatorDef = OperatorDefBuilder.newInstance( "multiply", MapperOperator.class )
+                                                                    .setConfig( multiplierOperatorConfig )
+                                                                    .build();
+
+        final PipelineReplicaMeter pipelineReplicaMeter = new PipelineReplicaMeter( jokerConfig.getMetricManagerConfig().getTickMask(),
+                                                                                    pipelineReplicaId1,
+                                                                                    mapperOperatorDef );
+
+        final OperatorTupleQueue mapperOperatorTupleQueue = operatorTupleQueueManager.createDefaultOperatorTupleQueue( REGION_ID,
+                                                                                                                       REPLICA_INDEX,
+                                                                                                                       mapperOperatorDef,
+                                                                                                                       MULTI_THREADED );
+        final OperatorReplica mapperOperator = new OperatorReplica( pipelineReplicaId1,
+                                                                    mapperOperatorDef,
+                                                                    mapperOperatorTupleQueue,
+                                                                    nopOperatorKvStore,
+                                                                    new BlockingTupleQueueDrainerPool( jokerConfig, mapperOperatorDef, idleTimeMeter ),
+                                                                    new CachedTuplesImplSupplier( mapperOperatorDef.getOutputPortCount() ),
+                                                                    pipelineReplicaMeter );
+
+        final OperatorTupleQueue filterOperatorTupleQueue = spy( operatorTupleQueueManager.createDefaultOperatorTupleQueue( REGION_ID,
+                                                                                                                            REPLICA_INDEX,
+                                                                                                                            filterOperatorDef,
+                                                                                                                            SINGLE_THREADED ) );
+        final OperatorReplica filterOperator = new OperatorReplica( pipelineReplicaId1,
+                                                                    filterOperatorDef,
+                                                                    filterOperatorTupleQueue,
+                                                                    nopOperatorKvStore,
+                                                                    new NonBlockingTupleQueueDrainerPool( jokerConfig, filterOperatorDef ),
+                                                                    new CachedTuplesImplSupplier( filterOperatorDef.getOutputPortCount() ),
+                                                                    pipelineReplicaMeter );
+
+        final OperatorReplica multiplierOperator = createSingleThreadedOperatorReplica( multiplierOperatorDef, pipelineReplicaMeter );
+
+        final PipelineReplica pipeline = new PipelineReplica( jokerConfig,
+                                                              pipelineReplicaId1,
+                                                              new OperatorReplica[] { mapperOperator, filterOperator, multiplierOperator },
+                                                              new EmptyOperatorTupleQueue( "map", mapperOperatorDef.getInputPortCount() ),
+                                                              pipelineReplicaMeter );
+
+        final Supervisor supervisor = mock( Supervisor.class );
+
+        pipeline.init( new UpstreamContext( 0, new UpstreamConnectionStatus[] { ACTIVE } ) );
+
+        final TupleCollectorDownstreamTupleSender tupleCollector = new TupleCollectorDownstreamTupleSender( multiplierOperatorDef
+                                                                                                                    .getOutputPortCount() );
+
+        final PipelineReplicaRunner runner = new PipelineReplicaRunner( jokerConfig, pipeline, supervisor, tupleCollector );
+
+        final Thread runnerThread = spawnThread( runner );
+
+        final int tupleCount = 200;
+        for ( int i = 0; i < tupleCount; i++ )
+        {
+            final Tuple tuple = new Tuple();
+            tuple.set( "val", i );
+            mapperOperatorTupleQueue.offer( 0, singletonList( tuple ) );
+        }
+
+        final int evenValCount = tupleCount / 2;
+        assertTrueEventually( () -> assertEquals( evenValCount, tupleCollector.tupleQueues[ 0 ].size() ) );
+        final List<Tuple> tuples = tupleCollector.tupleQueues[ 0 ].poll( Integer.MAX_VALUE );
+        for ( int i = 0; i < evenValCount; i++ )
+        {
+            assertEquals( 10 * ( 2 * i + 2 ), tuples.get( i ).getIntegerValueOrDefault( "val", -1 ) );
+        }
+
+        verify( filterOperatorTupleQueue, never() ).offer( anyInt(), anyListOf( Tuple.class ) );
+
+        final UpstreamContext updatedUpstreamContext = new UpstreamContext( 1, new UpstreamConnectionStatus[] { CLOSED } );
+        when( supervisor.getUpstreamContext( pipelineReplicaId1 ) ).thenReturn( updatedUpstreamContext );
+        runner.updatePipelineUpstreamContext();
+        runnerThread.join();
+    }
+
+    private OperatorReplica createSingleThreadedOperatorReplica ( final OperatorDef operatorDef,
+                                                                  final PipelineReplicaMeter pipelineReplicaMeter )
+    {
+        final OperatorTupleQueue operatorTupleQueue = operatorTupleQueueManager.createDefaultOperatorTupleQueue( REGION_ID,
+                                                                                                                 REPLICA_INDEX,
+                                                                                                                 operatorDef,
+                                                                                                                 SINGLE_THREADED );
+        return new OperatorReplica( pipelineReplicaId1,
+                                    operatorDef,
+                                    operatorTupleQueue,
+                                    nopOperatorKvStore,
+                                    new NonBlockingTupleQueueDrainerPool( jokerConfig, operatorDef ),
+                                    new CachedTuplesImplSupplier( operatorDef.getOutputPortCount() ),
+                                    pipelineReplicaMeter );
+    }
+
     @Test
     public void testPipelineWithMultipleOperators_pipelineUpstreamClosed_0inputOperator () throws InterruptedException
     {
@@ -403,7 +631,7 @@ public class PipelineIntegrationTest extends AbstractJokerTest
                                                                                                                        mapperOperatorDef,
                                                                                                                        MULTI_THREADED );
 
-        final TupleQueueDrainerPool mapperDrainerPool = new BlockingTupleQueueDrainerPool( jokerConfig, mapperOperatorDef );
+        final TupleQueueDrainerPool mapperDrainerPool = new BlockingTupleQueueDrainerPool( jokerConfig, mapperOperatorDef, idleTimeMeter );
         final Supplier<TuplesImpl> mapperTuplesImplSupplier = new NonCachedTuplesImplSupplier( mapperOperatorDef.getOutputPortCount() );
 
         final PipelineReplicaMeter pipelineReplicaMeter1 = new PipelineReplicaMeter( jokerConfig.getMetricManagerConfig().getTickMask(),
@@ -439,7 +667,7 @@ public class PipelineIntegrationTest extends AbstractJokerTest
         final DownstreamTupleSenderImpl tupleSender = new DownstreamTupleSenderImpl( filterOperatorTupleQueue,
                                                                                      new Pair[] { Pair.of( 0, 0 ) } );
 
-        final TupleQueueDrainerPool filterDrainerPool = new BlockingTupleQueueDrainerPool( jokerConfig, filterOperatorDef );
+        final TupleQueueDrainerPool filterDrainerPool = new BlockingTupleQueueDrainerPool( jokerConfig, filterOperatorDef, idleTimeMeter );
         final Supplier<TuplesImpl> filterTuplesImplSupplier = new NonCachedTuplesImplSupplier( filterOperatorDef.getInputPortCount() );
 
         final PipelineReplicaMeter pipelineReplicaMeter2 = new PipelineReplicaMeter( jokerConfig.getMetricManagerConfig().getTickMask(),
@@ -608,7 +836,7 @@ public class PipelineIntegrationTest extends AbstractJokerTest
                                                                                                                      REPLICA_INDEX,
                                                                                                                      sinkOperatorDef,
                                                                                                                      MULTI_THREADED );
-        final TupleQueueDrainerPool sinkDrainerPool = new BlockingTupleQueueDrainerPool( jokerConfig, sinkOperatorDef );
+        final TupleQueueDrainerPool sinkDrainerPool = new BlockingTupleQueueDrainerPool( jokerConfig, sinkOperatorDef, idleTimeMeter );
         final Supplier<TuplesImpl> sinkTuplesImplSupplier = new CachedTuplesImplSupplier( sinkOperatorDef.getOutputPortCount() );
         final OperatorKVStore sinkOperatorKVStore = operatorKVStoreManager.createDefaultOperatorKVStore( REGION_ID, "sink" );
         final OperatorReplica sinkOperator = new OperatorReplica( pipelineReplicaId3,
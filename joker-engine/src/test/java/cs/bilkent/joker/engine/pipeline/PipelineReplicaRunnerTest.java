@@ -1,9 +1,12 @@
 package cs.bilkent.joker.engine.pipeline;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.After;
 import org.junit.Before;
@@ -14,11 +17,13 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
 import cs.bilkent.joker.engine.config.JokerConfig;
+import cs.bilkent.joker.engine.config.JokerConfigBuilder;
 import cs.bilkent.joker.engine.flow.PipelineId;
 import cs.bilkent.joker.engine.metric.PipelineReplicaMeter;
 import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineReplicaRunnerStatus.COMPLETED;
 import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineReplicaRunnerStatus.PAUSED;
 import static cs.bilkent.joker.engine.pipeline.UpstreamConnectionStatus.CLOSED;
+import cs.bilkent.joker.engine.pipeline.impl.tuplesupplier.DoubleBufferedTuplesImplSupplier;
 import cs.bilkent.joker.engine.supervisor.Supervisor;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
 import cs.bilkent.joker.operator.OperatorDef;
@@ -33,8 +38,10 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -347,4 +354,122 @@ public class PipelineReplicaRunnerTest extends AbstractJokerTest
         verify( supervisor ).notifyPipelineReplicaFailed( id, failure );
     }
 
+    @Test
+    public void shouldInvokePipelineWhileLastOutputIsSentAsynchronously () throws InterruptedException
+    {
+        final JokerConfigBuilder configBuilder = new JokerConfigBuilder();
+        configBuilder.getPipelineReplicaRunnerConfigBuilder().enableAsyncDownstreamSending();
+        runner = new PipelineReplicaRunner( configBuilder.build(), pipeline, supervisor, downstreamTupleSender );
+        thread = new Thread( runner );
+
+        final DoubleBufferedTuplesImplSupplier outputSupplier = new DoubleBufferedTuplesImplSupplier( inputOutputPortCount );
+        when( operator.getOutputSupplier() ).thenReturn( outputSupplier );
+        when( operator.invoke( anyBoolean(), anyObject(), anyObject() ) ).thenAnswer( invocation -> {
+            final TuplesImpl output = outputSupplier.get();
+            output.add( new Tuple() );
+            return output;
+        } );
+
+        final CountDownLatch sendLatch = new CountDownLatch( 1 );
+        final List<TuplesImpl> sentOutputs = new CopyOnWriteArrayList<>();
+        final List<Thread> senderThreads = new CopyOnWriteArrayList<>();
+        when( downstreamTupleSender.send( anyObject() ) ).thenAnswer( invocation -> {
+            sentOutputs.add( (TuplesImpl) invocation.getArguments()[ 0 ] );
+            senderThreads.add( Thread.currentThread() );
+            sendLatch.await();
+            return null;
+        } );
+
+        thread.start();
+
+        // the second output is computed while the first one is being sent
+        assertTrueEventually( () -> verify( operator, atLeast( 2 ) ).invoke( anyBoolean(), anyObject(), anyObject() ) );
+        assertThat( sentOutputs.size(), equalTo( 1 ) );
+        assertThat( senderThreads.get( 0 ) != thread, equalTo( true ) );
+
+        sendLatch.countDown();
+
+        assertTrueEventually( () -> assertTrue( sentOutputs.size() >= 2 ) );
+        assertThat( sentOutputs.get( 0 ) != sentOutputs.get( 1 ), equalTo( true ) );
+    }
+
+    @Test
+    public void shouldInvokePipelineWhileDownstreamTupleQueuesAreFull ()
+    {
+        final JokerConfigBuilder configBuilder = new JokerConfigBuilder();
+        configBuilder.getPipelineReplicaRunnerConfigBuilder().enablePartialDownstreamSending();
+        runner = new PipelineReplicaRunner( configBuilder.build(), pipeline, supervisor, downstreamTupleSender );
+        thread = new Thread( runner );
+
+        when( operator.invoke( anyBoolean(), anyObject(), anyObject() ) ).thenAnswer( invocation -> {
+            final TuplesImpl output = new TuplesImpl( inputOutputPortCount );
+            output.add( new Tuple() );
+            return output;
+        } );
+
+        final AtomicBoolean downstreamFull = new AtomicBoolean( true );
+        when( downstreamTupleSender.trySend( anyObject() ) ).thenAnswer( invocation -> !downstreamFull.get() );
+
+        thread.start();
+
+        assertTrueEventually( () -> verify( operator, atLeast( 3 ) ).invoke( anyBoolean(), anyObject(), anyObject() ) );
+
+        downstreamFull.set( false );
+
+        assertTrueEventually( () -> verify( downstreamTupleSender, atLeast( 3 ) ).trySend( anyObject() ) );
+        verify( downstreamTupleSender, never() ).send( anyObject() );
+    }
+
+    @Test
+    public void shouldSendPendingOutputsWhenMaxPendingDownstreamTupleCountIsExceeded ()
+    {
+        final JokerConfigBuilder configBuilder = new JokerConfigBuilder();
+        configBuilder.getPipelineReplicaRunnerConfigBuilder().enablePartialDownstreamSending().setMaxPendingDownstreamTupleCount( 2 );
+        runner = new PipelineReplicaRunner( configBuilder.build(), pipeline, supervisor, downstreamTupleSender );
+        thread = new Thread( runner );
+
+        when( operator.invoke( anyBoolean(), anyObject(), anyObject() ) ).thenAnswer( invocation -> {
+            final TuplesImpl output = new TuplesImpl( inputOutputPortCount );
+            output.add( new Tuple() );
+            return output;
+        } );
+        when( downstreamTupleSender.trySend( anyObject() ) ).thenReturn( false );
+
+        thread.start();
+
+        assertTrueEventually( () -> verify( downstreamTupleSender, atLeastOnce() ).send( anyObject() ) );
+    }
+
+    @Test
+    public void shouldMeterDownstreamBlockedTimeOfScheduledRunnerUntilPendingOutputsAreSent ()
+    {
+        final JokerConfigBuilder configBuilder = new JokerConfigBuilder();
+        configBuilder.getPipelineReplicaRunnerConfigBuilder().enablePooledScheduling().setMaxPendingDownstreamTupleCount( 1 );
+        runner = new PipelineReplicaRunner( configBuilder.build(), pipeline, supervisor, downstreamTupleSender );
+        thread = new Thread( () -> {
+            while ( runner.getStatus() != COMPLETED )
+            {
+                runner.runScheduled( 1 );
+            }
+        } );
+
+        when( operator.invoke( anyBoolean(), anyObject(), anyObject() ) ).thenAnswer( invocation -> {
+            final TuplesImpl output = new TuplesImpl( inputOutputPortCount );
+            output.add( new Tuple() );
+            return output;
+        } );
+
+        final AtomicBoolean downstreamFull = new AtomicBoolean( true );
+        when( downstreamTupleSender.trySend( anyObject() ) ).thenAnswer( invocation -> !downstreamFull.get() );
+
+        thread.start();
+
+        assertTrueEventually( () -> verify( downstreamTupleSender, atLeast( 3 ) ).trySend( anyObject() ) );
+        assertEquals( 0, pipeline.getMeter().getDownstreamBlockedTimeInNanos() );
+
+        downstreamFull.set( false );
+
+        assertTrueEventually( () -> assertTrue( pipeline.getMeter().getDownstreamBlockedTimeInNanos() > 0 ) );
+    }
+
 }
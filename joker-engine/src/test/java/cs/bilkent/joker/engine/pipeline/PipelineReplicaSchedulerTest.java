@@ -0,0 +1,221 @@
+package cs.bilkent.joker.engine.pipeline;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import cs.bilkent.joker.engine.config.JokerConfig;
+import cs.bilkent.joker.engine.config.JokerConfigBuilder;
+import cs.bilkent.joker.engine.flow.PipelineId;
+import cs.bilkent.joker.engine.metric.IdleTimeMeter;
+import cs.bilkent.joker.engine.metric.PipelineReplicaMeter;
+import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineReplicaRunnerStatus.COMPLETED;
+import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineReplicaRunnerStatus.PAUSED;
+import static cs.bilkent.joker.engine.pipeline.PipelineReplicaRunner.PipelineReplicaRunnerStatus.RUNNING;
+import cs.bilkent.joker.engine.supervisor.Supervisor;
+import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
+import cs.bilkent.joker.operator.OperatorDef;
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.impl.TuplesImpl;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith( MockitoJUnitRunner.class )
+public class PipelineReplicaSchedulerTest extends AbstractJokerTest
+{
+
+    @Mock
+    private OperatorDef operatorDef;
+
+    @Mock
+    private Supervisor supervisor;
+
+    @Mock
+    private UpstreamContext upstreamContext;
+
+    @Mock
+    private DownstreamTupleSender downstreamTupleSender;
+
+    private JokerConfig config;
+
+    private PipelineReplicaScheduler scheduler;
+
+    @Before
+    public void init ()
+    {
+        when( operatorDef.getId() ).thenReturn( "op1" );
+        when( operatorDef.getInputPortCount() ).thenReturn( 1 );
+        when( operatorDef.getOutputPortCount() ).thenReturn( 1 );
+
+        final JokerConfigBuilder builder = new JokerConfigBuilder();
+        builder.getPipelineReplicaRunnerConfigBuilder().enablePooledScheduling().setSchedulerWorkerCount( 2 );
+        config = builder.build();
+        scheduler = new PipelineReplicaScheduler( config, new IdleTimeMeter(), new ThreadGroup( "test" ) );
+    }
+
+    @Test
+    public void shouldRunScheduledRunnerUntilStopped () throws ExecutionException, InterruptedException
+    {
+        final OperatorReplica operator = newOperator();
+        final PipelineReplicaRunner runner = newRunner( 0, operator );
+
+        scheduler.schedule( runner );
+
+        assertTrueEventually( () -> verify( operator, atLeastOnce() ).invoke( anyBoolean(), anyObject(), anyObject() ) );
+
+        runner.stop().get();
+
+        assertEquals( COMPLETED, runner.getStatus() );
+        assertTrueEventually( () -> assertEquals( 0, scheduler.getRunnerCount() ) );
+    }
+
+    @Test
+    public void shouldPauseAndResumeScheduledRunner () throws ExecutionException, InterruptedException
+    {
+        final PipelineReplicaRunner runner = newRunner( 0, newOperator() );
+        scheduler.schedule( runner );
+
+        runner.pause().get();
+        assertEquals( PAUSED, runner.getStatus() );
+
+        runner.resume().get();
+        assertEquals( RUNNING, runner.getStatus() );
+
+        runner.stop().get();
+    }
+
+    @Test
+    public void shouldCompleteScheduledRunnerWhenPipelineCompletes ()
+    {
+        final PipelineReplica pipeline = newPipeline( 0, newOperator() );
+        final PipelineReplicaRunner runner = new PipelineReplicaRunner( config, pipeline, supervisor, downstreamTupleSender );
+        scheduler.schedule( runner );
+
+        pipeline.getPipelineReplicaCompletionTracker().onStatusChange( "op1", OperatorReplicaStatus.COMPLETED );
+
+        assertTrueEventually( () -> assertEquals( COMPLETED, runner.getStatus() ) );
+        assertTrueEventually( () -> assertEquals( 0, scheduler.getRunnerCount() ) );
+    }
+
+    @Test
+    public void shouldScheduleRunnersToLeastLoadedWorkers () throws ExecutionException, InterruptedException
+    {
+        final PipelineReplicaRunner runner1 = newRunner( 0, newOperator() );
+        final PipelineReplicaRunner runner2 = newRunner( 1, newOperator() );
+
+        final Thread worker1 = scheduler.schedule( runner1 );
+        final Thread worker2 = scheduler.schedule( runner2 );
+
+        assertNotSame( worker1, worker2 );
+        assertEquals( 2, scheduler.getRunnerCount() );
+
+        runner1.stop().get();
+        runner2.stop().get();
+    }
+
+    @Test
+    public void shouldRunDownstreamRunnerOnSameWorkerWhileDownstreamIsFull () throws ExecutionException, InterruptedException
+    {
+        final JokerConfigBuilder builder = new JokerConfigBuilder();
+        builder.getPipelineReplicaRunnerConfigBuilder()
+               .enablePooledScheduling()
+               .setSchedulerWorkerCount( 1 )
+               .setSchedulerMaxInvocationsPerRun( 1 )
+               .setMaxPendingDownstreamTupleCount( 1 );
+        config = builder.build();
+        scheduler = new PipelineReplicaScheduler( config, new IdleTimeMeter(), new ThreadGroup( "test" ) );
+
+        // the downstream tuple queue can hold 2 tuples, and only the downstream runner removes tuples from it
+        final AtomicInteger queuedTupleCount = new AtomicInteger();
+        final AtomicInteger consumedTupleCount = new AtomicInteger();
+
+        final OperatorReplica upstreamOperator = newOperator();
+        final TuplesImpl output = new TuplesImpl( 1 );
+        output.add( new Tuple() );
+        when( upstreamOperator.invoke( anyBoolean(), anyObject(), anyObject() ) ).thenReturn( output );
+        final DownstreamTupleSender upstreamTupleSender = mock( DownstreamTupleSender.class );
+        when( upstreamTupleSender.trySend( anyObject() ) ).thenAnswer( invocation -> {
+            if ( queuedTupleCount.get() < 2 )
+            {
+                queuedTupleCount.incrementAndGet();
+                return true;
+            }
+
+            return false;
+        } );
+
+        final OperatorReplica downstreamOperator = newOperator();
+        when( downstreamOperator.invoke( anyBoolean(), anyObject(), anyObject() ) ).thenAnswer( invocation -> {
+            if ( queuedTupleCount.get() > 0 )
+            {
+                queuedTupleCount.decrementAndGet();
+                consumedTupleCount.incrementAndGet();
+            }
+
+            return null;
+        } );
+
+        final PipelineReplicaRunner upstreamRunner = new PipelineReplicaRunner( config,
+                                                                                newPipeline( 0, upstreamOperator ),
+                                                                                supervisor,
+                                                                                upstreamTupleSender );
+        final PipelineReplicaRunner downstreamRunner = newRunner( 1, downstreamOperator );
+
+        final Thread worker1 = scheduler.schedule( upstreamRunner );
+        final Thread worker2 = scheduler.schedule( downstreamRunner );
+        assertSame( worker1, worker2 );
+
+        assertTrueEventually( () -> assertTrue( consumedTupleCount.get() > 1000 ) );
+        verify( upstreamTupleSender, never() ).send( anyObject() );
+
+        upstreamRunner.stop().get();
+        downstreamRunner.stop().get();
+    }
+
+    private OperatorReplica newOperator ()
+    {
+        final OperatorReplica operator = mock( OperatorReplica.class );
+        when( operator.getOperatorDef() ).thenReturn( operatorDef );
+        when( operator.isInvokable() ).thenReturn( true );
+        when( operator.isOperatorInvokedOnLastAttempt() ).thenReturn( true );
+
+        return operator;
+    }
+
+    private PipelineReplicaRunner newRunner ( final int replicaIndex, final OperatorReplica operator )
+    {
+        return new PipelineReplicaRunner( config, newPipeline( replicaIndex, operator ), supervisor, downstreamTupleSender );
+    }
+
+    private PipelineReplica newPipeline ( final int replicaIndex, final OperatorReplica operator )
+    {
+        final PipelineReplicaId id = new PipelineReplicaId( new PipelineId( 0, 0 ), replicaIndex );
+        when( supervisor.getUpstreamContext( id ) ).thenReturn( upstreamContext );
+        final PipelineReplica pipeline = new PipelineReplica( config,
+                                                              id,
+                                                              new OperatorReplica[] { operator },
+                                                              mock( OperatorTupleQueue.class ),
+                                                              new PipelineReplicaMeter( config.getMetricManagerConfig().getTickMask(),
+                                                                                        id,
+                                                                                        operatorDef ) );
+        pipeline.init( upstreamContext );
+
+        return pipeline;
+    }
+
+}
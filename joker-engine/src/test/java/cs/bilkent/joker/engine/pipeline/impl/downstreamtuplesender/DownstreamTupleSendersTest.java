@@ -1,5 +1,7 @@
 package cs.bilkent.joker.engine.pipeline.impl.downstreamtuplesender;
 
+import java.util.List;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
@@ -8,10 +10,20 @@ import org.mockito.runners.MockitoJUnitRunner;
 import cs.bilkent.joker.engine.exception.JokerException;
 import cs.bilkent.joker.engine.pipeline.DownstreamTupleSenderFailureFlag;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import static cs.bilkent.joker.engine.util.concurrent.BackoffIdleStrategy.newDefaultInstance;
 import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
 import cs.bilkent.joker.test.AbstractJokerTest;
 import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -21,6 +33,8 @@ public class DownstreamTupleSendersTest extends AbstractJokerTest
 
     private final DownstreamTupleSenderFailureFlag failureFlag = new DownstreamTupleSenderFailureFlag();
 
+    private final TupleQueueMemoryBudget memoryBudget = new TupleQueueMemoryBudget( 1 );
+
     private final TuplesImpl tuples = new TuplesImpl( 10 );
 
     @Mock
@@ -48,6 +62,8 @@ public class DownstreamTupleSendersTest extends AbstractJokerTest
     {
 
         final DownstreamTupleSender1 tupleSender = new DownstreamTupleSender1( failureFlag,
+                                                                               memoryBudget,
+                                                                               newDefaultInstance(),
                                                                                sourcePortIndex1,
                                                                                destinationPortIndex1,
                                                                                operatorTupleQueue );
@@ -60,6 +76,137 @@ public class DownstreamTupleSendersTest extends AbstractJokerTest
         verifyMock( "key", "val", destinationPortIndex1 );
     }
 
+    @Test
+    public void testDownstreamTupleSender1WhenMemoryBudgetIsExhaustedAndTupleQueueIsEmpty ()
+    {
+        memoryBudget.acquire( 1 );
+        when( operatorTupleQueue.isEmpty() ).thenReturn( true );
+
+        sendViaDownstreamTupleSender1( 1 );
+    }
+
+    @Test
+    public void testDownstreamTupleSender1BlocksWhenMemoryBudgetIsExhaustedAndTupleQueueIsNotEmpty ()
+    {
+        memoryBudget.acquire( 1 );
+        failureFlag.setFailed();
+        final DownstreamTupleSender1 tupleSender = new DownstreamTupleSender1( failureFlag,
+                                                                               memoryBudget,
+                                                                               newDefaultInstance(),
+                                                                               sourcePortIndex1,
+                                                                               destinationPortIndex1,
+                                                                               operatorTupleQueue );
+        addTuple( "key", "val", sourcePortIndex1 );
+        setMock( sourcePortIndex1, destinationPortIndex1, 1 );
+
+        try
+        {
+            tupleSender.send( tuples );
+            fail();
+        }
+        catch ( JokerException expected )
+        {
+            verify( operatorTupleQueue, never() ).offer( anyInt(), anyListOf( Tuple.class ), anyInt() );
+        }
+    }
+
+    @Test
+    public void testDownstreamTupleSender1DestinationCount ()
+    {
+        final DownstreamTupleSender1 tupleSender = new DownstreamTupleSender1( failureFlag,
+                                                                               memoryBudget,
+                                                                               newDefaultInstance(),
+                                                                               sourcePortIndex1,
+                                                                               destinationPortIndex1,
+                                                                               operatorTupleQueue );
+
+        assertEquals( 1, tupleSender.getDestinationCount( sourcePortIndex1 ) );
+        assertEquals( 0, tupleSender.getDestinationCount( sourcePortIndex2 ) );
+    }
+
+    @Test
+    public void testDownstreamTupleSender1KeepsProgressWhenTuplesAreSentPartially ()
+    {
+        final DownstreamTupleSender1 tupleSender = new DownstreamTupleSender1( failureFlag,
+                                                                               memoryBudget,
+                                                                               newDefaultInstance(),
+                                                                               sourcePortIndex1,
+                                                                               destinationPortIndex1,
+                                                                               operatorTupleQueue );
+        addTuple( "key1", "val", sourcePortIndex1 );
+        addTuple( "key2", "val", sourcePortIndex1 );
+        final List<Tuple> tuples = this.tuples.getTuplesModifiable( sourcePortIndex1 );
+
+        when( operatorTupleQueue.offer( destinationPortIndex1, tuples, 0 ) ).thenReturn( 1 );
+        when( operatorTupleQueue.offer( destinationPortIndex1, tuples, 1 ) ).thenReturn( 0, 1 );
+
+        assertFalse( tupleSender.trySend( this.tuples ) );
+        assertFalse( tupleSender.trySend( this.tuples ) );
+        assertTrue( tupleSender.trySend( this.tuples ) );
+
+        verify( operatorTupleQueue ).offer( destinationPortIndex1, tuples, 0 );
+        verify( operatorTupleQueue, times( 2 ) ).offer( destinationPortIndex1, tuples, 1 );
+    }
+
+    @Test
+    public void testDownstreamTupleSender1ContinuesWithPendingTuplesAfterPartialSending ()
+    {
+        final DownstreamTupleSender1 tupleSender = new DownstreamTupleSender1( failureFlag,
+                                                                               memoryBudget,
+                                                                               newDefaultInstance(),
+                                                                               sourcePortIndex1,
+                                                                               destinationPortIndex1,
+                                                                               operatorTupleQueue );
+        addTuple( "key1", "val", sourcePortIndex1 );
+        addTuple( "key2", "val", sourcePortIndex1 );
+        final List<Tuple> tuples = this.tuples.getTuplesModifiable( sourcePortIndex1 );
+
+        when( operatorTupleQueue.offer( destinationPortIndex1, tuples, 0 ) ).thenReturn( 1 );
+        when( operatorTupleQueue.offer( destinationPortIndex1, tuples, 1 ) ).thenReturn( 1 );
+
+        assertFalse( tupleSender.trySend( this.tuples ) );
+        tupleSender.send( this.tuples );
+
+        verify( operatorTupleQueue ).offer( destinationPortIndex1, tuples, 0 );
+        verify( operatorTupleQueue ).offer( destinationPortIndex1, tuples, 1 );
+    }
+
+    @Test
+    public void testDownstreamTupleSenderNKeepsProgressOfEachDestinationWhenTuplesAreSentPartially ()
+    {
+        final DownstreamTupleSenderN tupleSender = new DownstreamTupleSenderN( failureFlag,
+                                                                               memoryBudget,
+                                                                               newDefaultInstance(),
+                                                                               new int[] { sourcePortIndex1, sourcePortIndex1 },
+                                                                               new int[] { destinationPortIndex1, destinationPortIndex2 },
+                                                                               operatorTupleQueue );
+        addTuple( "key", "val", sourcePortIndex1 );
+        final List<Tuple> tuples = this.tuples.getTuplesModifiable( sourcePortIndex1 );
+
+        when( operatorTupleQueue.offer( destinationPortIndex1, tuples, 0 ) ).thenReturn( 1 );
+        when( operatorTupleQueue.offer( destinationPortIndex2, tuples, 0 ) ).thenReturn( 0, 1 );
+
+        assertFalse( tupleSender.trySend( this.tuples ) );
+        assertTrue( tupleSender.trySend( this.tuples ) );
+
+        verify( operatorTupleQueue ).offer( destinationPortIndex1, tuples, 0 );
+        verify( operatorTupleQueue, times( 2 ) ).offer( destinationPortIndex2, tuples, 0 );
+    }
+
+    @Test
+    public void testDownstreamTupleSenderNDestinationCount ()
+    {
+        final DownstreamTupleSenderN tupleSender = new DownstreamTupleSenderN( failureFlag,
+                                                                               memoryBudget,
+                                                                               newDefaultInstance(),
+                                                                               new int[] { sourcePortIndex1, sourcePortIndex1 },
+                                                                               new int[] { destinationPortIndex1, destinationPortIndex2 },
+                                                                               operatorTupleQueue );
+
+        assertEquals( 2, tupleSender.getDestinationCount( sourcePortIndex1 ) );
+        assertEquals( 0, tupleSender.getDestinationCount( sourcePortIndex2 ) );
+    }
+
     @Test
     public void testDownstreamTupleSenderN ()
     {
@@ -77,6 +224,8 @@ public class DownstreamTupleSendersTest extends AbstractJokerTest
     private void sendViaDownstreamTupleSenderN ( final int offerResult )
     {
         final DownstreamTupleSenderN tupleSender = new DownstreamTupleSenderN( failureFlag,
+                                                                               memoryBudget,
+                                                                               newDefaultInstance(),
                                                                                new int[] { sourcePortIndex1,
                                                                                            sourcePortIndex2,
                                                                                            sourcePortIndex3,
@@ -7,9 +7,12 @@ import java.util.Map;
 
 import org.junit.Test;
 
+import cs.bilkent.joker.engine.partition.PartitionKey;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import cs.bilkent.joker.engine.pipeline.DownstreamTupleSenderFailureFlag;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import static cs.bilkent.joker.engine.util.concurrent.BackoffIdleStrategy.newDefaultInstance;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueueDrainer;
 import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
@@ -26,6 +29,8 @@ public class PartitionedDownstreamTupleSendersTest extends AbstractJokerTest
 
     private final DownstreamTupleSenderFailureFlag failureFlag = new DownstreamTupleSenderFailureFlag();
 
+    private final TupleQueueMemoryBudget memoryBudget = new TupleQueueMemoryBudget( 0 );
+
     private final TuplesImpl tuples = new TuplesImpl( 10 );
 
     private final DummyPartitionedOperatorTupleQueue operatorTupleQueue0 = new DummyPartitionedOperatorTupleQueue();
@@ -53,6 +58,8 @@ public class PartitionedDownstreamTupleSendersTest extends AbstractJokerTest
         final int sourcePortIndex1 = 1;
         final int destinationPortIndex1 = 2;
         final PartitionedDownstreamTupleSender1 tupleSender = new PartitionedDownstreamTupleSender1( failureFlag,
+                                                                                                     memoryBudget,
+                                                                                                     newDefaultInstance(),
                                                                                                      sourcePortIndex1,
                                                                                                      destinationPortIndex1,
                                                                                                      partitionCount,
@@ -71,12 +78,49 @@ public class PartitionedDownstreamTupleSendersTest extends AbstractJokerTest
         assertThat( operatorTupleQueue3.tuplesByPortIndex.get( destinationPortIndex1 ), equalTo( singletonList( tuple ) ) );
     }
 
+    @Test
+    public void testPartitionedDownstreamTupleSenderAttachesPartitionKey ()
+    {
+        final PartitionKeyExtractor downstreamPartitionKeyExtractor = mock( PartitionKeyExtractor.class );
+        for ( OperatorTupleQueue operatorTupleQueue : operatorTupleQueues )
+        {
+            ( (DummyPartitionedOperatorTupleQueue) operatorTupleQueue ).partitionKeyExtractor = downstreamPartitionKeyExtractor;
+        }
+
+        final int sourcePortIndex1 = 1;
+        final int destinationPortIndex1 = 2;
+        final PartitionedDownstreamTupleSender1 tupleSender = new PartitionedDownstreamTupleSender1( failureFlag,
+                                                                                                     memoryBudget,
+                                                                                                     newDefaultInstance(),
+                                                                                                     sourcePortIndex1,
+                                                                                                     destinationPortIndex1,
+                                                                                                     partitionCount,
+                                                                                                     partitionDistribution,
+                                                                                                     operatorTupleQueues,
+                                                                                                     partitionKeyExtractor );
+
+        final Tuple tuple = new Tuple();
+        tuple.set( "key", "val" );
+        tuples.add( sourcePortIndex1, tuple );
+        final int replicaIndex = 2;
+        final PartitionKey partitionKey = mock( PartitionKey.class );
+        when( partitionKey.partitionHashCode() ).thenReturn( replicaIndex );
+        when( downstreamPartitionKeyExtractor.getPartitionKey( tuple ) ).thenReturn( partitionKey );
+
+        tupleSender.send( tuples );
+
+        assertThat( operatorTupleQueue2.tuplesByPortIndex.get( destinationPortIndex1 ), equalTo( singletonList( tuple ) ) );
+        assertThat( operatorTupleQueue2.partitionKeysByPortIndex.get( destinationPortIndex1 ), equalTo( singletonList( partitionKey ) ) );
+    }
+
     @Test
     public void testPartitionedDownstreamTupleSenderN ()
     {
         final int sourcePortIndex1 = 1, sourcePortIndex2 = 3, sourcePortIndex3 = 5, sourcePortIndex4 = 7;
         final int destinationPortIndex1 = 2, destinationPortIndex2 = 4, destinationPortIndex3 = 6, destinationPortIndex4 = 8;
         final PartitionedDownstreamTupleSenderN tupleSender = new PartitionedDownstreamTupleSenderN( failureFlag,
+                                                                                                     memoryBudget,
+                                                                                                     newDefaultInstance(),
                                                                                                      new int[] { sourcePortIndex1,
                                                                                                                  sourcePortIndex2,
                                                                                                                  sourcePortIndex3,
@@ -121,6 +165,10 @@ public class PartitionedDownstreamTupleSendersTest extends AbstractJokerTest
 
         private final Map<Integer, List<Tuple>> tuplesByPortIndex = new HashMap<>();
 
+        private final Map<Integer, List<PartitionKey>> partitionKeysByPortIndex = new HashMap<>();
+
+        private PartitionKeyExtractor partitionKeyExtractor;
+
         @Override
         public String getOperatorId ()
         {
@@ -147,6 +195,14 @@ public class PartitionedDownstreamTupleSendersTest extends AbstractJokerTest
             return tuples.size() - fromIndex;
         }
 
+        @Override
+        public int offer ( final int portIndex, final List<Tuple> tuples, final List<PartitionKey> partitionKeys, final int fromIndex )
+        {
+            partitionKeysByPortIndex.computeIfAbsent( portIndex, ArrayList::new )
+                                    .addAll( partitionKeys.subList( fromIndex, partitionKeys.size() ) );
+            return offer( portIndex, tuples, fromIndex );
+        }
+
         @Override
         public void drain ( final boolean maySkipBlocking, final TupleQueueDrainer drainer )
         {
@@ -171,6 +227,12 @@ public class PartitionedDownstreamTupleSendersTest extends AbstractJokerTest
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public int getQueuedTupleCount ()
+        {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public void ensureCapacity ( final int capacity )
         {
@@ -183,6 +245,12 @@ public class PartitionedDownstreamTupleSendersTest extends AbstractJokerTest
             return 1;
         }
 
+        @Override
+        public PartitionKeyExtractor getPartitionKeyExtractor ()
+        {
+            return partitionKeyExtractor;
+        }
+
     }
 
 }
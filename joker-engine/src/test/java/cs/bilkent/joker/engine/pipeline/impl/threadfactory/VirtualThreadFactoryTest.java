@@ -0,0 +1,38 @@
+package cs.bilkent.joker.engine.pipeline.impl.threadfactory;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+public class VirtualThreadFactoryTest extends AbstractJokerTest
+{
+
+    @Test
+    public void shouldRunRunnableInVirtualThread () throws InterruptedException
+    {
+        assumeTrue( VirtualThreadFactory.isSupported() );
+
+        final CountDownLatch latch = new CountDownLatch( 1 );
+        final Thread thread = new VirtualThreadFactory().newThread( new ThreadGroup( "test" ), latch::countDown, "runner" );
+
+        assertEquals( "runner", thread.getName() );
+        thread.start();
+        assertTrue( latch.await( 10, SECONDS ) );
+    }
+
+    @Test( expected = IllegalStateException.class )
+    public void shouldNotCreateFactoryWithoutVirtualThreadSupport ()
+    {
+        assumeFalse( VirtualThreadFactory.isSupported() );
+
+        new VirtualThreadFactory();
+    }
+
+}
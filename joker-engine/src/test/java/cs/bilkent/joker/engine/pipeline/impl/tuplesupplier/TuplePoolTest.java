@@ -0,0 +1,82 @@
+package cs.bilkent.joker.engine.pipeline.impl.tuplesupplier;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertNull;
+
+public class TuplePoolTest extends AbstractJokerTest
+{
+
+    private final PortRuntimeSchema schema1 = new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "field", int.class ) ) );
+
+    private final PortRuntimeSchema schema2 = new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "field", String.class ) ) );
+
+    private final TuplePool pool = new TuplePool( 2 );
+
+    @Test
+    public void shouldCreateTupleWhenPoolIsEmpty ()
+    {
+        final Tuple tuple = pool.acquire( schema1 );
+
+        assertThat( tuple.getSchema(), sameInstance( schema1 ) );
+        assertThat( pool.getAvailableTupleCount( schema1 ), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldReuseReleasedTuple ()
+    {
+        final Tuple tuple = pool.acquire( schema1 );
+        tuple.setInteger( "field", 1 );
+        tuple.retain( 1 );
+        tuple.release();
+
+        assertThat( pool.getAvailableTupleCount( schema1 ), equalTo( 1 ) );
+
+        final Tuple reused = pool.acquire( schema1 );
+
+        assertThat( reused, sameInstance( tuple ) );
+        assertNull( reused.get( "field" ) );
+        assertThat( pool.getAvailableTupleCount( schema1 ), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldNotReuseReleasedTupleForAnotherSchema ()
+    {
+        final Tuple tuple = pool.acquire( schema1 );
+        tuple.retain( 1 );
+        tuple.release();
+
+        final Tuple other = pool.acquire( schema2 );
+
+        assertThat( other, not( sameInstance( tuple ) ) );
+        assertThat( other.getSchema(), sameInstance( schema2 ) );
+        assertThat( pool.getAvailableTupleCount( schema1 ), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldDropReleasedTuplesWhenPoolIsFull ()
+    {
+        final Tuple[] tuples = new Tuple[ 3 ];
+        for ( int i = 0; i < tuples.length; i++ )
+        {
+            tuples[ i ] = pool.acquire( schema1 );
+        }
+        for ( Tuple tuple : tuples )
+        {
+            tuple.retain( 1 );
+            tuple.release();
+        }
+
+        assertThat( pool.getAvailableTupleCount( schema1 ), equalTo( 2 ) );
+    }
+
+}
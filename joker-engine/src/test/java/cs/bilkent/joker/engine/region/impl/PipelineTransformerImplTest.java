@@ -11,6 +11,7 @@ import cs.bilkent.joker.engine.flow.PipelineId;
 import cs.bilkent.joker.engine.flow.RegionDef;
 import cs.bilkent.joker.engine.flow.RegionExecutionPlan;
 import cs.bilkent.joker.engine.kvstore.impl.OperatorKVStoreManagerImpl;
+import cs.bilkent.joker.engine.metric.IdleTimeMeter;
 import cs.bilkent.joker.engine.metric.PipelineReplicaMeter;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractorFactory;
 import cs.bilkent.joker.engine.partition.PartitionService;
@@ -25,6 +26,8 @@ import cs.bilkent.joker.engine.region.PipelineTransformer;
 import cs.bilkent.joker.engine.region.Region;
 import static cs.bilkent.joker.engine.region.impl.RegionExecutionPlanUtil.checkPipelineStartIndicesToSplit;
 import static cs.bilkent.joker.engine.region.impl.RegionManagerImplTest.assertPipelineReplicaMeter;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueSpillMetrics;
 import cs.bilkent.joker.engine.tuplequeue.impl.OperatorTupleQueueManagerImpl;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.GreedyDrainer;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.pool.BlockingTupleQueueDrainerPool;
@@ -74,9 +77,13 @@ public class PipelineTransformerImplTest extends AbstractJokerTest
     private final OperatorKVStoreManagerImpl operatorKVStoreManager = new OperatorKVStoreManagerImpl();
 
     private final OperatorTupleQueueManagerImpl operatorTupleQueueManager = new OperatorTupleQueueManagerImpl( config,
-                                                                                                               new PartitionKeyExtractorFactoryImpl() );
+                                                                                                               new PartitionKeyExtractorFactoryImpl(),
+                                                                                                               new TupleQueueMemoryBudget( config ),
+                                                                                                               new TupleQueueSpillMetrics() );
 
-    private final PipelineTransformer pipelineTransformer = new PipelineTransformerImpl( config, operatorTupleQueueManager );
+    private final IdleTimeMeter idleTimeMeter = new IdleTimeMeter();
+
+    private final PipelineTransformer pipelineTransformer = new PipelineTransformerImpl( config, operatorTupleQueueManager, idleTimeMeter );
 
     private final PartitionKeyExtractorFactory partitionKeyExtractorFactory = new PartitionKeyExtractorFactoryImpl();
 
@@ -85,7 +92,8 @@ public class PipelineTransformerImplTest extends AbstractJokerTest
                                                                            operatorKVStoreManager,
                                                                            operatorTupleQueueManager,
                                                                            pipelineTransformer,
-                                                                           partitionKeyExtractorFactory );
+                                                                           partitionKeyExtractorFactory,
+                                                                           idleTimeMeter );
 
     @Test
     public void shouldMergeAllPipelinesOfStatefulRegion ()
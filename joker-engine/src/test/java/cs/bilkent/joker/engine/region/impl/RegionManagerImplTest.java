@@ -16,6 +16,7 @@ import cs.bilkent.joker.engine.kvstore.impl.DefaultOperatorKVStore;
 import cs.bilkent.joker.engine.kvstore.impl.EmptyOperatorKVStore;
 import cs.bilkent.joker.engine.kvstore.impl.OperatorKVStoreManagerImpl;
 import cs.bilkent.joker.engine.kvstore.impl.PartitionedOperatorKVStore;
+import cs.bilkent.joker.engine.metric.IdleTimeMeter;
 import cs.bilkent.joker.engine.metric.PipelineReplicaMeter;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractorFactory;
 import cs.bilkent.joker.engine.partition.PartitionService;
@@ -28,6 +29,8 @@ import cs.bilkent.joker.engine.pipeline.impl.tuplesupplier.CachedTuplesImplSuppl
 import cs.bilkent.joker.engine.region.PipelineTransformer;
 import cs.bilkent.joker.engine.region.Region;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueSpillMetrics;
 import cs.bilkent.joker.engine.tuplequeue.impl.OperatorTupleQueueManagerImpl;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.pool.BlockingTupleQueueDrainerPool;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.pool.NonBlockingTupleQueueDrainerPool;
@@ -77,9 +80,13 @@ public class RegionManagerImplTest extends AbstractJokerTest
     private final OperatorKVStoreManagerImpl operatorKVStoreManager = new OperatorKVStoreManagerImpl();
 
     private final OperatorTupleQueueManagerImpl operatorTupleQueueManager = new OperatorTupleQueueManagerImpl( config,
-                                                                                                               new PartitionKeyExtractorFactoryImpl() );
+                                                                                                               new PartitionKeyExtractorFactoryImpl(),
+                                                                                                               new TupleQueueMemoryBudget( config ),
+                                                                                                               new TupleQueueSpillMetrics() );
 
-    private final PipelineTransformer pipelineTransformer = new PipelineTransformerImpl( config, operatorTupleQueueManager );
+    private final IdleTimeMeter idleTimeMeter = new IdleTimeMeter();
+
+    private final PipelineTransformer pipelineTransformer = new PipelineTransformerImpl( config, operatorTupleQueueManager, idleTimeMeter );
 
     private final PartitionKeyExtractorFactory partitionKeyExtractorFactory = new PartitionKeyExtractorFactoryImpl();
 
@@ -88,7 +95,8 @@ public class RegionManagerImplTest extends AbstractJokerTest
                                                                            operatorKVStoreManager,
                                                                            operatorTupleQueueManager,
                                                                            pipelineTransformer,
-                                                                           partitionKeyExtractorFactory );
+                                                                           partitionKeyExtractorFactory,
+                                                                           idleTimeMeter );
 
 
     @Test
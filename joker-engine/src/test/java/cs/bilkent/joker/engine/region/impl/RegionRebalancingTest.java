@@ -17,6 +17,7 @@ import cs.bilkent.joker.engine.flow.PipelineId;
 import cs.bilkent.joker.engine.flow.RegionDef;
 import cs.bilkent.joker.engine.flow.RegionExecutionPlan;
 import cs.bilkent.joker.engine.kvstore.impl.OperatorKVStoreManagerImpl;
+import cs.bilkent.joker.engine.metric.IdleTimeMeter;
 import cs.bilkent.joker.engine.partition.PartitionDistribution;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractorFactory;
@@ -43,6 +44,8 @@ import static cs.bilkent.joker.engine.region.impl.RegionManagerImplTest.assertOp
 import static cs.bilkent.joker.engine.region.impl.RegionManagerImplTest.assertPartitionedOperatorKVStore;
 import static cs.bilkent.joker.engine.region.impl.RegionManagerImplTest.assertPartitionedOperatorTupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueSpillMetrics;
 import cs.bilkent.joker.engine.tuplequeue.impl.OperatorTupleQueueManagerImpl;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.GreedyDrainer;
 import cs.bilkent.joker.operator.Tuple;
@@ -77,9 +80,13 @@ public class RegionRebalancingTest extends AbstractJokerTest
     private final PartitionService partitionService = new PartitionServiceImpl( config );
 
     private final OperatorTupleQueueManagerImpl operatorTupleQueueManager = new OperatorTupleQueueManagerImpl( config,
-                                                                                                               new PartitionKeyExtractorFactoryImpl() );
+                                                                                                               new PartitionKeyExtractorFactoryImpl(),
+                                                                                                               new TupleQueueMemoryBudget( config ),
+                                                                                                               new TupleQueueSpillMetrics() );
 
-    private final PipelineTransformer pipelineTransformer = new PipelineTransformerImpl( config, operatorTupleQueueManager );
+    private final IdleTimeMeter idleTimeMeter = new IdleTimeMeter();
+
+    private final PipelineTransformer pipelineTransformer = new PipelineTransformerImpl( config, operatorTupleQueueManager, idleTimeMeter );
 
     private final PartitionKeyExtractorFactory partitionKeyExtractorFactory = new PartitionKeyExtractorFactoryImpl();
 
@@ -88,7 +95,8 @@ public class RegionRebalancingTest extends AbstractJokerTest
                                                                            new OperatorKVStoreManagerImpl(),
                                                                            operatorTupleQueueManager,
                                                                            pipelineTransformer,
-                                                                           partitionKeyExtractorFactory );
+                                                                           partitionKeyExtractorFactory,
+                                                                           idleTimeMeter );
 
 
     private final int initialReplicaCount;
@@ -8,6 +8,7 @@ import org.junit.Test;
 
 import cs.bilkent.joker.engine.config.JokerConfig;
 import static cs.bilkent.joker.engine.config.ThreadingPreference.MULTI_THREADED;
+import static cs.bilkent.joker.engine.config.ThreadingPreference.SINGLE_THREADED;
 import cs.bilkent.joker.engine.partition.PartitionDistribution;
 import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
 import cs.bilkent.joker.engine.partition.PartitionService;
@@ -16,7 +17,11 @@ import cs.bilkent.joker.engine.partition.impl.PartitionKeyExtractor1;
 import cs.bilkent.joker.engine.partition.impl.PartitionKeyExtractorFactoryImpl;
 import cs.bilkent.joker.engine.partition.impl.PartitionServiceImpl;
 import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueSpillMetrics;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.GreedyDrainer;
+import cs.bilkent.joker.engine.tuplequeue.impl.operator.DefaultOperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.impl.queue.SingleProducerTupleQueue;
 import cs.bilkent.joker.operator.Operator;
 import cs.bilkent.joker.operator.OperatorConfig;
 import cs.bilkent.joker.operator.OperatorDef;
@@ -71,7 +76,9 @@ public class OperatorTupleQueueManagerImplTest extends AbstractJokerTest
     private final PartitionService partitionService = new PartitionServiceImpl( jokerConfig );
 
     private final OperatorTupleQueueManagerImpl tupleQueueManager = new OperatorTupleQueueManagerImpl( jokerConfig,
-                                                                                                       new PartitionKeyExtractorFactoryImpl() );
+                                                                                                       new PartitionKeyExtractorFactoryImpl(),
+                                                                                                       new TupleQueueMemoryBudget( jokerConfig ),
+                                                                                                       new TupleQueueSpillMetrics() );
 
     private final Set<Object> keys = new HashSet<>();
 
@@ -154,6 +161,41 @@ public class OperatorTupleQueueManagerImplTest extends AbstractJokerTest
         assertEquals( singletonList( tuple2 ), result.getTuples( 1 ) );
     }
 
+    @Test
+    public void shouldCreateSingleProducerTupleQueuesForMultiThreadedDefaultOperatorTupleQueue ()
+    {
+        final DefaultOperatorTupleQueue operatorTupleQueue = (DefaultOperatorTupleQueue) tupleQueueManager.createDefaultOperatorTupleQueue(
+                REGION_ID,
+                1,
+                STATELESS_OPERATOR,
+                MULTI_THREADED,
+                true );
+
+        assertTrue( operatorTupleQueue.getTupleQueue( 0 ) instanceof SingleProducerTupleQueue );
+        assertTrue( operatorTupleQueue.getTupleQueue( 1 ) instanceof SingleProducerTupleQueue );
+    }
+
+    @Test
+    public void shouldConvertSingleThreadedDefaultOperatorTupleQueueToSingleProducer ()
+    {
+        tupleQueueManager.createDefaultOperatorTupleQueue( REGION_ID, 1, STATELESS_OPERATOR, SINGLE_THREADED );
+        final Tuple tuple = new Tuple();
+        tuple.set( "key1", "val1" );
+        tupleQueueManager.getDefaultOperatorTupleQueueOrFail( REGION_ID, 1, "op1" ).offer( 0, singletonList( tuple ) );
+
+        final DefaultOperatorTupleQueue operatorTupleQueue = (DefaultOperatorTupleQueue) tupleQueueManager.switchThreadingPreference(
+                REGION_ID,
+                1,
+                "op1",
+                true );
+
+        assertEquals( MULTI_THREADED, operatorTupleQueue.getThreadingPreference() );
+        assertTrue( operatorTupleQueue.getTupleQueue( 0 ) instanceof SingleProducerTupleQueue );
+        final GreedyDrainer drainer = new GreedyDrainer( 2 );
+        operatorTupleQueue.drain( drainer );
+        assertEquals( singletonList( tuple ), drainer.getResult().getTuples( 0 ) );
+    }
+
     @Test
     public void shouldShrinkPartitionedOperatorTupleQueues ()
     {
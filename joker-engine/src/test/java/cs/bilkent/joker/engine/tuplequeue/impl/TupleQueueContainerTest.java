@@ -0,0 +1,110 @@
+package cs.bilkent.joker.engine.tuplequeue.impl;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.engine.partition.PartitionKey;
+import cs.bilkent.joker.engine.partition.impl.PartitionKey1;
+import cs.bilkent.joker.engine.tuplequeue.impl.drainer.GreedyDrainer;
+import cs.bilkent.joker.engine.tuplequeue.impl.drainer.NonBlockingSinglePortDrainer;
+import cs.bilkent.joker.operator.Tuple;
+import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByCount.AT_LEAST;
+import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort.ANY_PORT;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TupleQueueContainerTest extends AbstractJokerTest
+{
+
+    private final TupleQueueContainer container = new TupleQueueContainer( "op1", 1, 0 );
+
+    private final PartitionKey key1 = new PartitionKey1( "key1" );
+
+    private final PartitionKey key2 = new PartitionKey1( "key2" );
+
+    @Test
+    public void shouldMarkKeyDrainableWhenTupleCountIsSatisfied ()
+    {
+        container.setTupleCounts( new int[] { 2 }, ANY_PORT );
+
+        assertFalse( container.offer( 0, new Tuple(), key1 ) );
+        assertEquals( 0, container.getDrainableKeyCount() );
+        assertFalse( container.isEmpty() );
+
+        assertTrue( container.offer( 0, new Tuple(), key1 ) );
+        assertEquals( 1, container.getDrainableKeyCount() );
+
+        assertFalse( container.offer( 0, new Tuple(), key1 ) );
+        assertEquals( 1, container.getDrainableKeyCount() );
+    }
+
+    @Test
+    public void shouldDrainDrainableKeyByTupleCount ()
+    {
+        container.offer( 0, new Tuple(), key1 );
+
+        final NonBlockingSinglePortDrainer drainer = new NonBlockingSinglePortDrainer( 100 );
+        drainer.setParameters( AT_LEAST, 1 );
+
+        assertEquals( 1, container.drain( false, drainer ) );
+        assertEquals( key1, drainer.getKey() );
+        assertEquals( 1, drainer.getResult().getTupleCount( 0 ) );
+        assertEquals( 0, container.getDrainableKeyCount() );
+        assertTrue( container.isEmpty() );
+        assertEquals( 1, container.getKeyCount() );
+    }
+
+    @Test
+    public void shouldDrainOnlyKeysWithPendingTuplesGreedily ()
+    {
+        container.offer( 0, new Tuple(), key1 );
+        final NonBlockingSinglePortDrainer tupleCountDrainer = new NonBlockingSinglePortDrainer( 100 );
+        tupleCountDrainer.setParameters( AT_LEAST, 1 );
+        container.drain( false, tupleCountDrainer );
+
+        container.setTupleCounts( new int[] { 2 }, ANY_PORT );
+        container.offer( 0, new Tuple(), key2 );
+
+        final GreedyDrainer drainer = new GreedyDrainer( 1 );
+        assertEquals( 0, container.drain( false, drainer ) );
+        assertEquals( key2, drainer.getKey() );
+        assertEquals( 1, drainer.getResult().getTupleCount( 0 ) );
+        assertTrue( container.isEmpty() );
+        assertEquals( 1, container.getKeyCount() );
+        assertEquals( 1, container.getArenaSize() );
+
+        drainer.reset();
+        assertEquals( 0, container.drain( false, drainer ) );
+        assertNull( drainer.getResult() );
+    }
+
+    @Test
+    public void shouldReuseTupleQueuesOfRemovedKeys ()
+    {
+        container.offer( 0, new Tuple(), key1 );
+        container.drain( false, new GreedyDrainer( 1 ) );
+        assertEquals( 1, container.getArenaSize() );
+
+        container.offer( 0, new Tuple(), key2 );
+
+        assertEquals( 0, container.getArenaSize() );
+        assertEquals( 1, container.getKeyCount() );
+        assertEquals( 1, container.getDrainableKeyCount() );
+    }
+
+    @Test
+    public void shouldRecycleTupleQueuesOnClear ()
+    {
+        container.offer( 0, new Tuple(), key1 );
+        container.offer( 0, new Tuple(), key2 );
+
+        assertEquals( 2, container.clear() );
+        assertTrue( container.isEmpty() );
+        assertEquals( 0, container.getKeyCount() );
+        assertEquals( 0, container.getDrainableKeyCount() );
+        assertEquals( 2, container.getArenaSize() );
+    }
+
+}
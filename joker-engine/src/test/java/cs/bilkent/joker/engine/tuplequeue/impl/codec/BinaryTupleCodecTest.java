@@ -0,0 +1,176 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.codec;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.junit.Test;
+
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static cs.bilkent.joker.engine.tuplequeue.impl.codec.BinaryTupleCodec.NOT_ENCODABLE;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryTupleCodecTest extends AbstractJokerTest
+{
+
+    private final PortRuntimeSchema schema = new PortRuntimeSchema( asList( new RuntimeSchemaField( "long", long.class ),
+                                                                            new RuntimeSchemaField( "int", Integer.class ),
+                                                                            new RuntimeSchemaField( "double", double.class ),
+                                                                            new RuntimeSchemaField( "boolean", boolean.class ),
+                                                                            new RuntimeSchemaField( "string", String.class ) ) );
+
+    private final BinaryTupleCodec codec = new BinaryTupleCodec( schema );
+
+    private final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer( 8 );
+
+    @Test
+    public void shouldEncodeAndDecodeTuple ()
+    {
+        final Tuple tuple = newTuple();
+
+        final int length = codec.encode( tuple, buffer, 4 );
+        final Tuple decoded = codec.decode( buffer, 4 );
+
+        assertThat( length, equalTo( codec.getFixedLength() + "hello".length() ) );
+        assertThat( decoded, equalTo( tuple ) );
+    }
+
+    @Test
+    public void shouldDecodeMissingValuesAsNull ()
+    {
+        final Tuple tuple = new Tuple( schema );
+        tuple.setInteger( "int", 1 );
+
+        codec.encode( tuple, buffer, 0 );
+        final Tuple decoded = codec.decode( buffer, 0 );
+
+        assertThat( decoded.getInteger( "int" ), equalTo( 1 ) );
+        assertNull( decoded.get( "long" ) );
+        assertNull( decoded.get( "string" ) );
+        assertThat( decoded.size(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldNotEncodeTupleWithNonSchemaField ()
+    {
+        final Tuple tuple = newTuple();
+        tuple.set( "extra", "value" );
+
+        assertThat( codec.encode( tuple, buffer, 0 ), equalTo( NOT_ENCODABLE ) );
+    }
+
+    @Test
+    public void shouldNotEncodeTupleWithAnotherSchema ()
+    {
+        final Tuple tuple = new Tuple();
+        tuple.set( "long", 1L );
+
+        assertThat( codec.encode( tuple, buffer, 0 ), equalTo( NOT_ENCODABLE ) );
+    }
+
+    @Test
+    public void shouldNotEncodeTupleWithStringInLongField ()
+    {
+        final Tuple tuple = newTuple();
+        tuple.set( "long", "1" );
+
+        assertThat( codec.encode( tuple, buffer, 0 ), equalTo( NOT_ENCODABLE ) );
+    }
+
+    @Test
+    public void shouldNotEncodeTupleWithDoubleInLongField ()
+    {
+        final Tuple tuple = newTuple();
+        tuple.set( "long", 1.5 );
+
+        assertThat( codec.encode( tuple, buffer, 0 ), equalTo( NOT_ENCODABLE ) );
+    }
+
+    @Test
+    public void shouldNotEncodeTupleWithLongInIntegerField ()
+    {
+        final Tuple tuple = newTuple();
+        tuple.setLong( "int", Long.MAX_VALUE );
+
+        assertThat( codec.encode( tuple, buffer, 0 ), equalTo( NOT_ENCODABLE ) );
+    }
+
+    @Test
+    public void shouldEncodeTupleWithBoxedValuesOfFieldTypes ()
+    {
+        final Tuple tuple = new Tuple( schema );
+        tuple.set( "long", 1L );
+        tuple.set( "int", 2 );
+        tuple.set( "double", 3d );
+        tuple.set( "boolean", true );
+
+        codec.encode( tuple, buffer, 0 );
+
+        assertThat( codec.decode( buffer, 0 ), equalTo( tuple ) );
+    }
+
+    @Test
+    public void shouldNotEncodeSchemaWithUnsupportedFieldType ()
+    {
+        assertFalse( BinaryTupleCodec.isEncodable( new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "field",
+                                                                                                                   Object.class ) ) ) ) );
+    }
+
+    @Test
+    public void shouldReadValuesWithFlyweight ()
+    {
+        final int length = codec.encode( newTuple(), buffer, 0 );
+
+        final BinaryTuple binaryTuple = new BinaryTuple( codec ).wrap( buffer, 0, length );
+
+        assertThat( binaryTuple.getLongValueOrDefault( "long", 0 ), equalTo( 1L ) );
+        assertThat( binaryTuple.getIntegerValueOrDefault( "int", 0 ), equalTo( 2 ) );
+        assertThat( binaryTuple.getDoubleValueOrDefault( "double", 0 ), equalTo( 3d ) );
+        assertTrue( binaryTuple.getBooleanValueOrDefault( "boolean", false ) );
+        assertThat( binaryTuple.getString( "string" ), equalTo( "hello" ) );
+        assertThat( binaryTuple.size(), equalTo( 5 ) );
+        assertThat( binaryTuple.toTuple(), equalTo( newTuple() ) );
+    }
+
+    @Test
+    public void shouldRewrapFlyweight ()
+    {
+        final Tuple tuple = new Tuple( schema );
+        tuple.setLong( "long", 5 );
+        final int length1 = codec.encode( newTuple(), buffer, 0 );
+        final int length2 = codec.encode( tuple, buffer, length1 );
+
+        final BinaryTuple binaryTuple = new BinaryTuple( codec ).wrap( buffer, length1, length2 );
+
+        assertThat( binaryTuple.getLongValueOrDefault( "long", 0 ), equalTo( 5L ) );
+        assertFalse( binaryTuple.contains( "string" ) );
+        assertThat( binaryTuple.getIntegerValueOrDefault( "int", -1 ), equalTo( -1 ) );
+    }
+
+    @Test( expected = UnsupportedOperationException.class )
+    public void shouldNotModifyFlyweight ()
+    {
+        final int length = codec.encode( newTuple(), buffer, 0 );
+
+        new BinaryTuple( codec ).wrap( buffer, 0, length ).set( "long", 1L );
+    }
+
+    private Tuple newTuple ()
+    {
+        final Tuple tuple = new Tuple( schema );
+        tuple.setLong( "long", 1 );
+        tuple.setInteger( "int", 2 );
+        tuple.setDouble( "double", 3 );
+        tuple.setBoolean( "boolean", true );
+        tuple.set( "string", "hello" );
+
+        return tuple;
+    }
+
+}
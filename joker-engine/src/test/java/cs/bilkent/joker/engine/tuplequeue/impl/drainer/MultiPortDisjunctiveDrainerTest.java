@@ -2,12 +2,14 @@ package cs.bilkent.joker.engine.tuplequeue.impl.drainer;
 
 import java.util.Collection;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.impl.queue.SingleThreadedTupleQueue;
 import cs.bilkent.joker.operator.Tuple;
@@ -16,9 +18,11 @@ import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.T
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByCount.EXACT;
 import cs.bilkent.joker.test.AbstractJokerTest;
 import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 @RunWith( value = Parameterized.class )
 public class MultiPortDisjunctiveDrainerTest extends AbstractJokerTest
@@ -46,6 +50,12 @@ public class MultiPortDisjunctiveDrainerTest extends AbstractJokerTest
         drainer.reset();
     }
 
+    @After
+    public void after ()
+    {
+        drainer.setTimeout( 0 );
+    }
+
     @Test
     public void test_TupleAvailabilityByCount_AT_LEAST_allQueuesSatisfy ()
     {
@@ -134,4 +144,51 @@ public class MultiPortDisjunctiveDrainerTest extends AbstractJokerTest
         assertThat( tupleQueue2.size(), equalTo( 1 ) );
     }
 
+    @Test
+    public void test_TupleAvailabilityByCount_AT_LEAST_allQueuesDoNotSatisfyBeforeTimeout ()
+    {
+        drainer.setParameters( AT_LEAST, new int[] { 0, 1 }, new int[] { 2, 2 } );
+        drainer.setTimeout( MILLISECONDS.toNanos( 1 ) );
+        final TupleQueue tupleQueue0 = new SingleThreadedTupleQueue( 2 );
+        final TupleQueue tupleQueue1 = new SingleThreadedTupleQueue( 2 );
+        tupleQueue1.offer( new Tuple() );
+
+        drainer.drain( true, null, new TupleQueue[] { tupleQueue0, tupleQueue1 } );
+
+        assertNull( drainer.getResult() );
+
+        sleepUninterruptibly( 10, MILLISECONDS );
+        drainer.drain( true, null, new TupleQueue[] { tupleQueue0, tupleQueue1 } );
+
+        final TuplesImpl tuples = drainer.getResult();
+        assertNotNull( tuples );
+        assertThat( tuples.getNonEmptyPortCount(), equalTo( 1 ) );
+        assertThat( tuples.getTupleCount( 0 ), equalTo( 0 ) );
+        assertThat( tuples.getTupleCount( 1 ), equalTo( 1 ) );
+        assertThat( tupleQueue1.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void test_TupleAvailabilityByCount_AT_LEAST_allQueuesDoNotSatisfyAfterTimeoutOnFirstObservation ()
+    {
+        drainer.setParameters( AT_LEAST, new int[] { 0, 1 }, new int[] { 2, 2 } );
+        drainer.setTimeout( MILLISECONDS.toNanos( 1 ) );
+        final TupleQueue tupleQueue0 = new SingleThreadedTupleQueue( 2 );
+        final TupleQueue tupleQueue1 = new SingleThreadedTupleQueue( 2 );
+
+        drainer.drain( true, null, new TupleQueue[] { tupleQueue0, tupleQueue1 } );
+
+        assertNull( drainer.getResult() );
+
+        tupleQueue0.offer( new Tuple() );
+        sleepUninterruptibly( 10, MILLISECONDS );
+        drainer.drain( true, null, new TupleQueue[] { tupleQueue0, tupleQueue1 } );
+
+        final TuplesImpl tuples = drainer.getResult();
+        assertNotNull( tuples );
+        assertThat( tuples.getTupleCount( 0 ), equalTo( 1 ) );
+        assertThat( tuples.getTupleCount( 1 ), equalTo( 0 ) );
+        assertThat( tupleQueue0.size(), equalTo( 0 ) );
+    }
+
 }
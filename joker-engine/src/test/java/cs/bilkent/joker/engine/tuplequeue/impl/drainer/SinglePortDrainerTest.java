@@ -2,12 +2,14 @@ package cs.bilkent.joker.engine.tuplequeue.impl.drainer;
 
 import java.util.Collection;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
 import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
 import cs.bilkent.joker.engine.tuplequeue.impl.queue.MultiThreadedTupleQueue;
 import static cs.bilkent.joker.flow.Port.DEFAULT_PORT_INDEX;
@@ -19,6 +21,8 @@ import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.T
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByCount.EXACT;
 import cs.bilkent.joker.test.AbstractJokerTest;
 import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertNotNull;
@@ -51,6 +55,13 @@ public class SinglePortDrainerTest extends AbstractJokerTest
         drainer.reset();
     }
 
+    @After
+    public void after ()
+    {
+        drainer.setMaxBatchSize( Integer.MAX_VALUE );
+        drainer.setTimeout( 0 );
+    }
+
     @Test( expected = IllegalArgumentException.class )
     public void shouldFailWithNullTupleQueues ()
     {
@@ -93,6 +104,24 @@ public class SinglePortDrainerTest extends AbstractJokerTest
         assertThat( tupleQueue.size(), equalTo( 0 ) );
     }
 
+    @Test
+    public void shouldDrainTuplesUpToMaxBatchSizeWithAtLeastTupleAvailabilityByCountSatisfied ()
+    {
+        final TupleQueue tupleQueue = new MultiThreadedTupleQueue( 3 );
+        tupleQueue.offer( new Tuple() );
+        tupleQueue.offer( new Tuple() );
+        tupleQueue.offer( new Tuple() );
+
+        drainer.setParameters( AT_LEAST, 1 );
+        drainer.setMaxBatchSize( 2 );
+        drainer.drain( null, new TupleQueue[] { tupleQueue } );
+
+        final TuplesImpl tuples = drainer.getResult();
+        assertNotNull( tuples );
+        assertThat( tuples.getTupleCount( DEFAULT_PORT_INDEX ), equalTo( 2 ) );
+        assertThat( tupleQueue.size(), equalTo( 1 ) );
+    }
+
     @Test
     public void shouldNotDrainAnyTupleWithAtLeastTupleAvailabilityByCountUnsatisfied ()
     {
@@ -152,6 +181,77 @@ public class SinglePortDrainerTest extends AbstractJokerTest
         testNoDrain( EXACT );
     }
 
+    @Test
+    public void shouldNotDrainTuplesBeforeTimeoutWithAtLeastTupleAvailabilityByCountUnsatisfied ()
+    {
+        final TupleQueue tupleQueue = new MultiThreadedTupleQueue( 2 );
+        tupleQueue.offer( new Tuple() );
+
+        drainer.setParameters( AT_LEAST, 2 );
+        drainer.setTimeout( SECONDS.toNanos( 60 ) );
+        drainer.drain( true, null, new TupleQueue[] { tupleQueue } );
+        drainer.drain( true, null, new TupleQueue[] { tupleQueue } );
+
+        assertNull( drainer.getResult() );
+        assertThat( tupleQueue.size(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldDrainAvailableTuplesAfterTimeoutWithAtLeastTupleAvailabilityByCountUnsatisfied ()
+    {
+        final TupleQueue tupleQueue = new MultiThreadedTupleQueue( 2 );
+        tupleQueue.offer( new Tuple() );
+
+        drainer.setParameters( AT_LEAST, 2 );
+        drainer.setTimeout( MILLISECONDS.toNanos( 1 ) );
+        drainer.drain( true, null, new TupleQueue[] { tupleQueue } );
+
+        assertNull( drainer.getResult() );
+
+        sleepUninterruptibly( 10, MILLISECONDS );
+        drainer.drain( true, null, new TupleQueue[] { tupleQueue } );
+
+        final TuplesImpl tuples = drainer.getResult();
+        assertNotNull( tuples );
+        assertThat( tuples.getTupleCount( DEFAULT_PORT_INDEX ), equalTo( 1 ) );
+        assertThat( tupleQueue.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldDrainAvailableTuplesAfterTimeoutWhenTheyAreObservedForTheFirstTime ()
+    {
+        final TupleQueue tupleQueue = new MultiThreadedTupleQueue( 2 );
+
+        drainer.setParameters( AT_LEAST, 2 );
+        drainer.setTimeout( MILLISECONDS.toNanos( 1 ) );
+        drainer.drain( true, null, new TupleQueue[] { tupleQueue } );
+
+        assertNull( drainer.getResult() );
+
+        tupleQueue.offer( new Tuple() );
+        sleepUninterruptibly( 10, MILLISECONDS );
+        drainer.drain( true, null, new TupleQueue[] { tupleQueue } );
+
+        final TuplesImpl tuples = drainer.getResult();
+        assertNotNull( tuples );
+        assertThat( tuples.getTupleCount( DEFAULT_PORT_INDEX ), equalTo( 1 ) );
+        assertThat( tupleQueue.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldNotDrainEmptyTupleQueueAfterTimeout ()
+    {
+        final TupleQueue tupleQueue = new MultiThreadedTupleQueue( 2 );
+
+        drainer.setParameters( AT_LEAST, 2 );
+        drainer.setTimeout( MILLISECONDS.toNanos( 1 ) );
+        drainer.drain( true, null, new TupleQueue[] { tupleQueue } );
+        sleepUninterruptibly( 10, MILLISECONDS );
+        drainer.drain( true, null, new TupleQueue[] { tupleQueue } );
+
+        assertNull( drainer.getResult() );
+    }
+
     private void testNoDrain ( final TupleAvailabilityByCount tupleAvailabilityByCount )
     {
         final TupleQueue tupleQueue = new MultiThreadedTupleQueue( 2 );
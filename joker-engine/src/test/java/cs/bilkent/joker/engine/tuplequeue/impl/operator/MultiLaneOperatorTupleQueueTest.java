@@ -0,0 +1,136 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.operator;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cs.bilkent.joker.engine.tuplequeue.OperatorTupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.impl.drainer.NonBlockingMultiPortConjunctiveDrainer;
+import cs.bilkent.joker.engine.tuplequeue.impl.queue.MultiLaneTupleQueue;
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.impl.TuplesImpl;
+import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByCount.EXACT;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class MultiLaneOperatorTupleQueueTest extends AbstractJokerTest
+{
+
+    private static final int INPUT_PORT_COUNT = 2;
+
+    private static final int TUPLE_QUEUE_CAPACITY = 4;
+
+    private MultiLaneOperatorTupleQueue operatorTupleQueue;
+
+    @Before
+    public void init ()
+    {
+        final MultiLaneTupleQueue[] tupleQueues = new MultiLaneTupleQueue[ INPUT_PORT_COUNT ];
+        for ( int portIndex = 0; portIndex < INPUT_PORT_COUNT; portIndex++ )
+        {
+            tupleQueues[ portIndex ] = new MultiLaneTupleQueue( TUPLE_QUEUE_CAPACITY );
+        }
+
+        operatorTupleQueue = new MultiLaneOperatorTupleQueue( "op1", INPUT_PORT_COUNT, tupleQueues, TUPLE_QUEUE_CAPACITY );
+    }
+
+    @Test
+    public void shouldAddLaneForEachProducer ()
+    {
+        final OperatorTupleQueue[] lanes = operatorTupleQueue.replaceLanes( "producers", 2 );
+
+        assertThat( lanes.length, equalTo( 2 ) );
+        assertNotSame( lanes[ 0 ], lanes[ 1 ] );
+        assertThat( operatorTupleQueue.getLaneCount(), equalTo( 2 ) );
+        assertThat( ( (MultiLaneTupleQueue) operatorTupleQueue.getTupleQueue( 0 ) ).getLaneCount(), equalTo( 3 ) );
+    }
+
+    @Test
+    public void shouldNotAddLaneForSingleProducer ()
+    {
+        final OperatorTupleQueue[] lanes = operatorTupleQueue.replaceLanes( "producers", 1 );
+
+        assertSame( operatorTupleQueue, lanes[ 0 ] );
+        assertThat( operatorTupleQueue.getLaneCount(), equalTo( 0 ) );
+        assertThat( ( (MultiLaneTupleQueue) operatorTupleQueue.getTupleQueue( 0 ) ).getLaneCount(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldRetirePreviousLanesOfProducerGroup ()
+    {
+        operatorTupleQueue.replaceLanes( "producers1", 2 );
+        operatorTupleQueue.replaceLanes( "producers2", 2 );
+
+        operatorTupleQueue.replaceLanes( "producers1", 3 );
+
+        final MultiLaneTupleQueue tupleQueue = (MultiLaneTupleQueue) operatorTupleQueue.getTupleQueue( 0 );
+        assertThat( operatorTupleQueue.getLaneCount(), equalTo( 5 ) );
+        assertThat( tupleQueue.getLaneCount(), equalTo( 6 ) );
+        assertThat( tupleQueue.getRetiredLaneCount(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void shouldPollRetiredLanesBeforeNewLanes ()
+    {
+        final Tuple tuple1 = new Tuple(), tuple2 = new Tuple(), tuple3 = new Tuple(), tuple4 = new Tuple();
+        final OperatorTupleQueue[] lanes1 = operatorTupleQueue.replaceLanes( "producers", 2 );
+        lanes1[ 0 ].offer( 0, asList( tuple1, tuple2 ) );
+        lanes1[ 1 ].offer( 0, singletonList( tuple3 ) );
+
+        final OperatorTupleQueue[] lanes2 = operatorTupleQueue.replaceLanes( "producers", 2 );
+        lanes2[ 0 ].offer( 0, singletonList( tuple4 ) );
+
+        final MultiLaneTupleQueue tupleQueue = (MultiLaneTupleQueue) operatorTupleQueue.getTupleQueue( 0 );
+        assertThat( tupleQueue.poll( 2 ), equalTo( asList( tuple1, tuple2 ) ) );
+        assertThat( tupleQueue.getRetiredLaneCount(), equalTo( 2 ) );
+        assertThat( tupleQueue.poll( 2 ), equalTo( asList( tuple3, tuple4 ) ) );
+        assertThat( tupleQueue.getRetiredLaneCount(), equalTo( 0 ) );
+        assertThat( tupleQueue.getLaneCount(), equalTo( 3 ) );
+    }
+
+    @Test
+    public void shouldDrainTuplesOfAllLanesWithConjunctiveDrainer ()
+    {
+        final Tuple tuple1 = new Tuple(), tuple2 = new Tuple(), tuple3 = new Tuple();
+        final OperatorTupleQueue[] lanes = operatorTupleQueue.replaceLanes( "producers", 2 );
+        lanes[ 0 ].offer( 0, singletonList( tuple1 ) );
+        lanes[ 1 ].offer( 1, singletonList( tuple2 ) );
+        operatorTupleQueue.offer( 0, singletonList( tuple3 ) );
+
+        final NonBlockingMultiPortConjunctiveDrainer drainer = new NonBlockingMultiPortConjunctiveDrainer( INPUT_PORT_COUNT, 1 );
+        drainer.setParameters( EXACT, new int[] { 0, 1 }, new int[] { 2, 1 } );
+        operatorTupleQueue.drain( drainer );
+
+        final TuplesImpl result = drainer.getResult();
+        assertNotNull( result );
+        assertThat( result.getTuples( 0 ), hasSize( 2 ) );
+        assertThat( result.getTuples( 1 ), equalTo( singletonList( tuple2 ) ) );
+        assertThat( operatorTupleQueue.isEmpty(), equalTo( true ) );
+    }
+
+    @Test
+    public void shouldPollLanesInRoundRobinOrder ()
+    {
+        final Tuple tuple1 = new Tuple(), tuple2 = new Tuple(), tuple3 = new Tuple(), tuple4 = new Tuple();
+        final OperatorTupleQueue[] lanes = operatorTupleQueue.replaceLanes( "producers", 2 );
+        lanes[ 0 ].offer( 0, asList( tuple1, tuple2 ) );
+        lanes[ 1 ].offer( 0, asList( tuple3, tuple4 ) );
+
+        final TupleQueue tupleQueue = operatorTupleQueue.getTupleQueue( 0 );
+        final List<Tuple> tuples1 = tupleQueue.poll( 3 );
+        final List<Tuple> tuples2 = tupleQueue.poll( 1 );
+
+        assertThat( tuples1, equalTo( asList( tuple1, tuple2, tuple3 ) ) );
+        assertThat( tuples2, equalTo( singletonList( tuple4 ) ) );
+    }
+
+}
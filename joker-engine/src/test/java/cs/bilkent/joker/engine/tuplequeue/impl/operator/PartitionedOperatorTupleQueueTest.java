@@ -5,11 +5,17 @@ import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 
+import cs.bilkent.joker.engine.partition.PartitionKey;
+import cs.bilkent.joker.engine.partition.PartitionKeyExtractor;
+import cs.bilkent.joker.engine.partition.impl.LongPartitionKey;
+import cs.bilkent.joker.engine.partition.impl.LongPartitionKeyExtractor;
 import cs.bilkent.joker.engine.partition.impl.PartitionKeyExtractor1;
 import cs.bilkent.joker.engine.tuplequeue.impl.TupleQueueContainer;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.GreedyDrainer;
 import cs.bilkent.joker.engine.tuplequeue.impl.drainer.NonBlockingMultiPortDisjunctiveDrainer;
 import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByCount.AT_LEAST;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByCount.EXACT;
 import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByPort.ALL_PORTS;
@@ -19,6 +25,8 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class PartitionedOperatorTupleQueueTest extends AbstractJokerTest
 {
@@ -34,6 +42,8 @@ public class PartitionedOperatorTupleQueueTest extends AbstractJokerTest
     private static final String PARTITION_KEY_FIELD = "key";
 
 
+    private final PartitionKeyExtractor partitionKeyExtractor = new PartitionKeyExtractor1( singletonList( PARTITION_KEY_FIELD ) );
+
     private PartitionedOperatorTupleQueue operatorTupleQueue;
 
     @Before
@@ -45,7 +55,7 @@ public class PartitionedOperatorTupleQueueTest extends AbstractJokerTest
                                                                 PARTITION_COUNT,
                                                                 0,
                                                                 TUPLE_QUEUE_CAPACITY,
-                                                                new PartitionKeyExtractor1( singletonList( PARTITION_KEY_FIELD ) ),
+                                                                partitionKeyExtractor,
                                                                 new TupleQueueContainer[] { container },
                                                                 new int[] { 0 },
                                                                 MAX_DRAINABLE_KEY_COUNT,
@@ -71,6 +81,55 @@ public class PartitionedOperatorTupleQueueTest extends AbstractJokerTest
         assertEquals( tuples, drainer.getResult().getTuples( 0 ) );
     }
 
+    @Test
+    public void testGivenPartitionKeyUsed ()
+    {
+        final Tuple tuple = new Tuple();
+        tuple.set( PARTITION_KEY_FIELD, "key1" );
+        final PartitionKey partitionKey = partitionKeyExtractor.getPartitionKey( tuple );
+        operatorTupleQueue.offer( 0, singletonList( tuple ), singletonList( partitionKey ), 0 );
+
+        final GreedyDrainer drainer = new GreedyDrainer( INPUT_PORT_COUNT );
+        operatorTupleQueue.drain( drainer );
+
+        assertSame( partitionKey, drainer.getKey() );
+    }
+
+    @Test
+    public void testTuplesOfPrimitivePartitionKeyDrained ()
+    {
+        final TupleQueueContainer container = new TupleQueueContainer( "op1", INPUT_PORT_COUNT, 0 );
+        final PartitionedOperatorTupleQueue operatorTupleQueue = new PartitionedOperatorTupleQueue( "op1",
+                                                                                                    INPUT_PORT_COUNT,
+                                                                                                    PARTITION_COUNT,
+                                                                                                    0,
+                                                                                                    TUPLE_QUEUE_CAPACITY,
+                                                                                                    new LongPartitionKeyExtractor(
+                                                                                                            singletonList(
+                                                                                                                    PARTITION_KEY_FIELD ) ),
+                                                                                                    new TupleQueueContainer[] {
+                                                                                                            container },
+                                                                                                    new int[] { 0 },
+                                                                                                    MAX_DRAINABLE_KEY_COUNT,
+                                                                                                    100 );
+        final PortRuntimeSchema schema = new PortRuntimeSchema( singletonList( new RuntimeSchemaField( PARTITION_KEY_FIELD, long.class ) ) );
+        final Tuple tuple1 = new Tuple( schema );
+        tuple1.setLong( PARTITION_KEY_FIELD, 1 );
+        final Tuple tuple2 = new Tuple();
+        tuple2.set( PARTITION_KEY_FIELD, 1L );
+        final List<Tuple> tuples = asList( tuple1, tuple2 );
+        operatorTupleQueue.offer( 0, tuples );
+
+        assertEquals( 1, operatorTupleQueue.getTotalDrainableKeyCount() );
+
+        final GreedyDrainer drainer = new GreedyDrainer( INPUT_PORT_COUNT );
+        operatorTupleQueue.drain( drainer );
+
+        assertEquals( new LongPartitionKey( 1 ), drainer.getKey() );
+        assertEquals( tuples, drainer.getResult().getTuples( 0 ) );
+        assertTrue( operatorTupleQueue.isEmpty() );
+    }
+
     @Test
     public void testOfferedTuplesCounted ()
     {
@@ -0,0 +1,122 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertNull;
+
+public class ManyToOneBatchArrayQueueTest extends AbstractJokerTest
+{
+
+    private static final int PRODUCER_COUNT = 4;
+
+    private static final int ELEMENT_COUNT_PER_PRODUCER = 20000;
+
+    private static final int BATCH_SIZE = 16;
+
+    @Test
+    public void shouldOfferPrefixOfBatchWhenCapacityIsNotEnough ()
+    {
+        final ManyToOneBatchArrayQueue<Integer> queue = new ManyToOneBatchArrayQueue<>( 4 );
+
+        assertThat( queue.offer( asList( 1, 2, 3 ), 1 ), equalTo( 2 ) );
+        assertThat( queue.offer( asList( 4, 5, 6 ), 0 ), equalTo( 2 ) );
+        assertThat( queue.offer( asList( 7, 8 ), 0 ), equalTo( 0 ) );
+        assertThat( queue.size(), equalTo( 4 ) );
+
+        final List<Integer> polled = new ArrayList<>();
+        assertThat( queue.poll( 3, polled ), equalTo( 3 ) );
+        assertThat( polled, equalTo( asList( 2, 3, 4 ) ) );
+        assertThat( queue.offer( asList( 7, 8 ), 0 ), equalTo( 2 ) );
+        assertThat( queue.poll(), equalTo( 5 ) );
+        assertThat( queue.poll(), equalTo( 7 ) );
+        assertThat( queue.poll(), equalTo( 8 ) );
+        assertNull( queue.poll() );
+        assertThat( queue.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldPollBatchesOfMultipleProducersInOrder () throws InterruptedException
+    {
+        final ManyToOneBatchArrayQueue<long[]> queue = new ManyToOneBatchArrayQueue<>( 256 );
+        final CountDownLatch latch = new CountDownLatch( 1 );
+        final List<Thread> producers = new ArrayList<>();
+        for ( int p = 0; p < PRODUCER_COUNT; p++ )
+        {
+            final int producerIndex = p;
+            final Thread producer = new Thread( () ->
+                                                {
+                                                    awaitQuietly( latch );
+                                                    final List<long[]> batch = new ArrayList<>();
+                                                    for ( int i = 0; i < ELEMENT_COUNT_PER_PRODUCER; i++ )
+                                                    {
+                                                        batch.add( new long[] { producerIndex, i } );
+                                                        if ( batch.size() == BATCH_SIZE || i == ELEMENT_COUNT_PER_PRODUCER - 1 )
+                                                        {
+                                                            int offered = 0;
+                                                            while ( offered < batch.size() )
+                                                            {
+                                                                final int o = queue.offer( batch, offered );
+                                                                if ( o == 0 )
+                                                                {
+                                                                    Thread.yield();
+                                                                }
+                                                                offered += o;
+                                                            }
+                                                            batch.clear();
+                                                        }
+                                                    }
+                                                } );
+            producers.add( producer );
+            producer.start();
+        }
+
+        latch.countDown();
+
+        final long[] nextValues = new long[ PRODUCER_COUNT ];
+        final List<long[]> polled = new ArrayList<>();
+        int total = 0;
+        while ( total < PRODUCER_COUNT * ELEMENT_COUNT_PER_PRODUCER )
+        {
+            polled.clear();
+            final int p = queue.poll( BATCH_SIZE * 2, polled );
+            if ( p == 0 )
+            {
+                Thread.yield();
+            }
+            total += p;
+            for ( long[] element : polled )
+            {
+                final int producerIndex = (int) element[ 0 ];
+                assertThat( element[ 1 ], equalTo( nextValues[ producerIndex ]++ ) );
+            }
+        }
+
+        for ( Thread producer : producers )
+        {
+            producer.join();
+        }
+
+        assertThat( queue.size(), equalTo( 0 ) );
+    }
+
+    private static void awaitQuietly ( final CountDownLatch latch )
+    {
+        try
+        {
+            latch.await();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
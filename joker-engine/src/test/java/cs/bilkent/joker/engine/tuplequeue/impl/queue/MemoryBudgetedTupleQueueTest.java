@@ -0,0 +1,152 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
+import static cs.bilkent.joker.engine.tuplequeue.impl.queue.TupleSizeEstimator.NON_SCHEMA_FIELD_SIZE;
+import static cs.bilkent.joker.engine.tuplequeue.impl.queue.TupleSizeEstimator.PRIMITIVE_FIELD_SIZE;
+import static cs.bilkent.joker.engine.tuplequeue.impl.queue.TupleSizeEstimator.SCHEMALESS_TUPLE_FIELD_COUNT;
+import static cs.bilkent.joker.engine.tuplequeue.impl.queue.TupleSizeEstimator.STRING_FIELD_SIZE;
+import static cs.bilkent.joker.engine.tuplequeue.impl.queue.TupleSizeEstimator.TUPLE_OVERHEAD;
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryBudgetedTupleQueueTest extends AbstractJokerTest
+{
+
+    private static final int TUPLE_SIZE = TUPLE_OVERHEAD + PRIMITIVE_FIELD_SIZE + STRING_FIELD_SIZE;
+
+    private static final long SCHEMALESS_TUPLE_SIZE = TUPLE_OVERHEAD + SCHEMALESS_TUPLE_FIELD_COUNT * NON_SCHEMA_FIELD_SIZE;
+
+    private final PortRuntimeSchema schema = new PortRuntimeSchema( asList( new RuntimeSchemaField( "key", long.class ),
+                                                                            new RuntimeSchemaField( "val", String.class ) ) );
+
+    private final TupleQueueMemoryBudget memoryBudget = new TupleQueueMemoryBudget( 3 * TUPLE_SIZE );
+
+    @Test
+    public void shouldAcquireEstimatedSizeOfSchemaFields ()
+    {
+        final MemoryBudgetedTupleQueue queue = new MemoryBudgetedTupleQueue( new MultiThreadedTupleQueue( 4 ), memoryBudget );
+
+        assertTrue( queue.offer( createTuple( 1 ) ) );
+
+        assertThat( memoryBudget.getUsedBytes(), equalTo( (long) TUPLE_SIZE ) );
+    }
+
+    @Test
+    public void shouldAcquireEstimatedSizeOfSchemalessTuple ()
+    {
+        final MemoryBudgetedTupleQueue queue = new MemoryBudgetedTupleQueue( new MultiThreadedTupleQueue( 4 ), memoryBudget );
+        final Tuple tuple = new Tuple();
+        tuple.set( "key", 1 );
+
+        queue.offer( tuple );
+
+        assertThat( memoryBudget.getUsedBytes(), equalTo( SCHEMALESS_TUPLE_SIZE ) );
+    }
+
+    @Test
+    public void shouldReleaseAcquiredSizeOfTupleModifiedInQueue ()
+    {
+        final MemoryBudgetedTupleQueue queue = new MemoryBudgetedTupleQueue( new MultiThreadedTupleQueue( 4 ), memoryBudget );
+        final Tuple tuple1 = createTuple( 1 );
+        final Tuple tuple2 = new Tuple();
+        queue.offer( asList( tuple1, tuple2, new Tuple() ) );
+
+        tuple1.set( "extra1", 1 );
+        tuple1.set( "extra2", 2 );
+        tuple2.set( "key", 1 );
+        tuple2.set( "val", "val" );
+        tuple2.set( "extra", 2 );
+        queue.poll( 2 );
+
+        assertThat( memoryBudget.getUsedBytes(), equalTo( SCHEMALESS_TUPLE_SIZE ) );
+    }
+
+    @Test
+    public void shouldReleaseEstimatedSizeOfPolledTuples ()
+    {
+        final MemoryBudgetedTupleQueue queue = new MemoryBudgetedTupleQueue( new MultiThreadedTupleQueue( 4 ), memoryBudget );
+        queue.offer( createTuples( 3 ) );
+
+        assertTrue( memoryBudget.isExhausted() );
+        assertThat( memoryBudget.getUtilization(), equalTo( 1d ) );
+
+        final List<Tuple> tuples = new ArrayList<>();
+        tuples.add( createTuple( 0 ) );
+        queue.poll( 2, tuples );
+
+        assertFalse( memoryBudget.isExhausted() );
+        assertThat( memoryBudget.getUsedBytes(), equalTo( (long) TUPLE_SIZE ) );
+
+        queue.poll();
+
+        assertThat( memoryBudget.getUsedBytes(), equalTo( 0L ) );
+    }
+
+    @Test
+    public void shouldReleaseEstimatedSizeOfTuplesNotOffered ()
+    {
+        final MemoryBudgetedTupleQueue queue = new MemoryBudgetedTupleQueue( new MultiThreadedTupleQueue( 2 ), memoryBudget );
+
+        assertThat( queue.offer( createTuples( 3 ) ), equalTo( 2 ) );
+
+        assertThat( memoryBudget.getUsedBytes(), equalTo( (long) ( 2 * TUPLE_SIZE ) ) );
+    }
+
+    @Test
+    public void shouldReleaseEstimatedSizeOfTuplesOnClear ()
+    {
+        final MemoryBudgetedTupleQueue queue = new MemoryBudgetedTupleQueue( new MultiThreadedTupleQueue( 4 ), memoryBudget );
+        queue.offer( createTuples( 3 ) );
+
+        queue.clear();
+
+        assertThat( queue.size(), equalTo( 0 ) );
+        assertThat( memoryBudget.getUsedBytes(), equalTo( 0L ) );
+    }
+
+    @Test
+    public void shouldShareBudgetBetweenLanesOfMultiLaneQueue ()
+    {
+        final MultiLaneTupleQueue queue = new MultiLaneTupleQueue( 4, lane -> new MemoryBudgetedTupleQueue( lane, memoryBudget ) );
+        queue.offer( createTuples( 1 ) );
+        queue.addLane().offer( createTuples( 2 ) );
+
+        assertTrue( memoryBudget.isExhausted() );
+
+        queue.poll( 3 );
+
+        assertThat( memoryBudget.getUsedBytes(), equalTo( 0L ) );
+    }
+
+    private List<Tuple> createTuples ( final int count )
+    {
+        final List<Tuple> tuples = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            tuples.add( createTuple( i ) );
+        }
+
+        return tuples;
+    }
+
+    private Tuple createTuple ( final long key )
+    {
+        final Tuple tuple = new Tuple( schema );
+        tuple.setLong( "key", key );
+        tuple.set( "val", "val" );
+        return tuple;
+    }
+
+}
@@ -0,0 +1,187 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static cs.bilkent.joker.engine.tuplequeue.impl.queue.MultiThreadedTupleQueue.SHRINK_POLL_COUNT;
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MultiThreadedTupleQueueTest extends AbstractJokerTest
+{
+
+    private static final int PRODUCER_COUNT = 4;
+
+    private static final int TUPLE_COUNT_PER_PRODUCER = 20000;
+
+    private static final int BATCH_SIZE = 16;
+
+    @Test
+    public void shouldGrowWhenFull ()
+    {
+        final MultiThreadedTupleQueue queue = new MultiThreadedTupleQueue( 4, 16 );
+        final List<Tuple> tuples = createTuples( 20 );
+
+        assertThat( queue.offer( tuples ), equalTo( 20 ) );
+        assertThat( queue.size(), equalTo( 20 ) );
+        assertThat( queue.capacity(), equalTo( 16 ) );
+        assertThat( queue.poll( 20 ), equalTo( tuples ) );
+    }
+
+    @Test
+    public void shouldNotGrowBeyondMaxCapacity ()
+    {
+        final MultiThreadedTupleQueue queue = new MultiThreadedTupleQueue( 4, 8 );
+
+        // the first segment is sealed with 4 tuples and the second segment is filled with 8 tuples
+        assertThat( queue.offer( createTuples( 20 ) ), equalTo( 12 ) );
+        assertFalse( queue.offer( new Tuple() ) );
+        assertThat( queue.size(), equalTo( 12 ) );
+        assertThat( queue.capacity(), equalTo( 8 ) );
+    }
+
+    @Test
+    public void shouldShrinkAfterLowOccupancy ()
+    {
+        final MultiThreadedTupleQueue queue = new MultiThreadedTupleQueue( 4, 16 );
+        queue.offer( createTuples( 20 ) );
+        queue.poll( 20 );
+
+        for ( int i = 0; i < SHRINK_POLL_COUNT; i++ )
+        {
+            queue.poll( 10 );
+        }
+
+        assertThat( queue.capacity(), equalTo( 8 ) );
+
+        final List<Tuple> tuples = createTuples( 2 );
+        queue.offer( tuples );
+        assertThat( queue.poll( 10 ), equalTo( tuples ) );
+        assertThat( queue.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldEnsureCapacityWithoutLosingTuples ()
+    {
+        final MultiThreadedTupleQueue queue = new MultiThreadedTupleQueue( 4 );
+        final List<Tuple> tuples = createTuples( 4 );
+        queue.offer( tuples.subList( 0, 3 ) );
+
+        assertTrue( queue.ensureCapacity( 16 ) );
+        assertFalse( queue.ensureCapacity( 8 ) );
+
+        queue.offer( tuples.subList( 3, 4 ) );
+        assertThat( queue.poll( 10 ), equalTo( tuples ) );
+    }
+
+    @Test
+    public void shouldNotShrinkBelowEnsuredCapacity ()
+    {
+        final MultiThreadedTupleQueue queue = new MultiThreadedTupleQueue( 4, 8 );
+
+        assertTrue( queue.ensureCapacity( 16 ) );
+
+        for ( int i = 0; i < SHRINK_POLL_COUNT; i++ )
+        {
+            queue.poll( 10 );
+        }
+
+        assertThat( queue.capacity(), equalTo( 16 ) );
+    }
+
+    @Test
+    public void shouldNotGrowBeyondEnsuredCapacity ()
+    {
+        final MultiThreadedTupleQueue queue = new MultiThreadedTupleQueue( 4, 8 );
+        queue.offer( createTuples( 2 ) );
+
+        assertTrue( queue.ensureCapacity( 16 ) );
+
+        // the first segment is sealed with 2 tuples and the second segment is filled with 16 tuples
+        assertThat( queue.offer( createTuples( 20 ) ), equalTo( 16 ) );
+        assertThat( queue.size(), equalTo( 18 ) );
+        assertThat( queue.capacity(), equalTo( 16 ) );
+    }
+
+    @Test
+    public void shouldPreserveOrderOfProducersWhileGrowing () throws InterruptedException
+    {
+        final MultiThreadedTupleQueue queue = new MultiThreadedTupleQueue( 16, 1024 );
+        final List<Thread> producers = new ArrayList<>();
+        for ( int p = 0; p < PRODUCER_COUNT; p++ )
+        {
+            final int producerIndex = p;
+            final Thread producer = new Thread( () ->
+                                                {
+                                                    final List<Tuple> batch = new ArrayList<>();
+                                                    for ( int i = 0; i < TUPLE_COUNT_PER_PRODUCER; i++ )
+                                                    {
+                                                        final Tuple tuple = new Tuple();
+                                                        tuple.set( "producer", producerIndex );
+                                                        tuple.set( "seq", i );
+                                                        batch.add( tuple );
+                                                        if ( batch.size() == BATCH_SIZE || i == TUPLE_COUNT_PER_PRODUCER - 1 )
+                                                        {
+                                                            int offered = 0;
+                                                            while ( offered < batch.size() )
+                                                            {
+                                                                final int o = queue.offer( batch, offered );
+                                                                if ( o == 0 )
+                                                                {
+                                                                    Thread.yield();
+                                                                }
+                                                                offered += o;
+                                                            }
+                                                            batch.clear();
+                                                        }
+                                                    }
+                                                } );
+            producers.add( producer );
+            producer.start();
+        }
+
+        final int[] nextSeqs = new int[ PRODUCER_COUNT ];
+        final List<Tuple> polled = new ArrayList<>();
+        int total = 0;
+        while ( total < PRODUCER_COUNT * TUPLE_COUNT_PER_PRODUCER )
+        {
+            polled.clear();
+            final int p = queue.poll( BATCH_SIZE, polled );
+            if ( p == 0 )
+            {
+                Thread.yield();
+            }
+            total += p;
+            for ( Tuple tuple : polled )
+            {
+                final int producerIndex = tuple.getInteger( "producer" );
+                assertThat( tuple.getInteger( "seq" ), equalTo( nextSeqs[ producerIndex ]++ ) );
+            }
+        }
+
+        for ( Thread producer : producers )
+        {
+            producer.join();
+        }
+
+        assertThat( queue.size(), equalTo( 0 ) );
+    }
+
+    private List<Tuple> createTuples ( final int count )
+    {
+        final List<Tuple> tuples = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            tuples.add( new Tuple() );
+        }
+
+        return tuples;
+    }
+
+}
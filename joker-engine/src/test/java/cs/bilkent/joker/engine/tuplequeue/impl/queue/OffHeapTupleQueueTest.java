@@ -0,0 +1,230 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.engine.pipeline.impl.tuplesupplier.TuplePool;
+import cs.bilkent.joker.engine.tuplequeue.impl.codec.BinaryTuple;
+import cs.bilkent.joker.operator.Fields;
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapTupleQueueTest extends AbstractJokerTest
+{
+
+    private final PortRuntimeSchema schema = new PortRuntimeSchema( asList( new RuntimeSchemaField( "key", String.class ),
+                                                                            new RuntimeSchemaField( "value", long.class ) ) );
+
+    private final OffHeapTupleQueue queue = new OffHeapTupleQueue( 16, 32 );
+
+    @Test
+    public void shouldEncodeTuplesOfSchema ()
+    {
+        final Tuple tuple = newTuple( 1 );
+
+        assertTrue( queue.offer( tuple ) );
+
+        final Tuple polled = queue.poll();
+
+        assertThat( polled, not( sameInstance( tuple ) ) );
+        assertThat( polled.getSchema(), sameInstance( schema ) );
+        assertThat( polled, equalTo( tuple ) );
+        assertThat( queue.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldKeepOrderOfEncodedAndHeapTuples ()
+    {
+        final Tuple heapTuple = newTuple( 2 );
+        heapTuple.set( "extra", "value" );
+
+        queue.offer( asList( newTuple( 1 ), heapTuple, newTuple( 3 ) ) );
+
+        final List<Tuple> tuples = queue.poll( Integer.MAX_VALUE );
+
+        assertThat( tuples, hasSize( 3 ) );
+        assertThat( tuples.get( 0 ).getLong( "value" ), equalTo( 1L ) );
+        assertThat( tuples.get( 1 ), sameInstance( heapTuple ) );
+        assertThat( tuples.get( 2 ).getLong( "value" ), equalTo( 3L ) );
+    }
+
+    @Test
+    public void shouldNotOfferWhenRingBufferIsFull ()
+    {
+        int offered = 0;
+        while ( queue.offer( newTuple( offered ) ) )
+        {
+            offered++;
+        }
+
+        assertThat( queue.size(), equalTo( offered ) );
+        assertFalse( queue.offer( newTuple( offered ) ) );
+    }
+
+    @Test
+    public void shouldEnsureCapacity ()
+    {
+        int offered = 0;
+        while ( queue.offer( newTuple( offered ) ) )
+        {
+            offered++;
+        }
+
+        assertTrue( queue.ensureCapacity( 1024 ) );
+        assertTrue( queue.offer( newTuple( offered ) ) );
+
+        final List<Tuple> tuples = queue.poll( Integer.MAX_VALUE );
+
+        assertThat( tuples, hasSize( offered + 1 ) );
+        for ( int i = 0; i < tuples.size(); i++ )
+        {
+            assertThat( tuples.get( i ).getLong( "value" ), equalTo( (long) i ) );
+        }
+    }
+
+    @Test
+    public void shouldNotOfferHeapTupleWhenItsSlotIsOccupied ()
+    {
+        int offered = 0;
+        while ( queue.offer( new Tuple() ) )
+        {
+            offered++;
+        }
+
+        assertThat( offered, equalTo( 16 ) );
+        assertThat( queue.size(), equalTo( offered ) );
+
+        queue.poll();
+
+        assertTrue( queue.offer( new Tuple() ) );
+    }
+
+    @Test
+    public void shouldKeepHeapTuplesWhenCapacityIsEnsured ()
+    {
+        final List<Tuple> tuples = new ArrayList<>();
+        for ( int i = 0; i < 16; i++ )
+        {
+            final Tuple tuple = new Tuple();
+            tuple.set( "value", i );
+            tuples.add( tuple );
+        }
+        queue.offer( tuples );
+
+        assertTrue( queue.ensureCapacity( 1024 ) );
+        assertTrue( queue.offer( new Tuple() ) );
+
+        final List<Tuple> polled = queue.poll( 16 );
+
+        assertThat( polled, equalTo( tuples ) );
+        for ( int i = 0; i < 16; i++ )
+        {
+            assertThat( polled.get( i ), sameInstance( tuples.get( i ) ) );
+        }
+    }
+
+    @Test
+    public void shouldDecodeIntoRecycledTuples ()
+    {
+        final TuplePool tuplePool = new TuplePool( 4 );
+        final OffHeapTupleQueue queue = new OffHeapTupleQueue( 16, 32, tuplePool );
+
+        queue.offer( newTuple( 1 ) );
+        final Tuple polled1 = queue.poll();
+        polled1.release();
+
+        assertThat( tuplePool.getAvailableTupleCount( schema ), equalTo( 1 ) );
+
+        queue.offer( newTuple( 2 ) );
+        final Tuple polled2 = queue.poll();
+
+        assertThat( polled2, sameInstance( polled1 ) );
+        assertThat( polled2, equalTo( newTuple( 2 ) ) );
+        assertThat( tuplePool.getAvailableTupleCount( schema ), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldReleaseEncodedTuple ()
+    {
+        final Tuple[] recycled = new Tuple[ 1 ];
+        final Tuple tuple = new Tuple( schema, t -> recycled[ 0 ] = t );
+        tuple.setLong( "value", 1 );
+        tuple.retain( 1 );
+
+        queue.offer( tuple );
+
+        assertThat( recycled[ 0 ], sameInstance( tuple ) );
+    }
+
+    @Test
+    public void shouldClearQueue ()
+    {
+        queue.offer( newTuple( 1 ) );
+        queue.offer( new Tuple() );
+
+        queue.clear();
+
+        assertThat( queue.size(), equalTo( 0 ) );
+        assertThat( queue.poll( Integer.MAX_VALUE ), hasSize( 0 ) );
+    }
+
+    @Test
+    public void shouldPollEncodedTuplesWithFlyweight ()
+    {
+        final Tuple heapTuple = newTuple( 2 );
+        heapTuple.set( "extra", "value" );
+        queue.offer( asList( newTuple( 1 ), heapTuple, newTuple( 3 ) ) );
+
+        final List<Long> values = new ArrayList<>();
+        final List<Fields<String>> polled = new ArrayList<>();
+        final int count = queue.poll( Integer.MAX_VALUE, tuple -> {
+            values.add( tuple.getLongValueOrDefault( "value", -1 ) );
+            polled.add( tuple );
+        } );
+
+        assertThat( count, equalTo( 3 ) );
+        assertThat( values, equalTo( asList( 1L, 2L, 3L ) ) );
+        assertThat( polled.get( 0 ), instanceOf( BinaryTuple.class ) );
+        assertThat( polled.get( 1 ), sameInstance( heapTuple ) );
+        assertThat( polled.get( 2 ), sameInstance( polled.get( 0 ) ) );
+        assertThat( queue.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldPollGivenNumberOfTuplesWithFlyweight ()
+    {
+        queue.offer( asList( newTuple( 1 ), newTuple( 2 ) ) );
+
+        final List<Tuple> polled = new ArrayList<>();
+        final int count = queue.poll( 1, tuple -> polled.add( ( (BinaryTuple) tuple ).toTuple() ) );
+
+        assertThat( count, equalTo( 1 ) );
+        assertThat( polled, equalTo( singletonList( newTuple( 1 ) ) ) );
+        assertThat( queue.size(), equalTo( 1 ) );
+        assertThat( queue.poll(), equalTo( newTuple( 2 ) ) );
+    }
+
+    private Tuple newTuple ( final long value )
+    {
+        final Tuple tuple = new Tuple( schema );
+        tuple.set( "key", "key" + value );
+        tuple.setLong( "value", value );
+
+        return tuple;
+    }
+
+}
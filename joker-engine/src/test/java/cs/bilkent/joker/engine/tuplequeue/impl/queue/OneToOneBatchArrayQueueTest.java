@@ -0,0 +1,104 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertNull;
+
+public class OneToOneBatchArrayQueueTest extends AbstractJokerTest
+{
+
+    private static final int ELEMENT_COUNT = 50000;
+
+    private static final int BATCH_SIZE = 16;
+
+    @Test
+    public void shouldOfferPrefixOfBatchWhenCapacityIsNotEnough ()
+    {
+        final OneToOneBatchArrayQueue<Integer> queue = new OneToOneBatchArrayQueue<>( 4 );
+
+        assertThat( queue.offer( asList( 1, 2, 3 ), 1 ), equalTo( 2 ) );
+        assertThat( queue.offer( asList( 4, 5, 6 ), 0 ), equalTo( 2 ) );
+        assertThat( queue.offer( asList( 7, 8 ), 0 ), equalTo( 0 ) );
+        assertThat( queue.size(), equalTo( 4 ) );
+
+        final List<Integer> polled = new ArrayList<>();
+        assertThat( queue.poll( 3, polled ), equalTo( 3 ) );
+        assertThat( polled, equalTo( asList( 2, 3, 4 ) ) );
+        assertThat( queue.offer( asList( 7, 8 ), 0 ), equalTo( 2 ) );
+        assertThat( queue.poll(), equalTo( 5 ) );
+        assertThat( queue.poll(), equalTo( 7 ) );
+        assertThat( queue.poll(), equalTo( 8 ) );
+        assertNull( queue.poll() );
+        assertThat( queue.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldClearQueue ()
+    {
+        final OneToOneBatchArrayQueue<Integer> queue = new OneToOneBatchArrayQueue<>( 4 );
+        queue.offer( asList( 1, 2, 3 ), 0 );
+
+        queue.clear();
+
+        assertThat( queue.size(), equalTo( 0 ) );
+        assertNull( queue.poll() );
+        assertThat( queue.offer( asList( 4, 5, 6, 7 ), 0 ), equalTo( 4 ) );
+        assertThat( queue.poll(), equalTo( 4 ) );
+    }
+
+    @Test
+    public void shouldPollBatchesOfProducerInOrder () throws InterruptedException
+    {
+        final OneToOneBatchArrayQueue<Integer> queue = new OneToOneBatchArrayQueue<>( 64 );
+        final Thread producer = new Thread( () ->
+                                            {
+                                                final List<Integer> batch = new ArrayList<>();
+                                                for ( int i = 0; i < ELEMENT_COUNT; i++ )
+                                                {
+                                                    batch.add( i );
+                                                    if ( batch.size() == BATCH_SIZE || i == ELEMENT_COUNT - 1 )
+                                                    {
+                                                        int offered = 0;
+                                                        while ( offered < batch.size() )
+                                                        {
+                                                            final int o = queue.offer( batch, offered );
+                                                            if ( o == 0 )
+                                                            {
+                                                                Thread.yield();
+                                                            }
+                                                            offered += o;
+                                                        }
+                                                        batch.clear();
+                                                    }
+                                                }
+                                            } );
+        producer.start();
+
+        final List<Integer> polled = new ArrayList<>();
+        int next = 0;
+        while ( next < ELEMENT_COUNT )
+        {
+            polled.clear();
+            if ( queue.poll( BATCH_SIZE * 2, polled ) == 0 )
+            {
+                Thread.yield();
+            }
+            for ( Integer element : polled )
+            {
+                assertThat( element, equalTo( next++ ) );
+            }
+        }
+
+        producer.join();
+
+        assertThat( queue.size(), equalTo( 0 ) );
+    }
+
+}
@@ -0,0 +1,74 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SignallingTupleQueueTest extends AbstractJokerTest
+{
+
+    private static final long PARK_TIMEOUT_NANOS = SECONDS.toNanos( 30 );
+
+    @Test
+    public void shouldOfferWithoutWaiter ()
+    {
+        final TupleQueue queue = new SignallingTupleQueue( new MultiThreadedTupleQueue( 4 ) );
+
+        assertTrue( queue.offer( new Tuple() ) );
+        assertThat( queue.offer( asList( new Tuple(), new Tuple() ) ), equalTo( 2 ) );
+        assertThat( queue.size(), equalTo( 3 ) );
+    }
+
+    @Test
+    public void shouldUnparkWaiterWhenSizeReachesThreshold ()
+    {
+        final TupleQueue queue = new SignallingTupleQueue( new MultiThreadedTupleQueue( 4 ) );
+
+        assertTrue( queue.registerWaiter( 2 ) );
+        queue.offer( asList( new Tuple(), new Tuple() ) );
+
+        assertParkReturnsWithSignal();
+        queue.deregisterWaiter();
+    }
+
+    @Test
+    public void shouldUnparkWaiterWhenTotalSizeOfLanesReachesThreshold ()
+    {
+        final MultiLaneTupleQueue queue = new MultiLaneTupleQueue( 4, lane -> lane, true );
+        final TupleQueue lane = queue.addLane();
+
+        assertTrue( queue.registerWaiter( 2 ) );
+        queue.offer( new Tuple() );
+        lane.offer( new Tuple() );
+
+        assertParkReturnsWithSignal();
+        queue.deregisterWaiter();
+    }
+
+    @Test
+    public void shouldNotRegisterWaiterToMultiLaneQueueWithoutSignalling ()
+    {
+        assertFalse( new MultiLaneTupleQueue( 4 ).registerWaiter( 1 ) );
+    }
+
+    // the producer runs in the current thread, hence its signal is kept as the permit of the current thread
+    private void assertParkReturnsWithSignal ()
+    {
+        final long start = System.nanoTime();
+        LockSupport.parkNanos( PARK_TIMEOUT_NANOS );
+
+        assertThat( System.nanoTime() - start, lessThan( PARK_TIMEOUT_NANOS ) );
+    }
+
+}
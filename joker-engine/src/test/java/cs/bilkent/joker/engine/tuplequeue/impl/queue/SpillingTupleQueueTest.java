@@ -0,0 +1,184 @@
+package cs.bilkent.joker.engine.tuplequeue.impl.queue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueSpillMetrics;
+import cs.bilkent.joker.operator.Tuple;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Arrays.asList;
+import static java.util.Comparator.reverseOrder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpillingTupleQueueTest extends AbstractJokerTest
+{
+
+    private static final int SEGMENT_SIZE = 128;
+
+
+    private final PortRuntimeSchema schema = new PortRuntimeSchema( asList( new RuntimeSchemaField( "key", String.class ),
+                                                                            new RuntimeSchemaField( "value", long.class ) ) );
+
+    private final TupleQueueSpillMetrics spillMetrics = new TupleQueueSpillMetrics();
+
+    private Path spillDirectory;
+
+    private SpillingTupleQueue queue;
+
+    @Before
+    public void init () throws IOException
+    {
+        spillDirectory = Files.createTempDirectory( "joker-spill-test" );
+        queue = new SpillingTupleQueue( new MultiThreadedTupleQueue( 2 ), spillDirectory, SEGMENT_SIZE, spillMetrics );
+    }
+
+    @After
+    public void tearDown () throws IOException
+    {
+        try
+        {
+            if ( queue != null )
+            {
+                queue.clear();
+            }
+        }
+        finally
+        {
+            // segment files may be left if the queue fails
+            try ( Stream<Path> paths = Files.walk( spillDirectory ) )
+            {
+                paths.sorted( reverseOrder() ).map( Path::toFile ).forEach( File::delete );
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotSpillWhenQueueIsNotFull ()
+    {
+        assertTrue( queue.offer( newTuple( 0 ) ) );
+        assertTrue( queue.offer( newTuple( 1 ) ) );
+
+        assertFalse( queue.isSpilling() );
+        assertThat( spillMetrics.getSpilledBytes(), equalTo( 0L ) );
+    }
+
+    @Test
+    public void shouldSpillAndReplayTuplesInOrder ()
+    {
+        final int count = 20;
+        for ( int i = 0; i < count; i++ )
+        {
+            assertTrue( queue.offer( newTuple( i ) ) );
+        }
+
+        assertTrue( queue.isSpilling() );
+        assertThat( queue.size(), equalTo( count ) );
+        assertThat( queue.getSpillSegmentCount(), greaterThan( 1 ) );
+        assertThat( spillMetrics.getReplayLagInTuples(), equalTo( (long) ( count - 2 ) ) );
+
+        final List<Tuple> tuples = new ArrayList<>();
+        while ( queue.poll( 3, tuples ) > 0 )
+        {
+            // replays the spilled tuples in small batches
+        }
+
+        assertThat( tuples, hasSize( count ) );
+        for ( int i = 0; i < count; i++ )
+        {
+            assertThat( tuples.get( i ).getLong( "value" ), equalTo( (long) i ) );
+            assertThat( tuples.get( i ).getSchema(), sameInstance( schema ) );
+        }
+
+        assertFalse( queue.isSpilling() );
+        assertThat( queue.size(), equalTo( 0 ) );
+        assertThat( queue.getSpillSegmentCount(), equalTo( 0 ) );
+        assertThat( spillMetrics.getSpilledBytes(), greaterThan( 0L ) );
+        assertThat( spillMetrics.getReplayLagInBytes(), equalTo( 0L ) );
+        assertThat( spillMetrics.getReplayLagInTuples(), equalTo( 0L ) );
+    }
+
+    @Test
+    public void shouldKeepSpillingUntilSpilledTuplesAreReplayed ()
+    {
+        queue.offer( asList( newTuple( 0 ), newTuple( 1 ), newTuple( 2 ) ) );
+
+        assertThat( queue.poll().getLong( "value" ), equalTo( 0L ) );
+
+        queue.offer( newTuple( 3 ) );
+
+        final List<Tuple> tuples = queue.poll( Integer.MAX_VALUE );
+
+        assertThat( tuples, hasSize( 3 ) );
+        assertThat( tuples.get( 0 ).getLong( "value" ), equalTo( 1L ) );
+        assertThat( tuples.get( 1 ).getLong( "value" ), equalTo( 2L ) );
+        assertThat( tuples.get( 2 ).getLong( "value" ), equalTo( 3L ) );
+    }
+
+    @Test
+    public void shouldKeepTuplesWhichCannotBeEncodedOnHeap ()
+    {
+        final Tuple heapTuple = newTuple( 3 );
+        heapTuple.set( "extra", "value" );
+
+        queue.offer( asList( newTuple( 0 ), newTuple( 1 ), newTuple( 2 ), heapTuple, newTuple( 4 ) ) );
+
+        final List<Tuple> tuples = queue.poll( Integer.MAX_VALUE );
+
+        assertThat( tuples, hasSize( 5 ) );
+        assertThat( tuples.get( 2 ).getLong( "value" ), equalTo( 2L ) );
+        assertThat( tuples.get( 3 ), sameInstance( heapTuple ) );
+        assertThat( tuples.get( 4 ).getLong( "value" ), equalTo( 4L ) );
+    }
+
+    @Test
+    public void shouldDeleteSegmentFilesOnClear () throws IOException
+    {
+        for ( int i = 0; i < 20; i++ )
+        {
+            queue.offer( newTuple( i ) );
+        }
+
+        assertThat( countSpillFiles(), greaterThan( 1L ) );
+
+        queue.clear();
+
+        assertThat( queue.size(), equalTo( 0 ) );
+        assertFalse( queue.isSpilling() );
+        assertThat( countSpillFiles(), equalTo( 0L ) );
+        assertThat( spillMetrics.getReplayLagInTuples(), equalTo( 0L ) );
+    }
+
+    private long countSpillFiles () throws IOException
+    {
+        try ( Stream<Path> files = Files.list( spillDirectory ) )
+        {
+            return files.count();
+        }
+    }
+
+    private Tuple newTuple ( final long value )
+    {
+        final Tuple tuple = new Tuple( schema );
+        tuple.set( "key", "key" + value );
+        tuple.setLong( "value", value );
+        return tuple;
+    }
+
+}
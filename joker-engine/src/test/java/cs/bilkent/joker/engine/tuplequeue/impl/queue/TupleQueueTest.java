@@ -11,6 +11,7 @@ import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
 import cs.bilkent.joker.engine.tuplequeue.TupleQueue;
+import cs.bilkent.joker.engine.tuplequeue.TupleQueueMemoryBudget;
 import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.test.AbstractJokerTest;
 import static java.util.Arrays.asList;
@@ -29,7 +30,12 @@ public class TupleQueueTest extends AbstractJokerTest
     public static Collection<Object[]> data ()
     {
         return asList( new Object[][] { { new SingleThreadedTupleQueue( QUEUE_CAPACITY ) },
-                                        { new MultiThreadedTupleQueue( QUEUE_CAPACITY ) } } );
+                                        { new MultiThreadedTupleQueue( QUEUE_CAPACITY ) },
+                                        { new SingleProducerTupleQueue( QUEUE_CAPACITY ) },
+                                        { new MultiLaneTupleQueue( QUEUE_CAPACITY ) },
+                                        { new MemoryBudgetedTupleQueue( new MultiThreadedTupleQueue( QUEUE_CAPACITY ),
+                                                                        new TupleQueueMemoryBudget( 1024 ) ) },
+                                        { new OffHeapTupleQueue( QUEUE_CAPACITY, 64 ) } } );
     }
 
 
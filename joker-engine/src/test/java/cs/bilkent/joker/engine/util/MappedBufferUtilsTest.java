@@ -0,0 +1,40 @@
+package cs.bilkent.joker.engine.util;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static org.junit.Assert.assertTrue;
+
+public class MappedBufferUtilsTest extends AbstractJokerTest
+{
+
+    @Test
+    public void shouldUnmapBuffer () throws IOException
+    {
+        final Path path = Files.createTempFile( "joker-mapped-buffer-test", ".tmp" );
+        try
+        {
+            final MappedByteBuffer buffer;
+            try ( RandomAccessFile file = new RandomAccessFile( path.toFile(), "rw" ); FileChannel channel = file.getChannel() )
+            {
+                buffer = channel.map( READ_WRITE, 0, 64 );
+            }
+            buffer.putInt( 0, 1 );
+
+            assertTrue( MappedBufferUtils.unmap( buffer ) );
+        }
+        finally
+        {
+            Files.deleteIfExists( path );
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package cs.bilkent.joker.engine.util.concurrent;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BusySpinIdleStrategyTest extends AbstractJokerTest
+{
+
+    private final BusySpinIdleStrategy idleStrategy = new BusySpinIdleStrategy( 2 );
+
+    @Test
+    public void testIdle ()
+    {
+        assertFalse( idleStrategy.idle() );
+        assertFalse( idleStrategy.idle() );
+        assertTrue( idleStrategy.idle() );
+        assertTrue( idleStrategy.idle() );
+    }
+
+    @Test
+    public void testReset ()
+    {
+        testIdle();
+        idleStrategy.reset();
+        testIdle();
+    }
+
+}
@@ -0,0 +1,36 @@
+package cs.bilkent.joker.operator;
+
+import cs.bilkent.joker.operator.spec.OperatorType;
+
+/**
+ * Batch-aware extension of {@link Operator} for the {@link OperatorType#STATELESS} operators with a single input port and a single
+ * output port. The runtime engine can pass the tuples to consecutive columnar operators of a pipeline as {@link ColumnarTuples}
+ * batches, and materialize the {@link Tuple} objects only when the tuples leave the pipeline or reach an operator which does not support
+ * columnar invocation.
+ * <p/>
+ * A columnar operator must still implement {@link Operator#invoke(InvocationContext)}, since the runtime engine may also invoke it with
+ * the {@link Tuple} objects, i.e., when the input tuples contain fields that are not present in their schema.
+ */
+public interface ColumnarOperator extends Operator
+{
+
+    /**
+     * Returns true if the operator is configured to be invoked with {@link ColumnarTuples} batches. It is called after
+     * {@link Operator#init(InitializationContext)}.
+     *
+     * @return true if the operator is configured to be invoked with {@link ColumnarTuples} batches
+     */
+    boolean isColumnarInvocationEnabled ();
+
+    /**
+     * Processes the selected rows of the given batch and returns the output batch. The operator can return the input batch itself after
+     * modifying its selection vector, or a batch owned by the operator. The returned batch is valid only until the next invocation.
+     *
+     * @param input
+     *         input tuples of the invocation
+     *
+     * @return output tuples of the invocation
+     */
+    ColumnarTuples invoke ( ColumnarTuples input );
+
+}
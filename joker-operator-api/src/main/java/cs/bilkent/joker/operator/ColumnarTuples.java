@@ -0,0 +1,548 @@
+package cs.bilkent.joker.operator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static cs.bilkent.joker.impl.com.google.common.base.Preconditions.checkArgument;
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
+
+/**
+ * Columnar representation of a batch of tuples with a fixed {@link TupleSchema}. Values of each schema field are kept in a separate
+ * array. Values of {@link Long}, {@link Integer}, {@link Double} and {@link Boolean} fields are kept in primitive arrays, and values of
+ * other fields are kept in object arrays.
+ * <p/>
+ * Rows of the batch are filtered via a selection vector, which contains indices of the selected rows in increasing order. Filtering
+ * a batch does not move the column values. Batch-aware operators must process only the selected rows.
+ * <p/>
+ * Column arrays can be re-allocated when the row count of the batch increases. Therefore, column arrays must be obtained again after
+ * {@link #add(Tuple)} and {@link #resize(int)} calls.
+ *
+ * @see ColumnarOperator
+ */
+@NotThreadSafe
+public final class ColumnarTuples
+{
+
+    /**
+     * Tests a row of a {@link ColumnarTuples} batch
+     */
+    @FunctionalInterface
+    public interface RowPredicate
+    {
+
+        boolean test ( ColumnarTuples tuples, int row );
+
+    }
+
+
+    private final TupleSchema schema;
+
+    private final int fieldCount;
+
+    private final Class<?>[] columnTypes;
+
+    private final Object[] columns;
+
+    // null flags of the primitive columns. they are null for the object columns
+    private final boolean[][] nulls;
+
+    private int capacity;
+
+    private int rowCount;
+
+    private int[] selection;
+
+    private int selectedCount;
+
+    public ColumnarTuples ( final TupleSchema schema, final int initialCapacity )
+    {
+        checkArgument( schema != null, "schema can't be null" );
+        checkArgument( initialCapacity > 0, "invalid initial capacity: %s", initialCapacity );
+        this.schema = schema;
+        this.fieldCount = schema.getFieldCount();
+        this.columnTypes = new Class<?>[ fieldCount ];
+        this.columns = new Object[ fieldCount ];
+        this.nulls = new boolean[ fieldCount ][];
+        this.capacity = initialCapacity;
+        this.selection = new int[ initialCapacity ];
+        for ( int i = 0; i < fieldCount; i++ )
+        {
+            final Class<?> type = schema.getPrimitiveFieldType( i );
+            columnTypes[ i ] = type != null ? type : Object.class;
+            columns[ i ] = newColumn( columnTypes[ i ], initialCapacity );
+            if ( type != null )
+            {
+                nulls[ i ] = new boolean[ initialCapacity ];
+            }
+        }
+    }
+
+    public TupleSchema getSchema ()
+    {
+        return schema;
+    }
+
+    /**
+     * Returns number of the rows in the batch, including the rows which are not selected
+     *
+     * @return number of the rows in the batch, including the rows which are not selected
+     */
+    public int getRowCount ()
+    {
+        return rowCount;
+    }
+
+    /**
+     * Returns number of the selected rows
+     *
+     * @return number of the selected rows
+     */
+    public int getSelectedCount ()
+    {
+        return selectedCount;
+    }
+
+    public boolean isEmpty ()
+    {
+        return selectedCount == 0;
+    }
+
+    /**
+     * Returns the selection vector. Only the first {@link #getSelectedCount()} elements of the selection vector are valid.
+     * The selection vector can be modified in place to filter the rows, followed by a {@link #setSelectedCount(int)} call.
+     *
+     * @return the selection vector
+     */
+    public int[] getSelection ()
+    {
+        return selection;
+    }
+
+    /**
+     * Returns index of the selected row with the given order
+     *
+     * @param i
+     *         order of the selected row
+     *
+     * @return index of the selected row with the given order
+     */
+    public int getSelectedRow ( final int i )
+    {
+        checkArgument( i >= 0 && i < selectedCount, "invalid selection index: %s selected count: %s", i, selectedCount );
+        return selection[ i ];
+    }
+
+    public void setSelectedCount ( final int selectedCount )
+    {
+        checkArgument( selectedCount >= 0 && selectedCount <= this.selectedCount,
+                       "invalid selected count: %s current selected count: %s",
+                       selectedCount,
+                       this.selectedCount );
+        this.selectedCount = selectedCount;
+    }
+
+    /**
+     * Removes the selected rows which do not satisfy the given predicate from the selection vector
+     *
+     * @param predicate
+     *         predicate to test the selected rows
+     */
+    public void filter ( final RowPredicate predicate )
+    {
+        int count = 0;
+        for ( int i = 0; i < selectedCount; i++ )
+        {
+            final int row = selection[ i ];
+            if ( predicate.test( this, row ) )
+            {
+                selection[ count++ ] = row;
+            }
+        }
+
+        selectedCount = count;
+    }
+
+    /**
+     * Sets number of the rows in the batch and selects all of them. Values of the rows are not reset.
+     *
+     * @param rowCount
+     *         new row count of the batch
+     */
+    public void resize ( final int rowCount )
+    {
+        checkArgument( rowCount >= 0, "invalid row count: %s", rowCount );
+        ensureCapacity( rowCount );
+        for ( int i = 0; i < fieldCount; i++ )
+        {
+            if ( nulls[ i ] != null )
+            {
+                Arrays.fill( nulls[ i ], 0, rowCount, false );
+            }
+        }
+
+        this.rowCount = rowCount;
+        for ( int i = 0; i < rowCount; i++ )
+        {
+            selection[ i ] = i;
+        }
+        this.selectedCount = rowCount;
+    }
+
+    /**
+     * Appends the given tuple as a new selected row if it has the same schema with the batch and has no field out of the schema
+     *
+     * @param tuple
+     *         tuple to append
+     *
+     * @return true if the tuple is appended, false otherwise
+     */
+    public boolean add ( final Tuple tuple )
+    {
+        if ( !isAddable( tuple ) )
+        {
+            return false;
+        }
+
+        append( tuple );
+
+        return true;
+    }
+
+    /**
+     * Appends values of the schema fields of the given tuple as a new selected row if it has the same schema with the batch. Fields of
+     * the tuple which are not present in the schema are ignored.
+     *
+     * @param tuple
+     *         tuple to append
+     *
+     * @return true if the tuple is appended, false otherwise
+     */
+    public boolean addSchemaFields ( final Tuple tuple )
+    {
+        if ( tuple.getSchema() != schema )
+        {
+            return false;
+        }
+
+        append( tuple );
+
+        return true;
+    }
+
+    private void append ( final Tuple tuple )
+    {
+        ensureCapacity( rowCount + 1 );
+        final int row = rowCount++;
+        for ( int i = 0; i < fieldCount; i++ )
+        {
+            final Class<?> type = columnTypes[ i ];
+            if ( type == Object.class )
+            {
+                ( (Object[]) columns[ i ] )[ row ] = tuple.getAtSchemaIndex( i );
+                continue;
+            }
+
+            final boolean isNull = !tuple.containsAtSchemaIndex( i );
+            nulls[ i ][ row ] = isNull;
+            if ( isNull )
+            {
+                continue;
+            }
+
+            if ( type == Long.class )
+            {
+                ( (long[]) columns[ i ] )[ row ] = tuple.getLongAtSchemaIndexOrDefault( i, 0 );
+            }
+            else if ( type == Integer.class )
+            {
+                ( (int[]) columns[ i ] )[ row ] = tuple.getIntegerAtSchemaIndexOrDefault( i, 0 );
+            }
+            else if ( type == Double.class )
+            {
+                ( (double[]) columns[ i ] )[ row ] = tuple.getDoubleAtSchemaIndexOrDefault( i, 0 );
+            }
+            else
+            {
+                ( (boolean[]) columns[ i ] )[ row ] = tuple.getBooleanAtSchemaIndexOrDefault( i, false );
+            }
+        }
+
+        selection[ selectedCount++ ] = row;
+    }
+
+    /**
+     * Appends the given tuples as new selected rows if all of them can be appended. Otherwise, the batch is not modified.
+     *
+     * @param tuples
+     *         tuples to append
+     *
+     * @return true if the tuples are appended, false otherwise
+     *
+     * @see #add(Tuple)
+     */
+    public boolean addAll ( final List<Tuple> tuples )
+    {
+        for ( int i = 0, j = tuples.size(); i < j; i++ )
+        {
+            if ( !isAddable( tuples.get( i ) ) )
+            {
+                return false;
+            }
+        }
+
+        ensureCapacity( rowCount + tuples.size() );
+        for ( int i = 0, j = tuples.size(); i < j; i++ )
+        {
+            append( tuples.get( i ) );
+        }
+
+        return true;
+    }
+
+    /**
+     * Appends schema fields of the tuples starting from the given index to a batch until a tuple with another schema is found. The given
+     * batch is cleared and reused if it has the schema of the tuple at the given index. Otherwise, a new batch is created with the given
+     * initial capacity. Number of the appended tuples is the row count of the returned batch.
+     *
+     * @param batch
+     *         batch to reuse, or null
+     * @param tuples
+     *         tuples to append
+     * @param fromIndex
+     *         index of the first tuple to append
+     * @param initialCapacity
+     *         initial capacity of the batch if a new one is created
+     *
+     * @return the batch containing the appended tuples
+     *
+     * @see #addSchemaFields(Tuple)
+     */
+    public static ColumnarTuples toBatch ( final ColumnarTuples batch,
+                                           final List<Tuple> tuples,
+                                           final int fromIndex,
+                                           final int initialCapacity )
+    {
+        final TupleSchema schema = tuples.get( fromIndex ).getSchema();
+        final ColumnarTuples target;
+        if ( batch == null || batch.getSchema() != schema )
+        {
+            target = new ColumnarTuples( schema, initialCapacity );
+        }
+        else
+        {
+            target = batch;
+            target.clear();
+        }
+
+        int i = fromIndex;
+        while ( i < tuples.size() && target.addSchemaFields( tuples.get( i ) ) )
+        {
+            i++;
+        }
+
+        return target;
+    }
+
+    private boolean isAddable ( final Tuple tuple )
+    {
+        return tuple.getSchema() == schema && !tuple.hasNonSchemaFields();
+    }
+
+    public long[] getLongColumn ( final int fieldIndex )
+    {
+        return (long[]) getColumn( fieldIndex, Long.class );
+    }
+
+    public int[] getIntegerColumn ( final int fieldIndex )
+    {
+        return (int[]) getColumn( fieldIndex, Integer.class );
+    }
+
+    public double[] getDoubleColumn ( final int fieldIndex )
+    {
+        return (double[]) getColumn( fieldIndex, Double.class );
+    }
+
+    public boolean[] getBooleanColumn ( final int fieldIndex )
+    {
+        return (boolean[]) getColumn( fieldIndex, Boolean.class );
+    }
+
+    public Object[] getObjectColumn ( final int fieldIndex )
+    {
+        return (Object[]) getColumn( fieldIndex, Object.class );
+    }
+
+    private Object getColumn ( final int fieldIndex, final Class<?> type )
+    {
+        checkArgument( fieldIndex >= 0 && fieldIndex < fieldCount, "invalid field index: %s", fieldIndex );
+        checkArgument( columnTypes[ fieldIndex ] == type,
+                       "field: %s is kept in a column of %s",
+                       schema.getFieldAt( fieldIndex ),
+                       columnTypes[ fieldIndex ] );
+        return columns[ fieldIndex ];
+    }
+
+    /**
+     * Returns true if the given field has no value in the given row
+     *
+     * @param fieldIndex
+     *         index of the field in the schema
+     * @param row
+     *         index of the row
+     *
+     * @return true if the given field has no value in the given row
+     */
+    public boolean isNull ( final int fieldIndex, final int row )
+    {
+        checkArgument( row >= 0 && row < rowCount, "invalid row: %s row count: %s", row, rowCount );
+        final boolean[] nulls = this.nulls[ fieldIndex ];
+        return nulls != null ? nulls[ row ] : ( (Object[]) columns[ fieldIndex ] )[ row ] == null;
+    }
+
+    /**
+     * Removes value of the given field in the given row
+     *
+     * @param fieldIndex
+     *         index of the field in the schema
+     * @param row
+     *         index of the row
+     */
+    public void setNull ( final int fieldIndex, final int row )
+    {
+        checkArgument( row >= 0 && row < rowCount, "invalid row: %s row count: %s", row, rowCount );
+        final boolean[] nulls = this.nulls[ fieldIndex ];
+        if ( nulls != null )
+        {
+            nulls[ row ] = true;
+        }
+        else
+        {
+            ( (Object[]) columns[ fieldIndex ] )[ row ] = null;
+        }
+    }
+
+    /**
+     * Creates a tuple for each selected row with the given tuple factory, and adds them to the given port in order.
+     *
+     * @param target
+     *         tuples to add the created tuples
+     * @param portIndex
+     *         port index to add the created tuples
+     * @param tupleFactory
+     *         function to create the tuples with the schema of the batch
+     */
+    public void materialize ( final Tuples target, final int portIndex, final Function<TupleSchema, Tuple> tupleFactory )
+    {
+        for ( int i = 0; i < selectedCount; i++ )
+        {
+            final int row = selection[ i ];
+            final Tuple tuple = tupleFactory.apply( schema );
+            for ( int j = 0; j < fieldCount; j++ )
+            {
+                final Class<?> type = columnTypes[ j ];
+                if ( type == Object.class )
+                {
+                    final Object value = ( (Object[]) columns[ j ] )[ row ];
+                    if ( value != null )
+                    {
+                        tuple.setAtSchemaIndex( j, value );
+                    }
+                }
+                else if ( nulls[ j ][ row ] )
+                {
+                    continue;
+                }
+                else if ( type == Long.class )
+                {
+                    tuple.setLongAtSchemaIndex( j, ( (long[]) columns[ j ] )[ row ] );
+                }
+                else if ( type == Integer.class )
+                {
+                    tuple.setIntegerAtSchemaIndex( j, ( (int[]) columns[ j ] )[ row ] );
+                }
+                else if ( type == Double.class )
+                {
+                    tuple.setDoubleAtSchemaIndex( j, ( (double[]) columns[ j ] )[ row ] );
+                }
+                else
+                {
+                    tuple.setBooleanAtSchemaIndex( j, ( (boolean[]) columns[ j ] )[ row ] );
+                }
+            }
+
+            target.add( portIndex, tuple );
+        }
+    }
+
+    /**
+     * Removes all rows of the batch
+     */
+    public void clear ()
+    {
+        for ( int i = 0; i < fieldCount; i++ )
+        {
+            if ( columnTypes[ i ] == Object.class )
+            {
+                Arrays.fill( (Object[]) columns[ i ], 0, rowCount, null );
+            }
+        }
+
+        rowCount = 0;
+        selectedCount = 0;
+    }
+
+    private void ensureCapacity ( final int rowCount )
+    {
+        if ( rowCount <= capacity )
+        {
+            return;
+        }
+
+        final int newCapacity = Math.max( rowCount, capacity * 2 );
+        for ( int i = 0; i < fieldCount; i++ )
+        {
+            final Object column = newColumn( columnTypes[ i ], newCapacity );
+            System.arraycopy( columns[ i ], 0, column, 0, this.rowCount );
+            columns[ i ] = column;
+            if ( nulls[ i ] != null )
+            {
+                nulls[ i ] = Arrays.copyOf( nulls[ i ], newCapacity );
+            }
+        }
+
+        selection = Arrays.copyOf( selection, newCapacity );
+        capacity = newCapacity;
+    }
+
+    private static Object newColumn ( final Class<?> type, final int capacity )
+    {
+        if ( type == Long.class )
+        {
+            return new long[ capacity ];
+        }
+        else if ( type == Integer.class )
+        {
+            return new int[ capacity ];
+        }
+        else if ( type == Double.class )
+        {
+            return new double[ capacity ];
+        }
+        else if ( type == Boolean.class )
+        {
+            return new boolean[ capacity ];
+        }
+
+        return new Object[ capacity ];
+    }
+
+    @Override
+    public String toString ()
+    {
+        return "ColumnarTuples{" + "schema=" + schema + ", rowCount=" + rowCount + ", selectedCount=" + selectedCount + '}';
+    }
+
+}
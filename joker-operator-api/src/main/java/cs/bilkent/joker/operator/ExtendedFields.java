@@ -0,0 +1,251 @@
+package cs.bilkent.joker.operator;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps the fields of a {@link Tuple} which are not present in its schema. Keys and values are stored in parallel arrays in insertion
+ * order. Keys are looked up with a linear scan, which first compares references since field names are mostly interned string
+ * constants, until the number of fields exceeds {@link #LINEAR_SCAN_THRESHOLD}. Beyond that, an open addressing table with linear
+ * probing is built on top of the arrays.
+ */
+final class ExtendedFields
+{
+
+    static final int LINEAR_SCAN_THRESHOLD = 8;
+
+    static final int NOT_FOUND = -1;
+
+
+    private String[] keys;
+
+    private Object[] values;
+
+    private int size;
+
+    // slot index + 1 of the keys, or 0 for empty positions. null until the number of fields exceeds the linear scan threshold
+    private int[] table;
+
+    ExtendedFields ( final int initialCapacity )
+    {
+        final int capacity = Math.max( initialCapacity, 1 );
+        this.keys = new String[ capacity ];
+        this.values = new Object[ capacity ];
+    }
+
+    int size ()
+    {
+        return size;
+    }
+
+    String getKey ( final int slot )
+    {
+        return keys[ slot ];
+    }
+
+    Object getValue ( final int slot )
+    {
+        return values[ slot ];
+    }
+
+    Object get ( final String key )
+    {
+        final int slot = indexOf( key );
+        return slot != NOT_FOUND ? values[ slot ] : null;
+    }
+
+    int indexOf ( final String key )
+    {
+        if ( table != null )
+        {
+            final int mask = table.length - 1;
+            for ( int i = hash( key ) & mask; table[ i ] != 0; i = ( i + 1 ) & mask )
+            {
+                final int slot = table[ i ] - 1;
+                if ( keys[ slot ] == key || keys[ slot ].equals( key ) )
+                {
+                    return slot;
+                }
+            }
+
+            return NOT_FOUND;
+        }
+
+        for ( int slot = 0; slot < size; slot++ )
+        {
+            if ( keys[ slot ] == key )
+            {
+                return slot;
+            }
+        }
+
+        final int hash = key.hashCode();
+        for ( int slot = 0; slot < size; slot++ )
+        {
+            final String k = keys[ slot ];
+            if ( k.hashCode() == hash && k.equals( key ) )
+            {
+                return slot;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    void put ( final String key, final Object value )
+    {
+        final int slot = indexOf( key );
+        if ( slot != NOT_FOUND )
+        {
+            values[ slot ] = value;
+            return;
+        }
+
+        if ( size == keys.length )
+        {
+            final int capacity = keys.length * 2;
+            keys = Arrays.copyOf( keys, capacity );
+            values = Arrays.copyOf( values, capacity );
+        }
+
+        keys[ size ] = key;
+        values[ size ] = value;
+        size++;
+
+        if ( table != null )
+        {
+            if ( size * 2 > table.length )
+            {
+                rebuildTable();
+            }
+            else
+            {
+                insertIntoTable( size - 1 );
+            }
+        }
+        else if ( size > LINEAR_SCAN_THRESHOLD )
+        {
+            rebuildTable();
+        }
+    }
+
+    Object remove ( final String key )
+    {
+        final int slot = indexOf( key );
+        if ( slot == NOT_FOUND )
+        {
+            return null;
+        }
+
+        final Object value = values[ slot ];
+        final int last = size - 1;
+        if ( table != null )
+        {
+            removeFromTable( slot );
+            if ( slot < last )
+            {
+                replaceInTable( last, slot );
+            }
+        }
+
+        if ( slot < last )
+        {
+            keys[ slot ] = keys[ last ];
+            values[ slot ] = values[ last ];
+        }
+
+        keys[ last ] = null;
+        values[ last ] = null;
+        size--;
+
+        return value;
+    }
+
+    void clear ()
+    {
+        Arrays.fill( keys, 0, size, null );
+        Arrays.fill( values, 0, size, null );
+        size = 0;
+        table = null;
+    }
+
+    void forEach ( final BiConsumer<String, Object> consumer )
+    {
+        for ( int slot = 0; slot < size; slot++ )
+        {
+            consumer.accept( keys[ slot ], values[ slot ] );
+        }
+    }
+
+    private void rebuildTable ()
+    {
+        final int length = Integer.highestOneBit( size * 2 - 1 ) << 1;
+        table = new int[ length ];
+        for ( int slot = 0; slot < size; slot++ )
+        {
+            insertIntoTable( slot );
+        }
+    }
+
+    private void insertIntoTable ( final int slot )
+    {
+        final int mask = table.length - 1;
+        int i = hash( keys[ slot ] ) & mask;
+        while ( table[ i ] != 0 )
+        {
+            i = ( i + 1 ) & mask;
+        }
+
+        table[ i ] = slot + 1;
+    }
+
+    private int findInTable ( final int slot )
+    {
+        final int mask = table.length - 1;
+        int i = hash( keys[ slot ] ) & mask;
+        while ( table[ i ] != slot + 1 )
+        {
+            i = ( i + 1 ) & mask;
+        }
+
+        return i;
+    }
+
+    private void replaceInTable ( final int slot, final int newSlot )
+    {
+        table[ findInTable( slot ) ] = newSlot + 1;
+    }
+
+    // backward shift deletion keeps the probe sequences valid without tombstones
+    private void removeFromTable ( final int slot )
+    {
+        final int mask = table.length - 1;
+        int i = findInTable( slot );
+        int j = i;
+        while ( true )
+        {
+            j = ( j + 1 ) & mask;
+            if ( table[ j ] == 0 )
+            {
+                table[ i ] = 0;
+                return;
+            }
+
+            final int k = hash( keys[ table[ j ] - 1 ] ) & mask;
+            if ( ( i <= j ) ? ( i < k && k <= j ) : ( i < k || k <= j ) )
+            {
+                continue;
+            }
+
+            table[ i ] = table[ j ];
+            i = j;
+        }
+    }
+
+    private static int hash ( final String key )
+    {
+        final int h = key.hashCode();
+        return h ^ ( h >>> 16 );
+    }
+
+}
@@ -0,0 +1,240 @@
+package cs.bilkent.joker.operator;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
+import static cs.bilkent.joker.impl.com.google.common.base.Preconditions.checkArgument;
+import static cs.bilkent.joker.operator.schema.runtime.TupleSchema.FIELD_NOT_FOUND;
+
+/**
+ * Provides access to a single field of {@link Tuple} objects without hashing the field name on each access.
+ * <p/>
+ * Index of the field is resolved from the {@link TupleSchema} given in the constructor, and it is used directly for the tuples
+ * created with the same schema. When a tuple with another schema is accessed, index of the field is resolved once more. Indices of
+ * the last two schemas are kept, hence a field accessor shared by input ports with different schemas does not resolve the index on
+ * each access. If the field is not present in schema of the tuple, access is delegated to the key-based methods of {@link Tuple}.
+ * <p/>
+ * Writes are type-checked against the field type declared in schema of the tuple. Field accessors are expected to be created once,
+ * i.e., in {@link Operator#init(InitializationContext)} with the schemas returned by
+ * {@link InitializationContext#getInputPortSchema(int)} and {@link InitializationContext#getOutputPortSchema(int)}.
+ */
+@ThreadSafe
+public final class FieldAccessor
+{
+
+    private final String fieldName;
+
+    // not volatile since they are immutable and it is fine for threads to resolve them again
+    private FieldIndex fieldIndex;
+
+    // index resolved before the last one, replaced when a tuple with a third schema is accessed
+    private FieldIndex previousFieldIndex;
+
+    public FieldAccessor ( final String fieldName )
+    {
+        checkArgument( fieldName != null, "field name can't be null" );
+        this.fieldName = fieldName;
+    }
+
+    public FieldAccessor ( final TupleSchema schema, final String fieldName )
+    {
+        this( fieldName );
+        checkArgument( schema != null, "schema can't be null" );
+        this.fieldIndex = new FieldIndex( schema, fieldName );
+    }
+
+    public String getFieldName ()
+    {
+        return fieldName;
+    }
+
+    public <T> T get ( final Tuple tuple )
+    {
+        final int index = getFieldIndex( tuple ).index;
+        return index != FIELD_NOT_FOUND ? tuple.getAtSchemaIndex( index ) : tuple.get( fieldName );
+    }
+
+    public long getLongValueOrDefault ( final Tuple tuple, final long defaultVal )
+    {
+        final int index = getFieldIndex( tuple ).index;
+        return index != FIELD_NOT_FOUND
+               ? tuple.getLongAtSchemaIndexOrDefault( index, defaultVal )
+               : tuple.getLongValueOrDefault( fieldName, defaultVal );
+    }
+
+    public int getIntegerValueOrDefault ( final Tuple tuple, final int defaultVal )
+    {
+        final int index = getFieldIndex( tuple ).index;
+        return index != FIELD_NOT_FOUND
+               ? tuple.getIntegerAtSchemaIndexOrDefault( index, defaultVal )
+               : tuple.getIntegerValueOrDefault( fieldName, defaultVal );
+    }
+
+    public double getDoubleValueOrDefault ( final Tuple tuple, final double defaultVal )
+    {
+        final int index = getFieldIndex( tuple ).index;
+        return index != FIELD_NOT_FOUND
+               ? tuple.getDoubleAtSchemaIndexOrDefault( index, defaultVal )
+               : tuple.getDoubleValueOrDefault( fieldName, defaultVal );
+    }
+
+    public boolean getBooleanValueOrDefault ( final Tuple tuple, final boolean defaultVal )
+    {
+        final int index = getFieldIndex( tuple ).index;
+        return index != FIELD_NOT_FOUND
+               ? tuple.getBooleanAtSchemaIndexOrDefault( index, defaultVal )
+               : tuple.getBooleanValueOrDefault( fieldName, defaultVal );
+    }
+
+    /**
+     * Returns the wrapper type of the field if its value is kept unboxed in the given tuple, {@code null} otherwise
+     *
+     * @param tuple
+     *         tuple to check the field
+     *
+     * @return the wrapper type of the field if its value is kept unboxed in the given tuple, {@code null} otherwise
+     */
+    public Class<?> getPrimitiveValueType ( final Tuple tuple )
+    {
+        final int index = getFieldIndex( tuple ).index;
+        return index != FIELD_NOT_FOUND && tuple.isPrimitiveAtSchemaIndex( index )
+               ? tuple.getSchema().getPrimitiveFieldType( index )
+               : null;
+    }
+
+    public void set ( final Tuple tuple, final Object value )
+    {
+        final FieldIndex fieldIndex = getFieldIndex( tuple );
+        if ( fieldIndex.index != FIELD_NOT_FOUND )
+        {
+            checkArgument( value != null, "value can't be null!" );
+            fieldIndex.checkType( value.getClass() );
+            tuple.setAtSchemaIndex( fieldIndex.index, value );
+        }
+        else
+        {
+            tuple.set( fieldName, value );
+        }
+    }
+
+    public void setLong ( final Tuple tuple, final long value )
+    {
+        final FieldIndex fieldIndex = getFieldIndex( tuple );
+        if ( fieldIndex.index != FIELD_NOT_FOUND )
+        {
+            fieldIndex.checkType( Long.class );
+            tuple.setLongAtSchemaIndex( fieldIndex.index, value );
+        }
+        else
+        {
+            tuple.set( fieldName, value );
+        }
+    }
+
+    public void setInteger ( final Tuple tuple, final int value )
+    {
+        final FieldIndex fieldIndex = getFieldIndex( tuple );
+        if ( fieldIndex.index != FIELD_NOT_FOUND )
+        {
+            fieldIndex.checkType( Integer.class );
+            tuple.setIntegerAtSchemaIndex( fieldIndex.index, value );
+        }
+        else
+        {
+            tuple.set( fieldName, value );
+        }
+    }
+
+    public void setDouble ( final Tuple tuple, final double value )
+    {
+        final FieldIndex fieldIndex = getFieldIndex( tuple );
+        if ( fieldIndex.index != FIELD_NOT_FOUND )
+        {
+            fieldIndex.checkType( Double.class );
+            tuple.setDoubleAtSchemaIndex( fieldIndex.index, value );
+        }
+        else
+        {
+            tuple.set( fieldName, value );
+        }
+    }
+
+    public void setBoolean ( final Tuple tuple, final boolean value )
+    {
+        final FieldIndex fieldIndex = getFieldIndex( tuple );
+        if ( fieldIndex.index != FIELD_NOT_FOUND )
+        {
+            fieldIndex.checkType( Boolean.class );
+            tuple.setBooleanAtSchemaIndex( fieldIndex.index, value );
+        }
+        else
+        {
+            tuple.set( fieldName, value );
+        }
+    }
+
+    private FieldIndex getFieldIndex ( final Tuple tuple )
+    {
+        final TupleSchema schema = tuple.getSchema();
+        final FieldIndex fieldIndex = this.fieldIndex;
+        if ( fieldIndex != null && fieldIndex.schema == schema )
+        {
+            return fieldIndex;
+        }
+
+        final FieldIndex previousFieldIndex = this.previousFieldIndex;
+        if ( previousFieldIndex != null && previousFieldIndex.schema == schema )
+        {
+            return previousFieldIndex;
+        }
+
+        final FieldIndex newFieldIndex = new FieldIndex( schema, fieldName );
+        this.previousFieldIndex = fieldIndex;
+        this.fieldIndex = newFieldIndex;
+
+        return newFieldIndex;
+    }
+
+    @Override
+    public String toString ()
+    {
+        return "FieldAccessor{" + "fieldName='" + fieldName + '\'' + '}';
+    }
+
+    private static final class FieldIndex
+    {
+
+        private final TupleSchema schema;
+
+        private final int index;
+
+        // null if the field is not in the schema or its declared type can not be checked against boxed values
+        private final Class<?> type;
+
+        FieldIndex ( final TupleSchema schema, final String fieldName )
+        {
+            this.schema = schema;
+            this.index = schema.getFieldIndex( fieldName );
+            if ( index != FIELD_NOT_FOUND )
+            {
+                final Class<?> type = schema.getFields().get( index ).getType();
+                this.type = type.isPrimitive() ? schema.getPrimitiveFieldType( index ) : type;
+            }
+            else
+            {
+                this.type = null;
+            }
+        }
+
+        void checkType ( final Class<?> valueType )
+        {
+            checkArgument( type == null || type.isAssignableFrom( valueType ),
+                           "value of type: %s can't be set to field: %s of type: %s",
+                           valueType,
+                           schema.getFieldAt( index ),
+                           type );
+        }
+
+    }
+
+}
@@ -263,6 +263,12 @@ public interface Fields<K>
         return getOrDefault( key, defaultVal );
     }
 
+    default boolean getBooleanValueOrDefault ( final K key, final boolean defaultVal )
+    {
+        final Boolean val = get( key );
+        return val != null ? val : defaultVal;
+    }
+
     default Short getShort ( final K key )
     {
         final Number number = get( key );
@@ -5,6 +5,7 @@ import java.util.List;
 
 import cs.bilkent.joker.operator.kvstore.KVStore;
 import cs.bilkent.joker.operator.scheduling.SchedulingStrategy;
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
 import cs.bilkent.joker.operator.spec.OperatorType;
 
 
@@ -101,6 +102,23 @@ public interface InvocationContext
      */
     KVStore getKVStore ();
 
+    /**
+     * Returns a new tuple with the given schema to be added to the output of the current invocation.
+     * <p>
+     * If tuple recycling is enabled in the runtime engine, the returned tuple can be a recycled one, which is cleared to the given schema.
+     * Such tuples are reused after they are consumed by all of the downstream operators, therefore operators must not keep references to
+     * their input tuples after their invocations when tuple recycling is enabled.
+     *
+     * @param schema
+     *         schema of the tuple to be created
+     *
+     * @return a new tuple with the given schema
+     */
+    default Tuple newTuple ( final TupleSchema schema )
+    {
+        return new Tuple( schema );
+    }
+
     /**
      * Indicates the reason for a particular invocation of {@link Operator#invoke(InvocationContext)} method.
      */
@@ -1,19 +1,21 @@
 package cs.bilkent.joker.operator;
 
 
-import java.util.AbstractMap.SimpleEntry;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static cs.bilkent.joker.impl.com.google.common.base.Preconditions.checkArgument;
 import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
 import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
 import static cs.bilkent.joker.operator.schema.runtime.TupleSchema.FIELD_NOT_FOUND;
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.longBitsToDouble;
 
 
 /**
@@ -25,6 +27,15 @@ import static cs.bilkent.joker.operator.schema.runtime.TupleSchema.FIELD_NOT_FOU
  * which can be accessed via {@link InitializationContext#getOutputPortSchema(int)} method, should be provided to the tuple. If not
  * specified, an empty schema will be used by default, which can cause negative performance effects on the downstream. It is recommended
  * to specify schema objects properly as they will decrease memory overhead of the tuples and make field accesses in constant time.
+ * <p/>
+ * Values of the schema fields with {@link Long}, {@link Integer}, {@link Double} or {@link Boolean} types can be kept unboxed when
+ * they are set via {@link #setLong(String, long)}, {@link #setInteger(String, int)}, {@link #setDouble(String, double)} and
+ * {@link #setBoolean(String, boolean)} methods, and read back without allocation via {@link #getLongValueOrDefault(String, long)},
+ * {@link #getIntegerValueOrDefault(String, int)}, {@link #getDoubleValueOrDefault(String, double)} and
+ * {@link #getBooleanValueOrDefault(String, boolean)} methods.
+ * <p/>
+ * Tuples created with a recycler can be reused by the runtime engine once they are consumed by all of their downstream operators.
+ * Operators obtain such tuples via {@link InvocationContext#newTuple(TupleSchema)}.
  */
 public final class Tuple implements Fields<String>
 {
@@ -89,24 +100,59 @@ public final class Tuple implements Fields<String>
     };
 
 
+    // placed into the values array for the schema fields of which values are kept in the primitive values array
+    private static final Object PRIMITIVE_VALUE = new Object();
+
+    private static final AtomicIntegerFieldUpdater<Tuple> REFERENCE_COUNT_UPDATER = AtomicIntegerFieldUpdater.newUpdater( Tuple.class,
+                                                                                                                         "referenceCount" );
+
+
+    private static final Object[] EMPTY_VALUES = new Object[ 0 ];
+
+
     private final TupleSchema schema;
 
-    private final ArrayList<Object> values;
+    private final Object[] values;
+
+    private final long[] primitiveValues;
+
+    private final Consumer<Tuple> recycler;
+
+    // fields which are not present in the schema. created lazily
+    private ExtendedFields extendedFields;
+
+    private volatile int referenceCount;
 
     public Tuple ()
     {
         this.schema = EMPTY_SCHEMA;
-        this.values = new ArrayList<>( EMPTY_SCHEMA_INITIAL_CAPACITY );
+        this.values = EMPTY_VALUES;
+        this.primitiveValues = null;
+        this.recycler = null;
     }
 
     public Tuple ( final TupleSchema schema )
+    {
+        this( schema, null );
+    }
+
+    /**
+     * Creates a recyclable tuple. The tuple is cleared and given to the recycler when it is released by all of its consumers.
+     *
+     * @param schema
+     *         schema of the tuple
+     * @param recycler
+     *         the function to be called with the tuple once it is released by all of its consumers
+     *
+     * @see #retain(int)
+     * @see #release()
+     */
+    public Tuple ( final TupleSchema schema, final Consumer<Tuple> recycler )
     {
         this.schema = schema;
-        this.values = new ArrayList<>( schema.getFieldCount() );
-        for ( int i = 0; i < schema.getFieldCount(); i++ )
-        {
-            this.values.add( null );
-        }
+        this.recycler = recycler;
+        this.values = schema.getFieldCount() > 0 ? new Object[ schema.getFieldCount() ] : EMPTY_VALUES;
+        this.primitiveValues = schema.hasPrimitiveFields() ? new long[ schema.getFieldCount() ] : null;
     }
 
     @SuppressWarnings( "unchecked" )
@@ -116,25 +162,47 @@ public final class Tuple implements Fields<String>
         final int index = schema.getFieldIndex( key );
         if ( index != FIELD_NOT_FOUND )
         {
-            return (T) values.get( index );
+            return (T) getValueAtSchemaIndex( index );
         }
 
-        for ( int i = schema.getFieldCount(); i < values.size(); i++ )
-        {
-            final Entry<String, Object> entry = getEntry( i );
-            if ( entry.getKey().equals( key ) )
-            {
-                return (T) entry.getValue();
-            }
-        }
+        return (T) getNonSchemaValue( key );
+    }
 
-        return null;
+    private Object getNonSchemaValue ( final String key )
+    {
+        return extendedFields != null ? extendedFields.get( key ) : null;
     }
 
     public <T> T getAtSchemaIndex ( final int i )
     {
         checkArgument( i >= 0 && i < schema.getFieldCount(), "invalid index" );
-        return (T) values.get( i );
+        return (T) getValueAtSchemaIndex( i );
+    }
+
+    private Object getValueAtSchemaIndex ( final int i )
+    {
+        final Object value = values[ i ];
+        return value != PRIMITIVE_VALUE ? value : boxPrimitiveValue( i );
+    }
+
+    private Object boxPrimitiveValue ( final int i )
+    {
+        final Class<?> type = schema.getPrimitiveFieldType( i );
+        final long value = primitiveValues[ i ];
+        if ( type == Long.class )
+        {
+            return value;
+        }
+        else if ( type == Integer.class )
+        {
+            return (int) value;
+        }
+        else if ( type == Double.class )
+        {
+            return longBitsToDouble( value );
+        }
+
+        return value != 0;
     }
 
     @Override
@@ -143,84 +211,366 @@ public final class Tuple implements Fields<String>
         final int index = schema.getFieldIndex( key );
         if ( index != FIELD_NOT_FOUND )
         {
-            return values.get( index ) != null;
+            return values[ index ] != null;
         }
 
-        for ( int i = schema.getFieldCount(); i < values.size(); i++ )
+        return extendedFields != null && extendedFields.indexOf( key ) != ExtendedFields.NOT_FOUND;
+    }
+
+    @Override
+    public void set ( final String key, final Object value )
+    {
+        checkArgument( value != null, "value can't be null" );
+
+        final int index = schema.getFieldIndex( key );
+        if ( index != FIELD_NOT_FOUND )
         {
-            final Entry<String, Object> entry = getEntry( i );
-            if ( entry.getKey().equals( key ) )
+            values[ index ] = value;
+        }
+        else
+        {
+            if ( extendedFields == null )
             {
-                return true;
+                extendedFields = new ExtendedFields( EMPTY_SCHEMA_INITIAL_CAPACITY );
             }
+
+            extendedFields.put( key, value );
         }
+    }
 
-        return false;
+    /**
+     * Returns true if the value set to the given schema index is kept unboxed
+     *
+     * @param i
+     *         index of the field in the schema
+     *
+     * @return true if the value set to the given schema index is kept unboxed
+     */
+    public boolean isPrimitiveAtSchemaIndex ( final int i )
+    {
+        return values[ i ] == PRIMITIVE_VALUE;
     }
 
-    @Override
-    public void set ( final String key, final Object value )
+    /**
+     * Returns true if a value is set to the given schema index
+     *
+     * @param i
+     *         index of the field in the schema
+     *
+     * @return true if a value is set to the given schema index
+     */
+    public boolean containsAtSchemaIndex ( final int i )
     {
-        checkArgument( value != null, "value can't be null" );
+        checkArgument( i >= 0 && i < schema.getFieldCount(), "invalid index" );
+        return values[ i ] != null;
+    }
 
+    /**
+     * Returns true if the tuple contains a field which is not present in its schema
+     *
+     * @return true if the tuple contains a field which is not present in its schema
+     */
+    public boolean hasNonSchemaFields ()
+    {
+        return extendedFields != null && extendedFields.size() > 0;
+    }
+
+    public void setAtSchemaIndex ( final int i, final Object value )
+    {
+        checkArgument( i >= 0 && i < schema.getFieldCount(), "invalid index" );
+        values[ i ] = value;
+    }
+
+    /**
+     * Associates the given long value with the given key. The value is kept unboxed if the key is a {@link Long} field of the schema.
+     *
+     * @param key
+     *         the key to associate the value
+     * @param value
+     *         the value to associate with the given key
+     */
+    public void setLong ( final String key, final long value )
+    {
+        final int index = schema.getFieldIndex( key );
+        if ( index != FIELD_NOT_FOUND )
+        {
+            setLongAtSchemaIndex( index, value );
+        }
+        else
+        {
+            set( key, value );
+        }
+    }
+
+    public void setLongAtSchemaIndex ( final int i, final long value )
+    {
+        checkArgument( i >= 0 && i < schema.getFieldCount(), "invalid index" );
+        if ( schema.getPrimitiveFieldType( i ) == Long.class )
+        {
+            setPrimitiveValue( i, value );
+        }
+        else
+        {
+            values[ i ] = value;
+        }
+    }
+
+    /**
+     * Associates the given int value with the given key. The value is kept unboxed if the key is an {@link Integer} field of the schema.
+     *
+     * @param key
+     *         the key to associate the value
+     * @param value
+     *         the value to associate with the given key
+     */
+    public void setInteger ( final String key, final int value )
+    {
         final int index = schema.getFieldIndex( key );
         if ( index != FIELD_NOT_FOUND )
         {
-            values.set( index, value );
+            setIntegerAtSchemaIndex( index, value );
         }
         else
         {
-            for ( int i = schema.getFieldCount(); i < values.size(); i++ )
+            set( key, value );
+        }
+    }
+
+    public void setIntegerAtSchemaIndex ( final int i, final int value )
+    {
+        checkArgument( i >= 0 && i < schema.getFieldCount(), "invalid index" );
+        if ( schema.getPrimitiveFieldType( i ) == Integer.class )
+        {
+            setPrimitiveValue( i, value );
+        }
+        else
+        {
+            values[ i ] = value;
+        }
+    }
+
+    /**
+     * Associates the given double value with the given key. The value is kept unboxed if the key is a {@link Double} field of the schema.
+     *
+     * @param key
+     *         the key to associate the value
+     * @param value
+     *         the value to associate with the given key
+     */
+    public void setDouble ( final String key, final double value )
+    {
+        final int index = schema.getFieldIndex( key );
+        if ( index != FIELD_NOT_FOUND )
+        {
+            setDoubleAtSchemaIndex( index, value );
+        }
+        else
+        {
+            set( key, value );
+        }
+    }
+
+    public void setDoubleAtSchemaIndex ( final int i, final double value )
+    {
+        checkArgument( i >= 0 && i < schema.getFieldCount(), "invalid index" );
+        if ( schema.getPrimitiveFieldType( i ) == Double.class )
+        {
+            setPrimitiveValue( i, doubleToRawLongBits( value ) );
+        }
+        else
+        {
+            values[ i ] = value;
+        }
+    }
+
+    /**
+     * Associates the given boolean value with the given key. The value is kept unboxed if the key is a {@link Boolean} field of the
+     * schema.
+     *
+     * @param key
+     *         the key to associate the value
+     * @param value
+     *         the value to associate with the given key
+     */
+    public void setBoolean ( final String key, final boolean value )
+    {
+        final int index = schema.getFieldIndex( key );
+        if ( index != FIELD_NOT_FOUND )
+        {
+            setBooleanAtSchemaIndex( index, value );
+        }
+        else
+        {
+            set( key, value );
+        }
+    }
+
+    public void setBooleanAtSchemaIndex ( final int i, final boolean value )
+    {
+        checkArgument( i >= 0 && i < schema.getFieldCount(), "invalid index" );
+        if ( schema.getPrimitiveFieldType( i ) == Boolean.class )
+        {
+            setPrimitiveValue( i, value ? 1 : 0 );
+        }
+        else
+        {
+            values[ i ] = value;
+        }
+    }
+
+    private void setPrimitiveValue ( final int i, final long value )
+    {
+        primitiveValues[ i ] = value;
+        values[ i ] = PRIMITIVE_VALUE;
+    }
+
+    @Override
+    public long getLongValueOrDefault ( final String key, final long defaultVal )
+    {
+        final int index = schema.getFieldIndex( key );
+        if ( index != FIELD_NOT_FOUND )
+        {
+            return getLongAtSchemaIndexOrDefault( index, defaultVal );
+        }
+
+        final Number value = (Number) getNonSchemaValue( key );
+        return value != null ? value.longValue() : defaultVal;
+    }
+
+    public long getLongAtSchemaIndexOrDefault ( final int i, final long defaultVal )
+    {
+        checkArgument( i >= 0 && i < schema.getFieldCount(), "invalid index" );
+        final Object value = values[ i ];
+        if ( value == PRIMITIVE_VALUE )
+        {
+            final Class<?> type = schema.getPrimitiveFieldType( i );
+            if ( type == Long.class || type == Integer.class )
             {
-                final Entry<String, Object> entry = getEntry( i );
-                if ( entry.getKey().equals( key ) )
-                {
-                    entry.setValue( value );
-                    return;
-                }
+                return primitiveValues[ i ];
+            }
+            else if ( type == Double.class )
+            {
+                return (long) longBitsToDouble( primitiveValues[ i ] );
             }
 
-            values.add( new SimpleEntry<>( key, value ) );
+            return ( (Number) boxPrimitiveValue( i ) ).longValue();
         }
+
+        return value != null ? ( (Number) value ).longValue() : defaultVal;
     }
 
-    public void setAtSchemaIndex ( final int i, final Object value )
+    @Override
+    public int getIntegerValueOrDefault ( final String key, final int defaultVal )
+    {
+        final int index = schema.getFieldIndex( key );
+        if ( index != FIELD_NOT_FOUND )
+        {
+            return getIntegerAtSchemaIndexOrDefault( index, defaultVal );
+        }
+
+        final Number value = (Number) getNonSchemaValue( key );
+        return value != null ? value.intValue() : defaultVal;
+    }
+
+    public int getIntegerAtSchemaIndexOrDefault ( final int i, final int defaultVal )
     {
         checkArgument( i >= 0 && i < schema.getFieldCount(), "invalid index" );
-        values.set( i, value );
+        final Object value = values[ i ];
+        if ( value == PRIMITIVE_VALUE )
+        {
+            final Class<?> type = schema.getPrimitiveFieldType( i );
+            if ( type == Integer.class || type == Long.class )
+            {
+                return (int) primitiveValues[ i ];
+            }
+            else if ( type == Double.class )
+            {
+                return (int) longBitsToDouble( primitiveValues[ i ] );
+            }
+
+            return ( (Number) boxPrimitiveValue( i ) ).intValue();
+        }
+
+        return value != null ? ( (Number) value ).intValue() : defaultVal;
     }
 
     @Override
-    public <T> T remove ( final String key )
+    public double getDoubleValueOrDefault ( final String key, final double defaultVal )
     {
         final int index = schema.getFieldIndex( key );
         if ( index != FIELD_NOT_FOUND )
         {
-            return (T) values.set( index, null );
+            return getDoubleAtSchemaIndexOrDefault( index, defaultVal );
         }
 
-        for ( int i = schema.getFieldCount(); i < values.size(); i++ )
+        final Number value = (Number) getNonSchemaValue( key );
+        return value != null ? value.doubleValue() : defaultVal;
+    }
+
+    public double getDoubleAtSchemaIndexOrDefault ( final int i, final double defaultVal )
+    {
+        checkArgument( i >= 0 && i < schema.getFieldCount(), "invalid index" );
+        final Object value = values[ i ];
+        if ( value == PRIMITIVE_VALUE )
         {
-            final Entry<String, Object> entry = getEntry( i );
-            if ( entry.getKey().equals( key ) )
+            final Class<?> type = schema.getPrimitiveFieldType( i );
+            if ( type == Double.class )
             {
-                if ( i < values.size() - 1 )
-                {
-                    values.set( i, values.get( values.size() - 1 ) );
-                }
+                return longBitsToDouble( primitiveValues[ i ] );
+            }
+            else if ( type == Long.class || type == Integer.class )
+            {
+                return primitiveValues[ i ];
+            }
+
+            return ( (Number) boxPrimitiveValue( i ) ).doubleValue();
+        }
+
+        return value != null ? ( (Number) value ).doubleValue() : defaultVal;
+    }
+
+    @Override
+    public boolean getBooleanValueOrDefault ( final String key, final boolean defaultVal )
+    {
+        final int index = schema.getFieldIndex( key );
+        if ( index != FIELD_NOT_FOUND )
+        {
+            return getBooleanAtSchemaIndexOrDefault( index, defaultVal );
+        }
 
-                values.remove( i );
+        final Boolean value = (Boolean) getNonSchemaValue( key );
+        return value != null ? value : defaultVal;
+    }
 
-                return (T) entry.getValue();
+    public boolean getBooleanAtSchemaIndexOrDefault ( final int i, final boolean defaultVal )
+    {
+        checkArgument( i >= 0 && i < schema.getFieldCount(), "invalid index" );
+        final Object value = values[ i ];
+        if ( value == PRIMITIVE_VALUE )
+        {
+            if ( schema.getPrimitiveFieldType( i ) == Boolean.class )
+            {
+                return primitiveValues[ i ] != 0;
             }
+
+            return (Boolean) boxPrimitiveValue( i );
         }
 
-        return null;
+        return value != null ? (Boolean) value : defaultVal;
     }
 
-    private Entry<String, Object> getEntry ( final int i )
+    @Override
+    public <T> T remove ( final String key )
     {
-        return (Entry<String, Object>) values.get( i );
+        final int index = schema.getFieldIndex( key );
+        if ( index != FIELD_NOT_FOUND )
+        {
+            final Object value = getValueAtSchemaIndex( index );
+            values[ index ] = null;
+            return (T) value;
+        }
+
+        return extendedFields != null ? (T) extendedFields.remove( key ) : null;
     }
 
     @Override
@@ -233,39 +583,38 @@ public final class Tuple implements Fields<String>
     {
         for ( int i = 0; i < schema.getFieldCount(); i++ )
         {
-            final Object value = values.get( i );
+            final Object value = getValueAtSchemaIndex( i );
             if ( value != null )
             {
                 final String key = schema.getFieldAt( i );
                 consumer.accept( key, value );
             }
         }
-        for ( int i = schema.getFieldCount(); i < values.size(); i++ )
+        if ( extendedFields != null )
         {
-            final Entry<String, Object> entry = getEntry( i );
-            consumer.accept( entry.getKey(), entry.getValue() );
+            extendedFields.forEach( consumer );
         }
     }
 
     @Override
     public void clear ()
     {
-        values.clear();
-        for ( int i = 0; i < schema.getFieldCount(); i++ )
+        Arrays.fill( values, null );
+        if ( extendedFields != null )
         {
-            values.add( null );
+            extendedFields.clear();
         }
     }
 
     @Override
     public int size ()
     {
-        int s = values.size();
-        for ( int i = 0; i < schema.getFieldCount(); i++ )
+        int s = extendedFields != null ? extendedFields.size() : 0;
+        for ( Object value : values )
         {
-            if ( values.get( i ) == null )
+            if ( value != null )
             {
-                s--;
+                s++;
             }
         }
 
@@ -277,22 +626,49 @@ public final class Tuple implements Fields<String>
         return schema;
     }
 
+    /**
+     * Adds the given number of consumers to the reference count of the tuple, if it is recyclable. It is used by the runtime engine,
+     * and has no effect for the tuples created without a recycler.
+     *
+     * @param count
+     *         number of consumers to add
+     */
+    public void retain ( final int count )
+    {
+        if ( recycler != null && count > 0 )
+        {
+            REFERENCE_COUNT_UPDATER.addAndGet( this, count );
+        }
+    }
+
+    /**
+     * Removes a consumer from the reference count of the tuple, if it is recyclable. When the reference count drops to zero, the tuple
+     * is cleared and given to its recycler. It is used by the runtime engine, and has no effect for the tuples created without a recycler.
+     */
+    public void release ()
+    {
+        if ( recycler != null && REFERENCE_COUNT_UPDATER.decrementAndGet( this ) == 0 )
+        {
+            clear();
+            recycler.accept( this );
+        }
+    }
+
     private Map<String, Object> asMap ()
     {
         final Map<String, Object> map = new HashMap<>();
         for ( int i = 0; i < schema.getFieldCount(); i++ )
         {
-            final Object value = values.get( i );
+            final Object value = getValueAtSchemaIndex( i );
             if ( value != null )
             {
                 final String key = schema.getFieldAt( i );
                 map.put( key, value );
             }
         }
-        for ( int i = schema.getFieldCount(); i < values.size(); i++ )
+        if ( extendedFields != null )
         {
-            final Entry<String, Object> entry = getEntry( i );
-            map.put( entry.getKey(), entry.getValue() );
+            extendedFields.forEach( map::put );
         }
 
         return map;
@@ -329,17 +705,19 @@ public final class Tuple implements Fields<String>
         sb.append( "Tuple{" );
         for ( int i = 0; i < schema.getFieldCount(); i++ )
         {
-            final Object val = values.get( i );
+            final Object val = getValueAtSchemaIndex( i );
             if ( val != null )
             {
                 sb.append( "{" ).append( schema.getFieldAt( i ) ).append( "=" ).append( val ).append( "}," );
             }
         }
 
-        for ( int i = schema.getFieldCount(); i < values.size(); i++ )
+        if ( extendedFields != null )
         {
-            final Entry<String, Object> entry = getEntry( i );
-            sb.append( "{" ).append( entry.getKey() ).append( "=" ).append( entry.getValue() ).append( "}," );
+            for ( int i = 0; i < extendedFields.size(); i++ )
+            {
+                sb.append( "{" ).append( extendedFields.getKey( i ) ).append( "=" ).append( extendedFields.getValue( i ) ).append( "}," );
+            }
         }
 
         if ( sb.length() > 6 )
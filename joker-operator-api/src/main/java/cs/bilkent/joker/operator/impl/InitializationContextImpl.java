@@ -2,11 +2,13 @@ package cs.bilkent.joker.operator.impl;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 import cs.bilkent.joker.operator.InitializationContext;
 import cs.bilkent.joker.operator.OperatorConfig;
 import cs.bilkent.joker.operator.OperatorDef;
 import cs.bilkent.joker.operator.schema.runtime.OperatorRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
 import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
 import static java.util.Collections.emptyList;
 
@@ -23,17 +25,35 @@ public class InitializationContextImpl implements InitializationContext
 
     private OperatorRuntimeSchema runtimeSchema;
 
+    private UnaryOperator<PortRuntimeSchema> schemaTransformer;
+
+    // port schemas are transformed once on first access
+    private TupleSchema[] inputPortSchemas;
+
+    private TupleSchema[] outputPortSchemas;
+
     private OperatorConfig config = new OperatorConfig();
 
     private boolean[] upstreamConnectionStatuses;
 
     public InitializationContextImpl ( final OperatorDef operatorDef, final boolean[] upstreamConnectionStatuses )
+    {
+        this( operatorDef, upstreamConnectionStatuses, UnaryOperator.identity() );
+    }
+
+    /**
+     * Creates the context with the port schemas transformed by the given function, i.e., to provide specialized schemas to the operator
+     */
+    public InitializationContextImpl ( final OperatorDef operatorDef,
+                                       final boolean[] upstreamConnectionStatuses,
+                                       final UnaryOperator<PortRuntimeSchema> schemaTransformer )
     {
         this.id = operatorDef.getId();
         this.inputPortCount = operatorDef.getInputPortCount();
         this.outputPortCount = operatorDef.getOutputPortCount();
         this.partitionFieldNames = operatorDef.getPartitionFieldNames();
         this.runtimeSchema = operatorDef.getSchema();
+        this.schemaTransformer = schemaTransformer;
         this.config = operatorDef.getConfig();
         this.upstreamConnectionStatuses = Arrays.copyOf( upstreamConnectionStatuses, upstreamConnectionStatuses.length );
     }
@@ -65,13 +85,34 @@ public class InitializationContextImpl implements InitializationContext
     @Override
     public TupleSchema getInputPortSchema ( final int portIndex )
     {
-        return runtimeSchema.getInputSchema( portIndex );
+        if ( inputPortSchemas == null )
+        {
+            inputPortSchemas = transform( runtimeSchema.getInputSchemas() );
+        }
+
+        return inputPortSchemas[ portIndex ];
     }
 
     @Override
     public TupleSchema getOutputPortSchema ( final int portIndex )
     {
-        return runtimeSchema.getOutputSchema( portIndex );
+        if ( outputPortSchemas == null )
+        {
+            outputPortSchemas = transform( runtimeSchema.getOutputSchemas() );
+        }
+
+        return outputPortSchemas[ portIndex ];
+    }
+
+    private TupleSchema[] transform ( final List<PortRuntimeSchema> portSchemas )
+    {
+        final TupleSchema[] schemas = new TupleSchema[ portSchemas.size() ];
+        for ( int i = 0; i < schemas.length; i++ )
+        {
+            schemas[ i ] = schemaTransformer.apply( portSchemas.get( i ) );
+        }
+
+        return schemas;
     }
 
     @Override
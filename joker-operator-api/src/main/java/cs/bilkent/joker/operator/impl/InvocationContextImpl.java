@@ -1,10 +1,13 @@
 package cs.bilkent.joker.operator.impl;
 
 import java.util.List;
+import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import cs.bilkent.joker.operator.InvocationContext;
+import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.operator.kvstore.KVStore;
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
 import static java.util.Arrays.copyOf;
 
 
@@ -23,6 +26,8 @@ public class InvocationContextImpl implements InvocationContext
 
     private boolean[] upstreamConnectionStatuses;
 
+    private Function<TupleSchema, Tuple> tupleFactory;
+
     public InvocationContextImpl ()
     {
     }
@@ -55,6 +60,11 @@ public class InvocationContextImpl implements InvocationContext
         this.kvStore = null;
     }
 
+    public void setTupleFactory ( final Function<TupleSchema, Tuple> tupleFactory )
+    {
+        this.tupleFactory = tupleFactory;
+    }
+
     public void setUpstreamConnectionStatuses ( final boolean[] upstreamConnectionStatuses )
     {
         this.upstreamConnectionStatuses = copyOf( upstreamConnectionStatuses, upstreamConnectionStatuses.length );
@@ -101,4 +111,11 @@ public class InvocationContextImpl implements InvocationContext
     {
         return kvStore;
     }
+
+    @Override
+    public Tuple newTuple ( final TupleSchema schema )
+    {
+        return tupleFactory != null ? tupleFactory.apply( schema ) : new Tuple( schema );
+    }
+
 }
@@ -0,0 +1,88 @@
+package cs.bilkent.joker.operator.scheduling;
+
+
+import static cs.bilkent.joker.impl.com.google.common.base.Preconditions.checkArgument;
+import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.TupleAvailabilityByCount.AT_LEAST;
+import static cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable.scheduleWhenTuplesAvailableOnDefaultPort;
+
+/**
+ * Specifies that an operator should be invoked when the tuple counts of the given {@link ScheduleWhenTuplesAvailable} scheduling
+ * strategy are satisfied, or when the tuples piled up in its input tuple queues have been waiting for the given timeout, whichever
+ * comes first. Invocations made after the timeout may have fewer tuples than the given tuple counts, but at least one tuple.
+ * <p>
+ * Only {@link ScheduleWhenTuplesAvailable.TupleAvailabilityByCount#AT_LEAST} is supported since a timeout cannot guarantee exact tuple
+ * counts. It cannot be used by partitioned stateful operators.
+ */
+public final class ScheduleWhenTuplesAvailableOrTimeout implements SchedulingStrategy
+{
+
+    public static ScheduleWhenTuplesAvailableOrTimeout scheduleWhenTuplesAvailableOrTimeoutOnDefaultPort ( final int tupleCount,
+                                                                                                           final long timeoutInMicros )
+    {
+        return new ScheduleWhenTuplesAvailableOrTimeout( scheduleWhenTuplesAvailableOnDefaultPort( tupleCount ), timeoutInMicros );
+    }
+
+
+    private final ScheduleWhenTuplesAvailable tupleAvailability;
+
+    private final long timeoutInMicros;
+
+    public ScheduleWhenTuplesAvailableOrTimeout ( final ScheduleWhenTuplesAvailable tupleAvailability, final long timeoutInMicros )
+    {
+        checkArgument( tupleAvailability != null );
+        checkArgument( tupleAvailability.getTupleAvailabilityByCount() == AT_LEAST,
+                       "%s is not supported with timeout",
+                       tupleAvailability.getTupleAvailabilityByCount() );
+        checkArgument( timeoutInMicros > 0, "invalid timeout %s", timeoutInMicros );
+        this.tupleAvailability = tupleAvailability;
+        this.timeoutInMicros = timeoutInMicros;
+    }
+
+    /**
+     * Returns the scheduling strategy which specifies the tuple counts to invoke the operator before the timeout
+     *
+     * @return the scheduling strategy which specifies the tuple counts to invoke the operator before the timeout
+     */
+    public ScheduleWhenTuplesAvailable getTupleAvailability ()
+    {
+        return tupleAvailability;
+    }
+
+    public long getTimeoutInMicros ()
+    {
+        return timeoutInMicros;
+    }
+
+    @Override
+    public boolean equals ( final Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+
+        final ScheduleWhenTuplesAvailableOrTimeout that = (ScheduleWhenTuplesAvailableOrTimeout) o;
+
+        return timeoutInMicros == that.timeoutInMicros && tupleAvailability.equals( that.tupleAvailability );
+    }
+
+    @Override
+    public int hashCode ()
+    {
+        int result = tupleAvailability.hashCode();
+        result = 31 * result + (int) ( timeoutInMicros ^ ( timeoutInMicros >>> 32 ) );
+        return result;
+    }
+
+    @Override
+    public String toString ()
+    {
+        return "ScheduleWhenTuplesAvailableOrTimeout{" + "tupleAvailability=" + tupleAvailability + ", timeoutInMicros=" + timeoutInMicros
+               + '}';
+    }
+
+}
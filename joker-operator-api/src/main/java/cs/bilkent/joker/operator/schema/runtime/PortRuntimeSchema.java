@@ -6,6 +6,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import cs.bilkent.joker.operator.schema.annotation.PortSchema;
 import static java.util.Collections.unmodifiableList;
@@ -13,13 +14,40 @@ import static java.util.Collections.unmodifiableList;
 
 /**
  * Runtime representation of {@link PortSchema}
+ * <p/>
+ * Field names are looked up in a map by default. {@link #compile()} returns a copy of the schema which dispatches field names with a
+ * collision-free hash table generated for its fields, similar to a {@code switch} statement over the field names. A lookup computes a
+ * single multiplicative hash of the field name, reads one table slot and compares the field name by reference before falling back to
+ * {@link String#equals(Object)}. The compiled copy is also a {@code PortRuntimeSchema}, so tuples of compiled and non-compiled schemas
+ * share the same schema type.
  */
 public final class PortRuntimeSchema implements TupleSchema
 {
 
+    private static final int MAX_TABLE_SIZE = 1 << 12;
+
+    private static final int MULTIPLIER_ATTEMPTS_PER_TABLE_SIZE = 32;
+
+
     private final List<RuntimeSchemaField> fields;
 
-    private final Map<String, Integer> fieldIndices = new HashMap<>();
+    private final String[] fieldNames;
+
+    private final Class<?>[] primitiveFieldTypes;
+
+    private final boolean hasPrimitiveFields;
+
+    private final int multiplier;
+
+    private final int shift;
+
+    // null if the schema is not compiled
+    private final String[] tableFieldNames;
+
+    private final int[] tableFieldIndices;
+
+    // null if the schema is compiled
+    private final Map<String, Integer> fieldIndices;
 
     /**
      * Creates the {@code PortRuntimeSchema} using the given field definitions. Sorts the fields by field name.
@@ -32,10 +60,111 @@ public final class PortRuntimeSchema implements TupleSchema
         final ArrayList<RuntimeSchemaField> f = new ArrayList<>( fields );
         f.sort( Comparator.comparing( RuntimeSchemaField::getName ) );
         this.fields = unmodifiableList( f );
+        this.fieldNames = new String[ f.size() ];
+        this.primitiveFieldTypes = new Class<?>[ f.size() ];
+        boolean hasPrimitiveFields = false;
+        this.fieldIndices = new HashMap<>();
         for ( int i = 0; i < f.size(); i++ )
         {
-            fieldIndices.put( f.get( i ).getName(), i );
+            fieldNames[ i ] = f.get( i ).getName();
+            primitiveFieldTypes[ i ] = toPrimitiveFieldType( f.get( i ).getType() );
+            hasPrimitiveFields |= primitiveFieldTypes[ i ] != null;
+            fieldIndices.put( fieldNames[ i ], i );
+        }
+        this.hasPrimitiveFields = hasPrimitiveFields;
+        this.multiplier = 0;
+        this.shift = 0;
+        this.tableFieldNames = null;
+        this.tableFieldIndices = null;
+    }
+
+    private PortRuntimeSchema ( final PortRuntimeSchema schema, final int multiplier, final int shift, final int tableSize,
+                                final int[] slots )
+    {
+        this.fields = schema.fields;
+        this.fieldNames = schema.fieldNames;
+        this.primitiveFieldTypes = schema.primitiveFieldTypes;
+        this.hasPrimitiveFields = schema.hasPrimitiveFields;
+        this.multiplier = multiplier;
+        this.shift = shift;
+        this.tableFieldNames = new String[ tableSize ];
+        this.tableFieldIndices = new int[ tableSize ];
+        for ( int i = 0; i < slots.length; i++ )
+        {
+            tableFieldNames[ slots[ i ] ] = fieldNames[ i ];
+            tableFieldIndices[ slots[ i ] ] = i;
+        }
+        this.fieldIndices = null;
+    }
+
+    /**
+     * Returns a copy of the schema which dispatches field names with a collision-free hash table generated for its fields, or the schema
+     * itself if it is already compiled or such a table cannot be generated, i.e., when it has no fields or two field names have the same
+     * hash code
+     *
+     * @return a compiled copy of the schema, or the schema itself if it is already compiled or it cannot be compiled
+     */
+    public PortRuntimeSchema compile ()
+    {
+        final int fieldCount = fieldNames.length;
+        if ( isCompiled() || fieldCount == 0 )
+        {
+            return this;
+        }
+
+        final int[] hashes = new int[ fieldCount ];
+        for ( int i = 0; i < fieldCount; i++ )
+        {
+            hashes[ i ] = fieldNames[ i ].hashCode();
         }
+
+        // deterministic multipliers to generate the same table for the same fields
+        final Random random = new Random( fieldCount );
+        for ( int tableSize = Math.max( Integer.highestOneBit( fieldCount * 2 - 1 ) << 1, 2 ); tableSize <= MAX_TABLE_SIZE;
+              tableSize <<= 1 )
+        {
+            final int shift = Integer.SIZE - Integer.numberOfTrailingZeros( tableSize );
+            for ( int attempt = 0; attempt < MULTIPLIER_ATTEMPTS_PER_TABLE_SIZE; attempt++ )
+            {
+                final int multiplier = random.nextInt() | 1;
+                final int[] slots = findSlots( hashes, multiplier, shift, tableSize );
+                if ( slots != null )
+                {
+                    return new PortRuntimeSchema( this, multiplier, shift, tableSize, slots );
+                }
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns true if the schema dispatches field names with a generated hash table
+     *
+     * @return true if the schema dispatches field names with a generated hash table
+     */
+    public boolean isCompiled ()
+    {
+        return tableFieldNames != null;
+    }
+
+    private static int[] findSlots ( final int[] hashes, final int multiplier, final int shift, final int tableSize )
+    {
+        final boolean[] occupied = new boolean[ tableSize ];
+        final int[] slots = new int[ hashes.length ];
+        for ( int i = 0; i < hashes.length; i++ )
+        {
+            final int slot = ( hashes[ i ] * multiplier ) >>> shift;
+            if ( occupied[ slot ] )
+            {
+                return null;
+            }
+
+            occupied[ slot ] = true;
+            slots[ i ] = slot;
+        }
+
+        return slots;
     }
 
     /**
@@ -71,8 +200,19 @@ public final class PortRuntimeSchema implements TupleSchema
     @Override
     public int getFieldIndex ( final String fieldName )
     {
-        final Integer index = fieldIndices.get( fieldName );
-        return index != null ? index : FIELD_NOT_FOUND;
+        if ( fieldIndices != null )
+        {
+            final Integer index = fieldIndices.get( fieldName );
+            return index != null ? index : FIELD_NOT_FOUND;
+        }
+        else if ( fieldName == null )
+        {
+            return FIELD_NOT_FOUND;
+        }
+
+        final int slot = ( fieldName.hashCode() * multiplier ) >>> shift;
+        final String candidate = tableFieldNames[ slot ];
+        return candidate == fieldName || fieldName.equals( candidate ) ? tableFieldIndices[ slot ] : FIELD_NOT_FOUND;
     }
 
     /**
@@ -86,7 +226,33 @@ public final class PortRuntimeSchema implements TupleSchema
     @Override
     public String getFieldAt ( final int fieldIndex )
     {
-        return fields.get( fieldIndex ).getName();
+        return fieldNames[ fieldIndex ];
+    }
+
+    /**
+     * Returns the wrapper type of the field at the given index if it is one of {@link Long}, {@link Integer}, {@link Double} or
+     * {@link Boolean} types, or their primitive counterparts
+     *
+     * @param fieldIndex
+     *         to get the primitive field type
+     *
+     * @return the wrapper type of the field at the given index if it is a primitive field, {@code null} otherwise
+     */
+    @Override
+    public Class<?> getPrimitiveFieldType ( final int fieldIndex )
+    {
+        return primitiveFieldTypes[ fieldIndex ];
+    }
+
+    /**
+     * Returns true if the port schema contains at least one primitive field
+     *
+     * @return true if the port schema contains at least one primitive field
+     */
+    @Override
+    public boolean hasPrimitiveFields ()
+    {
+        return hasPrimitiveFields;
     }
 
     /**
@@ -141,6 +307,28 @@ public final class PortRuntimeSchema implements TupleSchema
         return true;
     }
 
+    private static Class<?> toPrimitiveFieldType ( final Class<?> type )
+    {
+        if ( type == Long.class || type == long.class )
+        {
+            return Long.class;
+        }
+        else if ( type == Integer.class || type == int.class )
+        {
+            return Integer.class;
+        }
+        else if ( type == Double.class || type == double.class )
+        {
+            return Double.class;
+        }
+        else if ( type == Boolean.class || type == boolean.class )
+        {
+            return Boolean.class;
+        }
+
+        return null;
+    }
+
     @Override
     public String toString ()
     {
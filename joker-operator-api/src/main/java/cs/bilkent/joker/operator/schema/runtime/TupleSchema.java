@@ -46,4 +46,28 @@ public interface TupleSchema
      */
     String getFieldAt ( int fieldIndex );
 
+    /**
+     * Returns the wrapper type of the field present in the index of the schema, if values of the field can be kept unboxed in
+     * {@link Tuple} objects. Supported types are {@link Long}, {@link Integer}, {@link Double} and {@link Boolean}.
+     *
+     * @param fieldIndex
+     *         index to get the primitive field type
+     *
+     * @return the wrapper type of the field if it is a primitive field, {@code null} otherwise
+     */
+    default Class<?> getPrimitiveFieldType ( int fieldIndex )
+    {
+        return null;
+    }
+
+    /**
+     * Returns true if the schema contains at least one field of which values can be kept unboxed in {@link Tuple} objects
+     *
+     * @return true if the schema contains at least one field of which values can be kept unboxed in {@link Tuple} objects
+     */
+    default boolean hasPrimitiveFields ()
+    {
+        return false;
+    }
+
 }
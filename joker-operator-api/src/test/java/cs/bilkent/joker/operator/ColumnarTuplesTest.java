@@ -0,0 +1,207 @@
+package cs.bilkent.joker.operator;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.operator.impl.TuplesImpl;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnarTuplesTest extends AbstractJokerTest
+{
+
+    private final PortRuntimeSchema schema = new PortRuntimeSchema( asList( new RuntimeSchemaField( "long", long.class ),
+                                                                            new RuntimeSchemaField( "int", Integer.class ),
+                                                                            new RuntimeSchemaField( "double", double.class ),
+                                                                            new RuntimeSchemaField( "boolean", boolean.class ),
+                                                                            new RuntimeSchemaField( "string", String.class ) ) );
+
+    private final int longField = schema.getFieldIndex( "long" );
+
+    private final int intField = schema.getFieldIndex( "int" );
+
+    private final int doubleField = schema.getFieldIndex( "double" );
+
+    private final int booleanField = schema.getFieldIndex( "boolean" );
+
+    private final int stringField = schema.getFieldIndex( "string" );
+
+    private final ColumnarTuples batch = new ColumnarTuples( schema, 1 );
+
+    @Test
+    public void shouldAddTuplesIntoColumns ()
+    {
+        assertTrue( batch.add( newTuple( 1 ) ) );
+        assertTrue( batch.add( newTuple( 2 ) ) );
+
+        assertThat( batch.getRowCount(), equalTo( 2 ) );
+        assertThat( batch.getSelectedCount(), equalTo( 2 ) );
+        assertThat( batch.getLongColumn( longField )[ 1 ], equalTo( 2L ) );
+        assertThat( batch.getIntegerColumn( intField )[ 1 ], equalTo( 2 ) );
+        assertThat( batch.getDoubleColumn( doubleField )[ 1 ], equalTo( 2d ) );
+        assertTrue( batch.getBooleanColumn( booleanField )[ 1 ] );
+        assertThat( batch.getObjectColumn( stringField )[ 1 ], equalTo( "2" ) );
+    }
+
+    @Test
+    public void shouldKeepMissingValuesAsNull ()
+    {
+        final Tuple tuple = new Tuple( schema );
+        tuple.setLong( "long", 1 );
+
+        batch.add( tuple );
+
+        assertFalse( batch.isNull( longField, 0 ) );
+        assertTrue( batch.isNull( intField, 0 ) );
+        assertTrue( batch.isNull( stringField, 0 ) );
+    }
+
+    @Test
+    public void shouldNotAddTupleWithAnotherSchema ()
+    {
+        final Tuple tuple = new Tuple();
+        tuple.set( "long", 1L );
+
+        assertFalse( batch.add( tuple ) );
+        assertThat( batch.getRowCount(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldNotAddTupleWithNonSchemaField ()
+    {
+        final Tuple tuple = newTuple( 1 );
+        tuple.set( "extra", "value" );
+
+        assertFalse( batch.addAll( asList( newTuple( 2 ), tuple ) ) );
+        assertThat( batch.getRowCount(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldAddSchemaFieldsOfTupleWithNonSchemaField ()
+    {
+        final Tuple tuple = newTuple( 1 );
+        tuple.set( "extra", "value" );
+
+        assertTrue( batch.addSchemaFields( tuple ) );
+        assertThat( batch.getRowCount(), equalTo( 1 ) );
+        assertThat( batch.getLongColumn( longField )[ 0 ], equalTo( 1L ) );
+    }
+
+    @Test
+    public void shouldNotAddSchemaFieldsOfTupleWithAnotherSchema ()
+    {
+        final Tuple tuple = new Tuple();
+        tuple.set( "long", 1L );
+
+        assertFalse( batch.addSchemaFields( tuple ) );
+        assertThat( batch.getRowCount(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldFilterSelectedRows ()
+    {
+        for ( int i = 0; i < 5; i++ )
+        {
+            batch.add( newTuple( i ) );
+        }
+
+        batch.filter( ( tuples, row ) -> tuples.getLongColumn( longField )[ row ] % 2 == 0 );
+        batch.filter( ( tuples, row ) -> tuples.getIntegerColumn( intField )[ row ] > 0 );
+
+        assertThat( batch.getRowCount(), equalTo( 5 ) );
+        assertThat( batch.getSelectedCount(), equalTo( 2 ) );
+        assertThat( batch.getSelectedRow( 0 ), equalTo( 2 ) );
+        assertThat( batch.getSelectedRow( 1 ), equalTo( 4 ) );
+    }
+
+    @Test
+    public void shouldMaterializeSelectedRows ()
+    {
+        final Tuple tuple = newTuple( 1 );
+        batch.add( newTuple( 0 ) );
+        batch.add( tuple );
+        batch.setNull( stringField, 1 );
+        batch.filter( ( tuples, row ) -> row > 0 );
+
+        final TuplesImpl output = new TuplesImpl( 1 );
+        batch.materialize( output, 0, Tuple::new );
+
+        final List<Tuple> tuples = output.getTuplesByDefaultPort();
+        assertThat( tuples, hasSize( 1 ) );
+        final Tuple materialized = tuples.get( 0 );
+        assertThat( materialized.getSchema(), equalTo( schema ) );
+        assertThat( materialized.getLong( "long" ), equalTo( 1L ) );
+        assertThat( materialized.getInteger( "int" ), equalTo( 1 ) );
+        assertThat( materialized.getDouble( "double" ), equalTo( 1d ) );
+        assertFalse( materialized.getBoolean( "boolean" ) );
+        assertNull( materialized.get( "string" ) );
+    }
+
+    @Test
+    public void shouldResizeAndSelectAllRows ()
+    {
+        batch.add( newTuple( 1 ) );
+        batch.filter( ( tuples, row ) -> false );
+
+        batch.resize( 3 );
+        final long[] column = batch.getLongColumn( longField );
+        for ( int i = 0; i < 3; i++ )
+        {
+            column[ i ] = i;
+        }
+
+        assertThat( batch.getSelectedCount(), equalTo( 3 ) );
+        assertFalse( batch.isNull( longField, 2 ) );
+        assertThat( batch.getLongColumn( longField )[ 2 ], equalTo( 2L ) );
+    }
+
+    @Test
+    public void shouldReuseBatchWhileAddingTuplesOfSameSchema ()
+    {
+        batch.add( newTuple( 0 ) );
+        final List<Tuple> tuples = asList( newTuple( 1 ), newTuple( 2 ), new Tuple(), newTuple( 3 ) );
+
+        final ColumnarTuples reused = ColumnarTuples.toBatch( batch, tuples, 0, 1 );
+
+        assertThat( reused, sameInstance( batch ) );
+        assertThat( reused.getRowCount(), equalTo( 2 ) );
+        assertThat( reused.getLongColumn( longField )[ 0 ], equalTo( 1L ) );
+        assertThat( reused.getLongColumn( longField )[ 1 ], equalTo( 2L ) );
+
+        final ColumnarTuples created = ColumnarTuples.toBatch( batch, tuples, 2, 1 );
+
+        assertThat( created, not( sameInstance( batch ) ) );
+        assertThat( created.getSchema(), sameInstance( tuples.get( 2 ).getSchema() ) );
+        assertThat( created.getRowCount(), equalTo( 1 ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldNotGetColumnWithInvalidType ()
+    {
+        batch.getIntegerColumn( longField );
+    }
+
+    private Tuple newTuple ( final int val )
+    {
+        final Tuple tuple = new Tuple( schema );
+        tuple.setLong( "long", val );
+        tuple.setInteger( "int", val );
+        tuple.setDouble( "double", val );
+        tuple.setBoolean( "boolean", val % 2 == 0 );
+        tuple.set( "string", String.valueOf( val ) );
+
+        return tuple;
+    }
+
+}
@@ -0,0 +1,110 @@
+package cs.bilkent.joker.operator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static cs.bilkent.joker.operator.ExtendedFields.LINEAR_SCAN_THRESHOLD;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertNull;
+
+public class ExtendedFieldsTest extends AbstractJokerTest
+{
+
+    private final ExtendedFields fields = new ExtendedFields( 2 );
+
+    @Test
+    public void shouldGetWithNonInternedKey ()
+    {
+        fields.put( "field", 1 );
+
+        assertThat( fields.get( new String( "field" ) ), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldOverwriteValue ()
+    {
+        fields.put( "field", 1 );
+        fields.put( new String( "field" ), 2 );
+
+        assertThat( fields.size(), equalTo( 1 ) );
+        assertThat( fields.get( "field" ), equalTo( 2 ) );
+    }
+
+    @Test
+    public void shouldKeepInsertionOrder ()
+    {
+        fields.put( "b", 1 );
+        fields.put( "a", 2 );
+
+        assertThat( fields.getKey( 0 ), equalTo( "b" ) );
+        assertThat( fields.getKey( 1 ), equalTo( "a" ) );
+    }
+
+    @Test
+    public void shouldGetValuesBeyondLinearScanThreshold ()
+    {
+        final int count = LINEAR_SCAN_THRESHOLD * 8;
+        for ( int i = 0; i < count; i++ )
+        {
+            fields.put( "field" + i, i );
+        }
+
+        assertThat( fields.size(), equalTo( count ) );
+        for ( int i = 0; i < count; i++ )
+        {
+            assertThat( fields.get( "field" + i ), equalTo( i ) );
+        }
+        assertNull( fields.get( "field" + count ) );
+    }
+
+    @Test
+    public void shouldRemoveValuesBeyondLinearScanThreshold ()
+    {
+        final Random random = new Random( 1 );
+        final Map<String, Integer> expected = new HashMap<>();
+        for ( int i = 0; i < 1000; i++ )
+        {
+            final String key = "field" + random.nextInt( 64 );
+            if ( random.nextBoolean() )
+            {
+                fields.put( key, i );
+                expected.put( key, i );
+            }
+            else
+            {
+                assertThat( fields.remove( key ), equalTo( expected.remove( key ) ) );
+            }
+
+            assertThat( fields.size(), equalTo( expected.size() ) );
+        }
+
+        for ( int i = 0; i < 64; i++ )
+        {
+            final String key = "field" + i;
+            assertThat( fields.get( key ), equalTo( expected.get( key ) ) );
+        }
+    }
+
+    @Test
+    public void shouldClear ()
+    {
+        for ( int i = 0; i <= LINEAR_SCAN_THRESHOLD; i++ )
+        {
+            fields.put( "field" + i, i );
+        }
+
+        fields.clear();
+
+        assertThat( fields.size(), equalTo( 0 ) );
+        assertNull( fields.get( "field0" ) );
+
+        fields.put( "field0", 1 );
+        assertThat( fields.get( "field0" ), equalTo( 1 ) );
+    }
+
+}
@@ -0,0 +1,205 @@
+package cs.bilkent.joker.operator;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
+import cs.bilkent.joker.operator.schema.runtime.TupleSchema;
+import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FieldAccessorTest extends AbstractJokerTest
+{
+
+    private final PortRuntimeSchema schema = new PortRuntimeSchema( asList( new RuntimeSchemaField( "field1", Integer.class ),
+                                                                            new RuntimeSchemaField( "field2", long.class ),
+                                                                            new RuntimeSchemaField( "field3", Number.class ) ) );
+
+    @Test
+    public void shouldGetAndSetWithSchema ()
+    {
+        final FieldAccessor accessor = new FieldAccessor( schema, "field1" );
+        final Tuple tuple = new Tuple( schema );
+
+        accessor.set( tuple, 5 );
+
+        assertThat( accessor.get( tuple ), equalTo( 5 ) );
+        assertThat( tuple.get( "field1" ), equalTo( 5 ) );
+    }
+
+    @Test
+    public void shouldGetAndSetPrimitiveValuesWithSchema ()
+    {
+        final FieldAccessor accessor = new FieldAccessor( schema, "field2" );
+        final Tuple tuple = new Tuple( schema );
+
+        accessor.setLong( tuple, 10L );
+
+        assertThat( accessor.getLongValueOrDefault( tuple, -1 ), equalTo( 10L ) );
+        assertThat( accessor.getDoubleValueOrDefault( tuple, -1 ), equalTo( 10d ) );
+        assertThat( tuple.get( "field2" ), equalTo( 10L ) );
+    }
+
+    @Test
+    public void shouldGetDefaultValueWithSchema ()
+    {
+        final FieldAccessor accessor = new FieldAccessor( schema, "field2" );
+        final Tuple tuple = new Tuple( schema );
+
+        assertNull( accessor.get( tuple ) );
+        assertThat( accessor.getLongValueOrDefault( tuple, -1 ), equalTo( -1L ) );
+    }
+
+    @Test
+    public void shouldSetSubclassValueWithSchema ()
+    {
+        final FieldAccessor accessor = new FieldAccessor( schema, "field3" );
+        final Tuple tuple = new Tuple( schema );
+
+        accessor.setDouble( tuple, 1.5 );
+
+        assertThat( accessor.get( tuple ), equalTo( 1.5 ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldNotSetIncompatibleValueWithSchema ()
+    {
+        final FieldAccessor accessor = new FieldAccessor( schema, "field1" );
+
+        accessor.set( new Tuple( schema ), "val" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldNotSetIncompatiblePrimitiveValueWithSchema ()
+    {
+        final FieldAccessor accessor = new FieldAccessor( schema, "field1" );
+
+        accessor.setLong( new Tuple( schema ), 5L );
+    }
+
+    @Test
+    public void shouldGetAndSetWithoutSchema ()
+    {
+        final FieldAccessor accessor = new FieldAccessor( "field" );
+        final Tuple tuple = new Tuple();
+
+        accessor.setBoolean( tuple, true );
+
+        assertTrue( accessor.getBooleanValueOrDefault( tuple, false ) );
+        assertThat( tuple.get( "field" ), equalTo( true ) );
+    }
+
+    @Test
+    public void shouldGetAndSetWithFieldMissingInSchema ()
+    {
+        final FieldAccessor accessor = new FieldAccessor( schema, "field" );
+        final Tuple tuple = new Tuple( schema );
+
+        accessor.set( tuple, "val" );
+
+        assertThat( accessor.get( tuple ), equalTo( "val" ) );
+    }
+
+    @Test
+    public void shouldGetWithTuplesOfDifferentSchemas ()
+    {
+        final PortRuntimeSchema otherSchema = new PortRuntimeSchema( asList( new RuntimeSchemaField( "field0", String.class ),
+                                                                             new RuntimeSchemaField( "field1", Integer.class ) ) );
+        final FieldAccessor accessor = new FieldAccessor( schema, "field1" );
+        final Tuple tuple1 = new Tuple( schema );
+        tuple1.set( "field1", 1 );
+        final Tuple tuple2 = new Tuple( otherSchema );
+        tuple2.set( "field1", 2 );
+        final Tuple tuple3 = new Tuple();
+        tuple3.set( "field1", 3 );
+
+        assertThat( accessor.getIntegerValueOrDefault( tuple1, -1 ), equalTo( 1 ) );
+        assertThat( accessor.getIntegerValueOrDefault( tuple2, -1 ), equalTo( 2 ) );
+        assertThat( accessor.getIntegerValueOrDefault( tuple3, -1 ), equalTo( 3 ) );
+        assertThat( accessor.getIntegerValueOrDefault( tuple1, -1 ), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldNotResolveFieldIndexAgainWithTuplesOfAlternatingSchemas ()
+    {
+        final CountingTupleSchema schema1 = new CountingTupleSchema( schema );
+        final CountingTupleSchema schema2 = new CountingTupleSchema( new PortRuntimeSchema( asList( new RuntimeSchemaField( "field0",
+                                                                                                                           String.class ),
+                                                                                                    new RuntimeSchemaField( "field1",
+                                                                                                                           Integer.class ) ) ) );
+        final FieldAccessor accessor = new FieldAccessor( "field1" );
+        final Tuple tuple1 = new Tuple( schema1 );
+        tuple1.set( "field1", 1 );
+        final Tuple tuple2 = new Tuple( schema2 );
+        tuple2.set( "field1", 2 );
+        schema1.count = 0;
+        schema2.count = 0;
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            assertThat( accessor.getIntegerValueOrDefault( tuple1, -1 ), equalTo( 1 ) );
+            assertThat( accessor.getIntegerValueOrDefault( tuple2, -1 ), equalTo( 2 ) );
+        }
+
+        assertThat( schema1.count, equalTo( 1 ) );
+        assertThat( schema2.count, equalTo( 1 ) );
+    }
+
+    private static class CountingTupleSchema implements TupleSchema
+    {
+
+        private final TupleSchema schema;
+
+        private int count;
+
+        CountingTupleSchema ( final TupleSchema schema )
+        {
+            this.schema = schema;
+        }
+
+        @Override
+        public int getFieldCount ()
+        {
+            return schema.getFieldCount();
+        }
+
+        @Override
+        public List<RuntimeSchemaField> getFields ()
+        {
+            return schema.getFields();
+        }
+
+        @Override
+        public int getFieldIndex ( final String fieldName )
+        {
+            count++;
+            return schema.getFieldIndex( fieldName );
+        }
+
+        @Override
+        public String getFieldAt ( final int fieldIndex )
+        {
+            return schema.getFieldAt( fieldIndex );
+        }
+
+        @Override
+        public Class<?> getPrimitiveFieldType ( final int fieldIndex )
+        {
+            return schema.getPrimitiveFieldType( fieldIndex );
+        }
+
+        @Override
+        public boolean hasPrimitiveFields ()
+        {
+            return schema.hasPrimitiveFields();
+        }
+
+    }
+
+}
@@ -14,6 +14,7 @@ import org.junit.Test;
 import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
 import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
 import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
@@ -66,6 +67,26 @@ public class TupleTest extends AbstractJokerTest
         assertFalse( tuple.delete( "field" ) );
     }
 
+    @Test
+    public void shouldKeepManyNonSchemaFields ()
+    {
+        final Tuple tuple = new Tuple( new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "field", Integer.class ) ) ) );
+        tuple.set( "field", 0 );
+        for ( int i = 0; i < 32; i++ )
+        {
+            tuple.set( "extra" + i, i );
+        }
+
+        assertTrue( tuple.hasNonSchemaFields() );
+        assertThat( tuple.size(), equalTo( 33 ) );
+        assertThat( tuple.remove( "extra0" ), equalTo( 0 ) );
+        assertThat( tuple.size(), equalTo( 32 ) );
+        for ( int i = 1; i < 32; i++ )
+        {
+            assertThat( tuple.getInteger( "extra" + i ), equalTo( i ) );
+        }
+    }
+
     @Test
     public void shouldGetExisting ()
     {
@@ -499,6 +520,113 @@ public class TupleTest extends AbstractJokerTest
         assertThat( tuple.get( "intField" ), equalTo( "val" ) );
     }
 
+    @Test
+    public void shouldSetPrimitiveValuesWithSchema ()
+    {
+        final Tuple tuple = new Tuple( newPrimitiveSchema() );
+
+        tuple.setLong( "longField", 5L );
+        tuple.setInteger( "intField", 3 );
+        tuple.setDouble( "doubleField", 1.5 );
+        tuple.setBoolean( "booleanField", true );
+
+        assertThat( tuple.getLongValueOrDefault( "longField", -1 ), equalTo( 5L ) );
+        assertThat( tuple.getIntegerValueOrDefault( "intField", -1 ), equalTo( 3 ) );
+        assertThat( tuple.getDoubleValueOrDefault( "doubleField", -1 ), equalTo( 1.5 ) );
+        assertTrue( tuple.getBooleanValueOrDefault( "booleanField", false ) );
+        assertThat( tuple.get( "longField" ), equalTo( 5L ) );
+        assertThat( tuple.get( "intField" ), equalTo( 3 ) );
+        assertThat( tuple.get( "doubleField" ), equalTo( 1.5 ) );
+        assertThat( tuple.get( "booleanField" ), equalTo( true ) );
+        assertThat( tuple.size(), equalTo( 4 ) );
+    }
+
+    @Test
+    public void shouldConvertPrimitiveValuesWithSchema ()
+    {
+        final Tuple tuple = new Tuple( newPrimitiveSchema() );
+
+        tuple.setLong( "longField", 5L );
+        tuple.setDouble( "doubleField", 1.5 );
+
+        assertThat( tuple.getIntegerValueOrDefault( "longField", -1 ), equalTo( 5 ) );
+        assertThat( tuple.getDoubleValueOrDefault( "longField", -1 ), equalTo( 5.0 ) );
+        assertThat( tuple.getLongValueOrDefault( "doubleField", -1 ), equalTo( 1L ) );
+    }
+
+    @Test
+    public void shouldGetDefaultPrimitiveValuesWithSchema ()
+    {
+        final Tuple tuple = new Tuple( newPrimitiveSchema() );
+
+        assertThat( tuple.getLongValueOrDefault( "longField", -1 ), equalTo( -1L ) );
+        assertThat( tuple.getIntegerValueOrDefault( "intField", -1 ), equalTo( -1 ) );
+        assertThat( tuple.getDoubleValueOrDefault( "doubleField", -1 ), equalTo( -1.0 ) );
+        assertFalse( tuple.getBooleanValueOrDefault( "booleanField", false ) );
+        assertThat( tuple.getLongValueOrDefault( "schemalessField", -1 ), equalTo( -1L ) );
+    }
+
+    @Test
+    public void shouldSetPrimitiveValuesToNonPrimitiveFields ()
+    {
+        final Tuple tuple = new Tuple( newPrimitiveSchema() );
+
+        tuple.setLong( "intField", 5L );
+        tuple.setInteger( "schemalessField", 3 );
+
+        assertThat( tuple.get( "intField" ), equalTo( 5L ) );
+        assertThat( tuple.get( "schemalessField" ), equalTo( 3 ) );
+        assertThat( tuple.getLongValueOrDefault( "schemalessField", -1 ), equalTo( 3L ) );
+    }
+
+    @Test
+    public void shouldOverwritePrimitiveValueWithObject ()
+    {
+        final Tuple tuple = new Tuple( newPrimitiveSchema() );
+
+        tuple.setLong( "longField", 5L );
+        tuple.set( "longField", 10L );
+
+        assertThat( tuple.getLongValueOrDefault( "longField", -1 ), equalTo( 10L ) );
+    }
+
+    @Test
+    public void shouldRemovePrimitiveValue ()
+    {
+        final Tuple tuple = new Tuple( newPrimitiveSchema() );
+
+        tuple.setLong( "longField", 5L );
+
+        assertThat( tuple.remove( "longField" ), equalTo( 5L ) );
+        assertFalse( tuple.contains( "longField" ) );
+    }
+
+    @Test
+    public void shouldBeEqualWithPrimitiveAndBoxedValues ()
+    {
+        final PortRuntimeSchema schema = newPrimitiveSchema();
+        final Tuple tuple1 = new Tuple( schema );
+        final Tuple tuple2 = new Tuple( schema );
+
+        tuple1.setLong( "longField", 5L );
+        tuple1.setDouble( "doubleField", 1.5 );
+        tuple2.set( "longField", 5L );
+        tuple2.set( "doubleField", 1.5 );
+
+        assertThat( tuple1, equalTo( tuple2 ) );
+        assertThat( tuple1.hashCode(), equalTo( tuple2.hashCode() ) );
+    }
+
+    private PortRuntimeSchema newPrimitiveSchema ()
+    {
+        final List<RuntimeSchemaField> fields = new ArrayList<>();
+        fields.add( new RuntimeSchemaField( "longField", Long.class ) );
+        fields.add( new RuntimeSchemaField( "intField", Integer.class ) );
+        fields.add( new RuntimeSchemaField( "doubleField", Double.class ) );
+        fields.add( new RuntimeSchemaField( "booleanField", Boolean.class ) );
+        return new PortRuntimeSchema( fields );
+    }
+
     @Test
     public void testSetWithSchemafulTuple ()
     {
@@ -1065,4 +1193,39 @@ public class TupleTest extends AbstractJokerTest
         assertThat( tuple1.hashCode(), equalTo( tuple2.hashCode() ) );
     }
 
+    @Test
+    public void shouldRecycleWhenReleasedByAllConsumers ()
+    {
+        final PortRuntimeSchema schema = new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "field", long.class ) ) );
+        final List<Tuple> recycled = new ArrayList<>();
+        final Tuple tuple = new Tuple( schema, recycled::add );
+        tuple.setLong( "field", 1L );
+        tuple.set( "extra", "value" );
+
+        tuple.retain( 2 );
+        tuple.release();
+
+        assertThat( recycled, empty() );
+
+        tuple.release();
+
+        assertThat( recycled, equalTo( singletonList( tuple ) ) );
+        assertNull( tuple.get( "field" ) );
+        assertNull( tuple.get( "extra" ) );
+        assertThat( tuple.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldNotRecycleWithoutRecycler ()
+    {
+        final Tuple tuple = new Tuple();
+        tuple.set( "field", "value" );
+
+        tuple.retain( 1 );
+        tuple.release();
+        tuple.release();
+
+        assertThat( tuple.get( "field" ), equalTo( "value" ) );
+    }
+
 }
@@ -1,8 +1,17 @@
 package cs.bilkent.joker.operator.schema.runtime;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 
+import static cs.bilkent.joker.operator.schema.runtime.TupleSchema.FIELD_NOT_FOUND;
 import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -49,4 +58,107 @@ public class PortRuntimeSchemaTest extends AbstractJokerTest
         assertFalse( sourceSchema.isCompatibleWith( targetSchema ) );
     }
 
+    @Test
+    public void shouldResolvePrimitiveFieldTypes ()
+    {
+        sourceSchemaBuilder.addField( "field1", Long.class )
+                           .addField( "field2", int.class )
+                           .addField( "field3", Double.class )
+                           .addField( "field4", Boolean.class )
+                           .addField( "field5", String.class );
+
+        final PortRuntimeSchema schema = sourceSchemaBuilder.build();
+
+        assertTrue( schema.hasPrimitiveFields() );
+        assertThat( schema.getPrimitiveFieldType( schema.getFieldIndex( "field1" ) ), equalTo( Long.class ) );
+        assertThat( schema.getPrimitiveFieldType( schema.getFieldIndex( "field2" ) ), equalTo( Integer.class ) );
+        assertThat( schema.getPrimitiveFieldType( schema.getFieldIndex( "field3" ) ), equalTo( Double.class ) );
+        assertThat( schema.getPrimitiveFieldType( schema.getFieldIndex( "field4" ) ), equalTo( Boolean.class ) );
+        assertThat( schema.getPrimitiveFieldType( schema.getFieldIndex( "field5" ) ), nullValue() );
+    }
+
+    @Test
+    public void shouldNotHavePrimitiveFieldsWithoutPrimitiveFieldTypes ()
+    {
+        sourceSchemaBuilder.addField( "field1", String.class ).addField( "field2", Number.class );
+
+        assertFalse( sourceSchemaBuilder.build().hasPrimitiveFields() );
+    }
+
+    @Test
+    public void shouldNotCompileByDefault ()
+    {
+        final PortRuntimeSchema schema = new PortRuntimeSchema( asList( new RuntimeSchemaField( "long", long.class ) ) );
+
+        assertFalse( schema.isCompiled() );
+        assertThat( schema.getFieldIndex( "long" ), equalTo( 0 ) );
+        assertThat( schema.getFieldIndex( "none" ), equalTo( FIELD_NOT_FOUND ) );
+        assertThat( schema.getFieldIndex( null ), equalTo( FIELD_NOT_FOUND ) );
+    }
+
+    @Test
+    public void shouldDispatchFieldNames ()
+    {
+        final PortRuntimeSchema source = new PortRuntimeSchema( asList( new RuntimeSchemaField( "long", long.class ),
+                                                                        new RuntimeSchemaField( "string", String.class ),
+                                                                        new RuntimeSchemaField( "object", Object.class ) ) );
+
+        final PortRuntimeSchema schema = source.compile();
+
+        assertTrue( schema.isCompiled() );
+        assertThat( schema.getFields(), equalTo( source.getFields() ) );
+        assertThat( schema.compile(), sameInstance( schema ) );
+        for ( int i = 0; i < schema.getFieldCount(); i++ )
+        {
+            final String fieldName = schema.getFields().get( i ).getName();
+            assertThat( schema.getFieldAt( i ), equalTo( fieldName ) );
+            assertThat( schema.getPrimitiveFieldType( i ), equalTo( source.getPrimitiveFieldType( i ) ) );
+            assertThat( schema.getFieldIndex( fieldName ), equalTo( i ) );
+            assertThat( schema.getFieldIndex( new String( fieldName ) ), equalTo( i ) );
+        }
+        assertThat( schema.getFieldIndex( "none" ), equalTo( FIELD_NOT_FOUND ) );
+        assertThat( schema.getFieldIndex( "" ), equalTo( FIELD_NOT_FOUND ) );
+        assertThat( schema.getFieldIndex( null ), equalTo( FIELD_NOT_FOUND ) );
+    }
+
+    @Test
+    public void shouldDispatchManyFieldNames ()
+    {
+        final List<RuntimeSchemaField> fields = new ArrayList<>();
+        for ( int i = 0; i < 200; i++ )
+        {
+            fields.add( new RuntimeSchemaField( "field" + i, int.class ) );
+        }
+
+        final PortRuntimeSchema schema = new PortRuntimeSchema( fields ).compile();
+
+        assertTrue( schema.isCompiled() );
+        for ( int i = 0; i < schema.getFieldCount(); i++ )
+        {
+            assertThat( schema.getFieldIndex( schema.getFieldAt( i ) ), equalTo( i ) );
+        }
+    }
+
+    @Test
+    public void shouldNotCompileFieldNamesWithSameHashCode ()
+    {
+        // "Aa" and "BB" have the same hash code
+        final PortRuntimeSchema schema = new PortRuntimeSchema( asList( new RuntimeSchemaField( "Aa", int.class ),
+                                                                        new RuntimeSchemaField( "BB", int.class ) ) );
+
+        assertThat( schema.compile(), sameInstance( schema ) );
+        assertThat( schema.getFieldIndex( "Aa" ), equalTo( 0 ) );
+        assertThat( schema.getFieldIndex( "BB" ), equalTo( 1 ) );
+        assertThat( schema.getFieldIndex( "C#" ), equalTo( FIELD_NOT_FOUND ) );
+    }
+
+    @Test
+    public void shouldNotCompileEmptySchema ()
+    {
+        final PortRuntimeSchema schema = new PortRuntimeSchemaBuilder().build();
+
+        assertThat( schema.compile(), sameInstance( schema ) );
+        assertThat( schema.getFieldIndex( "field" ), equalTo( FIELD_NOT_FOUND ) );
+    }
+
 }
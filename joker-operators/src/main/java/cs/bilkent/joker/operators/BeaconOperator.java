@@ -52,7 +52,7 @@ public class BeaconOperator implements Operator
 
         for ( int i = 0; i < tupleCount; i++ )
         {
-            final Tuple tuple = new Tuple( outputSchema );
+            final Tuple tuple = invocationContext.newTuple( outputSchema );
             tuplePopulatorFunc.accept( tuple );
             output.add( tuple );
         }
@@ -1,6 +1,7 @@
 package cs.bilkent.joker.operators;
 
 import static cs.bilkent.joker.flow.Port.DEFAULT_PORT_INDEX;
+import cs.bilkent.joker.operator.FieldAccessor;
 import cs.bilkent.joker.operator.InitializationContext;
 import cs.bilkent.joker.operator.InvocationContext;
 import cs.bilkent.joker.operator.Operator;
@@ -45,7 +46,9 @@ public class ExponentialMovingAverageAggregationOperator implements Operator
 
     private double weight;
 
-    private String fieldName;
+    private FieldAccessor inputFieldAccessor;
+
+    private FieldAccessor valueFieldAccessor;
 
     @Override
     public SchedulingStrategy init ( final InitializationContext context )
@@ -54,7 +57,9 @@ public class ExponentialMovingAverageAggregationOperator implements Operator
 
         final OperatorConfig config = context.getConfig();
         this.weight = config.getOrFail( WEIGHT_CONFIG_PARAMETER );
-        this.fieldName = config.getOrFail( FIELD_NAME_CONFIG_PARAMETER );
+        final String fieldName = config.getOrFail( FIELD_NAME_CONFIG_PARAMETER );
+        this.inputFieldAccessor = new FieldAccessor( context.getInputPortSchema( 0 ), fieldName );
+        this.valueFieldAccessor = new FieldAccessor( outputSchema, VALUE_FIELD );
 
         return scheduleWhenTuplesAvailableOnDefaultPort( 1 );
     }
@@ -73,10 +78,10 @@ public class ExponentialMovingAverageAggregationOperator implements Operator
 
         for ( Tuple tuple : input.getTuplesByDefaultPort() )
         {
-            final double tupleValue = tuple.getDoubleValueOrDefault( fieldName, 0d );
+            final double tupleValue = inputFieldAccessor.getDoubleValueOrDefault( tuple, 0d );
             value = ( tupleCount++ == 0 ) ? tupleValue : ( weight * tupleValue + ( 1 - weight ) * value );
-            final Tuple avgTuple = new Tuple( outputSchema );
-            avgTuple.set( VALUE_FIELD, value );
+            final Tuple avgTuple = invocationContext.newTuple( outputSchema );
+            valueFieldAccessor.setDouble( avgTuple, value );
 
             output.add( avgTuple );
         }
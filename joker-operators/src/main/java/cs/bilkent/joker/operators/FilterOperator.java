@@ -1,10 +1,16 @@
 package cs.bilkent.joker.operators;
 
+import java.util.List;
 import java.util.function.Predicate;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import cs.bilkent.joker.operator.ColumnarOperator;
+import cs.bilkent.joker.operator.ColumnarTuples;
+import cs.bilkent.joker.operator.ColumnarTuples.RowPredicate;
+import static cs.bilkent.joker.operator.ColumnarTuples.toBatch;
 import cs.bilkent.joker.operator.InitializationContext;
 import cs.bilkent.joker.operator.InvocationContext;
-import cs.bilkent.joker.operator.Operator;
 import cs.bilkent.joker.operator.OperatorConfig;
 import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.operator.Tuples;
@@ -16,24 +22,42 @@ import static cs.bilkent.joker.operator.spec.OperatorType.STATELESS;
 
 /**
  * Applies the given predicate function to each input tuple and only returns the ones that satisfy the predicate
+ * <p/>
+ * Alternatively, a columnar predicate function can be provided to filter rows of {@link ColumnarTuples} batches. If only the columnar
+ * predicate is provided and the operator is invoked with {@link Tuple} objects, consecutive tuples with the same schema are filtered
+ * in a batch which contains only values of their schema fields. The filtered tuples are returned as they are.
  */
 @OperatorSpec( type = STATELESS, inputPortCount = 1, outputPortCount = 1 )
-public class FilterOperator implements Operator
+public class FilterOperator implements ColumnarOperator
 {
 
     public static final String PREDICATE_CONFIG_PARAMETER = "predicate";
 
+    public static final String COLUMNAR_PREDICATE_CONFIG_PARAMETER = "columnarPredicate";
+
     private static final int DEFAULT_TUPLE_COUNT_CONFIG_VALUE = 1;
 
+    private static final int DEFAULT_BATCH_CAPACITY = 64;
+
 
     private Predicate<Tuple> predicate;
 
+    private RowPredicate columnarPredicate;
+
+    private ColumnarTuples inputBatch;
+
     @Override
     public SchedulingStrategy init ( final InitializationContext context )
     {
         final OperatorConfig config = context.getConfig();
 
-        this.predicate = config.getOrFail( PREDICATE_CONFIG_PARAMETER );
+        this.predicate = config.get( PREDICATE_CONFIG_PARAMETER );
+        this.columnarPredicate = config.get( COLUMNAR_PREDICATE_CONFIG_PARAMETER );
+        checkArgument( predicate != null || columnarPredicate != null,
+                       "%s or %s must be provided",
+                       PREDICATE_CONFIG_PARAMETER,
+                       COLUMNAR_PREDICATE_CONFIG_PARAMETER );
+
         return scheduleWhenTuplesAvailableOnDefaultPort( DEFAULT_TUPLE_COUNT_CONFIG_VALUE );
     }
 
@@ -43,6 +67,27 @@ public class FilterOperator implements Operator
         final Tuples input = invocationContext.getInput();
         final Tuples output = invocationContext.getOutput();
 
+        if ( predicate == null )
+        {
+            final List<Tuple> tuples = input.getTuplesByDefaultPort();
+            int fromIndex = 0;
+            while ( fromIndex < tuples.size() )
+            {
+                inputBatch = toBatch( inputBatch, tuples, fromIndex, DEFAULT_BATCH_CAPACITY );
+                final int toIndex = fromIndex + inputBatch.getRowCount();
+                final ColumnarTuples batch = invoke( inputBatch );
+                // rows of the batch are in the same order with the input tuples
+                for ( int i = 0; i < batch.getSelectedCount(); i++ )
+                {
+                    output.add( tuples.get( fromIndex + batch.getSelectedRow( i ) ) );
+                }
+
+                fromIndex = toIndex;
+            }
+
+            return;
+        }
+
         for ( Tuple tuple : input.getTuplesByDefaultPort() )
         {
             if ( predicate.test( tuple ) )
@@ -52,4 +97,19 @@ public class FilterOperator implements Operator
         }
     }
 
+    @Override
+    public boolean isColumnarInvocationEnabled ()
+    {
+        return columnarPredicate != null;
+    }
+
+    @Override
+    public ColumnarTuples invoke ( final ColumnarTuples input )
+    {
+        checkState( columnarPredicate != null, "%s is not provided", COLUMNAR_PREDICATE_CONFIG_PARAMETER );
+        input.filter( columnarPredicate );
+
+        return input;
+    }
+
 }
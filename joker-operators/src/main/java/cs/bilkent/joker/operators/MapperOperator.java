@@ -1,10 +1,15 @@
 package cs.bilkent.joker.operators;
 
+import java.util.List;
 import java.util.function.BiConsumer;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import cs.bilkent.joker.operator.ColumnarOperator;
+import cs.bilkent.joker.operator.ColumnarTuples;
+import static cs.bilkent.joker.operator.ColumnarTuples.toBatch;
 import cs.bilkent.joker.operator.InitializationContext;
 import cs.bilkent.joker.operator.InvocationContext;
-import cs.bilkent.joker.operator.Operator;
 import cs.bilkent.joker.operator.OperatorConfig;
 import cs.bilkent.joker.operator.Tuple;
 import cs.bilkent.joker.operator.Tuples;
@@ -17,27 +22,55 @@ import static cs.bilkent.joker.operator.spec.OperatorType.STATELESS;
 
 /**
  * Maps the input tuples into new output tuples with the provided mapper function.
+ * <p/>
+ * Alternatively, a columnar mapper function can be provided to map {@link ColumnarTuples} batches. The columnar mapper function
+ * is called with the input batch and an output batch of which row count is equal to the selected row count of the input batch.
+ * It must write the values of the i-th selected row of the input batch into the i-th row of the output batch.
+ * Columnar mapper requires fields of the output port schema to be declared. If only the columnar mapper is provided and the operator
+ * is invoked with {@link Tuple} objects, consecutive tuples with the same schema are mapped in a batch which contains only values of
+ * their schema fields.
  */
 @OperatorSpec( type = STATELESS, inputPortCount = 1, outputPortCount = 1 )
-public class MapperOperator implements Operator
+public class MapperOperator implements ColumnarOperator
 {
 
     public static final String MAPPER_CONFIG_PARAMETER = "mapper";
 
+    public static final String COLUMNAR_MAPPER_CONFIG_PARAMETER = "columnarMapper";
+
     private static final int DEFAULT_TUPLE_COUNT_CONFIG_VALUE = 1;
 
+    private static final int DEFAULT_BATCH_CAPACITY = 64;
+
 
     private BiConsumer<Tuple, Tuple> mapper;
 
+    private BiConsumer<ColumnarTuples, ColumnarTuples> columnarMapper;
+
     private TupleSchema outputSchema;
 
+    private ColumnarTuples inputBatch;
+
+    private ColumnarTuples outputBatch;
+
     @Override
     public SchedulingStrategy init ( final InitializationContext context )
     {
         final OperatorConfig config = context.getConfig();
 
-        this.mapper = config.getOrFail( MAPPER_CONFIG_PARAMETER );
+        this.mapper = config.get( MAPPER_CONFIG_PARAMETER );
+        this.columnarMapper = config.get( COLUMNAR_MAPPER_CONFIG_PARAMETER );
+        checkArgument( mapper != null || columnarMapper != null,
+                       "%s or %s must be provided",
+                       MAPPER_CONFIG_PARAMETER,
+                       COLUMNAR_MAPPER_CONFIG_PARAMETER );
         this.outputSchema = context.getOutputPortSchema( 0 );
+        if ( columnarMapper != null )
+        {
+            checkArgument( outputSchema.getFieldCount() > 0, "output port schema must have fields for %s", COLUMNAR_MAPPER_CONFIG_PARAMETER );
+            this.outputBatch = new ColumnarTuples( outputSchema, DEFAULT_BATCH_CAPACITY );
+        }
+
         return scheduleWhenTuplesAvailableOnDefaultPort( DEFAULT_TUPLE_COUNT_CONFIG_VALUE );
     }
 
@@ -47,12 +80,43 @@ public class MapperOperator implements Operator
         final Tuples input = invocationContext.getInput();
         final Tuples output = invocationContext.getOutput();
 
+        if ( mapper == null )
+        {
+            final List<Tuple> tuples = input.getTuplesByDefaultPort();
+            int fromIndex = 0;
+            while ( fromIndex < tuples.size() )
+            {
+                inputBatch = toBatch( inputBatch, tuples, fromIndex, DEFAULT_BATCH_CAPACITY );
+                fromIndex += inputBatch.getRowCount();
+                invoke( inputBatch ).materialize( output, 0, invocationContext::newTuple );
+            }
+
+            return;
+        }
+
         for ( Tuple tuple : input.getTuplesByDefaultPort() )
         {
-            final Tuple mapped = new Tuple( outputSchema );
+            final Tuple mapped = invocationContext.newTuple( outputSchema );
             mapper.accept( tuple, mapped );
             output.add( mapped );
         }
     }
 
+    @Override
+    public boolean isColumnarInvocationEnabled ()
+    {
+        return columnarMapper != null;
+    }
+
+    @Override
+    public ColumnarTuples invoke ( final ColumnarTuples input )
+    {
+        checkState( columnarMapper != null, "%s is not provided", COLUMNAR_MAPPER_CONFIG_PARAMETER );
+        outputBatch.clear();
+        outputBatch.resize( input.getSelectedCount() );
+        columnarMapper.accept( input, outputBatch );
+
+        return outputBatch;
+    }
+
 }
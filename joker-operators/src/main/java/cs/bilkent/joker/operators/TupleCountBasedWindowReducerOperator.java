@@ -5,6 +5,7 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static cs.bilkent.joker.flow.Port.DEFAULT_PORT_INDEX;
+import cs.bilkent.joker.operator.FieldAccessor;
 import cs.bilkent.joker.operator.InitializationContext;
 import cs.bilkent.joker.operator.InvocationContext;
 import cs.bilkent.joker.operator.Operator;
@@ -53,6 +54,8 @@ public class TupleCountBasedWindowReducerOperator implements Operator
 
     private Supplier<Tuple> accumulatorSupplier;
 
+    private FieldAccessor windowFieldAccessor;
+
     @Override
     public SchedulingStrategy init ( final InitializationContext context )
     {
@@ -68,6 +71,7 @@ public class TupleCountBasedWindowReducerOperator implements Operator
             return accumulator;
         };
         this.outputSchema = context.getOutputPortSchema( 0 );
+        this.windowFieldAccessor = new FieldAccessor( outputSchema, WINDOW_FIELD );
 
         return scheduleWhenTuplesAvailableOnDefaultPort( 1 );
     }
@@ -92,7 +96,7 @@ public class TupleCountBasedWindowReducerOperator implements Operator
             if ( ++currentTupleCount == tupleCount )
             {
                 currentTupleCount = 0;
-                accumulator.set( WINDOW_FIELD, windowCount++ );
+                windowFieldAccessor.setInteger( accumulator, windowCount++ );
 
                 output.add( accumulator );
                 accumulator = accumulatorSupplier.get();
@@ -8,6 +8,8 @@ import org.junit.Test;
 
 import static cs.bilkent.joker.operator.InvocationContext.InvocationReason.SHUTDOWN;
 import static cs.bilkent.joker.operator.InvocationContext.InvocationReason.SUCCESS;
+import cs.bilkent.joker.operator.ColumnarTuples;
+import cs.bilkent.joker.operator.ColumnarTuples.RowPredicate;
 import cs.bilkent.joker.operator.OperatorConfig;
 import cs.bilkent.joker.operator.OperatorDef;
 import cs.bilkent.joker.operator.OperatorDefBuilder;
@@ -16,11 +18,18 @@ import cs.bilkent.joker.operator.impl.InitializationContextImpl;
 import cs.bilkent.joker.operator.impl.InvocationContextImpl;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
 import cs.bilkent.joker.operator.scheduling.SchedulingStrategy;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
+import static cs.bilkent.joker.operators.FilterOperator.COLUMNAR_PREDICATE_CONFIG_PARAMETER;
 import static cs.bilkent.joker.operators.FilterOperator.PREDICATE_CONFIG_PARAMETER;
 import static cs.bilkent.joker.operators.MapperOperatorTest.assertScheduleWhenTuplesAvailableStrategy;
 import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertTrue;
 
 
@@ -29,6 +38,10 @@ public class FilterOperatorTest extends AbstractJokerTest
 
     private final Predicate<Tuple> positiveCountsPredicate = tuple -> tuple.getInteger( "count" ) > 0;
 
+    private final RowPredicate positiveCountsRowPredicate = ( tuples, row ) -> tuples.getIntegerColumn( 0 )[ row ] > 0;
+
+    private final PortRuntimeSchema schema = new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "count", int.class ) ) );
+
     private final TuplesImpl input = new TuplesImpl( 1 );
 
     private final TuplesImpl output = new TuplesImpl( 1 );
@@ -120,4 +133,98 @@ public class FilterOperatorTest extends AbstractJokerTest
             assertTrue( inputTuples.contains( outputTuple ) );
         }
     }
+
+    @Test
+    public void shouldFilterWithColumnarPredicate ()
+    {
+        final ColumnarTuples batch = new ColumnarTuples( schema, 2 );
+        batch.add( newTuple( -1 ) );
+        batch.add( newTuple( 1 ) );
+
+        config.set( COLUMNAR_PREDICATE_CONFIG_PARAMETER, positiveCountsRowPredicate );
+        operator.init( initContext );
+
+        assertTrue( operator.isColumnarInvocationEnabled() );
+
+        final ColumnarTuples output = operator.invoke( batch );
+
+        assertThat( output, sameInstance( batch ) );
+        assertThat( output.getSelectedCount(), equalTo( 1 ) );
+        assertThat( output.getSelectedRow( 0 ), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldFilterTuplesWithColumnarPredicate ()
+    {
+        final Tuple tuple = newTuple( 1 );
+        input.add( newTuple( -1 ) );
+        input.add( tuple );
+
+        config.set( COLUMNAR_PREDICATE_CONFIG_PARAMETER, positiveCountsRowPredicate );
+        operator.init( initContext );
+
+        operator.invoke( invocationContext );
+
+        final List<Tuple> outputTuples = output.getTuplesByDefaultPort();
+        assertThat( outputTuples, hasSize( 1 ) );
+        assertThat( outputTuples.get( 0 ), sameInstance( tuple ) );
+    }
+
+    @Test
+    public void shouldFilterTuplesWithNonSchemaFieldsWithColumnarPredicate ()
+    {
+        final Tuple tuple1 = newTuple( -1 );
+        tuple1.set( "extra", "val1" );
+        final Tuple tuple2 = newTuple( 1 );
+        tuple2.set( "extra", "val2" );
+        input.add( tuple1 );
+        input.add( tuple2 );
+
+        config.set( COLUMNAR_PREDICATE_CONFIG_PARAMETER, positiveCountsRowPredicate );
+        operator.init( initContext );
+
+        operator.invoke( invocationContext );
+
+        final List<Tuple> outputTuples = output.getTuplesByDefaultPort();
+        assertThat( outputTuples, hasSize( 1 ) );
+        assertThat( outputTuples.get( 0 ), sameInstance( tuple2 ) );
+        assertThat( outputTuples.get( 0 ).getString( "extra" ), equalTo( "val2" ) );
+    }
+
+    @Test
+    public void shouldFilterTuplesWithMixedSchemasWithColumnarPredicate ()
+    {
+        final PortRuntimeSchema otherSchema = new PortRuntimeSchema( asList( new RuntimeSchemaField( "count", int.class ),
+                                                                             new RuntimeSchemaField( "name", String.class ) ) );
+        final Tuple tuple1 = newTuple( 1 );
+        final Tuple tuple2 = new Tuple( otherSchema );
+        tuple2.setInteger( "count", 2 );
+        final Tuple tuple3 = new Tuple( otherSchema );
+        tuple3.setInteger( "count", -3 );
+        final Tuple tuple4 = newTuple( 4 );
+        input.add( tuple1 );
+        input.add( tuple2 );
+        input.add( tuple3 );
+        input.add( tuple4 );
+
+        config.set( COLUMNAR_PREDICATE_CONFIG_PARAMETER, positiveCountsRowPredicate );
+        operator.init( initContext );
+
+        operator.invoke( invocationContext );
+
+        final List<Tuple> outputTuples = output.getTuplesByDefaultPort();
+        assertThat( outputTuples, hasSize( 3 ) );
+        assertThat( outputTuples.get( 0 ), sameInstance( tuple1 ) );
+        assertThat( outputTuples.get( 1 ), sameInstance( tuple2 ) );
+        assertThat( outputTuples.get( 2 ), sameInstance( tuple4 ) );
+    }
+
+    private Tuple newTuple ( final int count )
+    {
+        final Tuple tuple = new Tuple( schema );
+        tuple.setInteger( "count", count );
+
+        return tuple;
+    }
+
 }
@@ -7,6 +7,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static cs.bilkent.joker.flow.Port.DEFAULT_PORT_INDEX;
+import cs.bilkent.joker.operator.ColumnarTuples;
 import cs.bilkent.joker.operator.InvocationContext.InvocationReason;
 import static cs.bilkent.joker.operator.InvocationContext.InvocationReason.INPUT_PORT_CLOSED;
 import static cs.bilkent.joker.operator.InvocationContext.InvocationReason.SHUTDOWN;
@@ -20,8 +21,14 @@ import cs.bilkent.joker.operator.impl.InvocationContextImpl;
 import cs.bilkent.joker.operator.impl.TuplesImpl;
 import cs.bilkent.joker.operator.scheduling.ScheduleWhenTuplesAvailable;
 import cs.bilkent.joker.operator.scheduling.SchedulingStrategy;
+import cs.bilkent.joker.operator.schema.runtime.OperatorRuntimeSchemaBuilder;
+import cs.bilkent.joker.operator.schema.runtime.PortRuntimeSchema;
+import cs.bilkent.joker.operator.schema.runtime.RuntimeSchemaField;
+import static cs.bilkent.joker.operators.MapperOperator.COLUMNAR_MAPPER_CONFIG_PARAMETER;
 import static cs.bilkent.joker.operators.MapperOperator.MAPPER_CONFIG_PARAMETER;
 import cs.bilkent.joker.test.AbstractJokerTest;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
@@ -187,4 +194,116 @@ public class MapperOperatorTest extends AbstractJokerTest
         assertThat( scheduleWhenTuplesAvailable.getTupleCount( DEFAULT_PORT_INDEX ), equalTo( tupleCount ) );
     }
 
+
+    @Test
+    public void shouldMapWithColumnarMapper () throws InstantiationException, IllegalAccessException
+    {
+        final MapperOperator operator = initColumnarMapper();
+        final ColumnarTuples input = new ColumnarTuples( new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "count",
+                                                                                                                       int.class ) ) ),
+                                                         4 );
+        for ( int i = 0; i < 4; i++ )
+        {
+            final Tuple tuple = new Tuple( input.getSchema() );
+            tuple.setInteger( "count", i );
+            input.add( tuple );
+        }
+        input.filter( ( tuples, row ) -> row % 2 == 1 );
+
+        assertTrue( operator.isColumnarInvocationEnabled() );
+
+        final ColumnarTuples output = operator.invoke( input );
+
+        assertThat( output.getSelectedCount(), equalTo( 2 ) );
+        assertThat( output.getLongColumn( 0 )[ 0 ], equalTo( 2L ) );
+        assertThat( output.getLongColumn( 0 )[ 1 ], equalTo( 6L ) );
+    }
+
+    @Test
+    public void shouldMapTuplesWithColumnarMapper () throws InstantiationException, IllegalAccessException
+    {
+        final MapperOperator operator = initColumnarMapper();
+        final PortRuntimeSchema schema = new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "count", int.class ) ) );
+        final Tuple tuple = new Tuple( schema );
+        tuple.setInteger( "count", 5 );
+        input.add( tuple );
+
+        operator.invoke( invocationContext );
+
+        final List<Tuple> outputTuples = output.getTuplesByDefaultPort();
+        assertThat( outputTuples, hasSize( 1 ) );
+        assertThat( outputTuples.get( 0 ).getLong( "doubleCount" ), equalTo( 10L ) );
+    }
+
+    @Test
+    public void shouldMapTuplesWithNonSchemaFieldsWithColumnarMapper () throws InstantiationException, IllegalAccessException
+    {
+        final MapperOperator operator = initColumnarMapper();
+        final PortRuntimeSchema schema = new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "count", int.class ) ) );
+        for ( int i = 1; i <= 2; i++ )
+        {
+            final Tuple tuple = new Tuple( schema );
+            tuple.setInteger( "count", i );
+            tuple.set( "extra", "val" + i );
+            input.add( tuple );
+        }
+
+        operator.invoke( invocationContext );
+
+        final List<Tuple> outputTuples = output.getTuplesByDefaultPort();
+        assertThat( outputTuples, hasSize( 2 ) );
+        assertThat( outputTuples.get( 0 ).getLong( "doubleCount" ), equalTo( 2L ) );
+        assertThat( outputTuples.get( 1 ).getLong( "doubleCount" ), equalTo( 4L ) );
+    }
+
+    @Test
+    public void shouldMapTuplesWithMixedSchemasWithColumnarMapper () throws InstantiationException, IllegalAccessException
+    {
+        final MapperOperator operator = initColumnarMapper();
+        final PortRuntimeSchema schema1 = new PortRuntimeSchema( singletonList( new RuntimeSchemaField( "count", int.class ) ) );
+        final PortRuntimeSchema schema2 = new PortRuntimeSchema( asList( new RuntimeSchemaField( "count", int.class ),
+                                                                         new RuntimeSchemaField( "name", String.class ) ) );
+        final PortRuntimeSchema[] schemas = { schema1, schema2, schema2, schema1 };
+        for ( int i = 0; i < schemas.length; i++ )
+        {
+            final Tuple tuple = new Tuple( schemas[ i ] );
+            tuple.setInteger( "count", i );
+            input.add( tuple );
+        }
+
+        operator.invoke( invocationContext );
+
+        final List<Tuple> outputTuples = output.getTuplesByDefaultPort();
+        assertThat( outputTuples, hasSize( 4 ) );
+        for ( int i = 0; i < schemas.length; i++ )
+        {
+            assertThat( outputTuples.get( i ).getLong( "doubleCount" ), equalTo( 2L * i ) );
+        }
+    }
+
+    private MapperOperator initColumnarMapper () throws InstantiationException, IllegalAccessException
+    {
+        final BiConsumer<ColumnarTuples, ColumnarTuples> mapper = ( input, output ) ->
+        {
+            final int[] counts = input.getIntegerColumn( 0 );
+            final long[] doubleCounts = output.getLongColumn( 0 );
+            for ( int i = 0; i < input.getSelectedCount(); i++ )
+            {
+                doubleCounts[ i ] = counts[ input.getSelectedRow( i ) ] * 2;
+            }
+        };
+        config.set( COLUMNAR_MAPPER_CONFIG_PARAMETER, mapper );
+
+        final OperatorRuntimeSchemaBuilder schemaBuilder = new OperatorRuntimeSchemaBuilder( 1, 1 );
+        schemaBuilder.addOutputField( 0, "doubleCount", long.class );
+        final OperatorDef operatorDef = OperatorDefBuilder.newInstance( "mapper", MapperOperator.class )
+                                                          .setExtendingSchema( schemaBuilder )
+                                                          .setConfig( config )
+                                                          .build();
+        final MapperOperator operator = (MapperOperator) operatorDef.createOperator();
+        operator.init( new InitializationContextImpl( operatorDef, new boolean[] { true } ) );
+
+        return operator;
+    }
+
 }